@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hikari connection pools shared in the JVM, one pool per key (e.g. the jdbc url and user).
+ *
+ * <p>The users of a pool {@link #retain} it when they are opened and {@link #release} it when they
+ * are closed, the last release closes the pool. A pool only got through {@link #get} and never
+ * retained is kept until the JVM exits. The pool is configured by the first config it is created
+ * with.
+ *
+ * <p>This is the only registry of the project: the jdbc connectors use it through {@code
+ * JdbcConnectionPools} and the catalog store, which bundles this class without the rest of the
+ * module, uses it directly. It has no dependency but HikariCP for that reason.
+ */
+public final class HikariConnectionPools {
+
+    /** key -> pool, guarded by the class. */
+    private static final Map<String, Pool> POOLS = new HashMap<>();
+
+    private HikariConnectionPools() {
+    }
+
+    /** Register a user of the pool of the key, the pool is created from the config if absent. */
+    public static synchronized Pool retain(String key, Supplier<HikariConfig> config) {
+        Pool pool = getOrCreate(key, config);
+        pool.references++;
+        return pool;
+    }
+
+    /**
+     * Unregister a user of the pool of the key.
+     *
+     * @return true if it was the last user and the pool has been closed
+     */
+    public static boolean release(String key) {
+        Pool pool;
+        synchronized (HikariConnectionPools.class) {
+            pool = POOLS.get(key);
+            if (pool == null || pool.references == 0 || --pool.references > 0) {
+                return false;
+            }
+            POOLS.remove(key);
+        }
+        pool.dataSource.close();
+        return true;
+    }
+
+    /** Get the pool of the key without retaining it, the pool is created from the config if absent. */
+    public static synchronized Pool get(String key, Supplier<HikariConfig> config) {
+        return getOrCreate(key, config);
+    }
+
+    /** @return the metrics of the pool of the key, empty if there is no open pool */
+    public static synchronized Optional<PoolMetrics> metrics(String key) {
+        return Optional.ofNullable(POOLS.get(key)).map(Pool::metrics);
+    }
+
+    /** @return the metrics of the open pools */
+    public static synchronized List<PoolMetrics> metrics() {
+        List<PoolMetrics> metrics = new ArrayList<>(POOLS.size());
+        POOLS.values().forEach(pool -> metrics.add(pool.metrics()));
+        return metrics;
+    }
+
+    private static Pool getOrCreate(String key, Supplier<HikariConfig> config) {
+        return POOLS.computeIfAbsent(key, k -> new Pool(k, new HikariDataSource(config.get())));
+    }
+
+    /** A shared pool. */
+    public static final class Pool {
+
+        private final String key;
+
+        private final HikariDataSource dataSource;
+
+        private final LongAdder borrowed = new LongAdder();
+
+        private final LongAdder waitNanos = new LongAdder();
+
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        /** number of users that retained the pool, guarded by the registry. */
+        private int references;
+
+        private Pool(String key, HikariDataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** Get a connection from the pool, the connection must be closed to return it. */
+        public Connection getConnection() throws SQLException {
+            long start = System.nanoTime();
+            Connection connection = dataSource.getConnection();
+            long wait = System.nanoTime() - start;
+            borrowed.increment();
+            waitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            return connection;
+        }
+
+        public boolean isClosed() {
+            return dataSource.isClosed();
+        }
+
+        private PoolMetrics metrics() {
+            HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+            long count = borrowed.sum();
+            return new PoolMetrics(
+                key,
+                references,
+                mxBean.getActiveConnections(),
+                mxBean.getIdleConnections(),
+                mxBean.getTotalConnections(),
+                mxBean.getThreadsAwaitingConnection(),
+                count,
+                count == 0 ? 0 : (double) waitNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1),
+                (double) maxWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /** Usage of a pool. */
+    public static final class PoolMetrics {
+
+        private final String key;
+        private final int references;
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waiting;
+        private final long borrowed;
+        private final double avgWaitMillis;
+        private final double maxWaitMillis;
+
+        private PoolMetrics(
+                            String key,
+                            int references,
+                            int active,
+                            int idle,
+                            int total,
+                            int waiting,
+                            long borrowed,
+                            double avgWaitMillis,
+                            double maxWaitMillis) {
+            this.key = key;
+            this.references = references;
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.borrowed = borrowed;
+            this.avgWaitMillis = avgWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** @return number of users that retained the pool */
+        public int getReferences() {
+            return references;
+        }
+
+        /** @return connections in use */
+        public int getActive() {
+            return active;
+        }
+
+        /** @return connections available in the pool */
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /** @return threads waiting for a connection */
+        public int getWaiting() {
+            return waiting;
+        }
+
+        /** @return connections got from the pool */
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        /** @return average time to get a connection from the pool */
+        public double getAvgWaitMillis() {
+            return avgWaitMillis;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "PoolMetrics{key=%s, references=%d, active=%d, idle=%d, total=%d, waiting=%d, borrowed=%d, avgWaitMillis=%.3f, maxWaitMillis=%.3f}",
+                key, references, active, idle, total, waiting, borrowed, avgWaitMillis, maxWaitMillis);
+        }
+    }
+}
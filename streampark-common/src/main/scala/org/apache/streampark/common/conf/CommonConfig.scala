@@ -17,7 +17,7 @@
 
 package org.apache.streampark.common.conf
 
-import java.lang.{Integer => JavaInt, Long => JavaLong}
+import java.lang.{Boolean => JavaBool, Integer => JavaInt, Long => JavaLong}
 
 object CommonConfig {
 
@@ -72,6 +72,12 @@ object CommonConfig {
     classType = classOf[JavaLong],
     description = "instantiating connection timeout for DockerHttpClient")
 
+  val DOCKER_LAYERED_IMAGE: InternalOption = InternalOption(
+    key = "streampark.docker.layered-image",
+    defaultValue = false,
+    classType = classOf[JavaBool],
+    description = "build flink job image with separate dependency and application layers")
+
   val MAVEN_SETTINGS_PATH: InternalOption = InternalOption(
     key = "streampark.maven.settings",
     defaultValue = null,
@@ -96,6 +102,18 @@ object CommonConfig {
     classType = classOf[String],
     description = "maven repository used for built-in compilation")
 
+  val MAVEN_RESOLVE_THREADS: InternalOption = InternalOption(
+    key = "streampark.maven.resolve.threads",
+    defaultValue = 5,
+    classType = classOf[JavaInt],
+    description = "max number of concurrent artifact downloads per maven resolve request")
+
+  val MAVEN_RESOLVE_CACHE_TTL_SEC: InternalOption = InternalOption(
+    key = "streampark.maven.resolve.cache-ttl-sec",
+    defaultValue = 3600L,
+    classType = classOf[JavaLong],
+    description = "how long the resolved dependency graph of a set of artifacts is kept in memory")
+
   val KERBEROS_TTL: InternalOption = InternalOption(
     key = "security.kerberos.ttl",
     defaultValue = "2h",
@@ -164,6 +164,12 @@ object ConfigKeys {
 
   val KEY_KAFKA_START_FROM_TIMESTAMP = "timestamp"
 
+  /**
+   * use the FLIP-27 KafkaSource instead of the FlinkKafkaConsumer, the state of one can't be restored
+   * by the other
+   */
+  val KEY_KAFKA_NEW_SOURCE = "new-source"
+
   val KEY_ALIAS = "alias"
 
   /** about config jdbc... */
@@ -199,6 +205,21 @@ object ConfigKeys {
   /** about influx */
   val INFLUX_PREFIX = "influx."
 
+  /** points of a batch, written once it's full */
+  val KEY_INFLUX_BATCH_ACTIONS = "batch.actions"
+
+  val DEFAULT_INFLUX_BATCH_ACTIONS = 2000
+
+  /** ms between the writes of a batch that's not full, 0 to write it on checkpoints only */
+  val KEY_INFLUX_FLUSH_INTERVAL = "batch.flush.interval"
+
+  val DEFAULT_INFLUX_FLUSH_INTERVAL = 100L
+
+  /** random ms added to the flush interval, so the parallel sinks don't write at the same time */
+  val KEY_INFLUX_FLUSH_JITTER = "batch.flush.jitter"
+
+  val DEFAULT_INFLUX_FLUSH_JITTER = 0L
+
   val KEY_FLINK_APPLICATION_MAIN_CLASS = "$internal.application.main"
 
   val KEY_FLINK_JM_PROCESS_MEMORY = "jobmanager.memory.process.size"
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.fs
+
+import org.apache.streampark.common.util.{FileUtils, Logger, ThreadUtils}
+
+import java.io.File
+import java.util.concurrent.{ConcurrentHashMap, ExecutionException, Executors, Future}
+
+import scala.collection.mutable
+
+/**
+ * Sync local artifacts into a directory of a [[FsOperator]], only the missing or changed files are
+ * uploaded.
+ *
+ * A directory synced into a target directory of its own keeps a manifest of the SHA-256 digest and
+ * the length of its files, the remote state is read from the manifest and from one listing of the
+ * directory instead of one request per file. A single file, usually synced into a directory shared
+ * by many applications, only keeps the digest of its own upload next to it and only the length of
+ * that file is checked. The local files are read once per sync to compute their digests, see
+ * [[FileUtils.sha256Hex]].
+ *
+ * The syncs of the same target are serialized in the JVM, concurrent builds never interleave the
+ * upload of a file and the write of its digest.
+ */
+object ArtifactSync extends Logger {
+
+  val MANIFEST_FILE = ".streampark-manifest"
+
+  /** suffix of the digest file of a single synced file, e.g. `.app.jar.sha256` */
+  val DIGEST_SUFFIX = ".sha256"
+
+  private[this] val DEFAULT_PARALLELISM = 4
+
+  /** target directory or file -> lock, bounded by the number of artifacts */
+  private[this] val locks = new ConcurrentHashMap[String, AnyRef]()
+
+  /**
+   * @param uploaded
+   *   relative paths of the uploaded files
+   * @param deleted
+   *   relative paths of the deleted files
+   * @param unchanged
+   *   number of files which were already up to date
+   */
+  case class SyncResult(uploaded: Seq[String], deleted: Seq[String], unchanged: Int)
+
+  def sync(fsOperator: FsOperator, src: File, targetDir: String): SyncResult =
+    sync(fsOperator, src, targetDir, deleteExtraneous = false)
+
+  def sync(fsOperator: FsOperator, src: File, targetDir: String, deleteExtraneous: Boolean): SyncResult =
+    sync(fsOperator, src, targetDir, deleteExtraneous, DEFAULT_PARALLELISM)
+
+  /**
+   * Sync a local file or the content of a local directory into the target directory.
+   *
+   * @param fsOperator
+   *   file system of the target directory
+   * @param src
+   *   a local file, synced as `targetDir/fileName`, or a local directory, whose files are synced
+   *   under `targetDir` with their relative paths
+   * @param targetDir
+   *   the target directory, created if it does not exist
+   * @param deleteExtraneous
+   *   delete the files of the target directory which are not in the `src` directory, ignored if
+   *   `src` is a file
+   * @param parallelism
+   *   number of files uploaded at the same time
+   */
+  def sync(
+      fsOperator: FsOperator,
+      src: File,
+      targetDir: String,
+      deleteExtraneous: Boolean,
+      parallelism: Int): SyncResult = {
+    require(src != null && src.exists(), s"[StreamPark] ArtifactSync: $src does not exist.")
+    val target = targetDir.stripSuffix("/")
+    if (src.isFile) {
+      val dst = s"$target/${src.getName}"
+      lockOf(dst).synchronized(syncFile(fsOperator, src, target, dst))
+    } else {
+      lockOf(target).synchronized(syncDir(fsOperator, src, target, deleteExtraneous, parallelism))
+    }
+  }
+
+  private[this] def lockOf(path: String): AnyRef = locks.computeIfAbsent(path, _ => new Object)
+
+  private[this] def syncFile(fsOperator: FsOperator, file: File, target: String, dst: String): SyncResult = {
+    val digestFile = s"$target/.${file.getName}$DIGEST_SUFFIX"
+    val entry = Entry(FileUtils.sha256Hex(file), file.length())
+    // the digest is only trusted if the file is still there with the same length
+    val synced = fsOperator
+      .fileLength(dst)
+      .filter(_ == entry.length)
+      .flatMap(_ => fsOperator.readString(digestFile))
+      .flatMap(content => parse(content).get(file.getName))
+    if (synced.contains(entry)) {
+      SyncResult(Seq.empty, Seq.empty, 1)
+    } else {
+      // forget the digest first, a failed upload never leaves a stale digest behind
+      if (fsOperator.exists(digestFile)) {
+        fsOperator.delete(digestFile)
+      }
+      fsOperator.mkdirsIfNotExists(target)
+      fsOperator.upload(file.getAbsolutePath, dst, delSrc = false, overwrite = true)
+      fsOperator.writeString(digestFile, format(Map(file.getName -> entry)))
+      logInfo(s"synced $file to $dst")
+      SyncResult(Seq(file.getName), Seq.empty, 0)
+    }
+  }
+
+  private[this] def syncDir(
+      fsOperator: FsOperator,
+      src: File,
+      target: String,
+      deleteExtraneous: Boolean,
+      parallelism: Int): SyncResult = {
+    val local = localFiles(src)
+    val digests = local.map { case (path, file) => path -> Entry(FileUtils.sha256Hex(file), file.length()) }
+
+    val remote = fsOperator.listFiles(target) - MANIFEST_FILE
+    val manifest = fsOperator.readString(s"$target/$MANIFEST_FILE").map(parse).getOrElse(Map.empty)
+    // an entry is only trusted if the file is still there with the same length
+    val synced = manifest.filter { case (path, entry) => remote.get(path).contains(entry.length) }
+
+    val changed = digests.filter { case (path, entry) => !synced.get(path).contains(entry) }.keys.toSeq.sorted
+    val extraneous = if (deleteExtraneous) (remote.keySet -- digests.keySet).toSeq.sorted else Seq.empty
+
+    if (changed.nonEmpty || extraneous.nonEmpty || synced.size != manifest.size) {
+      // forget the files about to change first, a failed sync never leaves a stale entry behind
+      val kept = synced -- changed -- extraneous
+      fsOperator.mkdirsIfNotExists(target)
+      fsOperator.writeString(s"$target/$MANIFEST_FILE", format(kept))
+
+      extraneous.foreach(path => fsOperator.delete(s"$target/$path"))
+      changed
+        .flatMap(path => Option(new File(path).getParent))
+        .distinct
+        .foreach(dir => fsOperator.mkdirsIfNotExists(s"$target/$dir"))
+      upload(fsOperator, changed.map(path => local(path) -> s"$target/$path"), parallelism)
+
+      fsOperator.writeString(s"$target/$MANIFEST_FILE", format(kept ++ changed.map(p => p -> digests(p))))
+      logInfo(
+        s"synced $src to $target, uploaded: ${changed.size}, deleted: ${extraneous.size}, " +
+          s"unchanged: ${digests.size - changed.size}")
+    }
+    SyncResult(changed, extraneous, digests.size - changed.size)
+  }
+
+  private[this] def upload(fsOperator: FsOperator, files: Seq[(File, String)], parallelism: Int): Unit = {
+    files match {
+      case Seq() =>
+      case Seq((file, dst)) => fsOperator.upload(file.getAbsolutePath, dst, delSrc = false, overwrite = true)
+      case _ =>
+        val executor = Executors.newFixedThreadPool(
+          math.max(1, math.min(parallelism, files.size)),
+          ThreadUtils.threadFactory("streampark-artifact-sync-"))
+        try {
+          val futures: Seq[Future[_]] = files.map {
+            case (file, dst) =>
+              executor.submit(new Runnable {
+                override def run(): Unit =
+                  fsOperator.upload(file.getAbsolutePath, dst, delSrc = false, overwrite = true)
+              })
+          }
+          futures.foreach(future =>
+            try {
+              future.get()
+            } catch {
+              case e: ExecutionException => throw e.getCause
+            })
+        } finally {
+          executor.shutdownNow()
+        }
+    }
+  }
+
+  /** @return path relative to the `src` directory -> file */
+  private[this] def localFiles(src: File): Map[String, File] = {
+    LfsOperator
+      .listFiles(src.getAbsolutePath)
+      .keys
+      .map(path => path -> new File(src, path))
+      .toMap - MANIFEST_FILE
+  }
+
+  private case class Entry(digest: String, length: Long)
+
+  /** one line per file: digest, length and relative path, separated by tabs */
+  private[this] def format(entries: Map[String, Entry]): String = {
+    val builder = new mutable.StringBuilder
+    entries.toSeq.sortBy(_._1).foreach {
+      case (path, entry) => builder.append(s"${entry.digest}\t${entry.length}\t$path\n")
+    }
+    builder.toString()
+  }
+
+  private[this] def parse(content: String): Map[String, Entry] = {
+    content
+      .split("\n")
+      .map(_.split("\t", 3))
+      .collect {
+        case Array(digest, length, path) if length.nonEmpty && length.forall(_.isDigit) =>
+          path -> Entry(digest, length.toLong)
+      }
+      .toMap
+  }
+
+}
@@ -82,4 +82,21 @@ abstract class FsOperator {
 
   def fileMd5(path: String): String
 
+  /**
+   * List the files under the directory recursively, in one listing.
+   *
+   * @return
+   *   path relative to the directory -> length of the file, empty if the directory does not exist
+   */
+  def listFiles(dir: String): Map[String, Long]
+
+  /** @return the length of the file, None if it does not exist or is a directory */
+  def fileLength(path: String): Option[Long]
+
+  /** @return the content of the file in UTF-8, None if the file does not exist */
+  def readString(path: String): Option[String]
+
+  /** Write the content to the file in UTF-8, the file is overwritten if it exists. */
+  def writeString(path: String, content: String): Unit
+
 }
@@ -64,6 +64,18 @@ object HdfsOperator extends FsOperator with Logger {
     HdfsUtils.fileMd5(toHdfsPath(path))
   }
 
+  override def listFiles(dir: String): Map[String, Long] = HdfsUtils.listFiles(toHdfsPath(dir))
+
+  override def fileLength(path: String): Option[Long] = HdfsUtils.fileLength(toHdfsPath(path))
+
+  override def readString(path: String): Option[String] = {
+    val hdfsPath = toHdfsPath(path)
+    if (HdfsUtils.exists(hdfsPath)) Some(HdfsUtils.read(hdfsPath)) else None
+  }
+
+  override def writeString(path: String, content: String): Unit =
+    HdfsUtils.write(toHdfsPath(path), content)
+
   private def toHdfsPath(path: String): String = {
     path match {
       case x if x.startsWith("hdfs://") => x
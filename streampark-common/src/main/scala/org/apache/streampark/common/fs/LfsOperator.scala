@@ -17,6 +17,7 @@
 
 package org.apache.streampark.common.fs
 
+import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.common.util.Logger
 import org.apache.streampark.common.util.Utils.{isAnyBank, isNotEmpty}
 
@@ -25,6 +26,8 @@ import org.apache.commons.io.{FileUtils, IOUtils}
 import org.apache.commons.lang3.StringUtils
 
 import java.io.{File, FileInputStream}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
 
 /** Local File System (aka LFS) Operator */
 object LfsOperator extends FsOperator with Logger {
@@ -144,6 +147,35 @@ object LfsOperator extends FsOperator with Logger {
     mkdirs(path)
   }
 
+  override def listFiles(dir: String): Map[String, Long] = {
+    val root = if (StringUtils.isBlank(dir)) null else new File(dir)
+    if (root == null || !root.isDirectory) {
+      Map.empty
+    } else {
+      val rootPath = root.toPath
+      Files
+        .walk(rootPath)
+        .autoClose(
+          _.iterator().asScala
+            .filter(Files.isRegularFile(_))
+            .map(p => rootPath.relativize(p).toString.replace(File.separatorChar, '/') -> Files.size(p))
+            .toMap)
+    }
+  }
+
+  override def fileLength(path: String): Option[Long] = {
+    val file = new File(path)
+    if (file.isFile) Some(file.length()) else None
+  }
+
+  override def readString(path: String): Option[String] = {
+    val file = new File(path)
+    if (file.isFile) Some(FileUtils.readFileToString(file, StandardCharsets.UTF_8)) else None
+  }
+
+  override def writeString(path: String, content: String): Unit =
+    FileUtils.writeStringToFile(new File(path), content, StandardCharsets.UTF_8)
+
   /** list file under directory, one level of traversal only */
   def listDir(path: String): Array[File] = {
     if (path == null || path.trim.isEmpty) {
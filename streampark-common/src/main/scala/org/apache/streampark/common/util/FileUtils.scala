@@ -19,15 +19,17 @@ package org.apache.streampark.common.util
 
 import org.apache.streampark.common.util.Implicits._
 
+import org.apache.commons.codec.digest.DigestUtils
+import org.apache.commons.io.IOUtils
+
 import java.io._
 import java.net.URL
 import java.nio.ByteBuffer
 import java.nio.channels.Channels
 import java.nio.charset.StandardCharsets
-import java.nio.file.{Files, Paths}
+import java.nio.file.Files
 import java.util
 import java.util.Scanner
-import java.util.stream.Collectors
 
 import scala.collection.mutable
 
@@ -150,28 +152,29 @@ object FileUtils {
       case (a, b) if a == null || b == null => false
       case (a, b) if !a.exists() || !b.exists() => false
       case (a, b) if a.getAbsolutePath == b.getAbsolutePath => true
+      case (a, b) if a.length() != b.length() => false
       case (a, b) =>
-        val first = new BufferedInputStream(new FileInputStream(a))
-        val second = new BufferedInputStream(new FileInputStream(b))
-        if (first.available() != second.available()) false;
-        else {
-          while (true) {
-            val firRead = first.read()
-            val secRead = second.read()
-            if (firRead != secRead) {
-              Utils.close(first, second)
-              return false
-            }
-            if (firRead == -1) {
-              Utils.close(first, second)
-              return true;
-            }
-          }
-          true
-        }
+        Files
+          .newInputStream(a.toPath)
+          .autoClose(first => Files.newInputStream(b.toPath).autoClose(second => IOUtils.contentEquals(first, second)))
     }
   }
 
+  /**
+   * SHA-256 digest of a local file in lower-case hex, the file is read once as a stream. The digest
+   * isn't cached: a copy over the same path can keep both the length and the last-modified time.
+   *
+   * @param file
+   *   a local file
+   * @return
+   *   hex digest of the file content
+   */
+  @throws[IOException]
+  def sha256Hex(file: File): String = {
+    require(file != null && file.isFile, s"The file $file does not exist or is a directory")
+    Files.newInputStream(file.toPath).autoClose(in => DigestUtils.sha256Hex(in))
+  }
+
   @throws[IOException]
   def readInputStream(in: InputStream, array: Array[Byte]): Unit = {
     in.autoClose(is => {
@@ -259,27 +262,22 @@ object FileUtils {
   }
 
   /**
-   * Roll View Log.
+   * Roll View Log, read `limit` lines of the file from line `offset`, the lines are located by a
+   * sparse line index, see [[LogFileIndex]].
    *
    * @param path
    *   The file path.
    * @param offset
-   *   The offset.
+   *   The first line to read.
    * @param limit
-   *   The limit.
+   *   The max number of lines to read.
    * @return
-   *   The content of the file.
+   *   The lines read, null if the file doesn't exist.
    */
   def tailOf(path: String, offset: Int, limit: Int): String = {
     val file = new File(path)
     if (file.exists && file.isFile) {
-      Files
-        .lines(Paths.get(path))
-        .autoClose(stream =>
-          stream
-            .skip(offset)
-            .limit(limit)
-            .collect(Collectors.joining("\r\n")))
+      LogFileIndex.of(path).readLines(offset, limit)
     } else null
   }
 
@@ -25,6 +25,7 @@ import org.apache.hadoop.ipc.RPC
 
 import java.io.{ByteArrayOutputStream, FileWriter, IOException}
 import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
 
 import scala.util.{Failure, Success, Try}
 
@@ -36,6 +37,50 @@ object HdfsUtils extends Logger {
   def list(src: String): List[FileStatus] =
     HadoopUtils.hdfs.listStatus(getPath(src)).toList
 
+  /**
+   * List the files under the directory recursively, the listing is fetched in batches instead of one
+   * request per directory.
+   *
+   * @return
+   *   path relative to the directory -> length of the file, empty if the directory does not exist
+   */
+  def listFiles(dir: String): Map[String, Long] = {
+    val path = getPath(dir)
+    if (!HadoopUtils.hdfs.exists(path)) {
+      Map.empty
+    } else {
+      val root = HadoopUtils.hdfs.getFileStatus(path).getPath.toUri.getPath.stripSuffix("/")
+      val files = HadoopUtils.hdfs.listFiles(path, true)
+      val result = Map.newBuilder[String, Long]
+      while (files.hasNext) {
+        val status = files.next()
+        result += status.getPath.toUri.getPath.stripPrefix(s"$root/") -> status.getLen
+      }
+      result.result()
+    }
+  }
+
+  /** @return the length of the file, None if it does not exist or is a directory */
+  def fileLength(fileName: String): Option[Long] = {
+    val path = getPath(fileName)
+    if (!HadoopUtils.hdfs.exists(path)) {
+      None
+    } else {
+      Some(HadoopUtils.hdfs.getFileStatus(path)).filter(_.isFile).map(_.getLen)
+    }
+  }
+
+  /** Write the content to the file in UTF-8, the file is overwritten if it exists. */
+  def write(fileName: String, content: String): Unit = {
+    val outputStream = HadoopUtils.hdfs.create(getPath(fileName), true)
+    Try(outputStream.write(content.getBytes(StandardCharsets.UTF_8))) match {
+      case Success(_) => outputStream.close()
+      case Failure(e) =>
+        outputStream.close()
+        throw e
+    }
+  }
+
   def move(src: String, dst: String): Unit =
     HadoopUtils.hdfs.rename(getPath(src), getPath(dst))
 
@@ -32,8 +32,12 @@ import org.apache.hc.core5.http.io.entity.EntityUtils
 import org.apache.hc.core5.http.message.BasicNameValuePair
 import org.apache.hc.core5.net.URIBuilder
 
+import java.io.{FilterInputStream, InputStream}
 import java.nio.charset.{Charset, StandardCharsets}
 import java.security.Principal
+import java.util.function.{Function => JavaFunction}
+
+import scala.util.Try
 
 object HttpClientUtils {
 
@@ -76,6 +80,15 @@ object HttpClientUtils {
     getHttpResult(getHttpGet(url, null, config))
   }
 
+  /**
+   * Like [[httpGetRequest]], but the response body is handed to the reader as a stream instead of
+   * being read into a string, so a large body can be parsed without holding it in memory. The
+   * response is closed once the reader returned, whether it read the whole body or not.
+   */
+  def httpGetRequest[T](url: String, config: RequestConfig, reader: JavaFunction[InputStream, T]): T = {
+    readHttpResult(getHttpGet(url, null, config), getHttpClient, reader)
+  }
+
   def httpGetRequest(
       url: String,
       config: RequestConfig,
@@ -128,30 +141,35 @@ object HttpClientUtils {
   }
 
   def httpAuthGetRequest(url: String, config: RequestConfig): String = {
-    def getHttpAuthClient: CloseableHttpClient = {
-      val credentialsProvider = new BasicCredentialsProvider
-
-      val credentials = new Credentials() {
-        def getPassword: Array[Char] = null
-        def getUserPrincipal: Principal = null
-      }
+    getHttpResult(getHttpGet(url, null, config), getHttpAuthClient)
+  }
 
-      credentialsProvider.setCredentials(new AuthScope(null, -1), credentials)
+  /** The SPNEGO authenticated [[httpGetRequest]] that streams the response body to the reader. */
+  def httpAuthGetRequest[T](url: String, config: RequestConfig, reader: JavaFunction[InputStream, T]): T = {
+    readHttpResult(getHttpGet(url, null, config), getHttpAuthClient, reader)
+  }
 
-      val authSchemeRegistry = RegistryBuilder
-        .create[AuthSchemeFactory]
-        .register(StandardAuthScheme.SPNEGO, SPNegoSchemeFactory.DEFAULT)
-        .build
+  private[this] def getHttpAuthClient: CloseableHttpClient = {
+    val credentialsProvider = new BasicCredentialsProvider
 
-      HttpClientBuilder
-        .create()
-        .setDefaultAuthSchemeRegistry(authSchemeRegistry)
-        .setDefaultCredentialsProvider(credentialsProvider)
-        .setConnectionManager(connectionManager)
-        .build()
+    val credentials = new Credentials() {
+      def getPassword: Array[Char] = null
+      def getUserPrincipal: Principal = null
     }
 
-    getHttpResult(getHttpGet(url, null, config), getHttpAuthClient)
+    credentialsProvider.setCredentials(new AuthScope(null, -1), credentials)
+
+    val authSchemeRegistry = RegistryBuilder
+      .create[AuthSchemeFactory]
+      .register(StandardAuthScheme.SPNEGO, SPNegoSchemeFactory.DEFAULT)
+      .build
+
+    HttpClientBuilder
+      .create()
+      .setDefaultAuthSchemeRegistry(authSchemeRegistry)
+      .setDefaultCredentialsProvider(credentialsProvider)
+      .setConnectionManager(connectionManager)
+      .build()
   }
 
   /** process http request */
@@ -167,4 +185,55 @@ object HttpClientUtils {
     } else null
   }
 
+  /**
+   * process http request, the response body is read by the reader as a stream. Closing the response
+   * reads the rest of the body to reuse the connection, so when the reader stops before the end of
+   * the body the request is cancelled first: the connection is dropped instead of being drained.
+   */
+  private[this] def readHttpResult[T](
+      request: HttpUriRequestBase,
+      httpClient: CloseableHttpClient,
+      reader: JavaFunction[InputStream, T]): T = {
+    val response = httpClient.execute(request)
+    var drained = false
+    try {
+      val entity = response.getEntity
+      if (entity == null) {
+        drained = true
+        null.asInstanceOf[T]
+      } else {
+        val content = new EofSensingInputStream(entity.getContent)
+        val result = reader.apply(content)
+        drained = content.eof
+        result
+      }
+    } finally {
+      if (drained) {
+        response.close()
+      } else {
+        request.cancel()
+        // the connection is already closed, reading the rest of the body fails
+        Try(response.close())
+      }
+    }
+  }
+
+  /** Tells whether the end of the stream was reached. */
+  private[this] class EofSensingInputStream(in: InputStream) extends FilterInputStream(in) {
+
+    @volatile var eof = false
+
+    override def read(): Int = {
+      val b = super.read()
+      if (b == -1) eof = true
+      b
+    }
+
+    override def read(b: Array[Byte], off: Int, len: Int): Int = {
+      val n = super.read(b, off, len)
+      if (n == -1) eof = true
+      n
+    }
+  }
+
 }
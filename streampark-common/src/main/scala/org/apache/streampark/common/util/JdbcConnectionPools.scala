@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.common.util.HikariConnectionPools.PoolMetrics
+import org.apache.streampark.common.util.Implicits._
+
+import com.zaxxer.hikari.HikariConfig
+
+import java.sql.Connection
+import java.util.Properties
+import java.util.function.Supplier
+
+import scala.util.Try
+
+/**
+ * The jdbc connection pools of the connectors, one pool per jdbc url and user, kept in the
+ * [[HikariConnectionPools]] registry of the JVM.
+ *
+ * The users of a pool (e.g. the sink and source functions of a TaskManager) `retain` it when they
+ * are opened and `release` it when they are closed, the pool is closed when the last user released
+ * it, so a long-running TaskManager doesn't keep the connections of finished jobs. A pool that is
+ * only used through [[getConnection]] and never retained is kept until the JVM exits.
+ *
+ * The pool is configured by the first properties it is created with, the hikari settings of later
+ * users of the same url and user are ignored.
+ */
+object JdbcConnectionPools extends Logger {
+
+  case class PoolKey(jdbcUrl: String, username: String) {
+    override def toString: String = s"$username@$jdbcUrl"
+  }
+
+  def poolKey(prop: Properties): PoolKey = {
+    val jdbcUrl = prop.getProperty(KEY_JDBC_URL)
+    require(jdbcUrl != null, s"[StreamPark] jdbc property $KEY_JDBC_URL must not be null")
+    PoolKey(jdbcUrl.trim, Option(prop.getProperty(KEY_JDBC_USER)).map(_.trim).orNull)
+  }
+
+  /** Register a user of the pool, the pool is kept open until every user released it. */
+  def retain(prop: Properties): PoolKey = {
+    val key = poolKey(prop)
+    HikariConnectionPools.retain(key.toString, config(key, prop))
+    key
+  }
+
+  /** Unregister a user of the pool, closes the pool if it was the last one. */
+  def release(prop: Properties): Unit = {
+    val key = poolKey(prop)
+    if (HikariConnectionPools.release(key.toString)) {
+      logInfo(s"Close jdbc connection pool of $key, no more users.")
+    }
+  }
+
+  /** Get a connection from the pool of the url and user, the connection must be closed to return it. */
+  def getConnection(prop: Properties): Connection = {
+    val key = poolKey(prop)
+    HikariConnectionPools.get(key.toString, config(key, prop)).getConnection
+  }
+
+  /** The metrics of the pool of the url and user, None if the pool isn't open. */
+  def metrics(key: PoolKey): Option[PoolMetrics] = {
+    val metrics = HikariConnectionPools.metrics(key.toString)
+    if (metrics.isPresent) Some(metrics.get()) else None
+  }
+
+  def metrics(): Seq[PoolMetrics] = HikariConnectionPools.metrics().asScala.toList
+
+  private[this] def config(key: PoolKey, prop: Properties): Supplier[HikariConfig] = {
+    new Supplier[HikariConfig] {
+      override def get(): HikariConfig = {
+        logInfo(s"Create jdbc connection pool of $key.")
+        hikariConfig(prop)
+      }
+    }
+  }
+
+  private[this] def hikariConfig(prop: Properties): HikariConfig = {
+    val jdbcConfig = new HikariConfig()
+    prop
+      .filter(x => x._1 != KEY_ALIAS && x._1 != KEY_SEMANTIC)
+      .foreach(x => {
+        Try(Option(jdbcConfig.getClass.getDeclaredField(x._1)))
+          .getOrElse(None) match {
+          case Some(field) =>
+            field.setAccessible(true)
+            field.getType.getSimpleName match {
+              case "String" =>
+                field.set(jdbcConfig, x._2.asInstanceOf[Object])
+              case "int" =>
+                field.set(jdbcConfig, x._2.toInt.asInstanceOf[Object])
+              case "long" =>
+                field
+                  .set(jdbcConfig, x._2.toLong.asInstanceOf[Object])
+              case "boolean" =>
+                field.set(jdbcConfig, x._2.toBoolean.asInstanceOf[Object])
+              case _ =>
+            }
+          case None =>
+            val setMethod =
+              s"set${x._1.substring(0, 1).toUpperCase}${x._1.substring(1)}"
+            val method = Try(
+              jdbcConfig.getClass.getMethods
+                .filter(_.getName == setMethod)
+                .filter(_.getParameterCount == 1)
+                .head).getOrElse(null)
+            method match {
+              case m if m != null =>
+                m.setAccessible(true)
+                m.getParameterTypes.head.getSimpleName match {
+                  case "String" =>
+                    m.invoke(jdbcConfig, Seq(x._2.asInstanceOf[Object]): _*)
+                  case "int" =>
+                    m.invoke(jdbcConfig, Seq(x._2.toInt.asInstanceOf[Object]): _*)
+                  case "long" =>
+                    m.invoke(jdbcConfig, Seq(x._2.toLong.asInstanceOf[Object]): _*)
+                  case "boolean" =>
+                    m.invoke(jdbcConfig, Seq(x._2.toBoolean.asInstanceOf[Object]): _*)
+                  case _ =>
+                }
+              case null =>
+                throw new IllegalArgumentException(
+                  s"jdbcConfig error,property:${x._1} invalid,please see more properties jdbcConfig https://github.com/brettwooldridge/HikariCP")
+            }
+        }
+      })
+    jdbcConfig
+  }
+
+}
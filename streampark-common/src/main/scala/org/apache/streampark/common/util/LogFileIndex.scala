@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.util.Implicits._
+
+import java.io._
+import java.nio.ByteBuffer
+import java.nio.channels.{Channels, FileChannel}
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path, Paths, StandardCopyOption, StandardOpenOption}
+import java.util.zip.CRC32
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.Try
+
+/**
+ * Sparse line-offset index of a text log file, used to read an arbitrary window of lines without
+ * scanning the file from the beginning.
+ *
+ * The byte offset of every `stride`-th line is recorded. The index only scans the bytes appended
+ * since the last read, and is persisted next to the log as `<log>.idx` so that it survives a
+ * restart. A log that has been truncated or rewritten (detected by its length and a checksum of
+ * its head) is indexed again from scratch.
+ *
+ * Lines are separated by `\n`, a trailing `\r` is dropped. The last line without a line separator
+ * is readable but not indexed until it is completed.
+ */
+class LogFileIndex private (val logPath: Path, val stride: Int) extends Logger {
+
+  import LogFileIndex._
+
+  private[this] val indexPath = Paths.get(s"$logPath$INDEX_SUFFIX")
+
+  /** offsets(i) is the byte offset of line `i * stride` */
+  private[this] val offsets = ArrayBuffer[Long](0L)
+
+  /** number of bytes of the complete lines that have been indexed */
+  private[this] var indexedBytes = 0L
+
+  /** number of complete lines that have been indexed */
+  private[this] var lineCount = 0L
+
+  /** checksum of the first `fingerprintLength` bytes of the log */
+  private[this] var fingerprint = 0L
+
+  private[this] var fingerprintLength = 0
+
+  private[this] var persistedBytes = 0L
+
+  load()
+
+  /** total number of lines of the log, including the last incomplete line. */
+  def lines(): Long = this.synchronized {
+    refresh().autoClose(channel => totalLines(channel))
+  }
+
+  /**
+   * Read at most `limit` lines from line `offset` (0-based), joined by `\r\n`.
+   *
+   * @return
+   *   empty string if offset is beyond the last line
+   */
+  def readLines(offset: Long, limit: Int): String = this.synchronized {
+    require(offset >= 0, "offset must not be negative")
+    require(limit >= 0, "limit must not be negative")
+    refresh().autoClose(channel => read(channel, offset, limit))
+  }
+
+  /** Read the last `limit` lines of the log, joined by `\r\n`. */
+  def tail(limit: Int): String = this.synchronized {
+    require(limit >= 0, "limit must not be negative")
+    refresh().autoClose(channel => read(channel, Math.max(totalLines(channel) - limit, 0), limit))
+  }
+
+  /** Open the log and bring the index up to date with it. */
+  private[this] def refresh(): FileChannel = {
+    val channel = FileChannel.open(logPath, StandardOpenOption.READ)
+    try {
+      val size = channel.size()
+      if (size < indexedBytes || !matchFingerprint(channel)) {
+        logInfo(s"$logPath has been truncated or rewritten, rebuild its line index.")
+        reset()
+      }
+      if (size > indexedBytes) {
+        scan(channel, size)
+      }
+      if (indexedBytes - persistedBytes >= PERSIST_THRESHOLD_BYTES) {
+        persist()
+      }
+      channel
+    } catch {
+      case e: Throwable =>
+        Utils.close(channel)
+        throw e
+    }
+  }
+
+  private[this] def totalLines(channel: FileChannel): Long = {
+    if (channel.size() > indexedBytes) lineCount + 1 else lineCount
+  }
+
+  /** count the complete lines in [indexedBytes, size) and record the checkpoints. */
+  private[this] def scan(channel: FileChannel, size: Long): Unit = {
+    val buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE)
+    var position = indexedBytes
+    while (position < size) {
+      buffer.clear()
+      val read = channel.read(buffer, position)
+      if (read <= 0) {
+        position = size
+      } else {
+        var i = 0
+        while (i < read) {
+          if (buffer.get(i) == '\n') {
+            lineCount += 1
+            indexedBytes = position + i + 1
+            if (lineCount % stride == 0) {
+              offsets += indexedBytes
+            }
+          }
+          i += 1
+        }
+        position += read
+      }
+    }
+    if (fingerprintLength < FINGERPRINT_LENGTH && indexedBytes > fingerprintLength) {
+      fingerprintLength = Math.min(indexedBytes, FINGERPRINT_LENGTH).toInt
+      fingerprint = checksum(channel, fingerprintLength)
+    }
+  }
+
+  private[this] def read(channel: FileChannel, offset: Long, limit: Int): String = {
+    val total = totalLines(channel)
+    if (limit == 0 || offset >= total) {
+      return ""
+    }
+    val checkpoint = (offset / stride).toInt
+    val reader = new BufferedReader(
+      new InputStreamReader(
+        Channels.newInputStream(channel.position(offsets(checkpoint))),
+        StandardCharsets.UTF_8),
+      READ_BUFFER_SIZE)
+    var skip = offset - checkpoint.toLong * stride
+    while (skip > 0) {
+      readLine(reader)
+      skip -= 1
+    }
+    val end = Math.min(offset + limit, total)
+    val builder = new StringBuilder
+    var line = offset
+    while (line < end) {
+      if (line > offset) builder.append("\r\n")
+      builder.append(readLine(reader))
+      line += 1
+    }
+    builder.toString()
+  }
+
+  /** read a line terminated by `\n`, unlike BufferedReader.readLine a single `\r` is kept. */
+  private[this] def readLine(reader: BufferedReader): String = {
+    val builder = new StringBuilder
+    var c = reader.read()
+    while (c != -1 && c != '\n') {
+      builder.append(c.toChar)
+      c = reader.read()
+    }
+    if (builder.nonEmpty && builder.last == '\r') {
+      builder.setLength(builder.length - 1)
+    }
+    builder.toString()
+  }
+
+  private[this] def matchFingerprint(channel: FileChannel): Boolean = {
+    fingerprintLength == 0 || checksum(channel, fingerprintLength) == fingerprint
+  }
+
+  private[this] def checksum(channel: FileChannel, length: Int): Long = {
+    val buffer = ByteBuffer.allocate(length)
+    while (buffer.hasRemaining && channel.read(buffer, buffer.position()) > 0) {}
+    buffer.flip()
+    val crc = new CRC32
+    crc.update(buffer)
+    crc.getValue
+  }
+
+  private[this] def reset(): Unit = {
+    offsets.clear()
+    offsets += 0L
+    indexedBytes = 0L
+    lineCount = 0L
+    fingerprint = 0L
+    fingerprintLength = 0
+    persistedBytes = 0L
+  }
+
+  /** load the persisted index, the index is rebuilt if it's missing or unreadable. */
+  private[this] def load(): Unit = {
+    if (Files.isRegularFile(indexPath)) {
+      Try {
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath))).autoClose(
+          in => {
+            require(in.readInt() == MAGIC && in.readInt() == VERSION, "unknown index format")
+            require(in.readInt() == stride, "index stride changed")
+            val bytes = in.readLong()
+            val count = in.readLong()
+            val fpLength = in.readInt()
+            val fp = in.readLong()
+            val size = in.readInt()
+            val points = (0 until size).map(_ => in.readLong())
+            require(points.size == count / stride + 1, "corrupted index")
+            offsets.clear()
+            offsets ++= points
+            indexedBytes = bytes
+            lineCount = count
+            fingerprintLength = fpLength
+            fingerprint = fp
+            persistedBytes = bytes
+          })
+      }.failed.foreach(
+        e => {
+          logWarn(s"Failed to load line index $indexPath, rebuild it: ${e.getMessage}")
+          reset()
+        })
+    }
+  }
+
+  private[this] def persist(): Unit = {
+    val temp = Paths.get(s"$indexPath.tmp")
+    Try {
+      new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))).autoClose(
+        out => {
+          out.writeInt(MAGIC)
+          out.writeInt(VERSION)
+          out.writeInt(stride)
+          out.writeLong(indexedBytes)
+          out.writeLong(lineCount)
+          out.writeInt(fingerprintLength)
+          out.writeLong(fingerprint)
+          out.writeInt(offsets.size)
+          offsets.foreach(out.writeLong)
+        })
+      Try(Files.move(temp, indexPath, StandardCopyOption.ATOMIC_MOVE))
+        .getOrElse(Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING))
+      persistedBytes = indexedBytes
+    }.failed.foreach(
+      e => {
+        // a read-only log directory is fine, the index will be kept in memory only.
+        logDebug(s"Failed to persist line index $indexPath: ${e.getMessage}")
+        Try(Files.deleteIfExists(temp))
+        persistedBytes = indexedBytes
+      })
+  }
+
+}
+
+object LogFileIndex {
+
+  val INDEX_SUFFIX = ".idx"
+
+  val DEFAULT_STRIDE = 1000
+
+  private val MAGIC = 0x53504C49
+
+  private val VERSION = 1
+
+  private val FINGERPRINT_LENGTH = 4096L
+
+  /** the index of a log smaller than this is never persisted, rescanning it is cheap. */
+  private val PERSIST_THRESHOLD_BYTES = 1024 * 1024L
+
+  private val SCAN_BUFFER_SIZE = 64 * 1024
+
+  private val READ_BUFFER_SIZE = 64 * 1024
+
+  private val MAX_CACHED_INDEXES = 256
+
+  private[this] val indexes =
+    new JavaLinkedMap[String, LogFileIndex](16, 0.75f, true) {
+      override def removeEldestEntry(eldest: java.util.Map.Entry[String, LogFileIndex]): Boolean =
+        size() > MAX_CACHED_INDEXES
+    }
+
+  /** get the line index of the log file, indexes of recently read logs are kept in memory. */
+  def of(path: String): LogFileIndex = {
+    val logPath = Paths.get(path).toAbsolutePath.normalize()
+    indexes.synchronized {
+      indexes.computeIfAbsent(logPath.toString, _ => new LogFileIndex(logPath, DEFAULT_STRIDE))
+    }
+  }
+
+  /** drop the index of the log file, should be called before the log is rewritten. */
+  def invalidate(path: String): Unit = {
+    val logPath = Paths.get(path).toAbsolutePath.normalize()
+    indexes.synchronized {
+      indexes.remove(logPath.toString)
+    }
+    Files.deleteIfExists(Paths.get(s"$logPath$INDEX_SUFFIX"))
+  }
+
+  private[util] def withStride(path: String, stride: Int): LogFileIndex = {
+    require(stride > 0, "stride must be positive")
+    new LogFileIndex(Paths.get(path).toAbsolutePath.normalize(), stride)
+  }
+
+}
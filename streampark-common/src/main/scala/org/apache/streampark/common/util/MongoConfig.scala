@@ -53,6 +53,16 @@ object MongoConfig {
   val local_threshold = "local-threshold"
   val authentication_database = "authentication-database"
 
+  /** backoff of the query polling source while the query returns nothing, in milliseconds */
+  val poll_min_backoff = "poll.min-backoff"
+  val poll_max_backoff = "poll.max-backoff"
+
+  /** how long the change stream source waits for a change on the server, in milliseconds */
+  val change_stream_max_await_time = "change-stream.max-await-time"
+
+  /** "default" or "updateLookup", the full document of the update changes */
+  val change_stream_full_document = "change-stream.full-document"
+
   def getProperty(properties: Properties, k: String)(implicit alias: String = ""): String = {
     val prop = getProperties(properties)
     prop.getProperty(k)
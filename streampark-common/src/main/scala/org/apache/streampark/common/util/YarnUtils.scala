@@ -31,11 +31,12 @@ import org.apache.hadoop.yarn.util.RMHAUtils
 import org.apache.hc.client5.http.config.RequestConfig
 import org.apache.hc.core5.util.Timeout
 
-import java.io.IOException
+import java.io.{InputStream, IOException}
 import java.net.InetAddress
 import java.security.PrivilegedExceptionAction
 import java.util
 import java.util.concurrent.TimeUnit
+import java.util.function.{Function => JavaFunction}
 
 import scala.collection.mutable
 import scala.collection.mutable.ArrayBuffer
@@ -252,10 +253,44 @@ object YarnUtils extends Logger {
    */
   @throws[IOException]
   def restRequest(url: String, timeout: Timeout): String = {
-    if (url == null) return null
+    doRestRequest[String](
+      url,
+      timeout,
+      (reqUrl, config, auth) =>
+        if (auth) HttpClientUtils.httpAuthGetRequest(reqUrl, config)
+        else HttpClientUtils.httpGetRequest(reqUrl, config))
+  }
+
+  /**
+   * Like [[restRequest]], but the response body is handed to the reader as a stream, so large
+   * responses (e.g. the jobs of a long-running spark application) can be parsed, or only partly
+   * read, without buffering them.
+   *
+   * @param url
+   *   url
+   * @param reader
+   *   reads the response body, may be called once per retried request
+   * @return
+   *   the result of the reader
+   */
+  @throws[IOException]
+  def restRequest[T](url: String, timeout: Timeout, reader: JavaFunction[InputStream, T]): T = {
+    doRestRequest[T](
+      url,
+      timeout,
+      (reqUrl, config, auth) =>
+        if (auth) HttpClientUtils.httpAuthGetRequest(reqUrl, config, reader)
+        else HttpClientUtils.httpGetRequest(reqUrl, config, reader))
+  }
+
+  private[this] def doRestRequest[T](
+      url: String,
+      timeout: Timeout,
+      get: (String, RequestConfig, Boolean) => T): T = {
+    if (url == null) return null.asInstanceOf[T]
     url match {
       case u if u.matches("^http(|s)://.*") =>
-        Try(request(url, timeout)) match {
+        Try(request(url, timeout, get)) match {
           case Success(v) => v
           case Failure(e) =>
             if (hasYarnHttpKerberosAuth) {
@@ -265,10 +300,10 @@ object YarnUtils extends Logger {
             }
         }
       case _ =>
-        Try(request(s"${getRMWebAppURL()}/$url", timeout)) match {
+        Try(request(s"${getRMWebAppURL()}/$url", timeout, get)) match {
           case Success(v) => v
           case Failure(_) =>
-            Utils.retry[String](5)(request(s"${getRMWebAppURL(true)}/$url", timeout)) match {
+            Utils.retry[T](5)(request(s"${getRMWebAppURL(true)}/$url", timeout, get)) match {
               case Success(v) => v
               case Failure(e) =>
                 throw new IOException(s"yarnUtils restRequest retry 5 times all failed. detail: $e")
@@ -277,21 +312,27 @@ object YarnUtils extends Logger {
     }
   }
 
-  private[this] def request(reqUrl: String, timeout: Timeout): String = {
+  private[this] def request[T](
+      reqUrl: String,
+      timeout: Timeout,
+      get: (String, RequestConfig, Boolean) => T): T = {
     val config = RequestConfig.custom.setConnectTimeout(timeout).build
     if (hasYarnHttpKerberosAuth) {
       HadoopUtils
         .getUgi()
-        .doAs(new PrivilegedExceptionAction[String] {
-          override def run(): String = {
-            HttpClientUtils.httpAuthGetRequest(reqUrl, config)
+        .doAs(new PrivilegedExceptionAction[T] {
+          override def run(): T = {
+            get(reqUrl, config, true)
           }
         })
     } else {
       val url =
         if (!hasYarnHttpSimpleAuth) reqUrl
-        else s"$reqUrl?user.name=${HadoopConfigUtils.hadoopUserName}"
-      HttpClientUtils.httpGetRequest(url, config)
+        else {
+          val separator = if (reqUrl.contains("?")) "&" else "?"
+          s"$reqUrl${separator}user.name=${HadoopConfigUtils.hadoopUserName}"
+        }
+      get(url, config, false)
     }
   }
 
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.fs
+
+import org.apache.streampark.common.fs.LfsOperatorTest.withTempDir
+
+import org.apache.commons.io.FileUtils
+import org.junit.jupiter.api.Assertions._
+import org.junit.jupiter.api.Test
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{Callable, Executors}
+
+class ArtifactSyncTest {
+
+  @Test
+  def testSyncOnlyChangedFiles(): Unit = withTempDir {
+    outputDir =>
+      val src = s"$outputDir/src"
+      val target = s"$outputDir/target"
+      val a = genRandomFile(src, "a.jar")
+      genRandomFile(s"$src/lib", "b.jar")
+      genRandomFile(s"$src/lib", "c.jar")
+
+      val first = ArtifactSync.sync(LfsOperator, new File(src), target)
+      assertEquals(Seq("a.jar", "lib/b.jar", "lib/c.jar"), first.uploaded)
+      assertEquals(0, first.unchanged)
+      assertTrue(LfsOperator.exists(s"$target/${ArtifactSync.MANIFEST_FILE}"))
+      assertTrue(org.apache.streampark.common.util.FileUtils.equals(a, new File(s"$target/a.jar")))
+
+      // nothing changed
+      val second = ArtifactSync.sync(LfsOperator, new File(src), target)
+      assertTrue(second.uploaded.isEmpty)
+      assertEquals(3, second.unchanged)
+
+      // a changed file and a file changed or removed behind the manifest are uploaded again
+      genRandomFile(s"$src/lib", "b.jar", size = 512)
+      FileUtils.writeStringToFile(new File(s"$target/lib/c.jar"), "broken", StandardCharsets.UTF_8)
+      LfsOperator.delete(s"$target/a.jar")
+      val third = ArtifactSync.sync(LfsOperator, new File(src), target)
+      assertEquals(Seq("a.jar", "lib/b.jar", "lib/c.jar"), third.uploaded)
+      assertEquals(0, third.unchanged)
+      LfsOperator.listFiles(src).keys.foreach(path =>
+        assertTrue(org.apache.streampark.common.util.FileUtils
+          .equals(new File(s"$src/$path"), new File(s"$target/$path"))))
+  }
+
+  @Test
+  def testSyncSingleFile(): Unit = withTempDir {
+    outputDir =>
+      val target = s"$outputDir/uploads"
+      val other = genRandomFile(target, "other.jar")
+      val jar = genRandomFile(s"$outputDir/tmp", "app.jar")
+
+      assertEquals(Seq("app.jar"), ArtifactSync.sync(LfsOperator, jar, target).uploaded)
+      assertEquals(1, ArtifactSync.sync(LfsOperator, jar, target).unchanged)
+      // the other files of the directory are kept
+      assertTrue(other.exists())
+  }
+
+  @Test
+  def testSyncSingleFileOfTheSameLength(): Unit = withTempDir {
+    outputDir =>
+      val target = s"$outputDir/uploads"
+      val first = genRandomFile(s"$outputDir/first", "app.jar")
+      val second = genRandomFile(s"$outputDir/second", "app.jar")
+
+      assertEquals(Seq("app.jar"), ArtifactSync.sync(LfsOperator, first, target).uploaded)
+      assertEquals(Seq("app.jar"), ArtifactSync.sync(LfsOperator, second, target).uploaded)
+      assertTrue(org.apache.streampark.common.util.FileUtils.equals(second, new File(s"$target/app.jar")))
+      assertEquals(Seq("app.jar"), ArtifactSync.sync(LfsOperator, first, target).uploaded)
+      assertTrue(org.apache.streampark.common.util.FileUtils.equals(first, new File(s"$target/app.jar")))
+      // a single file doesn't touch the manifest of the directory
+      assertFalse(LfsOperator.exists(s"$target/${ArtifactSync.MANIFEST_FILE}"))
+  }
+
+  @Test
+  def testConcurrentSingleFileSyncs(): Unit = withTempDir {
+    outputDir =>
+      val target = s"$outputDir/uploads"
+      val jars = (1 to 8).map(i => genRandomFile(s"$outputDir/app-$i", s"app-$i.jar"))
+      val executor = Executors.newFixedThreadPool(jars.size)
+      try {
+        jars
+          .map(jar =>
+            executor.submit(new Callable[ArtifactSync.SyncResult] {
+              override def call(): ArtifactSync.SyncResult = ArtifactSync.sync(LfsOperator, jar, target)
+            }))
+          .foreach(future => assertEquals(1, future.get().uploaded.size))
+      } finally {
+        executor.shutdownNow()
+      }
+      // no build lost the digest of another one
+      jars.foreach(jar => assertEquals(1, ArtifactSync.sync(LfsOperator, jar, target).unchanged))
+  }
+
+  @Test
+  def testDeleteExtraneous(): Unit = withTempDir {
+    outputDir =>
+      val src = s"$outputDir/src"
+      val target = s"$outputDir/target"
+      genRandomFile(src, "a.jar")
+      genRandomFile(target, "stale.jar")
+
+      val result = ArtifactSync.sync(LfsOperator, new File(src), target, deleteExtraneous = true)
+      assertEquals(Seq("a.jar"), result.uploaded)
+      assertEquals(Seq("stale.jar"), result.deleted)
+      assertEquals(Set("a.jar", ArtifactSync.MANIFEST_FILE), LfsOperator.listFiles(target).keySet)
+  }
+
+}
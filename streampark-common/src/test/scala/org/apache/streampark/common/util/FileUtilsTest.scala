@@ -21,6 +21,8 @@ import org.mockito.MockitoSugar._
 import org.scalatest.funsuite.AnyFunSuite
 
 import java.io._
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
 
 class FileUtilsTest extends AnyFunSuite {
 
@@ -156,4 +158,20 @@ class FileUtilsTest extends AnyFunSuite {
     val result = FileUtils.tailOf("/nonexistent_file.txt", 0, 5)
     assert(result == null)
   }
+
+  test("equals and sha256Hex should see a rewrite keeping the length and the last-modified time") {
+    val dir = FileUtils.createTempDir()
+    val first = new File(dir, "first.jar")
+    val second = new File(dir, "second.jar")
+    Files.write(first.toPath, "content-1".getBytes(StandardCharsets.UTF_8))
+    Files.write(second.toPath, "content-1".getBytes(StandardCharsets.UTF_8))
+    assert(FileUtils.equals(first, second))
+    assert(FileUtils.sha256Hex(first) == FileUtils.sha256Hex(second))
+
+    val lastModified = second.lastModified()
+    Files.write(second.toPath, "content-2".getBytes(StandardCharsets.UTF_8))
+    second.setLastModified(lastModified)
+    assert(!FileUtils.equals(first, second))
+    assert(FileUtils.sha256Hex(first) != FileUtils.sha256Hex(second))
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.apache.hc.client5.http.config.RequestConfig
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.{InputStream, IOException}
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{CountDownLatch, TimeUnit}
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.{Function => JavaFunction}
+
+class HttpClientUtilsTest extends AnyFunSuite {
+
+  /** 64 MB in chunks of 64 KB, far more than the socket buffers can hold */
+  private val chunk = Array.fill[Byte](64 * 1024)('x'.toByte)
+  private val chunks = 1024
+
+  private def withServer(test: (String, AtomicLong, CountDownLatch) => Unit): Unit = {
+    val written = new AtomicLong()
+    val done = new CountDownLatch(1)
+    val server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext(
+      "/jobs",
+      (exchange: HttpExchange) => {
+        try {
+          // chunked body
+          exchange.sendResponseHeaders(200, 0)
+          val out = exchange.getResponseBody
+          (1 to chunks).foreach {
+            _ =>
+              out.write(chunk)
+              written.addAndGet(chunk.length)
+          }
+          out.close()
+        } catch {
+          case _: IOException => // the client went away
+        } finally {
+          exchange.close()
+          done.countDown()
+        }
+      }
+    )
+    server.start()
+    try test(s"http://localhost:${server.getAddress.getPort}/jobs", written, done)
+    finally server.stop(0)
+  }
+
+  private def reader[T](read: InputStream => T): JavaFunction[InputStream, T] =
+    new JavaFunction[InputStream, T] {
+      override def apply(in: InputStream): T = read(in)
+    }
+
+  test("httpGetRequest should not read the rest of the body when the reader stops early") {
+    withServer {
+      (url, written, done) =>
+        val head = HttpClientUtils.httpGetRequest(
+          url,
+          RequestConfig.custom().build(),
+          reader(in => {
+            val bytes = new Array[Byte](16)
+            in.read(bytes)
+            new String(bytes, StandardCharsets.UTF_8)
+          }))
+        assert(head == "x" * 16)
+        // the server failed to write the body once the connection was dropped
+        assert(done.await(30, TimeUnit.SECONDS))
+        assert(written.get() < chunk.length.toLong * chunks)
+    }
+  }
+
+  test("httpGetRequest should hand the whole body to a reader reading it to the end") {
+    withServer {
+      (url, written, done) =>
+        val length = HttpClientUtils.httpGetRequest(
+          url,
+          RequestConfig.custom().build(),
+          reader(in => {
+            val buffer = new Array[Byte](8192)
+            var total = 0L
+            var n = in.read(buffer)
+            while (n != -1) {
+              total += n
+              n = in.read(buffer)
+            }
+            total
+          }))
+        assert(length == chunk.length.toLong * chunks)
+        assert(done.await(30, TimeUnit.SECONDS))
+        assert(written.get() == length)
+    }
+  }
+}
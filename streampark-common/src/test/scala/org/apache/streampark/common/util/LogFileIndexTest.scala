@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+class LogFileIndexTest extends AnyFunSuite {
+
+  private def withLog(test: File => Unit): Unit = {
+    val file = Files.createTempFile("streampark-log-index", ".log").toFile
+    try test(file)
+    finally {
+      file.delete()
+      new File(s"${file.getAbsolutePath}${LogFileIndex.INDEX_SUFFIX}").delete()
+    }
+  }
+
+  private def append(file: File, content: String): Unit = {
+    val out = new FileOutputStream(file, true)
+    out.write(content.getBytes(StandardCharsets.UTF_8))
+    out.close()
+  }
+
+  private def content(from: Int, until: Int): String =
+    (from until until).map(i => s"line-$i 日志\n").mkString
+
+  private def expected(from: Int, until: Int): String =
+    (from until until).map(i => s"line-$i 日志").mkString("\r\n")
+
+  test("readLines should read the same window as scanning the file") {
+    withLog(
+      file => {
+        append(file, content(0, 1000))
+        val index = LogFileIndex.withStride(file.getAbsolutePath, 7)
+        assert(index.lines() == 1000)
+        Seq((0, 10), (6, 3), (7, 7), (500, 100), (990, 50), (999, 1)).foreach {
+          case (offset, limit) =>
+            val until = Math.min(offset + limit, 1000)
+            assert(index.readLines(offset, limit) == expected(offset, until))
+        }
+        assert(index.readLines(1000, 10) == "")
+        assert(index.tail(3) == expected(997, 1000))
+      })
+  }
+
+  test("readLines should pick up appended lines and the last incomplete line") {
+    withLog(
+      file => {
+        append(file, content(0, 20))
+        val index = LogFileIndex.withStride(file.getAbsolutePath, 4)
+        assert(index.tail(1) == expected(19, 20))
+        append(file, content(20, 30) + "partial")
+        assert(index.lines() == 31)
+        assert(index.readLines(18, 4) == expected(18, 22))
+        assert(index.tail(2) == expected(29, 30) + "\r\npartial")
+        append(file, " line\r\n")
+        assert(index.tail(1) == "partial line")
+      })
+  }
+
+  test("readLines should rebuild the index when the log is rewritten") {
+    withLog(
+      file => {
+        append(file, content(0, 50))
+        val index = LogFileIndex.withStride(file.getAbsolutePath, 5)
+        assert(index.readLines(40, 2) == expected(40, 42))
+        Files.write(file.toPath, "rewritten\n".getBytes(StandardCharsets.UTF_8))
+        assert(index.lines() == 1)
+        assert(index.readLines(0, 10) == "rewritten")
+      })
+  }
+
+  test("the index should be persisted next to a large log") {
+    withLog(
+      file => {
+        val lines = 100000
+        append(file, content(0, lines))
+        assert(LogFileIndex.withStride(file.getAbsolutePath, 100).lines() == lines)
+        assert(new File(s"${file.getAbsolutePath}${LogFileIndex.INDEX_SUFFIX}").exists())
+        val reloaded = LogFileIndex.withStride(file.getAbsolutePath, 100)
+        assert(reloaded.readLines(lines - 150, 3) == expected(lines - 150, lines - 147))
+        LogFileIndex.invalidate(file.getAbsolutePath)
+        assert(!new File(s"${file.getAbsolutePath}${LogFileIndex.INDEX_SUFFIX}").exists())
+      })
+  }
+
+  test("tailOf should read lines through the index") {
+    withLog(
+      file => {
+        append(file, content(0, 30))
+        assert(FileUtils.tailOf(file.getAbsolutePath, 25, 10) == expected(25, 30))
+      })
+  }
+}
@@ -253,6 +253,24 @@ create table `t_flink_sql` (
 ) engine=innodb auto_increment=100000 default charset=utf8mb4 collate=utf8mb4_general_ci;
 
 
+-- ----------------------------
+-- Table structure for t_flink_app_reference
+-- ----------------------------
+drop table if exists `t_flink_app_reference`;
+create table `t_flink_app_reference` (
+  `id` bigint not null auto_increment,
+  `app_id` bigint not null,
+  `ref_type` tinyint not null comment '0: variable, 1: resource',
+  `ref_key` varchar(255) collate utf8mb4_general_ci not null comment 'variable code or resource id',
+  `source_type` tinyint not null comment '0: args, 1: jar, 2: flink sql',
+  `source_id` bigint not null comment 'flink sql id for the flink sql references, app id otherwise',
+  primary key (`id`) using btree,
+  key `inx_ref` (`ref_type`,`ref_key`) using btree,
+  key `inx_ref_app` (`app_id`) using btree,
+  key `inx_ref_source` (`source_type`,`source_id`) using btree
+) engine=innodb auto_increment=100000 default charset=utf8mb4 collate=utf8mb4_general_ci;
+
+
 -- ----------------------------
 -- Table structure for t_distributed_task
 -- ----------------------------
@@ -266,6 +284,20 @@ create table `t_distributed_task` (
 ) engine=innodb auto_increment=100000 default charset=utf8mb4 collate=utf8mb4_general_ci;
 
 
+-- ----------------------------
+-- Table structure for t_flink_watcher_state
+-- ----------------------------
+drop table if exists `t_flink_watcher_state`;
+create table `t_flink_watcher_state` (
+  `app_id` bigint not null,
+  `owner` varchar(255) collate utf8mb4_general_ci default null comment 'server id of the console node holding the lease',
+  `lease_expire_time` datetime default null,
+  `state` text collate utf8mb4_general_ci comment 'watching state of the app',
+  `modify_time` datetime not null default current_timestamp on update current_timestamp,
+  primary key (`app_id`) using btree
+) engine=innodb default charset=utf8mb4 collate=utf8mb4_general_ci;
+
+
 -- ----------------------------
 -- Table structure for t_menu
 -- ----------------------------
@@ -331,6 +363,7 @@ create table `t_variable` (
   `creator_id` bigint collate utf8mb4_general_ci not null comment 'user id of creator',
   `team_id` bigint collate utf8mb4_general_ci not null comment 'team id',
   `desensitization` tinyint not null default 0 comment '0 is no desensitization, 1 is desensitization, if set to desensitization, it will be replaced by * when displayed',
+  `version` bigint not null default 0 comment 'incremented by every update of the variable',
   `create_time` datetime default null comment 'create time',
   `modify_time` datetime default null comment 'modify time',
   primary key (`id`) using btree,
@@ -35,6 +35,8 @@ drop table if exists "public"."t_flink_config";
 drop table if exists "public"."t_flink_cluster";
 drop table if exists "public"."t_flink_app";
 drop table if exists "public"."t_distributed_task";
+drop table if exists "public"."t_flink_watcher_state";
+drop table if exists "public"."t_flink_app_reference";
 drop table if exists "public"."t_app_build_pipe";
 drop table if exists "public"."t_flink_app_backup";
 drop table if exists "public"."t_alert_config";
@@ -55,6 +57,7 @@ drop sequence if exists "public"."streampark_t_role_menu_id_seq";
 drop sequence if exists "public"."streampark_t_menu_id_seq";
 drop sequence if exists "public"."streampark_t_message_id_seq";
 drop sequence if exists "public"."streampark_t_flink_sql_id_seq";
+drop sequence if exists "public"."streampark_t_flink_app_reference_id_seq";
 drop sequence if exists "public"."streampark_t_flink_savepoint_id_seq";
 drop sequence if exists "public"."streampark_t_flink_project_id_seq";
 drop sequence if exists "public"."streampark_t_flink_env_id_seq";
@@ -496,6 +499,39 @@ create table "public"."t_flink_sql" (
 alter table "public"."t_flink_sql" add constraint "t_flink_sql_pkey" primary key ("id");
 
 
+-- ----------------------------
+-- table structure for t_flink_app_reference
+-- ----------------------------
+create sequence "public"."streampark_t_flink_app_reference_id_seq"
+    increment 1 start 10000 cache 1 minvalue 10000 maxvalue 9223372036854775807;
+
+create table "public"."t_flink_app_reference" (
+  "id" int8 not null default nextval('streampark_t_flink_app_reference_id_seq'::regclass),
+  "app_id" int8 not null,
+  "ref_type" int2 not null,
+  "ref_key" varchar(255) collate "pg_catalog"."default" not null,
+  "source_type" int2 not null,
+  "source_id" int8 not null
+)
+;
+comment on column "public"."t_flink_app_reference"."ref_type" is '0: variable, 1: resource';
+comment on column "public"."t_flink_app_reference"."ref_key" is 'variable code or resource id';
+comment on column "public"."t_flink_app_reference"."source_type" is '0: args, 1: jar, 2: flink sql';
+comment on column "public"."t_flink_app_reference"."source_id" is 'flink sql id for the flink sql references, app id otherwise';
+alter table "public"."t_flink_app_reference" add constraint "t_flink_app_reference_pkey" primary key ("id");
+create index "inx_ref" on "public"."t_flink_app_reference" using btree (
+  "ref_type" "pg_catalog"."int2_ops" asc nulls last,
+  "ref_key" collate "pg_catalog"."default" "pg_catalog"."text_ops" asc nulls last
+);
+create index "inx_ref_app" on "public"."t_flink_app_reference" using btree (
+  "app_id" "pg_catalog"."int8_ops" asc nulls last
+);
+create index "inx_ref_source" on "public"."t_flink_app_reference" using btree (
+  "source_type" "pg_catalog"."int2_ops" asc nulls last,
+  "source_id" "pg_catalog"."int8_ops" asc nulls last
+);
+
+
 -- ----------------------------
 -- table structure for t_distributed_task
 -- ----------------------------
@@ -512,6 +548,23 @@ create table "public"."t_distributed_task"
 alter table "public"."t_distributed_task" add constraint "t_distributed_task_pkey" primary key ("id");
 
 
+-- ----------------------------
+-- table structure for t_flink_watcher_state
+-- ----------------------------
+create table "public"."t_flink_watcher_state"
+(
+    "app_id"                       int8 not null,
+    "owner"                        varchar(255) collate "pg_catalog"."default",
+    "lease_expire_time"            timestamp(6),
+    "state"                        text collate "pg_catalog"."default",
+    "modify_time"                  timestamp(6)
+)
+;
+comment on column "public"."t_flink_watcher_state"."owner" is 'server id of the console node holding the lease';
+comment on column "public"."t_flink_watcher_state"."state" is 'watching state of the app';
+alter table "public"."t_flink_watcher_state" add constraint "t_flink_watcher_state_pkey" primary key ("app_id");
+
+
 -- ----------------------------
 -- table structure for t_menu
 -- ----------------------------
@@ -609,6 +662,7 @@ create table "public"."t_variable" (
   "creator_id" int8  not null,
   "team_id" int8  not null,
   "desensitization" boolean not null default false,
+  "version" int8 not null default 0,
   "create_time" timestamp(6),
   "modify_time" timestamp(6)
 )
@@ -620,6 +674,7 @@ comment on column "public"."t_variable"."description" is 'More detailed descript
 comment on column "public"."t_variable"."creator_id" is 'user id of creator';
 comment on column "public"."t_variable"."team_id" is 'team id';
 comment on column "public"."t_variable"."desensitization" is '0 is no desensitization, 1 is desensitization, if set to desensitization, it will be replaced by * when displayed';
+comment on column "public"."t_variable"."version" is 'incremented by every update of the variable';
 comment on column "public"."t_variable"."create_time" is 'creation time';
 comment on column "public"."t_variable"."modify_time" is 'modify time';
 
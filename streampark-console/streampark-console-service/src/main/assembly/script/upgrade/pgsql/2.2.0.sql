@@ -148,3 +148,55 @@ insert into "public"."t_role_menu" (role_id, menu_id) values (100002, 150614);
 insert into "public"."t_role_menu" (role_id, menu_id) values (100002, 150615);
 insert into "public"."t_role_menu" (role_id, menu_id) values (100002, 150600);
 insert into "public"."t_role_menu" (role_id, menu_id) values (100001, 150600);
+
+-- ----------------------------
+-- table structure for t_flink_app_reference
+-- ----------------------------
+create sequence if not exists "public"."streampark_t_flink_app_reference_id_seq"
+    increment 1 start 10000 cache 1 minvalue 10000 maxvalue 9223372036854775807;
+
+create table if not exists "public"."t_flink_app_reference" (
+  "id" int8 not null default nextval('streampark_t_flink_app_reference_id_seq'::regclass),
+  "app_id" int8 not null,
+  "ref_type" int2 not null,
+  "ref_key" varchar(255) collate "pg_catalog"."default" not null,
+  "source_type" int2 not null,
+  "source_id" int8 not null,
+  constraint "t_flink_app_reference_pkey" primary key ("id")
+)
+;
+comment on column "public"."t_flink_app_reference"."ref_type" is '0: variable, 1: resource';
+comment on column "public"."t_flink_app_reference"."ref_key" is 'variable code or resource id';
+comment on column "public"."t_flink_app_reference"."source_type" is '0: args, 1: jar, 2: flink sql';
+comment on column "public"."t_flink_app_reference"."source_id" is 'flink sql id for the flink sql references, app id otherwise';
+create index if not exists "inx_ref" on "public"."t_flink_app_reference" using btree (
+  "ref_type" "pg_catalog"."int2_ops" asc nulls last,
+  "ref_key" collate "pg_catalog"."default" "pg_catalog"."text_ops" asc nulls last
+);
+create index if not exists "inx_ref_app" on "public"."t_flink_app_reference" using btree (
+  "app_id" "pg_catalog"."int8_ops" asc nulls last
+);
+create index if not exists "inx_ref_source" on "public"."t_flink_app_reference" using btree (
+  "source_type" "pg_catalog"."int2_ops" asc nulls last,
+  "source_id" "pg_catalog"."int8_ops" asc nulls last
+);
+
+-- ----------------------------
+-- table structure for t_flink_watcher_state
+-- ----------------------------
+create table if not exists "public"."t_flink_watcher_state"
+(
+    "app_id"                       int8 not null,
+    "owner"                        varchar(255) collate "pg_catalog"."default",
+    "lease_expire_time"            timestamp(6),
+    "state"                        text collate "pg_catalog"."default",
+    "modify_time"                  timestamp(6),
+    constraint "t_flink_watcher_state_pkey" primary key ("app_id")
+)
+;
+comment on column "public"."t_flink_watcher_state"."owner" is 'server id of the console node holding the lease';
+comment on column "public"."t_flink_watcher_state"."state" is 'watching state of the app';
+
+alter table "public"."t_variable"
+add column "version" int8 not null default 0;
+comment on column "public"."t_variable"."version" is 'incremented by every update of the variable';
@@ -132,23 +132,6 @@ public class AsyncExecutorPoolConfig extends AsyncConfigurerSupport {
             new ThreadPoolExecutor.AbortPolicy());
     }
 
-    /**
-     * Create a ThreadPoolTaskExecutor for FlinkK8sChangeEventListener.
-     *
-     * @return Executor
-     */
-    @Bean("streamparkNotifyExecutor")
-    public Executor notifyExecutor() {
-        return new ThreadPoolExecutor(
-            Runtime.getRuntime().availableProcessors() * 5,
-            Runtime.getRuntime().availableProcessors() * 10,
-            20L,
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1024),
-            ThreadUtils.threadFactory("streampark-notify-executor-"),
-            new ThreadPoolExecutor.AbortPolicy());
-    }
-
     /**
      * Create a ThreadPoolTaskExecutor for ApplicationActionService.
      *
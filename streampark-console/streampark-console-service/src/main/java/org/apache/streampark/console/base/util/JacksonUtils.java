@@ -19,15 +19,18 @@ package org.apache.streampark.console.base.util;
 
 import org.apache.streampark.common.util.DateUtils;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.module.scala.DefaultScalaModule;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.Map;
 
@@ -56,6 +59,18 @@ public final class JacksonUtils {
         return MAPPER.readValue(json, typeReference);
     }
 
+    public static <T> T read(InputStream in, Class<T> clazz) throws IOException {
+        return MAPPER.readValue(in, clazz);
+    }
+
+    /**
+     * Read the elements of a json array one by one, without reading the whole array in memory. The
+     * stream isn't closed by the iterator, so the caller can stop reading at any element.
+     */
+    public static <T> MappingIterator<T> readValues(InputStream in, Class<T> clazz) throws IOException {
+        return MAPPER.readerFor(clazz).without(JsonParser.Feature.AUTO_CLOSE_SOURCE).readValues(in);
+    }
+
     public static String write(Object object) throws JsonProcessingException {
         return MAPPER.writeValueAsString(object);
     }
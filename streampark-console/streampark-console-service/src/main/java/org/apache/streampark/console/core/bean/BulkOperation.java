@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.bean;
+
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Progress of a bulk start or restart of flink applications. */
+@Getter
+public class BulkOperation implements Serializable {
+
+    private final String id;
+
+    private final Long teamId;
+
+    private final DistributedTaskEnum action;
+
+    /** operations with a higher priority are dispatched first */
+    private final int priority;
+
+    private final int total;
+
+    private final long createTime;
+
+    /** null until every application of the operation is done */
+    private volatile Long endTime;
+
+    private volatile boolean cancelRequested;
+
+    /** application id -> error message */
+    private final Map<Long, String> failures = new ConcurrentHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger running = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger succeeded = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger canceled = new AtomicInteger();
+
+    public BulkOperation(String id, Long teamId, DistributedTaskEnum action, int priority, int total) {
+        this.id = id;
+        this.teamId = teamId;
+        this.action = action;
+        this.priority = priority;
+        this.total = total;
+        this.createTime = System.currentTimeMillis();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public int getCanceled() {
+        return canceled.get();
+    }
+
+    public int getPending() {
+        return total - getFinished() - getRunning();
+    }
+
+    public boolean isDone() {
+        return endTime != null;
+    }
+
+    /** @return finished applications per minute, since the operation was created */
+    public double getThroughput() {
+        long end = endTime == null ? System.currentTimeMillis() : endTime;
+        double minutes = Math.max(end - createTime, 1000) / 60000.0;
+        return getFinished() / minutes;
+    }
+
+    public void cancel() {
+        this.cancelRequested = true;
+    }
+
+    public void onStarted() {
+        running.incrementAndGet();
+    }
+
+    public void onSucceeded() {
+        running.decrementAndGet();
+        succeeded.incrementAndGet();
+        checkDone();
+    }
+
+    /**
+     * @param started whether the application was started, i.e. counted as running
+     */
+    public void onFailed(Long appId, String message, boolean started) {
+        if (started) {
+            running.decrementAndGet();
+        }
+        failures.put(appId, message == null ? "unknown error" : message);
+        checkDone();
+    }
+
+    public void onCanceled() {
+        canceled.incrementAndGet();
+        checkDone();
+    }
+
+    private int getFinished() {
+        return succeeded.get() + failures.size() + canceled.get();
+    }
+
+    private synchronized void checkDone() {
+        if (endTime == null && getFinished() >= total) {
+            endTime = System.currentTimeMillis();
+        }
+    }
+}
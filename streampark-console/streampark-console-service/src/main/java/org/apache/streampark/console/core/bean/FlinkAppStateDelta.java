@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.bean;
+
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.metrics.flink.CheckPoints;
+import org.apache.streampark.console.core.metrics.flink.JobsOverview;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * Watched state of a flink application pushed to the application list, the null fields are unknown
+ * and kept as they are by the page. The duration is left out of the equality, the page keeps it
+ * ticking from the start time, so a running application is only pushed when its state changed.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class FlinkAppStateDelta implements Serializable {
+
+    private Long id;
+
+    private Long teamId;
+
+    private Integer state;
+
+    private Integer optionState;
+
+    /** the following times are in milliseconds */
+    private Long startTime;
+
+    private Long endTime;
+
+    @EqualsAndHashCode.Exclude
+    private Long duration;
+
+    private Integer totalTask;
+
+    private JobsOverview.Task overview;
+
+    private Long checkpointId;
+
+    private String checkpointStatus;
+
+    public static FlinkAppStateDelta of(FlinkApplication application, @Nullable CheckPoints.CheckPoint checkpoint) {
+        FlinkAppStateDelta delta = new FlinkAppStateDelta();
+        delta.setId(application.getId());
+        delta.setTeamId(application.getTeamId());
+        delta.setState(application.getState());
+        delta.setOptionState(application.getOptionState());
+        delta.setStartTime(application.getStartTime() == null ? null : application.getStartTime().getTime());
+        delta.setEndTime(application.getEndTime() == null ? null : application.getEndTime().getTime());
+        delta.setDuration(application.getDuration());
+        delta.setTotalTask(application.getTotalTask());
+        delta.setOverview(application.getOverview());
+        if (checkpoint != null) {
+            delta.setCheckpointId(checkpoint.getId());
+            delta.setCheckpointStatus(checkpoint.getStatus());
+        }
+        return delta;
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.streampark.console.core.bean;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.List;
 import java.util.Map;
 
 @Getter
@@ -30,4 +31,6 @@ public class FlinkConnector {
     private String factoryIdentifier;
     Map<String, String> requiredOptions;
     Map<String, String> optionalOptions;
+    /** versions of the registered flink envs the factory loads under */
+    List<String> flinkVersions;
 }
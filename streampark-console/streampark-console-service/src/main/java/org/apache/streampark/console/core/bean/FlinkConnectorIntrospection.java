@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.bean;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Table factories found in a connector jar, reused as long as the jar content doesn't change. */
+@Getter
+@Setter
+public class FlinkConnectorIntrospection {
+
+    /** SHA-256 digest of the connector jar */
+    private String digest;
+
+    /** versions of the flink envs registered when the jar was introspected */
+    private List<String> checkedFlinkVersions = new ArrayList<>();
+
+    private List<FlinkConnector> connectors = new ArrayList<>();
+}
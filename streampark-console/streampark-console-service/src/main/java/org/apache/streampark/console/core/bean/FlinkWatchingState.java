@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.bean;
+
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkStateChangeEvent;
+import org.apache.streampark.console.core.enums.OptionStateEnum;
+import org.apache.streampark.console.core.enums.StopFromEnum;
+import org.apache.streampark.console.core.metrics.flink.JobsOverview;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Watching state of a flink application, shared by the console nodes through the watcher state
+ * store. The owner node of the application writes it, the other nodes read it, and the next owner
+ * restores it when the application is moved to it.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class FlinkWatchingState implements Serializable {
+
+    /** whether the application is watched by its owner */
+    private boolean watching;
+
+    private Long teamId;
+
+    private Long flinkClusterId;
+
+    private Integer state;
+
+    private Integer jmMemory;
+
+    private Integer tmMemory;
+
+    private Integer totalTM;
+
+    private Integer totalSlot;
+
+    private Integer availableSlot;
+
+    private JobsOverview.Task overview;
+
+    private StopFromEnum stopFrom;
+
+    private OptionStateEnum optioning;
+
+    /** user who canceled the application, if not its owner */
+    private Long canceledUserId;
+
+    /** the following times are in milliseconds, null if not set */
+    private Long lostTime;
+
+    private Long savepointTime;
+
+    private Long startingTime;
+
+    private Long cancelingTime;
+
+    /** the last persisted state, only kept along with the states above */
+    private FlinkStateChangeEvent previousStatus;
+
+    /** Keep the live metrics of the application. */
+    public void copyMetrics(FlinkApplication application) {
+        this.teamId = application.getTeamId();
+        this.flinkClusterId = application.getFlinkClusterId();
+        this.state = application.getState();
+        this.jmMemory = application.getJmMemory();
+        this.tmMemory = application.getTmMemory();
+        this.totalTM = application.getTotalTM();
+        this.totalSlot = application.getTotalSlot();
+        this.availableSlot = application.getAvailableSlot();
+        this.overview = application.getOverview();
+    }
+
+    /** @return the live metrics of the application, for the readers on the other nodes */
+    public FlinkApplication toApplication(Long appId) {
+        FlinkApplication application = new FlinkApplication();
+        application.setId(appId);
+        application.setTeamId(teamId);
+        application.setFlinkClusterId(flinkClusterId);
+        application.setState(state);
+        application.setJmMemory(jmMemory);
+        application.setTmMemory(tmMemory);
+        application.setTotalTM(totalTM);
+        application.setTotalSlot(totalSlot);
+        application.setAvailableSlot(availableSlot);
+        application.setOverview(overview);
+        return application;
+    }
+
+    /** @return true if there's nothing to keep for the application */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return !watching
+            && stopFrom == null
+            && optioning == null
+            && canceledUserId == null
+            && lostTime == null
+            && savepointTime == null
+            && startingTime == null
+            && cancelingTime == null;
+    }
+}
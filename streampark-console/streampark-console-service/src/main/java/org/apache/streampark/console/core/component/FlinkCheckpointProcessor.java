@@ -134,7 +134,7 @@ public class FlinkCheckpointProcessor {
                                          FlinkApplication application, FailoverStrategyEnum failoverStrategyEnum) {
         switch (failoverStrategyEnum) {
             case ALERT:
-                alertService.alert(
+                alertService.alertAsync(
                     application.getAlertId(),
                     AlertTemplateUtils.createAlertTemplate(application, CheckPointStatusEnum.FAILED));
                 break;
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.component;
+
+import org.apache.streampark.common.conf.Workspace;
+import org.apache.streampark.common.util.FileUtils;
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.bean.FlinkConnector;
+import org.apache.streampark.console.core.bean.FlinkConnectorIntrospection;
+import org.apache.streampark.console.core.entity.FlinkEnv;
+import org.apache.streampark.console.core.service.FlinkEnvService;
+
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.table.factories.Factory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the table factories of a connector jar, their options and the registered flink versions
+ * they load under.
+ *
+ * <p>Loading a connector fat-jar takes seconds, so the results are computed once per jar content:
+ * they are cached by the SHA-256 digest of the jar, in memory and in a json file of the local
+ * workspace, and only computed again when a flink env was added or removed since. The class
+ * loaders opened over the jar are always closed before returning.
+ */
+@Slf4j
+@Component
+public class FlinkConnectorIntrospector {
+
+    private static final String FACTORY_SERVICE = "META-INF/services/" + Factory.class.getName();
+
+    private final Cache<String, FlinkConnectorIntrospection> introspections =
+        Caffeine.newBuilder().maximumSize(256).build();
+
+    private File storeDir;
+
+    private Supplier<List<FlinkEnv>> flinkEnvs;
+
+    @Autowired
+    private FlinkEnvService flinkEnvService;
+
+    public FlinkConnectorIntrospector() {
+    }
+
+    FlinkConnectorIntrospector(File storeDir, Supplier<List<FlinkEnv>> flinkEnvs) {
+        this.storeDir = storeDir;
+        this.flinkEnvs = flinkEnvs;
+    }
+
+    /**
+     * @param jar the connector jar
+     * @return the table factories of the jar, no factory if none of them could be loaded
+     * @throws IllegalArgumentException if the jar doesn't declare any table factory
+     * @throws IOException if the jar can't be read
+     */
+    public FlinkConnectorIntrospection introspect(File jar) throws IOException {
+        String digest = FileUtils.sha256Hex(jar);
+        List<FlinkEnv> envs = flinkEnvs == null ? flinkEnvService.list() : flinkEnvs.get();
+        List<String> flinkVersions = envs.stream()
+            .map(FlinkEnv::getVersion)
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .collect(Collectors.toList());
+
+        FlinkConnectorIntrospection introspection = introspections.getIfPresent(digest);
+        if (introspection == null) {
+            introspection = readStored(digest);
+        }
+        if (introspection == null || !introspection.getCheckedFlinkVersions().equals(flinkVersions)) {
+            long start = System.currentTimeMillis();
+            introspection = doIntrospect(jar, digest, envs, flinkVersions);
+            log.info("[StreamPark][FlinkConnectorIntrospector] introspected {} in {}ms, factories: {}",
+                jar.getName(), System.currentTimeMillis() - start, introspection.getConnectors().size());
+            store(introspection);
+        }
+        introspections.put(digest, introspection);
+        return introspection;
+    }
+
+    private FlinkConnectorIntrospection doIntrospect(
+                                                     File jar, String digest, List<FlinkEnv> envs,
+                                                     List<String> flinkVersions) throws IOException {
+        List<String> factoryClasses = readFactoryClasses(jar);
+        List<FlinkConnector> connectors = new ArrayList<>();
+        // load the declared factories only, not every factory of the console classpath
+        try (URLClassLoader classLoader = newClassLoader(urlsOf(jar), Factory.class.getClassLoader())) {
+            for (String factoryClass : factoryClasses) {
+                try {
+                    Class<?> clazz = Class.forName(factoryClass, true, classLoader);
+                    if (Factory.class.isAssignableFrom(clazz)) {
+                        Factory factory = (Factory) clazz.getDeclaredConstructor().newInstance();
+                        connectors.add(toConnector(factory));
+                    }
+                } catch (Exception | LinkageError e) {
+                    log.warn("[StreamPark][FlinkConnectorIntrospector] failed to load factory {} of {}",
+                        factoryClass, jar.getName(), e);
+                }
+            }
+        }
+
+        Map<String, List<String>> loadableVersions = new HashMap<>();
+        for (FlinkEnv env : envs) {
+            if (env.getVersion() != null && !loadableVersions.containsKey(env.getVersion())) {
+                loadableVersions.put(env.getVersion(), getLoadableFactories(jar, env, factoryClasses));
+            }
+        }
+        for (FlinkConnector connector : connectors) {
+            connector.setFlinkVersions(flinkVersions.stream()
+                .filter(v -> loadableVersions.get(v).contains(connector.getClassName()))
+                .collect(Collectors.toList()));
+        }
+
+        FlinkConnectorIntrospection introspection = new FlinkConnectorIntrospection();
+        introspection.setDigest(digest);
+        introspection.setCheckedFlinkVersions(flinkVersions);
+        introspection.setConnectors(connectors);
+        return introspection;
+    }
+
+    /** @return the factories of the jar which link against the flink libs of the env */
+    private List<String> getLoadableFactories(File jar, FlinkEnv env, List<String> factoryClasses) {
+        List<String> loadable = new ArrayList<>();
+        File[] libs = new File(env.getFlinkHome(), "lib").listFiles((dir, name) -> name.endsWith(".jar"));
+        if (libs == null) {
+            return loadable;
+        }
+        List<File> files = new ArrayList<>(Arrays.asList(libs));
+        files.add(0, jar);
+        // isolated from the console classpath, the factories only see the flink libs of the env
+        try (
+            URLClassLoader classLoader =
+                newClassLoader(urlsOf(files.toArray(new File[0])), ClassLoader.getSystemClassLoader().getParent())) {
+            Class<?> factoryInterface = Class.forName(Factory.class.getName(), false, classLoader);
+            for (String factoryClass : factoryClasses) {
+                try {
+                    Class<?> clazz = Class.forName(factoryClass, false, classLoader);
+                    // resolves the types of the methods, fails if they are missing in this version
+                    clazz.getDeclaredMethods();
+                    if (factoryInterface.isAssignableFrom(clazz)) {
+                        loadable.add(factoryClass);
+                    }
+                } catch (Exception | LinkageError e) {
+                    log.debug("[StreamPark][FlinkConnectorIntrospector] {} doesn't load under flink {}: {}",
+                        factoryClass, env.getVersion(), e.toString());
+                }
+            }
+        } catch (Exception | LinkageError e) {
+            log.warn("[StreamPark][FlinkConnectorIntrospector] failed to load the flink libs of {}: {}",
+                env.getFlinkHome(), e.toString());
+        }
+        return loadable;
+    }
+
+    /** Open a class loader over the urls, the caller closes it. */
+    URLClassLoader newClassLoader(URL[] urls, ClassLoader parent) {
+        return new URLClassLoader(urls, parent);
+    }
+
+    private static URL[] urlsOf(File... files) throws IOException {
+        URL[] urls = new URL[files.length];
+        for (int i = 0; i < files.length; i++) {
+            urls[i] = files[i].toURI().toURL();
+        }
+        return urls;
+    }
+
+    private static List<String> readFactoryClasses(File jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            JarEntry entry = jarFile.getJarEntry(FACTORY_SERVICE);
+            if (entry == null) {
+                throw new IllegalArgumentException("invalid flink connector");
+            }
+            List<String> factoryClasses = new ArrayList<>();
+            try (
+                InputStream in = jarFile.getInputStream(entry);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#") && !factoryClasses.contains(line)) {
+                        factoryClasses.add(line);
+                    }
+                }
+            }
+            return factoryClasses;
+        }
+    }
+
+    private static FlinkConnector toConnector(Factory factory) {
+        FlinkConnector connector = new FlinkConnector();
+        connector.setClassName(factory.getClass().getName());
+        connector.setFactoryIdentifier(factory.factoryIdentifier());
+        try {
+            Map<String, String> requiredOptions = new HashMap<>(0);
+            factory.requiredOptions().forEach(x -> requiredOptions.put(x.key(), getOptionDefaultValue(x)));
+            connector.setRequiredOptions(requiredOptions);
+        } catch (Exception e) {
+            log.error("Failed to set required options for connector resource.", e);
+        }
+        try {
+            Map<String, String> optionalOptions = new HashMap<>(0);
+            factory.optionalOptions().forEach(x -> optionalOptions.put(x.key(), getOptionDefaultValue(x)));
+            connector.setOptionalOptions(optionalOptions);
+        } catch (Exception e) {
+            log.error("Fail to set optional options for connector resource.", e);
+        }
+        return connector;
+    }
+
+    private static String getOptionDefaultValue(ConfigOption<?> option) {
+        if (!option.hasDefaultValue()) {
+            return null;
+        }
+        Object value = option.defaultValue();
+        if (value instanceof Duration) {
+            return value.toString().replace("PT", "").toLowerCase();
+        }
+        return value.toString();
+    }
+
+    private File getStoreDir() {
+        if (storeDir == null) {
+            storeDir = new File(Workspace.local().APP_UPLOADS(), "connectors");
+        }
+        return storeDir;
+    }
+
+    private FlinkConnectorIntrospection readStored(String digest) {
+        File file = new File(getStoreDir(), digest + ".json");
+        if (!file.isFile()) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            FlinkConnectorIntrospection introspection = JacksonUtils.read(in, FlinkConnectorIntrospection.class);
+            return digest.equals(introspection.getDigest()) ? introspection : null;
+        } catch (IOException e) {
+            log.warn("[StreamPark][FlinkConnectorIntrospector] failed to read {}, introspect the jar again.", file, e);
+            return null;
+        }
+    }
+
+    private void store(FlinkConnectorIntrospection introspection) {
+        File dir = getStoreDir();
+        File file = new File(dir, introspection.getDigest() + ".json");
+        try {
+            Files.createDirectories(dir.toPath());
+            File temp = File.createTempFile(introspection.getDigest(), ".tmp", dir);
+            Files.write(temp.toPath(), JacksonUtils.write(introspection).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("[StreamPark][FlinkConnectorIntrospector] failed to store {}.", file, e);
+        }
+    }
+}
@@ -21,17 +21,21 @@ import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.common.util.YarnUtils;
 import org.apache.streampark.console.base.domain.RestRequest;
 import org.apache.streampark.console.base.domain.RestResponse;
+import org.apache.streampark.console.base.exception.ApiAlertException;
 import org.apache.streampark.console.base.exception.InternalException;
 import org.apache.streampark.console.core.annotation.AppChangeEvent;
 import org.apache.streampark.console.core.annotation.Permission;
+import org.apache.streampark.console.core.bean.BulkOperation;
 import org.apache.streampark.console.core.entity.ApplicationLog;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 import org.apache.streampark.console.core.entity.FlinkApplicationBackup;
 import org.apache.streampark.console.core.enums.AppExistsStateEnum;
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
 import org.apache.streampark.console.core.service.ResourceService;
 import org.apache.streampark.console.core.service.application.ApplicationLogService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationActionService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationBackupService;
+import org.apache.streampark.console.core.service.application.FlinkApplicationBulkActionService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationInfoService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
 
@@ -43,13 +47,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Validated
@@ -69,6 +76,9 @@ public class FlinkApplicationController {
     @Autowired
     private FlinkApplicationBackupService backUpService;
 
+    @Autowired
+    private FlinkApplicationBulkActionService bulkActionService;
+
     @Autowired
     private ApplicationLogService applicationLogService;
 
@@ -165,6 +175,60 @@ public class FlinkApplicationController {
         return RestResponse.success();
     }
 
+    @Permission(team = "#teamId")
+    @PostMapping("bulk/start")
+    @RequiresPermissions("app:start")
+    public RestResponse bulkStart(
+                                  @RequestParam Long teamId,
+                                  @RequestParam List<Long> appIds,
+                                  @RequestParam(defaultValue = "0") int priority,
+                                  @RequestParam(defaultValue = "false") boolean restoreOrTriggerSavepoint) {
+        BulkOperation operation =
+            bulkActionService.submit(teamId, appIds, DistributedTaskEnum.START, priority, restoreOrTriggerSavepoint);
+        return RestResponse.success(operation);
+    }
+
+    @Permission(team = "#teamId")
+    @PostMapping("bulk/restart")
+    @RequiresPermissions("app:start")
+    public RestResponse bulkRestart(
+                                    @RequestParam Long teamId,
+                                    @RequestParam List<Long> appIds,
+                                    @RequestParam(defaultValue = "0") int priority,
+                                    @RequestParam(defaultValue = "false") boolean restoreOrTriggerSavepoint) {
+        BulkOperation operation =
+            bulkActionService.submit(teamId, appIds, DistributedTaskEnum.RESTART, priority, restoreOrTriggerSavepoint);
+        return RestResponse.success(operation);
+    }
+
+    @Permission(team = "#teamId")
+    @PostMapping("bulk/get")
+    public RestResponse bulkGet(@RequestParam Long teamId, @RequestParam String id) {
+        return RestResponse.success(getBulkOperation(teamId, id));
+    }
+
+    @Permission(team = "#teamId")
+    @PostMapping("bulk/list")
+    public RestResponse bulkList(@RequestParam Long teamId) {
+        return RestResponse.success(bulkActionService.list(teamId));
+    }
+
+    @Permission(team = "#teamId")
+    @PostMapping("bulk/cancel")
+    @RequiresPermissions("app:start")
+    public RestResponse bulkCancel(@RequestParam Long teamId, @RequestParam String id) {
+        bulkActionService.cancel(getBulkOperation(teamId, id).getId());
+        return RestResponse.success();
+    }
+
+    private BulkOperation getBulkOperation(Long teamId, String id) {
+        BulkOperation operation = bulkActionService.get(id);
+        ApiAlertException.throwIfTrue(
+            operation == null || !Objects.equals(operation.getTeamId(), teamId),
+            "The bulk operation doesn't exist.");
+        return operation;
+    }
+
     /** force stop(stop normal start or in progress) */
     @Permission(app = "#app.id")
     @PostMapping("abort")
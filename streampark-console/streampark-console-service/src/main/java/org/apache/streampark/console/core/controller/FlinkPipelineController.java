@@ -23,6 +23,7 @@ import org.apache.streampark.console.core.bean.AppBuildDockerResolvedDetail;
 import org.apache.streampark.console.core.entity.ApplicationBuildPipeline;
 import org.apache.streampark.console.core.service.application.FlinkApplicationBuildPipelineService;
 import org.apache.streampark.flink.packer.pipeline.DockerResolvedSnapshot;
+import org.apache.streampark.flink.packer.pipeline.PipelineStepMetrics;
 import org.apache.streampark.flink.packer.pipeline.PipelineTypeEnum;
 
 import org.apache.shiro.authz.annotation.RequiresPermissions;
@@ -76,4 +77,15 @@ public class FlinkPipelineController {
         }
         return RestResponse.success(details);
     }
+
+    /**
+     * Get the elapsed time histograms of building steps.
+     *
+     * @return pipeline type -> step seq -> elapsed time histogram
+     */
+    @PostMapping("/metrics")
+    @RequiresPermissions("app:view")
+    public RestResponse getStepMetrics() {
+        return RestResponse.success(PipelineStepMetrics.snapshotAsJava());
+    }
 }
@@ -97,7 +97,7 @@ public class FlinkSqlController {
     @RequiresPermissions("sql:delete")
     @Permission(app = "#flinkSql.appId", team = "#flinkSql.teamId")
     public RestResponse delete(FlinkSql flinkSql) {
-        Boolean deleted = flinkSqlService.removeById(flinkSql.getSql());
+        Boolean deleted = flinkSqlService.removeById(flinkSql.getId());
         return RestResponse.success(deleted);
     }
 
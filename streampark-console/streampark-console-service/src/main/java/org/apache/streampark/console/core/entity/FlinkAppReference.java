@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.entity;
+
+import org.apache.streampark.console.core.enums.ReferenceSourceEnum;
+import org.apache.streampark.console.core.enums.ReferenceTypeEnum;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/** A reference of a flink application to a variable or a resource, the reverse index of their usages. */
+@Getter
+@Setter
+@TableName("t_flink_app_reference")
+public class FlinkAppReference implements Serializable {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private Long appId;
+
+    private ReferenceTypeEnum refType;
+
+    /** variable code, or resource id */
+    private String refKey;
+
+    private ReferenceSourceEnum sourceType;
+
+    /** flink sql id for the sql references, app id otherwise */
+    private Long sourceId;
+
+    public FlinkAppReference() {
+    }
+
+    public FlinkAppReference(
+                             Long appId, ReferenceTypeEnum refType, String refKey,
+                             ReferenceSourceEnum sourceType, Long sourceId) {
+        this.appId = appId;
+        this.refType = refType;
+        this.refKey = refKey;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+    }
+}
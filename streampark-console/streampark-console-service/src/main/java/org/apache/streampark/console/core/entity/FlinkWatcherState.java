@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/** Watching state and lease of a flink application, stored by the jdbc watcher state store. */
+@Getter
+@Setter
+@TableName("t_flink_watcher_state")
+public class FlinkWatcherState implements Serializable {
+
+    @TableId(type = IdType.INPUT)
+    private Long appId;
+
+    /** server id of the console node holding the lease, null if released */
+    private String owner;
+
+    private Date leaseExpireTime;
+
+    /** json of the FlinkWatchingState, null if there's nothing to keep */
+    private String state;
+
+    private Date modifyTime;
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.enums;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+import lombok.Getter;
+
+/** Where a flink application refers to a variable or a resource. */
+@Getter
+public enum ReferenceSourceEnum {
+
+    /** the program args of the application */
+    ARGS(0),
+
+    /** the jar of the application */
+    JAR(1),
+
+    /** a flink sql version of the application, with its team resources */
+    SQL(2);
+
+    @EnumValue
+    private final int code;
+
+    ReferenceSourceEnum(int code) {
+        this.code = code;
+    }
+}
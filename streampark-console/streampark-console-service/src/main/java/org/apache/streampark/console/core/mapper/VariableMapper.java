@@ -34,4 +34,10 @@ public interface VariableMapper extends BaseMapper<Variable> {
     List<Variable> selectVarsByTeamId(@Param("teamId") Long teamId, @Param("keyword") String keyword);
 
     boolean existsByTeamId(@Param("teamId") Long teamId);
+
+    /**
+     * @return count, max id and sum of the versions of the variables of the team, it changes with
+     *     every variable created, updated or deleted
+     */
+    String selectVersionStamp(@Param("teamId") Long teamId);
 }
@@ -18,6 +18,7 @@
 package org.apache.streampark.console.core.metrics.flink;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -56,6 +57,7 @@ public class JobsOverview implements Serializable {
 
     @Getter
     @Setter
+    @EqualsAndHashCode
     public static class Task implements Serializable {
 
         private int total;
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.runner;
+
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/** Build the reverse index of the variables and resources of the applications, after an upgrade. */
+@Order
+@Slf4j
+@Component
+public class FlinkAppReferenceRunner implements ApplicationRunner {
+
+    @Autowired
+    private FlinkAppReferenceService referenceService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            referenceService.rebuildIfEmpty();
+        } catch (Exception e) {
+            log.error("[StreamPark][FlinkAppReferenceRunner] index the application references failed.", e);
+        }
+    }
+}
@@ -55,6 +55,13 @@ public interface DistributedTaskService extends IService<DistributedTask> {
      */
     void removeServer(String serverId);
 
+    /**
+     * Get the id of the current server, the owner of the applications processed locally.
+     *
+     * @return the server id, null if HA is enabled and the server isn't registered yet
+     */
+    String getServerId();
+
     /**
      * Determine whether the task is processed locally.
      *
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.console.core.entity.FlinkAppReference;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import java.util.List;
+
+/**
+ * Reverse index of the variables and resources used by the flink applications, kept up to date
+ * when the args, the jar or a flink sql version of an application is saved.
+ */
+public interface FlinkAppReferenceService extends IService<FlinkAppReference> {
+
+    /**
+     * Index the variables in the args, and the resource of the jar of the application.
+     *
+     * @param application the saved application
+     */
+    void indexApplication(FlinkApplication application);
+
+    /**
+     * Index the variables and the team resources of a flink sql version.
+     *
+     * @param appId the application of the flink sql
+     * @param sqlId the flink sql id
+     * @param sql the flink sql, not compressed
+     * @param teamResource json array of the resource ids used by the flink sql
+     */
+    void indexSql(Long appId, Long sqlId, String sql, String teamResource);
+
+    /**
+     * Remove the references of a flink sql version.
+     *
+     * @param sqlId the flink sql id
+     */
+    void removeBySqlId(Long sqlId);
+
+    /**
+     * Remove the references of an application.
+     *
+     * @param appId the application id
+     */
+    void removeByAppId(Long appId);
+
+    /**
+     * @param teamId the team of the variable
+     * @param variableCode the variable code
+     * @return ids of the applications of the team using the variable
+     */
+    List<Long> listAppIdsByVariable(Long teamId, String variableCode);
+
+    /**
+     * @param teamId the team of the resource
+     * @param resourceId the resource id
+     * @return ids of the applications of the team using the resource
+     */
+    List<Long> listAppIdsByResource(Long teamId, Long resourceId);
+
+    /** Index all the applications if the index is empty, e.g. after an upgrade. */
+    void rebuildIfEmpty();
+}
@@ -100,6 +100,14 @@ public interface FlinkSqlService extends IService<FlinkSql> {
      */
     void removeByAppId(Long appId);
 
+    /**
+     * Remove FlinkSQL by id, along with its references
+     *
+     * @param id FlinkSQL id
+     * @return true if the FlinkSQL was removed
+     */
+    boolean removeById(Long id);
+
     /**
      * FlinkSQL rollback
      *
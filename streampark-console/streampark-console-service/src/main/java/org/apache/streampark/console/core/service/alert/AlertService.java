@@ -30,4 +30,14 @@ public interface AlertService {
      * @return true if the alert is sent successfully, false otherwise
      */
     boolean alert(Long alertConfigId, AlertTemplate alertTemplate);
+
+    /**
+     * Queues an alert to be sent asynchronously, the same alerts within the merge window are merged
+     * into one digest.
+     *
+     * @param alertConfigId the ID of the alert configuration
+     * @param alertTemplate the alert template to use for generating the alert content
+     * @return true if the alert is queued, false if it is dropped
+     */
+    boolean alertAsync(Long alertConfigId, AlertTemplate alertTemplate);
 }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.alert.impl;
+
+import org.apache.streampark.common.util.ThreadUtils;
+import org.apache.streampark.console.base.exception.AlertException;
+import org.apache.streampark.console.core.bean.AlertConfigParams;
+import org.apache.streampark.console.core.bean.AlertTemplate;
+import org.apache.streampark.console.core.enums.AlertTypeEnum;
+import org.apache.streampark.console.core.service.alert.AlertNotifyService;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends the alerts of {@link AlertServiceImpl}.
+ *
+ * <ul>
+ *   <li>{@link #dispatch} only queues the alert, the alerts beyond the queue capacity are dropped, so
+ *       the watchers are never held up by the alert channels.
+ *   <li>The same alert, i.e. the same alert config, job, status and type, is sent at most once per
+ *       merge window, the repeats within the window are merged into one digest sent when the window
+ *       closes.
+ *   <li>Every channel has its own senders, the channels of an alert are sent in parallel, and every
+ *       channel is interrupted after the channel timeout, counted from the moment it starts sending.
+ * </ul>
+ */
+@Slf4j
+public class AlertDispatcher implements Closeable {
+
+    private final Function<Long, AlertConfigParams> configLoader;
+
+    private final Function<AlertTypeEnum, AlertNotifyService> channels;
+
+    private final int queueCapacity;
+
+    private final int workersPerChannel;
+
+    private final long mergeWindowMillis;
+
+    private final long channelTimeoutMillis;
+
+    private final BlockingQueue<PendingAlert> queue;
+
+    private final Map<AlertTypeEnum, ExecutorService> senders = new ConcurrentHashMap<>();
+
+    /** the open merge windows, only the dispatcher thread opens a window */
+    private final Map<AlertKey, MergeWindow> windows = new ConcurrentHashMap<>();
+
+    /** closes the merge windows, and sends their digests */
+    private final ScheduledExecutorService windowCloser =
+        Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("streampark-alert-window-"));
+
+    /** interrupts the channels beyond their timeout, does nothing else so that it is always on time */
+    private final ScheduledExecutorService timer =
+        Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("streampark-alert-timer-"));
+
+    private final ExecutorService dispatcher =
+        Executors.newSingleThreadExecutor(ThreadUtils.threadFactory("streampark-alert-dispatcher-"));
+
+    /**
+     * @param configLoader alert config id -> alert config params
+     * @param channels alert type -> channel
+     * @param queueCapacity capacity of the alert queue and of the queue of every channel
+     * @param workersPerChannel senders of every channel
+     * @param mergeWindowMillis merge window of the same alerts, 0 to send every alert
+     * @param channelTimeoutMillis timeout of every channel
+     */
+    public AlertDispatcher(
+                           Function<Long, AlertConfigParams> configLoader,
+                           Function<AlertTypeEnum, AlertNotifyService> channels,
+                           int queueCapacity,
+                           int workersPerChannel,
+                           long mergeWindowMillis,
+                           long channelTimeoutMillis) {
+        this.configLoader = configLoader;
+        this.channels = channels;
+        this.queueCapacity = queueCapacity;
+        this.workersPerChannel = workersPerChannel;
+        this.mergeWindowMillis = mergeWindowMillis;
+        this.channelTimeoutMillis = channelTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dispatcher.execute(this::run);
+    }
+
+    /**
+     * Queue the alert, it returns at once.
+     *
+     * @return false if the alert was dropped
+     */
+    public boolean dispatch(Long alertConfigId, AlertTemplate template) {
+        if (alertConfigId == null) {
+            log.warn("[StreamPark][AlertDispatcher] alertConfigId is null, skip the alert {}", template.getSubject());
+            return false;
+        }
+        if (!queue.offer(new PendingAlert(alertConfigId, template))) {
+            log.warn("[StreamPark][AlertDispatcher] the alert queue is full, drop the alert {}", template.getSubject());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Send the alert at once, without queuing nor merging, e.g. a test alert.
+     *
+     * @return true if every channel sent the alert
+     * @throws AlertException the errors of the channels
+     */
+    public boolean send(Long alertConfigId, AlertTemplate template) throws AlertException {
+        AlertConfigParams params = configLoader.apply(alertConfigId);
+        if (params == null) {
+            throw new AlertException("The alert config " + alertConfigId + " doesn't exist.");
+        }
+        List<AlertTypeEnum> alertTypes = AlertTypeEnum.decode(params.getAlertType());
+        List<Future<Boolean>> futures = new ArrayList<>(alertTypes.size());
+        alertTypes.forEach(alertType -> futures.add(send(alertType, params, template)));
+
+        boolean result = true;
+        AlertException error = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                result &= futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AlertException(e);
+            } catch (CancellationException | ExecutionException e) {
+                result = false;
+                String message = e instanceof CancellationException
+                    ? alertTypes.get(i) + " timed out after " + channelTimeoutMillis + "ms"
+                    : e.getCause().getMessage();
+                // merge the errors, and keep the details of the first one
+                error = error == null
+                    ? new AlertException(message, e.getCause())
+                    : new AlertException(error.getMessage() + "\n" + message, error.getCause());
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                PendingAlert alert = queue.take();
+                AlertKey key = new AlertKey(alert.alertConfigId, alert.template);
+                if (mergeWindowMillis > 0) {
+                    if (windows.computeIfPresent(key, (k, window) -> window.merge(alert.template)) != null) {
+                        continue;
+                    }
+                    windows.put(key, new MergeWindow());
+                    windowCloser.schedule(() -> closeWindow(key), mergeWindowMillis, TimeUnit.MILLISECONDS);
+                }
+                deliver(alert.alertConfigId, alert.template);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("[StreamPark][AlertDispatcher] dispatch alert failed.", e);
+            }
+        }
+    }
+
+    private void closeWindow(AlertKey key) {
+        MergeWindow window = windows.remove(key);
+        if (window == null || window.repeats == 0) {
+            return;
+        }
+        AlertTemplate digest = window.latest;
+        String suffix = String.format(
+            " (%d more times in the last %ds)", window.repeats, TimeUnit.MILLISECONDS.toSeconds(mergeWindowMillis));
+        digest.setTitle(digest.getTitle() + suffix);
+        digest.setSubject(digest.getSubject() + suffix);
+        try {
+            deliver(key.alertConfigId, digest);
+        } catch (Exception e) {
+            log.error("[StreamPark][AlertDispatcher] send the digest of {} failed.", digest.getSubject(), e);
+        }
+    }
+
+    private void deliver(Long alertConfigId, AlertTemplate template) {
+        AlertConfigParams params = configLoader.apply(alertConfigId);
+        if (params == null) {
+            log.warn("[StreamPark][AlertDispatcher] the alert config {} doesn't exist, skip the alert {}",
+                alertConfigId, template.getSubject());
+            return;
+        }
+        AlertTypeEnum.decode(params.getAlertType()).forEach(alertType -> send(alertType, params, template));
+    }
+
+    private Future<Boolean> send(AlertTypeEnum alertType, AlertConfigParams params, AlertTemplate template) {
+        ExecutorService sender = senders.computeIfAbsent(alertType, this::newSender);
+        FutureTask<Boolean> future = new FutureTask<>(() -> {
+            try {
+                boolean result = channels.apply(alertType).doAlert(params, template);
+                if (!result) {
+                    log.warn("[StreamPark][AlertDispatcher] {} failed to send the alert {}",
+                        alertType, template.getSubject());
+                }
+                return result;
+            } catch (AlertException e) {
+                log.error("[StreamPark][AlertDispatcher] {} failed to send the alert {}",
+                    alertType, template.getSubject(), e);
+                throw e;
+            }
+        });
+        try {
+            sender.execute(() -> {
+                // the alerts queued behind the others of the channel are not timed out
+                ScheduledFuture<?> timeout = timer.schedule(() -> {
+                    if (future.cancel(true)) {
+                        log.warn("[StreamPark][AlertDispatcher] {} timed out after {}ms, the alert {} was interrupted",
+                            alertType, channelTimeoutMillis, template.getSubject());
+                    }
+                }, channelTimeoutMillis, TimeUnit.MILLISECONDS);
+                try {
+                    future.run();
+                } finally {
+                    timeout.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("[StreamPark][AlertDispatcher] {} is busy, drop the alert {}", alertType, template.getSubject());
+            CompletableFuture<Boolean> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new AlertException(alertType + " is busy, the alert was dropped"));
+            return rejected;
+        }
+        return future;
+    }
+
+    private ExecutorService newSender(AlertTypeEnum alertType) {
+        return new ThreadPoolExecutor(
+            workersPerChannel,
+            workersPerChannel,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            ThreadUtils.threadFactory("streampark-alert-" + alertType.name().toLowerCase() + "-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        windowCloser.shutdownNow();
+        timer.shutdownNow();
+        senders.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private static final class PendingAlert {
+
+        private final Long alertConfigId;
+
+        private final AlertTemplate template;
+
+        private PendingAlert(Long alertConfigId, AlertTemplate template) {
+            this.alertConfigId = alertConfigId;
+            this.template = template;
+        }
+    }
+
+    private static final class AlertKey {
+
+        private final Long alertConfigId;
+
+        private final String jobName;
+
+        private final String status;
+
+        private final Integer type;
+
+        private AlertKey(Long alertConfigId, AlertTemplate template) {
+            this.alertConfigId = alertConfigId;
+            this.jobName = template.getJobName();
+            this.status = template.getStatus();
+            this.type = template.getType();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AlertKey)) {
+                return false;
+            }
+            AlertKey that = (AlertKey) o;
+            return Objects.equals(alertConfigId, that.alertConfigId)
+                && Objects.equals(jobName, that.jobName)
+                && Objects.equals(status, that.status)
+                && Objects.equals(type, that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(alertConfigId, jobName, status, type);
+        }
+    }
+
+    /** The repeats of an alert since it was sent, only changed under the lock of the windows map. */
+    private static final class MergeWindow {
+
+        private int repeats;
+
+        private AlertTemplate latest;
+
+        private MergeWindow merge(AlertTemplate template) {
+            repeats++;
+            latest = template;
+            return this;
+        }
+    }
+}
@@ -17,25 +17,21 @@
 
 package org.apache.streampark.console.core.service.alert.impl;
 
-import org.apache.streampark.console.base.exception.AlertException;
 import org.apache.streampark.console.base.util.SpringContextUtils;
 import org.apache.streampark.console.core.bean.AlertConfigParams;
 import org.apache.streampark.console.core.bean.AlertTemplate;
-import org.apache.streampark.console.core.entity.AlertConfig;
-import org.apache.streampark.console.core.enums.AlertTypeEnum;
 import org.apache.streampark.console.core.service.alert.AlertConfigService;
 import org.apache.streampark.console.core.service.alert.AlertService;
 
-import org.apache.flink.api.java.tuple.Tuple2;
-
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 
-import javax.annotation.Nonnull;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -44,63 +40,53 @@ public class AlertServiceImpl implements AlertService {
 
     private final AlertConfigService alertConfigService;
 
+    @Value("${streampark.alert.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${streampark.alert.workers-per-channel:2}")
+    private int workersPerChannel;
+
+    @Value("${streampark.alert.merge-window:300}")
+    private long mergeWindowSeconds;
+
+    @Value("${streampark.alert.channel-timeout:30}")
+    private long channelTimeoutSeconds;
+
+    private AlertDispatcher dispatcher;
+
+    @PostConstruct
+    public void init() {
+        dispatcher = new AlertDispatcher(
+            alertConfigId -> AlertConfigParams.of(alertConfigService.getById(alertConfigId)),
+            alertType -> SpringContextUtils.getBean(alertType.getClazz()),
+            queueCapacity,
+            workersPerChannel,
+            TimeUnit.SECONDS.toMillis(mergeWindowSeconds),
+            TimeUnit.SECONDS.toMillis(channelTimeoutSeconds));
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.close();
+    }
+
     @Override
     public boolean alert(Long alertConfigId, AlertTemplate alertTemplate) {
-
         if (alertConfigId == null) {
             log.warn("alertConfigId is null");
             return false;
         }
-        AlertConfig alertConfig = alertConfigService.getById(alertConfigId);
         try {
-            AlertConfigParams params = AlertConfigParams.of(alertConfig);
-            List<AlertTypeEnum> alertTypeEnums = AlertTypeEnum.decode(params.getAlertType());
-            if (CollectionUtils.isEmpty(alertTypeEnums)) {
-                return true;
-            }
-            // No use thread pool, ensure that the alarm can be sent successfully
-            Tuple2<Boolean, AlertException> reduce = triggerAlert(alertTemplate, alertTypeEnums, params);
-            if (reduce.f1 != null) {
-                throw reduce.f1;
-            }
-
-            return reduce.f0;
+            // the channels are sent in parallel, each one within the channel timeout
+            return dispatcher.send(alertConfigId, alertTemplate);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
         return false;
     }
 
-    @Nonnull
-    private Tuple2<Boolean, AlertException> triggerAlert(
-                                                         AlertTemplate alertTemplate,
-                                                         List<AlertTypeEnum> alertTypeEnums, AlertConfigParams params) {
-        return alertTypeEnums.stream()
-            .map(
-                alertTypeEnum -> {
-                    try {
-                        boolean alertRes = SpringContextUtils.getBean(alertTypeEnum.getClazz())
-                            .doAlert(params, alertTemplate);
-                        return new Tuple2<Boolean, AlertException>(alertRes, null);
-                    } catch (AlertException e) {
-                        return new Tuple2<>(false, e);
-                    }
-                })
-            .reduce(
-                new Tuple2<>(true, null),
-                (tp1, tp2) -> {
-                    boolean alertResult = tp1.f0 & tp2.f0;
-                    if (tp1.f1 == null && tp2.f1 == null) {
-                        return new Tuple2<>(tp1.f0 & tp2.f0, null);
-                    }
-                    if (tp1.f1 != null && tp2.f1 != null) {
-                        // merge multiple exception, and keep the details of the first exception
-                        AlertException alertException = new AlertException(
-                            tp1.f1.getMessage() + "\n" + tp2.f1.getMessage(),
-                            tp1.f1);
-                        return new Tuple2<>(alertResult, alertException);
-                    }
-                    return new Tuple2<>(alertResult, tp1.f1 == null ? tp2.f1 : tp1.f1);
-                });
+    @Override
+    public boolean alertAsync(Long alertConfigId, AlertTemplate alertTemplate) {
+        return dispatcher.dispatch(alertConfigId, alertTemplate);
     }
 }
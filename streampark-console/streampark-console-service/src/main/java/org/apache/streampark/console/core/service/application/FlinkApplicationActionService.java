@@ -22,6 +22,10 @@ import org.apache.streampark.console.core.entity.FlinkApplication;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import javax.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This interface represents an Application Operation Service. It extends the IService interface for
  * handling Application entities.
@@ -45,6 +49,16 @@ public interface FlinkApplicationActionService extends IService<FlinkApplication
      */
     void restart(FlinkApplication appParam) throws Exception;
 
+    /**
+     * Gets the submission of the application started on this node.
+     *
+     * @param appId The application's id.
+     * @return the submission, which completes once the cluster accepted or rejected the job, null if
+     *     the application isn't being submitted on this node.
+     */
+    @Nullable
+    CompletableFuture<?> getStartFuture(Long appId);
+
     /**
      * Revokes access for the given application.
      *
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.application;
+
+import org.apache.streampark.console.core.bean.BulkOperation;
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Starts or restarts many flink applications at once, e.g. after a platform upgrade or a cluster
+ * outage. The applications are queued by priority, dispatched at a limited rate, and only a few of
+ * them are submitted to the same cluster or yarn queue at the same time.
+ */
+public interface FlinkApplicationBulkActionService {
+
+    /**
+     * Queues the start or the restart of the applications.
+     *
+     * @param teamId The team of the applications, the applications of the other teams are ignored.
+     * @param appIds The ids of the applications.
+     * @param action {@link DistributedTaskEnum#START} or {@link DistributedTaskEnum#RESTART}.
+     * @param priority Operations with a higher priority are dispatched first.
+     * @param restoreOrTriggerSavepoint Trigger a savepoint on cancel and restore from the latest
+     *     savepoint on start.
+     * @return the queued operation.
+     */
+    BulkOperation submit(
+                         Long teamId, Collection<Long> appIds, DistributedTaskEnum action, int priority,
+                         boolean restoreOrTriggerSavepoint);
+
+    /**
+     * Gets the progress of an operation.
+     *
+     * @param id The operation id.
+     * @return the operation, null if it doesn't exist or was done a while ago.
+     */
+    BulkOperation get(String id);
+
+    /**
+     * Lists the operations of the team.
+     *
+     * @param teamId The team id.
+     * @return the pending and the recently done operations.
+     */
+    List<BulkOperation> list(Long teamId);
+
+    /**
+     * Cancels the applications of the operation that weren't dispatched yet.
+     *
+     * @param id The operation id.
+     */
+    void cancel(String id);
+}
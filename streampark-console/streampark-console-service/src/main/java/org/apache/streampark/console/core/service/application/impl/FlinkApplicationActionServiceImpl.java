@@ -238,6 +238,11 @@ public class FlinkApplicationActionServiceImpl
         this.start(appParam, false);
     }
 
+    @Override
+    public CompletableFuture<?> getStartFuture(Long appId) {
+        return startFutureMap.get(appId);
+    }
+
     @Override
     public void abort(Long id) {
         FlinkApplication application = this.baseMapper.selectApp(id);
@@ -401,6 +406,7 @@ public class FlinkApplicationActionServiceImpl
 
                 if (application.isKubernetesModeJob()) {
                     k8SFlinkTrackMonitor.unWatching(k8sWatcherWrapper.toTrackId(application));
+                    KubernetesDeploymentHelper.stopWatchDeploymentLog(application.getJobId());
                 }
             });
     }
@@ -840,6 +846,7 @@ public class FlinkApplicationActionServiceImpl
             TrackId trackId = k8sWatcherWrapper.toTrackId(application);
             k8SFlinkTrackMonitor.unWatching(trackId);
             k8SFlinkTrackMonitor.doWatching(trackId);
+            KubernetesDeploymentHelper.stopWatchDeploymentLog(application.getJobId());
         } else {
             FlinkAppHttpWatcher.unWatching(application.getId());
         }
@@ -17,11 +17,14 @@
 
 package org.apache.streampark.console.core.service.application.impl;
 
+import org.apache.streampark.common.conf.CommonConfig;
+import org.apache.streampark.common.conf.InternalConfigHolder;
 import org.apache.streampark.common.conf.Workspace;
 import org.apache.streampark.common.constants.Constants;
 import org.apache.streampark.common.enums.ApplicationType;
 import org.apache.streampark.common.enums.FlinkDeployMode;
 import org.apache.streampark.common.enums.FlinkJobType;
+import org.apache.streampark.common.fs.ArtifactSync;
 import org.apache.streampark.common.fs.FsOperator;
 import org.apache.streampark.common.util.AssertUtils;
 import org.apache.streampark.common.util.ExceptionUtils;
@@ -239,8 +242,8 @@ public class FlinkApplicationBuildPipelineServiceImpl
                         // customCode upload jar to appHome...
                         String appHome = app.getAppHome();
                         FsOperator fsOperator = app.getFsOperator();
-                        fsOperator.delete(appHome);
                         if (app.isUploadJob()) {
+                            fsOperator.delete(appHome);
                             String uploadJar = appUploads.concat("/").concat(app.getJar());
                             File localJar = new File(
                                 String.format(
@@ -256,8 +259,8 @@ public class FlinkApplicationBuildPipelineServiceImpl
                                     uploadJar = appUploads.concat("/").concat(localJar.getName());
                                 }
                             }
-                            // upload jar copy to appHome
-                            checkOrElseUploadJar(app.getFsOperator(), localJar, uploadJar, appUploads);
+                            // upload jar unless the same jar was uploaded, then copy it to appHome
+                            ArtifactSync.sync(fsOperator, localJar, appUploads);
 
                             switch (app.getApplicationType()) {
                                 case STREAMPARK_FLINK:
@@ -274,7 +277,8 @@ public class FlinkApplicationBuildPipelineServiceImpl
                                             + app.getApplicationType());
                             }
                         } else {
-                            fsOperator.upload(app.getDistHome(), appHome);
+                            // only the changed files of the dist home are uploaded, the stale ones are deleted
+                            ArtifactSync.sync(fsOperator, new File(app.getDistHome()), appHome, true);
                         }
                     } else {
                         if (!app.getDependencyObject().getJar().isEmpty()) {
@@ -288,9 +292,7 @@ public class FlinkApplicationBuildPipelineServiceImpl
                                         "Missing file: " + jar + ", please upload again");
                                 }
                                 if (localJar.exists()) {
-                                    checkOrElseUploadJar(
-                                        FsOperator.lfs(), localJar, uploadJar.getAbsolutePath(),
-                                        localUploads);
+                                    ArtifactSync.sync(FsOperator.lfs(), localJar, localUploads);
                                 }
                             }
                         }
@@ -535,7 +537,8 @@ public class FlinkApplicationBuildPipelineServiceImpl
                 dockerConfig.getNamespace(),
                 dockerConfig.getUsername(),
                 dockerConfig.getPassword()),
-            app.getIngressTemplate());
+            app.getIngressTemplate(),
+            InternalConfigHolder.get(CommonConfig.DOCKER_LAYERED_IMAGE()));
         return k8sApplicationBuildRequest;
     }
 
@@ -658,26 +661,6 @@ public class FlinkApplicationBuildPipelineServiceImpl
         return updateById(pipe);
     }
 
-    /**
-     * Check if the jar exists, and upload a copy if it does not exist
-     *
-     * @param fsOperator
-     * @param localJar
-     * @param targetJar
-     * @param targetDir
-     */
-    private void checkOrElseUploadJar(
-                                      FsOperator fsOperator, File localJar, String targetJar, String targetDir) {
-        if (!fsOperator.exists(targetJar)) {
-            fsOperator.upload(localJar.getAbsolutePath(), targetDir, false, true);
-        } else {
-            // The file exists to check whether it is consistent, and if it is inconsistent, re-upload it
-            if (!FileUtils.equals(localJar, new File(targetJar))) {
-                fsOperator.upload(localJar.getAbsolutePath(), targetDir, false, true);
-            }
-        }
-    }
-
     /**
      * Gets and parses dependencies on the application
      *
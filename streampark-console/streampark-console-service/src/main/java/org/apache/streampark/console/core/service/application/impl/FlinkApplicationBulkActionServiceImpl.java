@@ -0,0 +1,464 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.application.impl;
+
+import org.apache.streampark.common.conf.ConfigKeys;
+import org.apache.streampark.common.enums.FlinkDeployMode;
+import org.apache.streampark.common.util.ThreadUtils;
+import org.apache.streampark.console.base.exception.ApiAlertException;
+import org.apache.streampark.console.core.bean.BulkOperation;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkEnv;
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
+import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
+import org.apache.streampark.console.core.runner.EnvInitializer;
+import org.apache.streampark.console.core.service.DistributedTaskService;
+import org.apache.streampark.console.core.service.FlinkEnvService;
+import org.apache.streampark.console.core.service.application.FlinkApplicationActionService;
+import org.apache.streampark.console.core.service.application.FlinkApplicationBulkActionService;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.subject.Subject;
+
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The applications of all the bulk operations of this node share one queue:
+ *
+ * <ul>
+ *   <li>the queue is ordered by the priority of the operations, then by their submission order;
+ *   <li>the applications are dispatched at most {@code job.bulk-action.permits-per-second} per
+ *       second, and at most {@code job.bulk-action.max-concurrent} of them are being submitted at the
+ *       same time;
+ *   <li>at most {@code max-concurrent-per-cluster} applications are submitted to the same session or
+ *       remote cluster, or k8s namespace, and {@code max-concurrent-per-queue} to the same yarn queue,
+ *       the applications of a saturated target wait aside so they don't hold back the other targets;
+ *   <li>the flink environment and the workspace of the applications are checked and uploaded once per
+ *       operation, instead of once per application.
+ * </ul>
+ *
+ * <p>An application is being submitted until the cluster accepted or rejected it, or at most {@code
+ * job.bulk-action.submit-timeout} seconds, a local start still running then is aborted. The
+ * applications owned by other console nodes are started as distributed tasks, their submission is
+ * followed through the database.
+ */
+@Slf4j
+@Service
+public class FlinkApplicationBulkActionServiceImpl implements FlinkApplicationBulkActionService {
+
+    private static final long POLL_INTERVAL_MILLIS = 2000L;
+
+    /** done operations are kept for their progress to be read */
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Autowired
+    private FlinkApplicationActionService applicationActionService;
+
+    @Autowired
+    private FlinkEnvService flinkEnvService;
+
+    @Autowired
+    private EnvInitializer envInitializer;
+
+    @Autowired
+    private DistributedTaskService distributedTaskService;
+
+    @Value("${job.bulk-action.permits-per-second:2}")
+    private double permitsPerSecond;
+
+    @Value("${job.bulk-action.max-concurrent:20}")
+    private int maxConcurrent;
+
+    @Value("${job.bulk-action.max-concurrent-per-cluster:5}")
+    private int maxConcurrentPerCluster;
+
+    @Value("${job.bulk-action.max-concurrent-per-queue:5}")
+    private int maxConcurrentPerQueue;
+
+    @Value("${job.bulk-action.submit-timeout:300}")
+    private long submitTimeoutSeconds;
+
+    private final Map<String, BulkOperation> operations = new ConcurrentHashMap<>();
+
+    private final PriorityBlockingQueue<BulkTask> queue = new PriorityBlockingQueue<>(
+        64,
+        Comparator.comparingInt((BulkTask t) -> -t.operation.getPriority()).thenComparingLong(t -> t.seq));
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** target -> submitting applications, guarded by this */
+    private final Map<String, Integer> submitting = new HashMap<>();
+
+    /** target -> applications waiting for the target, guarded by this */
+    private final Map<String, Deque<BulkTask>> waiting = new HashMap<>();
+
+    private Semaphore permits;
+
+    private RateLimiter rateLimiter;
+
+    private ExecutorService dispatcher;
+
+    private ScheduledExecutorService poller;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        rateLimiter = RateLimiter.create(permitsPerSecond);
+        poller = Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("streampark-bulk-action-poller-"));
+        dispatcher = Executors.newSingleThreadExecutor(ThreadUtils.threadFactory("streampark-bulk-action-dispatcher-"));
+        dispatcher.execute(this::dispatch);
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        poller.shutdownNow();
+    }
+
+    @Override
+    public BulkOperation submit(
+                                Long teamId, Collection<Long> appIds, DistributedTaskEnum action, int priority,
+                                boolean restoreOrTriggerSavepoint) {
+        ApiAlertException.throwIfFalse(
+            action == DistributedTaskEnum.START || action == DistributedTaskEnum.RESTART,
+            "[StreamPark] Only start and restart can be done in bulk.");
+        ApiAlertException.throwIfTrue(appIds == null || appIds.isEmpty(), "[StreamPark] No application to " + action);
+
+        List<FlinkApplication> applications = applicationActionService.listByIds(new LinkedHashSet<>(appIds)).stream()
+            .filter(app -> app.getTeamId().equals(teamId))
+            .collect(Collectors.toList());
+        ApiAlertException.throwIfTrue(applications.isEmpty(), "[StreamPark] No application of the team found.");
+
+        purgeDoneOperations();
+        BulkOperation operation =
+            new BulkOperation(UUID.randomUUID().toString(), teamId, action, priority, applications.size());
+        operations.put(operation.getId(), operation);
+        // the actions check the login user, they're run on behalf of the caller
+        Subject subject = SecurityUtils.getSubject();
+        Map<String, Optional<String>> envChecks = new ConcurrentHashMap<>();
+        for (FlinkApplication application : applications) {
+            queue.add(new BulkTask(
+                operation, application, subject, envChecks, restoreOrTriggerSavepoint, sequence.getAndIncrement()));
+        }
+        log.info("[StreamPark][FlinkApplicationBulkActionServiceImpl] queued {} of {} applications, operation: {}",
+            action, applications.size(), operation.getId());
+        return operation;
+    }
+
+    @Override
+    public BulkOperation get(String id) {
+        return operations.get(id);
+    }
+
+    @Override
+    public List<BulkOperation> list(Long teamId) {
+        purgeDoneOperations();
+        return operations.values().stream()
+            .filter(operation -> operation.getTeamId().equals(teamId))
+            .sorted(Comparator.comparingLong(BulkOperation::getCreateTime).reversed())
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public void cancel(String id) {
+        BulkOperation operation = operations.get(id);
+        ApiAlertException.throwIfNull(operation, "[StreamPark] The bulk operation doesn't exist.");
+        operation.cancel();
+        // the waiting applications of the operation are never dequeued again unless a slot is released
+        synchronized (this) {
+            waiting.values().forEach(tasks -> tasks.removeIf(task -> {
+                if (task.operation == operation) {
+                    operation.onCanceled();
+                    return true;
+                }
+                return false;
+            }));
+        }
+    }
+
+    private void purgeDoneOperations() {
+        long now = System.currentTimeMillis();
+        operations.values().removeIf(op -> op.isDone() && now - op.getEndTime() > RETENTION_MILLIS);
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                BulkTask task = queue.take();
+                if (task.operation.isCancelRequested()) {
+                    task.operation.onCanceled();
+                    continue;
+                }
+                permits.acquire();
+                if (!occupy(task)) {
+                    permits.release();
+                    continue;
+                }
+                rateLimiter.acquire();
+                execute(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("[StreamPark][FlinkApplicationBulkActionServiceImpl] dispatch failed.", e);
+            }
+        }
+    }
+
+    /** @return false if the target of the task is saturated, the task then waits for the target */
+    private synchronized boolean occupy(BulkTask task) {
+        int count = submitting.getOrDefault(task.target, 0);
+        if (count >= task.targetCapacity) {
+            waiting.computeIfAbsent(task.target, k -> new ArrayDeque<>()).add(task);
+            return false;
+        }
+        submitting.put(task.target, count + 1);
+        return true;
+    }
+
+    private synchronized void release(BulkTask task) {
+        int count = submitting.getOrDefault(task.target, 1) - 1;
+        if (count <= 0) {
+            submitting.remove(task.target);
+        } else {
+            submitting.put(task.target, count);
+        }
+        Deque<BulkTask> tasks = waiting.get(task.target);
+        if (tasks != null) {
+            BulkTask next = tasks.poll();
+            if (tasks.isEmpty()) {
+                waiting.remove(task.target);
+            }
+            if (next != null) {
+                queue.add(next);
+            }
+        }
+        permits.release();
+    }
+
+    private void execute(BulkTask task) {
+        BulkOperation operation = task.operation;
+        FlinkApplication application = task.application;
+        operation.onStarted();
+        String envError = checkEnv(task);
+        if (envError != null) {
+            onFailed(task, envError);
+            return;
+        }
+
+        long submitTime = System.currentTimeMillis();
+        FlinkApplication appParam = new FlinkApplication();
+        appParam.setId(application.getId());
+        appParam.setTeamId(application.getTeamId());
+        appParam.setRestoreOrTriggerSavepoint(task.restoreOrTriggerSavepoint);
+        try {
+            task.subject.execute(() -> {
+                if (operation.getAction() == DistributedTaskEnum.RESTART) {
+                    applicationActionService.restart(appParam);
+                } else {
+                    applicationActionService.start(appParam, false);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            onFailed(task, cause.getMessage());
+            return;
+        }
+
+        CompletableFuture<?> future = distributedTaskService.isLocalProcessing(application.getId())
+            ? applicationActionService.getStartFuture(application.getId())
+            : null;
+        if (future != null) {
+            // the start future is bounded by the submit timeout as well, cancelling it aborts the start
+            ScheduledFuture<?> timeout = poller.schedule(() -> {
+                if (onFailed(task, "not started in " + submitTimeoutSeconds + "s")) {
+                    future.cancel(true);
+                }
+            }, submitTimeoutSeconds, TimeUnit.SECONDS);
+            future.whenComplete((response, throwable) -> {
+                timeout.cancel(false);
+                if (throwable == null) {
+                    onSucceeded(task);
+                } else {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    onFailed(task, cause instanceof CancellationException ? "aborted" : cause.getMessage());
+                }
+            });
+        } else {
+            poller.schedule(() -> poll(task, submitTime), POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Follow the submission of an application that isn't submitted on this node, it was submitted
+     * once it got a new start time, and it failed once it got the failed state after the action.
+     */
+    private void poll(BulkTask task, long submitTime) {
+        try {
+            // the times are stored in seconds
+            long since = submitTime / 1000 * 1000;
+            FlinkApplication application = applicationActionService.getById(task.application.getId());
+            if (application == null) {
+                onFailed(task, "the application was deleted");
+                return;
+            }
+            if (isAfter(application.getStartTime(), since)) {
+                onSucceeded(task);
+                return;
+            }
+            if (FlinkAppStateEnum.FAILED == FlinkAppStateEnum.getState(application.getState())
+                && isAfter(application.getOptionTime(), since)) {
+                onFailed(task, "the application failed to start, please check its logs");
+                return;
+            }
+            if (System.currentTimeMillis() - submitTime > TimeUnit.SECONDS.toMillis(submitTimeoutSeconds)) {
+                onFailed(task, "not started in " + submitTimeoutSeconds + "s");
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("[StreamPark][FlinkApplicationBulkActionServiceImpl] poll application {} failed.",
+                task.application.getId(), e);
+        }
+        poller.schedule(() -> poll(task, submitTime), POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean isAfter(Date date, long millis) {
+        return date != null && date.getTime() >= millis;
+    }
+
+    /** @return null if the flink environment of the application is ready, otherwise the error message */
+    private String checkEnv(BulkTask task) {
+        FlinkApplication application = task.application;
+        String key = application.getStorageType() + "-" + application.getVersionId();
+        return task.envChecks.computeIfAbsent(key, k -> {
+            try {
+                FlinkEnv flinkEnv = flinkEnvService.getByIdOrDefault(application.getVersionId());
+                if (flinkEnv == null) {
+                    return Optional.of("can no found flink version");
+                }
+                envInitializer.checkFlinkEnv(application.getStorageType(), flinkEnv);
+                envInitializer.storageInitialize(application.getStorageType());
+                return Optional.empty();
+            } catch (Exception e) {
+                log.error("[StreamPark][FlinkApplicationBulkActionServiceImpl] check flink env {} failed.", k, e);
+                return Optional.of("check flink env failed: " + e.getMessage());
+            }
+        }).orElse(null);
+    }
+
+    private void onSucceeded(BulkTask task) {
+        if (task.finished.compareAndSet(false, true)) {
+            release(task);
+            task.operation.onSucceeded();
+        }
+    }
+
+    /** @return false if the task was already finished, e.g. it succeeded or timed out meanwhile */
+    private boolean onFailed(BulkTask task, String message) {
+        if (!task.finished.compareAndSet(false, true)) {
+            return false;
+        }
+        release(task);
+        log.warn("[StreamPark][FlinkApplicationBulkActionServiceImpl] {} application {} failed: {}",
+            task.operation.getAction(), task.application.getId(), message);
+        task.operation.onFailed(task.application.getId(), message, true);
+        return true;
+    }
+
+    private final class BulkTask {
+
+        private final BulkOperation operation;
+
+        private final FlinkApplication application;
+
+        private final Subject subject;
+
+        /** storage type and flink version -> error message of the check, shared by the operation */
+        private final Map<String, Optional<String>> envChecks;
+
+        private final boolean restoreOrTriggerSavepoint;
+
+        private final long seq;
+
+        /** the session or remote cluster, the k8s namespace, or the yarn queue of the application */
+        private final String target;
+
+        private final int targetCapacity;
+
+        /** the slot of the task is released once, by whichever of the outcomes comes first */
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private BulkTask(
+                         BulkOperation operation, FlinkApplication application, Subject subject,
+                         Map<String, Optional<String>> envChecks, boolean restoreOrTriggerSavepoint, long seq) {
+            this.operation = operation;
+            this.application = application;
+            this.subject = subject;
+            this.envChecks = envChecks;
+            this.restoreOrTriggerSavepoint = restoreOrTriggerSavepoint;
+            this.seq = seq;
+            FlinkDeployMode deployMode = application.getDeployModeEnum();
+            if (FlinkDeployMode.isYarnMode(deployMode) && FlinkDeployMode.YARN_SESSION != deployMode) {
+                String yarnQueue = (String) application.getHotParamsMap().get(ConfigKeys.KEY_YARN_APP_QUEUE());
+                this.target = "yarn-queue:" + (StringUtils.isBlank(yarnQueue) ? "default" : yarnQueue);
+                this.targetCapacity = maxConcurrentPerQueue;
+            } else if (FlinkDeployMode.KUBERNETES_NATIVE_APPLICATION == deployMode) {
+                this.target = "k8s-namespace:" + application.getK8sNamespace();
+                this.targetCapacity = maxConcurrentPerCluster;
+            } else {
+                this.target = "cluster:" + application.getFlinkClusterId();
+                this.targetCapacity = maxConcurrentPerCluster;
+            }
+        }
+    }
+}
@@ -121,8 +121,8 @@ public class FlinkApplicationInfoServiceImpl extends ServiceImpl<FlinkApplicatio
         Integer availableSlot = 0;
         Integer runningJob = 0;
 
-        // stat metrics from other than kubernetes mode
-        for (FlinkApplication app : FlinkAppHttpWatcher.getWatchingApps()) {
+        // stat metrics from other than kubernetes mode, including the apps watched by the other nodes
+        for (FlinkApplication app : FlinkAppHttpWatcher.getLiveApps()) {
             if (!teamId.equals(app.getTeamId())) {
                 continue;
             }
@@ -261,7 +261,7 @@ public class FlinkApplicationInfoServiceImpl extends ServiceImpl<FlinkApplicatio
     @Override
     public boolean existsRunningByClusterId(Long clusterId) {
         return baseMapper.existsRunningJobByClusterId(clusterId)
-            || FlinkAppHttpWatcher.getWatchingApps().stream()
+            || FlinkAppHttpWatcher.getLiveApps().stream()
                 .anyMatch(
                     application -> clusterId.equals(application.getFlinkClusterId())
                         && FlinkAppStateEnum.RUNNING == application
@@ -42,6 +42,7 @@ import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
 import org.apache.streampark.console.core.enums.OptionStateEnum;
 import org.apache.streampark.console.core.enums.ReleaseStateEnum;
 import org.apache.streampark.console.core.mapper.FlinkApplicationMapper;
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
 import org.apache.streampark.console.core.service.FlinkClusterService;
 import org.apache.streampark.console.core.service.FlinkEffectiveService;
 import org.apache.streampark.console.core.service.FlinkSqlService;
@@ -61,6 +62,7 @@ import org.apache.streampark.console.core.watcher.FlinkAppHttpWatcher;
 import org.apache.streampark.console.core.watcher.FlinkClusterWatcher;
 import org.apache.streampark.console.core.watcher.FlinkK8sWatcherWrapper;
 import org.apache.streampark.flink.kubernetes.FlinkK8sWatcher;
+import org.apache.streampark.flink.kubernetes.helper.KubernetesDeploymentHelper;
 import org.apache.streampark.flink.packer.pipeline.PipelineStatusEnum;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -120,6 +122,9 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
     @Autowired
     private FlinkSqlService flinkSqlService;
 
+    @Autowired
+    private FlinkAppReferenceService referenceService;
+
     @Autowired
     private SavepointService savepointService;
 
@@ -221,6 +226,7 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
         removeApp(application);
         if (application.isKubernetesModeJob()) {
             k8SFlinkTrackMonitor.unWatching(k8sWatcherWrapper.toTrackId(application));
+            KubernetesDeploymentHelper.stopWatchDeploymentLog(application.getJobId());
         } else {
             FlinkAppHttpWatcher.unWatching(appId);
         }
@@ -357,6 +363,7 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
 
         boolean saveSuccess = save(appParam);
         if (saveSuccess) {
+            referenceService.indexApplication(appParam);
             if (appParam.isFlinkSqlJobOrPyFlinkJob()) {
                 FlinkSql flinkSql = new FlinkSql(appParam);
                 flinkSqlService.create(flinkSql);
@@ -441,6 +448,7 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
 
         boolean saved = save(newApp);
         if (saved) {
+            referenceService.indexApplication(newApp);
             if (newApp.isFlinkSqlJob()) {
                 FlinkSql copyFlinkSql = flinkSqlService.getLatestFlinkSql(appParam.getId(), true);
                 newApp.setFlinkSql(copyFlinkSql.getSql());
@@ -588,6 +596,7 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
             application.setMainClass(appParam.getMainClass());
         }
         this.updateById(application);
+        referenceService.indexApplication(application);
         return true;
     }
 
@@ -659,6 +668,7 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
             }
         }
         this.updateById(application);
+        referenceService.indexApplication(application);
         this.configService.update(appParam, application.isRunning());
     }
 
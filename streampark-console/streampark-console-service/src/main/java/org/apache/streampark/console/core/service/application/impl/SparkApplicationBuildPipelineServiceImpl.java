@@ -21,6 +21,7 @@ import org.apache.streampark.common.conf.Workspace;
 import org.apache.streampark.common.constants.Constants;
 import org.apache.streampark.common.enums.ApplicationType;
 import org.apache.streampark.common.enums.SparkDeployMode;
+import org.apache.streampark.common.fs.ArtifactSync;
 import org.apache.streampark.common.fs.FsOperator;
 import org.apache.streampark.common.util.AssertUtils;
 import org.apache.streampark.common.util.ExceptionUtils;
@@ -214,8 +215,8 @@ public class SparkApplicationBuildPipelineServiceImpl
                         // spark jar and pyspark upload resource to appHome...
                         String appHome = app.getAppHome();
                         FsOperator fsOperator = app.getFsOperator();
-                        fsOperator.delete(appHome);
                         if (app.isUploadJob()) {
+                            fsOperator.delete(appHome);
                             String uploadJar = appUploads.concat("/").concat(app.getJar());
                             File localJar = new File(
                                 String.format(
@@ -231,8 +232,8 @@ public class SparkApplicationBuildPipelineServiceImpl
                                     uploadJar = appUploads.concat("/").concat(localJar.getName());
                                 }
                             }
-                            // upload jar copy to appHome
-                            checkOrElseUploadJar(app.getFsOperator(), localJar, uploadJar, appUploads);
+                            // upload jar unless the same jar was uploaded, then copy it to appHome
+                            ArtifactSync.sync(fsOperator, localJar, appUploads);
 
                             switch (app.getApplicationType()) {
                                 case STREAMPARK_SPARK:
@@ -249,7 +250,8 @@ public class SparkApplicationBuildPipelineServiceImpl
                                             + app.getApplicationType());
                             }
                         } else {
-                            fsOperator.upload(app.getDistHome(), appHome);
+                            // only the changed files of the dist home are uploaded, the stale ones are deleted
+                            ArtifactSync.sync(fsOperator, new File(app.getDistHome()), appHome, true);
                         }
                     } else {
                         if (!app.getDependencyObject().getJar().isEmpty()) {
@@ -263,9 +265,7 @@ public class SparkApplicationBuildPipelineServiceImpl
                                         "Missing file: " + jar + ", please upload again");
                                 }
                                 if (localJar.exists()) {
-                                    checkOrElseUploadJar(
-                                        FsOperator.lfs(), localJar, uploadJar.getAbsolutePath(),
-                                        localUploads);
+                                    ArtifactSync.sync(FsOperator.lfs(), localJar, localUploads);
                                 }
                             }
                         }
@@ -519,26 +519,6 @@ public class SparkApplicationBuildPipelineServiceImpl
         return updateById(pipe);
     }
 
-    /**
-     * Check if the jar exists, and upload a copy if it does not exist
-     *
-     * @param fsOperator
-     * @param localJar
-     * @param targetJar
-     * @param targetDir
-     */
-    private void checkOrElseUploadJar(
-                                      FsOperator fsOperator, File localJar, String targetJar, String targetDir) {
-        if (!fsOperator.exists(targetJar)) {
-            fsOperator.upload(localJar.getAbsolutePath(), targetDir, false, true);
-        } else {
-            // The file exists to check whether it is consistent, and if it is inconsistent, re-upload it
-            if (!FileUtils.equals(localJar, new File(targetJar))) {
-                fsOperator.upload(localJar.getAbsolutePath(), targetDir, false, true);
-            }
-        }
-    }
-
     /**
      * Gets and parses dependencies on the application
      *
@@ -32,12 +32,14 @@ import org.apache.streampark.console.core.mapper.DistributedTaskMapper;
 import org.apache.streampark.console.core.service.DistributedTaskService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationActionService;
 import org.apache.streampark.console.core.service.application.SparkApplicationActionService;
+import org.apache.streampark.console.core.watcher.ServerRingChangedEvent;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -56,6 +58,11 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     implements
         DistributedTaskService {
 
+    /**
+     * Server Id of the console without HA
+     */
+    private static final String STANDALONE_SERVER_ID = "standalone";
+
     @Qualifier("streamparkDistributedTaskExecutor")
     @Autowired
     private Executor taskExecutor;
@@ -66,6 +73,9 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Autowired
     private SparkApplicationActionService sparkApplicationActionService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Server Id
      */
@@ -180,6 +190,7 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Override
     public void addServer(String serverId) {
         consistentHash.add(serverId);
+        eventPublisher.publishEvent(new ServerRingChangedEvent(serverId, true));
     }
 
     /**
@@ -190,6 +201,12 @@ public class DistributedTaskServiceImpl extends ServiceImpl<DistributedTaskMappe
     @Override
     public void removeServer(String serverId) {
         consistentHash.remove(serverId);
+        eventPublisher.publishEvent(new ServerRingChangedEvent(serverId, false));
+    }
+
+    @Override
+    public String getServerId() {
+        return WebUtils.isHaEnable() ? serverId : STANDALONE_SERVER_ID;
     }
 
     /**
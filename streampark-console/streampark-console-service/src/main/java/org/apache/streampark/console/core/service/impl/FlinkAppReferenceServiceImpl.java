@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.impl;
+
+import org.apache.streampark.common.util.DeflaterUtils;
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.entity.FlinkAppReference;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkSql;
+import org.apache.streampark.console.core.entity.Resource;
+import org.apache.streampark.console.core.enums.ReferenceSourceEnum;
+import org.apache.streampark.console.core.enums.ReferenceTypeEnum;
+import org.apache.streampark.console.core.mapper.FlinkAppReferenceMapper;
+import org.apache.streampark.console.core.mapper.FlinkApplicationMapper;
+import org.apache.streampark.console.core.mapper.FlinkSqlMapper;
+import org.apache.streampark.console.core.mapper.ResourceMapper;
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+@Slf4j
+@Service
+@Transactional(propagation = Propagation.SUPPORTS, readOnly = true, rollbackFor = Exception.class)
+public class FlinkAppReferenceServiceImpl extends ServiceImpl<FlinkAppReferenceMapper, FlinkAppReference>
+    implements
+        FlinkAppReferenceService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // the services of the applications, sqls and resources maintain the index, so use their mappers
+    @Autowired
+    private FlinkApplicationMapper applicationMapper;
+
+    @Autowired
+    private FlinkSqlMapper flinkSqlMapper;
+
+    @Autowired
+    private ResourceMapper resourceMapper;
+
+    @Override
+    public void indexApplication(FlinkApplication application) {
+        Long appId = application.getId();
+        this.lambdaUpdate()
+            .eq(FlinkAppReference::getAppId, appId)
+            .in(FlinkAppReference::getSourceType, ReferenceSourceEnum.ARGS, ReferenceSourceEnum.JAR)
+            .remove();
+
+        List<FlinkAppReference> references = new ArrayList<>();
+        for (String variableCode : getVariableCodes(application.getArgs())) {
+            references.add(new FlinkAppReference(
+                appId, ReferenceTypeEnum.VARIABLE, variableCode, ReferenceSourceEnum.ARGS, appId));
+        }
+        if (StringUtils.isNotBlank(application.getJar())) {
+            Resource resource = resourceMapper.selectOne(new LambdaQueryWrapper<Resource>()
+                .eq(Resource::getResourceName, application.getJar())
+                .eq(Resource::getTeamId, application.getTeamId()));
+            if (resource != null) {
+                references.add(new FlinkAppReference(
+                    appId, ReferenceTypeEnum.RESOURCE, resource.getId().toString(), ReferenceSourceEnum.JAR, appId));
+            }
+        }
+        this.saveBatch(references);
+    }
+
+    @Override
+    public void indexSql(Long appId, Long sqlId, String sql, String teamResource) {
+        removeBySqlId(sqlId);
+
+        List<FlinkAppReference> references = new ArrayList<>();
+        for (String variableCode : getVariableCodes(sql)) {
+            references.add(new FlinkAppReference(
+                appId, ReferenceTypeEnum.VARIABLE, variableCode, ReferenceSourceEnum.SQL, sqlId));
+        }
+        for (String resourceId : getResourceIds(teamResource)) {
+            references.add(new FlinkAppReference(
+                appId, ReferenceTypeEnum.RESOURCE, resourceId, ReferenceSourceEnum.SQL, sqlId));
+        }
+        this.saveBatch(references);
+    }
+
+    @Override
+    public void removeBySqlId(Long sqlId) {
+        this.lambdaUpdate()
+            .eq(FlinkAppReference::getSourceType, ReferenceSourceEnum.SQL)
+            .eq(FlinkAppReference::getSourceId, sqlId)
+            .remove();
+    }
+
+    @Override
+    public void removeByAppId(Long appId) {
+        this.lambdaUpdate().eq(FlinkAppReference::getAppId, appId).remove();
+    }
+
+    @Override
+    public List<Long> listAppIdsByVariable(Long teamId, String variableCode) {
+        return this.baseMapper.selectAppIds(teamId, ReferenceTypeEnum.VARIABLE, variableCode);
+    }
+
+    @Override
+    public List<Long> listAppIdsByResource(Long teamId, Long resourceId) {
+        return this.baseMapper.selectAppIds(teamId, ReferenceTypeEnum.RESOURCE, resourceId.toString());
+    }
+
+    @Override
+    public void rebuildIfEmpty() {
+        if (this.lambdaQuery().exists()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<FlinkApplication> applications = applicationMapper.selectList(null);
+        applications.forEach(this::indexApplication);
+
+        long sqlCount = 0;
+        for (long current = 1;; current++) {
+            List<FlinkSql> flinkSqls =
+                flinkSqlMapper.selectPage(new Page<>(current, REBUILD_BATCH_SIZE, false), null).getRecords();
+            for (FlinkSql flinkSql : flinkSqls) {
+                indexSql(
+                    flinkSql.getAppId(),
+                    flinkSql.getId(),
+                    DeflaterUtils.unzipString(flinkSql.getSql()),
+                    flinkSql.getTeamResource());
+            }
+            sqlCount += flinkSqls.size();
+            if (flinkSqls.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+        }
+        log.info("[StreamPark][FlinkAppReferenceService] indexed {} applications and {} flink sqls in {}ms.",
+            applications.size(), sqlCount, System.currentTimeMillis() - start);
+    }
+
+    /** @return the codes of the variable placeholders in the text, e.g. "kafka.cluster" */
+    private static Set<String> getVariableCodes(String mixed) {
+        Set<String> variableCodes = new LinkedHashSet<>();
+        if (StringUtils.isBlank(mixed)) {
+            return variableCodes;
+        }
+        Matcher matcher = VariableServiceImpl.PLACEHOLDER_PATTERN.matcher(mixed);
+        while (matcher.find()) {
+            variableCodes.add(VariableServiceImpl.getCodeFromPlaceholder(matcher.group()));
+        }
+        return variableCodes;
+    }
+
+    private static Set<String> getResourceIds(String teamResource) {
+        Set<String> resourceIds = new LinkedHashSet<>();
+        if (StringUtils.isBlank(teamResource)) {
+            return resourceIds;
+        }
+        try {
+            for (String resourceId : JacksonUtils.read(teamResource, String[].class)) {
+                if (StringUtils.isNotBlank(resourceId)) {
+                    resourceIds.add(resourceId.trim());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("[StreamPark][FlinkAppReferenceService] invalid team resources: {}", teamResource);
+        }
+        return resourceIds;
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.streampark.console.core.entity.FlinkSql;
 import org.apache.streampark.console.core.enums.CandidateTypeEnum;
 import org.apache.streampark.console.core.enums.EffectiveTypeEnum;
 import org.apache.streampark.console.core.mapper.FlinkSqlMapper;
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
 import org.apache.streampark.console.core.service.FlinkEffectiveService;
 import org.apache.streampark.console.core.service.FlinkEnvService;
 import org.apache.streampark.console.core.service.FlinkSqlService;
@@ -66,6 +67,9 @@ public class FlinkSqlServiceImpl extends ServiceImpl<FlinkSqlMapper, FlinkSql>
     @Autowired
     private FlinkEnvService flinkEnvService;
 
+    @Autowired
+    private FlinkAppReferenceService referenceService;
+
     private static final String FLINKSQL_VALIDATOR_CLASS = "org.apache.streampark.flink.core.FlinkSqlValidator";
 
     @Override
@@ -101,9 +105,11 @@ public class FlinkSqlServiceImpl extends ServiceImpl<FlinkSqlMapper, FlinkSql>
     public void create(FlinkSql flinkSql) {
         Integer version = this.baseMapper.getLatestVersion(flinkSql.getAppId());
         flinkSql.setVersion(version == null ? 1 : version + 1);
-        String sql = DeflaterUtils.zipString(flinkSql.getSql());
+        String plainSql = flinkSql.getSql();
+        String sql = DeflaterUtils.zipString(plainSql);
         flinkSql.setSql(sql);
         this.save(flinkSql);
+        referenceService.indexSql(flinkSql.getAppId(), flinkSql.getId(), plainSql, flinkSql.getTeamResource());
         this.setCandidate(CandidateTypeEnum.NEW, flinkSql.getAppId(), flinkSql.getId());
     }
 
@@ -161,6 +167,13 @@ public class FlinkSqlServiceImpl extends ServiceImpl<FlinkSqlMapper, FlinkSql>
     @Override
     public void removeByAppId(Long appId) {
         this.lambdaUpdate().eq(FlinkSql::getAppId, appId).remove();
+        referenceService.removeByAppId(appId);
+    }
+
+    @Override
+    public boolean removeById(Long id) {
+        referenceService.removeBySqlId(id);
+        return super.removeById(id);
     }
 
     @Override
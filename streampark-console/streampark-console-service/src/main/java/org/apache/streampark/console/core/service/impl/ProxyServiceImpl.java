@@ -31,35 +31,59 @@ import org.apache.streampark.flink.kubernetes.FlinkK8sWatcher;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.DefaultResponseErrorHandler;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
+import java.io.OutputStream;
 import java.security.PrivilegedExceptionAction;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
@@ -74,22 +98,54 @@ public class ProxyServiceImpl implements ProxyService {
     @Autowired
     private FlinkK8sWatcherWrapper k8sWatcherWrapper;
 
-    private final RestTemplate proxyRestTemplate;
+    private static final int MAX_CONNECTIONS = 200;
 
-    private String httpAuthUsername = "";
+    private static final int MAX_CONNECTIONS_PER_UPSTREAM = 20;
 
-    public ProxyServiceImpl(RestTemplateBuilder restTemplateBuilder) {
-        this.proxyRestTemplate =
-            restTemplateBuilder
-                .errorHandler(
-                    new DefaultResponseErrorHandler() {
+    private static final int PIPE_BUFFER_SIZE = 8 * 1024;
 
-                        @Override
-                        public void handleError(@Nonnull ClientHttpResponse response) {
-                            // Ignore errors in the Flink Web UI itself, such as 404 errors.
-                        }
-                    })
-                .build();
+    private static final long MAX_CACHED_RESPONSE_BYTES = 1024 * 1024;
+
+    private static final long MAX_CACHE_BYTES = 32 * 1024 * 1024;
+
+    private static final Duration CACHE_TTL = Duration.ofSeconds(30);
+
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+        .setConnectTimeout(10_000)
+        .setConnectionRequestTimeout(10_000)
+        .setSocketTimeout(300_000)
+        .build();
+
+    /** Upstream endpoints whose responses don't change during the lifetime of a cluster. */
+    private static final List<String> CACHEABLE_ENDPOINTS = Arrays.asList("/config", "/jobmanager/config");
+
+    private static final List<String> CACHEABLE_ASSET_SUFFIXES = Arrays.asList(
+        ".js", ".css", ".png", ".svg", ".ico", ".gif", ".woff", ".woff2", ".ttf");
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+        "te", "trailer", "transfer-encoding", "upgrade"));
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient proxyHttpClient;
+
+    private final Cache<String, CachedResponse> responseCache = Caffeine.newBuilder()
+        .expireAfterWrite(CACHE_TTL)
+        .maximumWeight(MAX_CACHE_BYTES)
+        .weigher((String key, CachedResponse response) -> key.length() + response.body.length)
+        .build();
+
+    private CloseableHttpClient authHttpClient;
+
+    private String httpAuthUsername;
+
+    public ProxyServiceImpl() {
+        this.connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        this.connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        this.connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_UPSTREAM);
+        this.connectionManager.setValidateAfterInactivity(5_000);
+        this.proxyHttpClient = newHttpClient(null);
     }
 
     @Override
@@ -102,8 +158,7 @@ public class ProxyServiceImpl implements ProxyService {
             case YARN_SESSION:
                 String yarnURL = YarnUtils.getRMWebAppProxyURL();
                 url = yarnURL + "/proxy/" + app.getClusterId();
-                url += getRequestURL(request, "/proxy/flink/" + app.getId());
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, url, getRequestURL(request, "/proxy/flink/" + app.getId()));
             case REMOTE:
                 FlinkCluster cluster = flinkClusterService.getById(app.getFlinkClusterId());
                 url = cluster.getAddress();
@@ -123,8 +178,7 @@ public class ProxyServiceImpl implements ProxyService {
             return builder.build();
         }
 
-        url += getRequestURL(request, "/proxy/flink/" + app.getId());
-        return proxyRequest(request, url);
+        return proxyRequest(request, url, getRequestURL(request, "/proxy/flink/" + app.getId()));
     }
 
     @Override
@@ -135,8 +189,7 @@ public class ProxyServiceImpl implements ProxyService {
             case YARN_CLUSTER:
                 String yarnURL = YarnUtils.getRMWebAppProxyURL();
                 String url = yarnURL + "/proxy/" + app.getClusterId();
-                url += getRequestURL(request, "/proxy/spark/" + app.getId());
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, url, getRequestURL(request, "/proxy/spark/" + app.getId()));
             default:
                 throw new UnsupportedOperationException(
                     "unsupported deployMode ".concat(app.getDeployModeEnum().getName()));
@@ -152,8 +205,7 @@ public class ProxyServiceImpl implements ProxyService {
         }
         String yarnURL = YarnUtils.getRMWebAppProxyURL();
         String url = yarnURL + "/proxy/" + yarnId + "/";
-        url += getRequestURL(request, "/proxy/yarn/" + log.getId());
-        return proxyYarnRequest(request, url);
+        return proxyYarnRequest(request, url, getRequestURL(request, "/proxy/yarn/" + log.getId()));
     }
 
     @Override
@@ -164,8 +216,7 @@ public class ProxyServiceImpl implements ProxyService {
         if (StringUtils.isBlank(url)) {
             return builder.body("The jobManager url is null.");
         }
-        url += getRequestURL(request, "/proxy/history/" + log.getId());
-        return proxyRequest(request, url);
+        return proxyRequest(request, url, getRequestURL(request, "/proxy/history/" + log.getId()));
     }
 
     @Override
@@ -180,68 +231,206 @@ public class ProxyServiceImpl implements ProxyService {
             return builder.body("The cluster address is invalid.");
         }
 
-        url += getRequestURL(request, "/proxy/flink_cluster/" + clusterId);
+        String endpoint = getRequestURL(request, "/proxy/flink_cluster/" + clusterId);
         switch (cluster.getFlinkDeployModeEnum()) {
             case YARN_PER_JOB:
             case YARN_APPLICATION:
             case YARN_SESSION:
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, url, endpoint);
             case REMOTE:
             case KUBERNETES_NATIVE_APPLICATION:
             case KUBERNETES_NATIVE_SESSION:
-                return proxyRequest(request, url);
+                return proxyRequest(request, url, endpoint);
             default:
                 throw new UnsupportedOperationException(
                     "unsupported deployMode ".concat(cluster.getFlinkDeployModeEnum().getName()));
         }
     }
 
-    private HttpEntity<?> getRequestEntity(HttpServletRequest request, String url) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            headers.set(headerName, request.getHeader(headerName));
-        }
-
-        // Ensure the Host header is set correctly.
-        URI uri = new URI(url);
-        headers.set("Host", uri.getHost());
-        byte[] body = null;
-        if (request.getInputStream().available() > 0) {
-            InputStream inputStream = request.getInputStream();
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            IOUtils.copy(inputStream, byteArrayOutputStream);
-            body = byteArrayOutputStream.toByteArray();
-        }
-        return new HttpEntity<>(body, headers);
-    }
-
-    private ResponseEntity<?> proxyRequest(HttpServletRequest request, String url) throws Exception {
-        return proxy(request, url, getRequestEntity(request, url));
+    /**
+     * @param baseUrl the url of the upstream
+     * @param endpoint the path and the query string requested from the upstream
+     */
+    private ResponseEntity<?> proxyRequest(HttpServletRequest request, String baseUrl, String endpoint) {
+        return proxy(request, baseUrl, endpoint, proxyHttpClient);
     }
 
-    private ResponseEntity<?> proxyYarnRequest(HttpServletRequest request, String url) throws Exception {
+    private ResponseEntity<?> proxyYarnRequest(
+                                               HttpServletRequest request, String baseUrl,
+                                               String endpoint) throws Exception {
         if (YarnUtils.hasYarnHttpKerberosAuth()) {
             UserGroupInformation ugi = HadoopUtils.getUgi();
-            HttpEntity<?> requestEntity = getRequestEntity(request, url);
-            setRestTemplateCredentials(ugi.getShortUserName());
+            CloseableHttpClient httpClient = getAuthHttpClient(ugi.getShortUserName());
             return ugi.doAs(
-                (PrivilegedExceptionAction<ResponseEntity<?>>) () -> proxy(request, url, requestEntity));
+                (PrivilegedExceptionAction<ResponseEntity<?>>) () -> proxy(request, baseUrl, endpoint, httpClient));
         } else {
-            return proxyRequest(request, url);
+            return proxyRequest(request, baseUrl, endpoint);
         }
     }
 
+    /**
+     * Send the request to the upstream and pipe the response body back to the client through a
+     * bounded buffer. Small responses of idempotent endpoints are served from a short-lived cache.
+     */
     private ResponseEntity<?> proxy(
-                                    HttpServletRequest request, String url, HttpEntity<?> requestEntity) {
+                                    HttpServletRequest request, String baseUrl, String endpoint,
+                                    CloseableHttpClient httpClient) {
+        String url = baseUrl + endpoint;
+        boolean cacheable = isCacheable(request, endpoint);
+        // the Accept-Encoding header is passed to the upstream, the body is encoded accordingly
+        String cacheKey = cacheable ? url + "\n" + getAcceptEncoding(request) : null;
+        if (cacheable) {
+            CachedResponse cached = responseCache.getIfPresent(cacheKey);
+            if (cached != null) {
+                return ResponseEntity.status(cached.status).headers(cached.headers).body(cached.body);
+            }
+        }
+
+        CloseableHttpResponse response = null;
         try {
-            return proxyRestTemplate.exchange(
-                url, HttpMethod.valueOf(request.getMethod()), requestEntity, byte[].class);
-        } catch (RestClientException e) {
+            response = httpClient.execute(getUpstreamRequest(request, url));
+            int status = response.getStatusLine().getStatusCode();
+            HttpHeaders headers = getResponseHeaders(response);
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                response.close();
+                return ResponseEntity.status(status).headers(headers).build();
+            }
+
+            long contentLength = entity.getContentLength();
+            if (cacheable
+                && status == HttpStatus.OK.value()
+                && contentLength >= 0
+                && contentLength <= MAX_CACHED_RESPONSE_BYTES
+                && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                && !variesOnOtherThanEncoding(headers)) {
+                byte[] body;
+                try {
+                    body = EntityUtils.toByteArray(entity);
+                } finally {
+                    response.close();
+                }
+                responseCache.put(cacheKey, new CachedResponse(status, headers, body));
+                return ResponseEntity.status(status).headers(headers).body(body);
+            }
+
+            UpstreamBody body = new UpstreamBody(response);
+            releaseOnCompletion(request, body);
+            return ResponseEntity.status(status).headers(headers).body(body);
+        } catch (IOException e) {
             log.error("Proxy url: {} failed. ", url, e);
+            IOUtils.closeQuietly(response);
             return new ResponseEntity<>(HttpStatus.BAD_GATEWAY);
+        } catch (RuntimeException e) {
+            IOUtils.closeQuietly(response);
+            throw e;
+        }
+    }
+
+    /**
+     * The body is only written if spring starts the async processing of the response and the client
+     * is still there. The upstream response is released when the async processing completes, times
+     * out or fails, and at the end of the request if the async processing never started.
+     */
+    private void releaseOnCompletion(HttpServletRequest request, UpstreamBody body) {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.registerCallableInterceptor(UpstreamBody.class.getName(), new CallableProcessingInterceptor() {
+
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                body.release();
+            }
+        });
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.registerDestructionCallback(
+                UpstreamBody.class.getName(),
+                () -> {
+                    if (!asyncManager.isConcurrentHandlingStarted()) {
+                        body.release();
+                    }
+                },
+                RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Copy the upstream body to the client. The client is flushed whenever the upstream has nothing
+     * more to read at the moment, so that chunked and server-sent events responses are passed
+     * through as they arrive.
+     */
+    private void pipe(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[PIPE_BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+            if (input.available() == 0) {
+                output.flush();
+            }
         }
+        output.flush();
+    }
+
+    private HttpUriRequest getUpstreamRequest(HttpServletRequest request, String url) throws IOException {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod()).setUri(url);
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            // The Host and Content-Length headers are set by the http client.
+            if (!isHopByHopHeader(headerName)
+                && !HttpHeaders.HOST.equalsIgnoreCase(headerName)
+                && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(headerName)) {
+                Enumeration<String> values = request.getHeaders(headerName);
+                while (values.hasMoreElements()) {
+                    builder.addHeader(headerName, values.nextElement());
+                }
+            }
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null) {
+            builder.setEntity(new InputStreamEntity(request.getInputStream(), contentLength));
+        }
+        return builder.build();
+    }
+
+    private HttpHeaders getResponseHeaders(CloseableHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+            if (!isHopByHopHeader(header.getName())) {
+                headers.add(header.getName(), header.getValue());
+            }
+        }
+        return headers;
+    }
+
+    private boolean isHopByHopHeader(String headerName) {
+        return HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    /** @param endpoint the path and the query string requested from the upstream */
+    private boolean isCacheable(HttpServletRequest request, String endpoint) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || request.getHeader(HttpHeaders.RANGE) != null) {
+            return false;
+        }
+        int query = endpoint.indexOf('?');
+        String path = (query < 0 ? endpoint : endpoint.substring(0, query)).replaceAll("/{2,}", "/");
+        // the endpoints match as a whole, "/jobs/<id>/config" isn't "/config"
+        return CACHEABLE_ENDPOINTS.contains(path.startsWith("/") ? path : "/" + path)
+            || CACHEABLE_ASSET_SUFFIXES.stream().anyMatch(path::endsWith);
+    }
+
+    private String getAcceptEncoding(HttpServletRequest request) {
+        List<String> values = new ArrayList<>();
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            values.add(headers.nextElement().toLowerCase(Locale.ROOT).replace(" ", ""));
+        }
+        return String.join(",", values);
+    }
+
+    /** The cache key only covers the Accept-Encoding header of the request. */
+    private boolean variesOnOtherThanEncoding(HttpHeaders headers) {
+        return headers.getVary().stream().anyMatch(name -> !HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(name));
     }
 
     private String getRequestURL(HttpServletRequest request, String replaceString) {
@@ -252,27 +441,84 @@ public class ProxyServiceImpl implements ProxyService {
     }
 
     /**
-    * Configures the RestTemplate's HttpClient connector. This method is primarily used to configure
-    * the HttpClient authentication information and SSL certificate validation policies.
-    *
-    * @param username The username for HTTP basic authentication.
-    */
-    private void setRestTemplateCredentials(String username) {
-        // Check if the username is not null and has changed since the last configuration
-        if (username != null && !this.httpAuthUsername.equals(username)) {
-            // Create a new credentials provider
+     * Get the HttpClient with the HTTP authentication information of the user, the client shares the
+     * connection pool with the other proxy requests.
+     *
+     * @param username The username for HTTP authentication.
+     */
+    private synchronized CloseableHttpClient getAuthHttpClient(String username) {
+        // Rebuild the client only if the username has changed since the last configuration
+        if (username != null && !username.equals(this.httpAuthUsername)) {
             BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            // Add the username and password for HTTP basic authentication
             credentialsProvider.setCredentials(
                 AuthScope.ANY, new UsernamePasswordCredentials(username, null));
-            // Customize the HttpClient with the credentials provider
-            CloseableHttpClient httpClient =
-                HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
-            // Set the HttpClient request factory for the RestTemplate
-            this.proxyRestTemplate.setRequestFactory(
-                new HttpComponentsClientHttpRequestFactory(httpClient));
-            // Update the last known username
+            IOUtils.closeQuietly(this.authHttpClient);
+            this.authHttpClient = newHttpClient(credentialsProvider);
             this.httpAuthUsername = username;
         }
+        return this.authHttpClient;
+    }
+
+    private CloseableHttpClient newHttpClient(@Nullable CredentialsProvider credentialsProvider) {
+        HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setConnectionManagerShared(true)
+            .setDefaultRequestConfig(REQUEST_CONFIG)
+            // Pass the compressed body through as it is, together with its Content-Encoding header.
+            .disableContentCompression()
+            .disableCookieManagement();
+        if (credentialsProvider != null) {
+            builder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void close() {
+        IOUtils.closeQuietly(proxyHttpClient);
+        IOUtils.closeQuietly(authHttpClient);
+        connectionManager.close();
+    }
+
+    /** Pipes the body of the upstream response, the response is released once by whichever path comes first. */
+    private final class UpstreamBody implements StreamingResponseBody {
+
+        private final CloseableHttpResponse response;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private UpstreamBody(CloseableHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            try (InputStream input = response.getEntity().getContent()) {
+                pipe(input, output);
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                IOUtils.closeQuietly(response);
+            }
+        }
+    }
+
+    private static class CachedResponse {
+
+        private final int status;
+
+        private final HttpHeaders headers;
+
+        private final byte[] body;
+
+        private CachedResponse(int status, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
     }
 }
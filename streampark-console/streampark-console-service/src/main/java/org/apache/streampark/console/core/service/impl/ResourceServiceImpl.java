@@ -32,14 +32,15 @@ import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.base.util.WebUtils;
 import org.apache.streampark.console.core.bean.Dependency;
 import org.apache.streampark.console.core.bean.FlinkConnector;
+import org.apache.streampark.console.core.bean.FlinkConnectorIntrospection;
 import org.apache.streampark.console.core.bean.MavenPom;
 import org.apache.streampark.console.core.bean.UploadResponse;
+import org.apache.streampark.console.core.component.FlinkConnectorIntrospector;
 import org.apache.streampark.console.core.entity.FlinkApplication;
-import org.apache.streampark.console.core.entity.FlinkSql;
 import org.apache.streampark.console.core.entity.Resource;
 import org.apache.streampark.console.core.enums.ResourceTypeEnum;
 import org.apache.streampark.console.core.mapper.ResourceMapper;
-import org.apache.streampark.console.core.service.FlinkSqlService;
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
 import org.apache.streampark.console.core.service.ResourceService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
 import org.apache.streampark.console.core.util.ServiceHelper;
@@ -49,8 +50,6 @@ import org.apache.streampark.flink.packer.maven.MavenTool;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.flink.configuration.ConfigOption;
-import org.apache.flink.table.factories.Factory;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
@@ -68,25 +67,15 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Serializable;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Scanner;
-import java.util.ServiceLoader;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
 import static org.apache.streampark.common.enums.StorageType.LFS;
@@ -105,7 +94,10 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
     private FlinkApplicationManageService applicationManageService;
 
     @Autowired
-    private FlinkSqlService flinkSqlService;
+    private FlinkAppReferenceService referenceService;
+
+    @Autowired
+    private FlinkConnectorIntrospector connectorIntrospector;
 
     @Override
     public IPage<Resource> getPage(Resource resource, RestRequest request) {
@@ -311,33 +303,29 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
 
     private RestResponse checkConnector(Resource resourceParam) throws JsonProcessingException {
         // 1) get connector jar
-        FlinkConnector connectorResource;
-        List<File> jars;
         File connector;
-        List<String> factories;
         try {
-            File file = getResourceJar(resourceParam);
-            connector = file;
-            jars = Collections.singletonList(file);
+            connector = getResourceJar(resourceParam);
         } catch (Exception e) {
             // get jarFile error
             return buildExceptResponse(e, 1);
         }
 
         // 2) parse connector Factory
+        FlinkConnectorIntrospection introspection;
         try {
-            factories = getConnectorFactory(connector);
+            introspection = connectorIntrospector.introspect(connector);
         } catch (Exception e) {
             // flink connector invalid
             return buildExceptResponse(e, 2);
         }
 
         // 3) get connector resource
-        connectorResource = getConnectorResource(jars, factories);
-        if (connectorResource == null) {
+        if (introspection.getConnectors().isEmpty()) {
             // connector is null
             return buildExceptResponse(new RuntimeException("connector is null"), 3);
         }
+        FlinkConnector connectorResource = introspection.getConnectors().get(0);
 
         // 2) check connector exists
         boolean exists = existsFlinkConnector(resourceParam.getId(), connectorResource.getFactoryIdentifier());
@@ -386,60 +374,6 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
         return getBaseMapper().exists(lambdaQueryWrapper);
     }
 
-    private FlinkConnector getConnectorResource(List<File> jars, List<String> factories) {
-        Class<Factory> className = Factory.class;
-        URL[] array = jars.stream()
-            .map(
-                file -> ExceptionUtils.wrapRuntimeException(file,
-                    handle -> handle.toURI().toURL()))
-            .toArray(URL[]::new);
-
-        try (URLClassLoader urlClassLoader = URLClassLoader.newInstance(array)) {
-            ServiceLoader<Factory> serviceLoader = ServiceLoader.load(className, urlClassLoader);
-            for (Factory factory : serviceLoader) {
-                String factoryClassName = factory.getClass().getName();
-                if (factories.contains(factoryClassName)) {
-                    FlinkConnector connectorResource = new FlinkConnector();
-                    try {
-                        connectorResource.setClassName(factoryClassName);
-                        connectorResource.setFactoryIdentifier(factory.factoryIdentifier());
-                    } catch (Exception e) {
-                        log.error(
-                            "Failed to set class name or factory identifier for connector resource. Class name: {}, Factory identifier: {}",
-                            factoryClassName,
-                            factory.factoryIdentifier(),
-                            e);
-                    }
-
-                    try {
-                        Map<String, String> requiredOptions = new HashMap<>(0);
-                        factory
-                            .requiredOptions()
-                            .forEach(x -> requiredOptions.put(x.key(), getOptionDefaultValue(x)));
-                        connectorResource.setRequiredOptions(requiredOptions);
-                    } catch (Exception e) {
-                        log.error("Failed to set required options for connector resource.", e);
-                    }
-
-                    try {
-                        Map<String, String> optionalOptions = new HashMap<>(0);
-                        factory
-                            .optionalOptions()
-                            .forEach(x -> optionalOptions.put(x.key(), getOptionDefaultValue(x)));
-                        connectorResource.setOptionalOptions(optionalOptions);
-                    } catch (Exception e) {
-                        log.error("Fail to set optional options for connector resource.", e);
-                    }
-                    return connectorResource;
-                }
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("getConnectorResource failed.", e);
-        }
-        return null;
-    }
-
     private File getResourceJar(Resource resource) throws Exception {
         Dependency dependency = Dependency.toDependency(resource.getResource());
         if (dependency.isEmpty()) {
@@ -487,63 +421,10 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
     }
 
     private List<FlinkApplication> getResourceApplicationsById(Resource resource) {
-        List<FlinkApplication> dependApplications = new ArrayList<>();
-        List<FlinkApplication> applications = applicationManageService.listByTeamId(resource.getTeamId());
-        Map<Long, FlinkApplication> applicationMap = applications.stream()
-            .collect(Collectors.toMap(FlinkApplication::getId, application -> application));
-
-        // Get the application that depends on this resource
-        for (FlinkApplication app : applications) {
-            if (resource.getResourceName().equals(app.getJar())
-                && !dependApplications.contains(app)) {
-                dependApplications.add(app);
-            }
-        }
-
-        List<FlinkSql> flinkSqls = flinkSqlService.listByTeamId(resource.getTeamId());
-        for (FlinkSql flinkSql : flinkSqls) {
-            String sqlTeamResource = flinkSql.getTeamResource();
-            if (sqlTeamResource != null
-                && sqlTeamResource.contains(String.valueOf(resource.getId()))) {
-                FlinkApplication app = applicationMap.get(flinkSql.getAppId());
-                if (!dependApplications.contains(app)) {
-                    dependApplications.add(applicationMap.get(flinkSql.getAppId()));
-                }
-            }
-        }
-
-        return dependApplications;
-    }
-
-    private List<String> getConnectorFactory(File connector) throws Exception {
-        String configFile = "META-INF/services/org.apache.flink.table.factories.Factory";
-        JarFile jarFile = new JarFile(connector);
-        JarEntry entry = jarFile.getJarEntry(configFile);
-        if (entry == null) {
-            throw new IllegalArgumentException("invalid flink connector");
-        }
-        List<String> factories = new ArrayList<>(0);
-        try (InputStream inputStream = jarFile.getInputStream(entry)) {
-            Scanner scanner = new Scanner(new InputStreamReader(inputStream));
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.length() > 0 && !line.startsWith("#")) {
-                    factories.add(line);
-                }
-            }
-            scanner.close();
-        }
-        return factories;
-    }
-
-    private String getOptionDefaultValue(ConfigOption<?> option) {
-        if (!option.hasDefaultValue()) {
-            return null;
-        }
-        Object value = option.defaultValue();
-        if (value instanceof Duration) {
-            return value.toString().replace("PT", "").toLowerCase();
+        List<Long> appIds = referenceService.listAppIdsByResource(resource.getTeamId(), resource.getId());
+        if (appIds.isEmpty()) {
+            return new ArrayList<>();
         }
-        return value.toString();
+        return applicationManageService.listByIds(appIds);
     }
 }
@@ -17,16 +17,14 @@
 
 package org.apache.streampark.console.core.service.impl;
 
-import org.apache.streampark.common.util.DeflaterUtils;
 import org.apache.streampark.console.base.domain.RestRequest;
 import org.apache.streampark.console.base.exception.ApiAlertException;
 import org.apache.streampark.console.base.mybatis.pager.MybatisPager;
 import org.apache.streampark.console.core.entity.FlinkApplication;
-import org.apache.streampark.console.core.entity.FlinkSql;
 import org.apache.streampark.console.core.entity.Variable;
 import org.apache.streampark.console.core.enums.ReleaseStateEnum;
 import org.apache.streampark.console.core.mapper.VariableMapper;
-import org.apache.streampark.console.core.service.FlinkSqlService;
+import org.apache.streampark.console.core.service.FlinkAppReferenceService;
 import org.apache.streampark.console.core.service.VariableService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
 import org.apache.streampark.console.core.util.ServiceHelper;
@@ -35,10 +33,13 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -46,9 +47,10 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -59,17 +61,25 @@ public class VariableServiceImpl extends ServiceImpl<VariableMapper, Variable>
     implements
         VariableService {
 
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{([A-Za-z])+([A-Za-z0-9._-])+\\}");
+    static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{([A-Za-z])+([A-Za-z0-9._-])+\\}");
 
     private static final String PLACEHOLDER_START = "${";
 
     private static final String PLACEHOLDER_END = "}";
 
+    /**
+     * team id -> substitution table of the team. A table is only served while the version stamp of
+     * the variables of the team in the database is the one it was built with, so the variables
+     * changed on any console node are seen at once.
+     */
+    private final Cache<Long, SubstitutionTable> substitutionTables =
+        Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(30, TimeUnit.SECONDS).build();
+
     @Autowired
     private FlinkApplicationManageService applicationManageService;
 
     @Autowired
-    private FlinkSqlService flinkSqlService;
+    private FlinkAppReferenceService referenceService;
 
     @Override
     public void createVariable(Variable variable) {
@@ -125,7 +135,12 @@ public class VariableServiceImpl extends ServiceImpl<VariableMapper, Variable>
         ApiAlertException.throwIfFalse(
             findVariable.getVariableCode().equals(variable.getVariableCode()),
             "The variable code cannot be updated.");
-        this.baseMapper.updateById(variable);
+        // the version changes the stamp of the substitution tables of the team
+        this.baseMapper.update(
+            variable,
+            new LambdaUpdateWrapper<Variable>()
+                .eq(Variable::getId, variable.getId())
+                .setSql("version = version + 1"));
         // endregion
 
         // set Application's field release to NEED_RESTART
@@ -182,26 +197,68 @@ public class VariableServiceImpl extends ServiceImpl<VariableMapper, Variable>
      */
     @Override
     public String replaceVariable(Long teamId, String mixed) {
-        if (StringUtils.isBlank(mixed)) {
+        if (StringUtils.isBlank(mixed) || !mixed.contains(PLACEHOLDER_START)) {
             return mixed;
         }
-        List<Variable> variables = listByTeamId(teamId);
-        if (CollectionUtils.isEmpty(variables)) {
+        return substitute(mixed, getSubstitutionTable(teamId).values);
+    }
+
+    private SubstitutionTable getSubstitutionTable(Long teamId) {
+        // read the stamp before the variables, a table built while they're updated is outdated at once
+        String version = baseMapper.selectVersionStamp(teamId);
+        SubstitutionTable table = substitutionTables.getIfPresent(teamId);
+        if (table == null || !table.version.equals(version)) {
+            Map<String, String> values = new HashMap<>();
+            for (Variable variable : listByTeamId(teamId)) {
+                if (StringUtils.isNotBlank(variable.getVariableValue())) {
+                    values.put(variable.getVariableCode(), variable.getVariableValue());
+                }
+            }
+            table = new SubstitutionTable(version, values);
+            substitutionTables.put(teamId, table);
+        }
+        return table;
+    }
+
+    /**
+     * Replace the placeholders in a single pass, the placeholders in the substituted values are kept
+     * as they are.
+     *
+     * @param mixed text with placeholders
+     * @param values variable code -> non-blank variable value
+     * @return the text with the placeholders of the known variables replaced
+     */
+    static String substitute(String mixed, Map<String, String> values) {
+        int start = mixed.indexOf(PLACEHOLDER_START);
+        if (start < 0 || values.isEmpty()) {
             return mixed;
         }
-        Map<String, String> variableMap = variables.stream()
-            .collect(Collectors.toMap(Variable::getVariableCode, Variable::getVariableValue));
-        String restore = mixed;
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(restore);
-        while (matcher.find()) {
-            String placeholder = matcher.group();
-            String variableCode = getCodeFromPlaceholder(placeholder);
-            String variableValue = variableMap.get(variableCode);
-            if (StringUtils.isNotBlank(variableValue)) {
-                restore = restore.replace(placeholder, variableValue);
+        StringBuilder builder = new StringBuilder(mixed.length());
+        int copied = 0;
+        while (start >= 0) {
+            int codeStart = start + PLACEHOLDER_START.length();
+            int codeEnd = codeStart;
+            while (codeEnd < mixed.length() && isCodeChar(mixed.charAt(codeEnd), codeEnd == codeStart)) {
+                codeEnd++;
+            }
+            // same as PLACEHOLDER_PATTERN: a letter and at least one more character
+            if (codeEnd - codeStart >= 2 && codeEnd < mixed.length() && mixed.charAt(codeEnd) == '}') {
+                String value = values.get(mixed.substring(codeStart, codeEnd));
+                if (value != null) {
+                    builder.append(mixed, copied, start).append(value);
+                    copied = codeEnd + PLACEHOLDER_END.length();
+                }
+                start = mixed.indexOf(PLACEHOLDER_START, codeEnd + PLACEHOLDER_END.length());
+            } else {
+                start = mixed.indexOf(PLACEHOLDER_START, start + 1);
             }
         }
-        return restore;
+        return builder.append(mixed, copied, mixed.length()).toString();
+    }
+
+    private static boolean isCodeChar(char c, boolean first) {
+        boolean letter = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+        return first ? letter : letter || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '-';
     }
 
     private boolean isDependByApplications(Variable variable) {
@@ -209,47 +266,14 @@ public class VariableServiceImpl extends ServiceImpl<VariableMapper, Variable>
     }
 
     private List<FlinkApplication> getDependApplicationsByCode(Variable variable) {
-        List<FlinkApplication> dependApplications = new ArrayList<>();
-        List<FlinkApplication> applications = applicationManageService.listByTeamId(variable.getTeamId());
-        Map<Long, FlinkApplication> applicationMap = applications.stream()
-            .collect(Collectors.toMap(FlinkApplication::getId, application -> application));
-
-        // Get applications that depend on this variable in application args
-        for (FlinkApplication app : applications) {
-            if (isDepend(variable.getVariableCode(), app.getArgs())) {
-                dependApplications.add(app);
-            }
+        List<Long> appIds = referenceService.listAppIdsByVariable(variable.getTeamId(), variable.getVariableCode());
+        if (appIds.isEmpty()) {
+            return new ArrayList<>();
         }
-
-        // Get the application that depends on this variable in flink sql
-        List<FlinkSql> flinkSqls = flinkSqlService.listByTeamId(variable.getTeamId());
-        for (FlinkSql flinkSql : flinkSqls) {
-            if (isDepend(variable.getVariableCode(), DeflaterUtils.unzipString(flinkSql.getSql()))) {
-                FlinkApplication app = applicationMap.get(flinkSql.getAppId());
-                if (!dependApplications.contains(app)) {
-                    dependApplications.add(applicationMap.get(flinkSql.getAppId()));
-                }
-            }
-        }
-        return dependApplications;
+        return applicationManageService.listByIds(appIds);
     }
 
-    /**
-     * Determine whether variableCode is dependent on mixed.
-     *
-     * @param variableCode Variable code, e.g. "kafka.cluster"
-     * @param mixed Text with placeholders, e.g. "--cluster ${kafka.cluster}"
-     * @return If mixed can match the variableCode, return true, otherwise return false
-     */
-    private boolean isDepend(String variableCode, String mixed) {
-        if (StringUtils.isBlank(mixed)) {
-            return false;
-        }
-        String placeholder = String.format("%s%s%s", PLACEHOLDER_START, variableCode, PLACEHOLDER_END);
-        return mixed.contains(placeholder);
-    }
-
-    private String getCodeFromPlaceholder(String placeholder) {
+    static String getCodeFromPlaceholder(String placeholder) {
         return placeholder.substring(
             PLACEHOLDER_START.length(), placeholder.length() - PLACEHOLDER_END.length());
     }
@@ -258,4 +282,16 @@ public class VariableServiceImpl extends ServiceImpl<VariableMapper, Variable>
     public boolean existsByTeamId(Long teamId) {
         return this.baseMapper.existsByTeamId(teamId);
     }
+
+    private static final class SubstitutionTable {
+
+        private final String version;
+
+        private final Map<String, String> values;
+
+        private SubstitutionTable(String version, Map<String, String> values) {
+            this.version = version;
+            this.values = values;
+        }
+    }
 }
@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.enums.ClusterState;
+import org.apache.streampark.common.util.HttpClientUtils;
+import org.apache.streampark.console.core.watcher.ClusterStateChangedEvent.ClusterKind;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.core5.util.Timeout;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Health probes of the flink and spark clusters, shared by {@link FlinkClusterWatcher} and {@link
+ * SparkClusterWatcher}.
+ *
+ * <ul>
+ *   <li>Every watched cluster is probed concurrently on the executor of its watcher, a cluster is
+ *       only probed once at a time, so a cluster that doesn't answer can't pile up probes.
+ *   <li>The http requests of the probes have a deadline for the connection, the pooled connection
+ *       and the response.
+ *   <li>An endpoint that failed {@link #FAILURE_THRESHOLD} times in a row is not requested for
+ *       {@link #OPEN_DURATION}, its requests fail at once.
+ *   <li>The state transitions of the watched clusters are published as {@link
+ *       ClusterStateChangedEvent}.
+ *   <li>The probe latency of every cluster is recorded in a {@link LatencyHistogram}.
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ClusterHealthProber {
+
+    private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5);
+
+    static final int FAILURE_THRESHOLD = 3;
+
+    static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+        .setConnectTimeout(HTTP_TIMEOUT)
+        .setConnectionRequestTimeout(HTTP_TIMEOUT)
+        .setResponseTimeout(HTTP_TIMEOUT)
+        .build();
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** scheme://host:port -> circuit breaker */
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final Map<ClusterKey, ClusterState> states = new ConcurrentHashMap<>();
+
+    private final Map<ClusterKey, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final Map<ClusterKey, Boolean> probing = new ConcurrentHashMap<>();
+
+    /** current time in millis */
+    private final LongSupplier clock;
+
+    public ClusterHealthProber() {
+        this(System::currentTimeMillis);
+    }
+
+    ClusterHealthProber(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Probe the cluster on the executor, unless its previous probe is still running.
+     *
+     * @param executor executor of the watcher
+     * @param kind flink or spark
+     * @param clusterId cluster id
+     * @param probe gets the current state of the cluster
+     */
+    public void probeAsync(Executor executor, ClusterKind kind, Long clusterId, Supplier<ClusterState> probe) {
+        ClusterKey key = new ClusterKey(kind, clusterId);
+        if (probing.putIfAbsent(key, Boolean.TRUE) != null) {
+            log.debug("[StreamPark][ClusterHealthProber] {} is still being probed, skip it.", key);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    probe(key, probe);
+                } finally {
+                    probing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            probing.remove(key);
+            log.warn("[StreamPark][ClusterHealthProber] executor is busy, skip probing {}.", key);
+        }
+    }
+
+    private void probe(ClusterKey key, Supplier<ClusterState> probe) {
+        long start = clock.getAsLong();
+        ClusterState state;
+        try {
+            state = probe.get();
+        } catch (Exception e) {
+            log.error("[StreamPark][ClusterHealthProber] probe {} failed.", key, e);
+            state = ClusterState.UNKNOWN;
+        }
+        LatencyHistogram latency = latencies.computeIfAbsent(key, k -> new LatencyHistogram());
+        latency.record(clock.getAsLong() - start);
+        ClusterState previous = states.put(key, state);
+        if (previous != state) {
+            log.info(
+                "[StreamPark][ClusterHealthProber] {} state changed from {} to {}, probe latency: {}",
+                key, previous, state, latency);
+            eventPublisher.publishEvent(new ClusterStateChangedEvent(key.kind, key.clusterId, previous, state));
+        }
+    }
+
+    /**
+     * Forget the state and the latencies of the cluster, e.g. when it's no longer watched, the next
+     * probe of the cluster is published as a transition.
+     */
+    public void forget(ClusterKind kind, Long clusterId) {
+        ClusterKey key = new ClusterKey(kind, clusterId);
+        states.remove(key);
+        latencies.remove(key);
+    }
+
+    /** @return the probe latencies of the cluster, null if it wasn't probed */
+    public LatencyHistogram getLatency(ClusterKind kind, Long clusterId) {
+        return latencies.get(new ClusterKey(kind, clusterId));
+    }
+
+    /**
+     * Http GET request of a cluster endpoint, within the probe deadline and through the circuit
+     * breaker of the endpoint.
+     *
+     * @param url url of the request
+     * @param failFast fail at once if the circuit of the endpoint is open, user triggered checks
+     *     request the endpoint anyway
+     * @return the response body
+     * @throws IOException if the request failed, or the circuit of the endpoint is open
+     */
+    public String httpGet(String url, boolean failFast) throws IOException {
+        String endpoint = endpointOf(url);
+        CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, k -> new CircuitBreaker(clock));
+        if (failFast && !breaker.allowRequest()) {
+            throw new IOException(String.format("%s failed %d times in a row, not requested until %tT",
+                endpoint, FAILURE_THRESHOLD, breaker.openUntil));
+        }
+        try {
+            String result = HttpClientUtils.httpGetRequest(url, REQUEST_CONFIG);
+            breaker.onSuccess();
+            return result;
+        } catch (Exception e) {
+            if (breaker.onFailure()) {
+                log.warn("[StreamPark][ClusterHealthProber] {} failed {} times in a row, open its circuit for {}s.",
+                    endpoint, FAILURE_THRESHOLD, OPEN_DURATION.getSeconds());
+            }
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    private static String endpointOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getAuthority();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static final class ClusterKey {
+
+        private final ClusterKind kind;
+
+        private final Long clusterId;
+
+        private ClusterKey(ClusterKind kind, Long clusterId) {
+            this.kind = kind;
+            this.clusterId = clusterId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClusterKey)) {
+                return false;
+            }
+            ClusterKey that = (ClusterKey) o;
+            return kind == that.kind && Objects.equals(clusterId, that.clusterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, clusterId);
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase() + " cluster " + clusterId;
+        }
+    }
+
+    /** Consecutive failures of an endpoint, the circuit is open once they reach the threshold. */
+    static final class CircuitBreaker {
+
+        private final LongSupplier clock;
+
+        private int failures;
+
+        private long openUntil;
+
+        CircuitBreaker(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        synchronized boolean allowRequest() {
+            // half-open once the open duration passed, the next failure opens the circuit again
+            return clock.getAsLong() >= openUntil;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+            openUntil = 0;
+        }
+
+        /** @return true if the failure opened the circuit */
+        synchronized boolean onFailure() {
+            if (++failures >= FAILURE_THRESHOLD) {
+                openUntil = clock.getAsLong() + OPEN_DURATION.toMillis();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Probe latencies of a cluster, in millisecond buckets. */
+    public static final class LatencyHistogram {
+
+        /** upper bounds of the buckets, the last bucket counts the slower probes */
+        private static final long[] BOUNDS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong sum = new AtomicLong();
+
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long millis) {
+            int bucket = 0;
+            while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sum.addAndGet(millis);
+            max.accumulateAndGet(millis, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMaxMillis() {
+            return max.get();
+        }
+
+        public double getMeanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the upper bound of the bucket of the percentile, the max latency for the last bucket
+         */
+        public long getPercentileMillis(double percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(BOUNDS[i], max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.1fms, p50=%dms, p99=%dms, max=%dms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.enums.ClusterState;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.annotation.Nullable;
+
+/** Spring event published by {@link ClusterHealthProber} when the probed state of a cluster changed. */
+@Getter
+@ToString
+public class ClusterStateChangedEvent {
+
+    public enum ClusterKind {
+        FLINK,
+        SPARK
+    }
+
+    private final ClusterKind kind;
+
+    private final Long clusterId;
+
+    /** null on the first probe of the cluster since it was watched */
+    @Nullable
+    private final ClusterState previousState;
+
+    private final ClusterState state;
+
+    public ClusterStateChangedEvent(
+                                    ClusterKind kind, Long clusterId, @Nullable ClusterState previousState,
+                                    ClusterState state) {
+        this.kind = kind;
+        this.clusterId = clusterId;
+        this.previousState = previousState;
+        this.state = state;
+    }
+}
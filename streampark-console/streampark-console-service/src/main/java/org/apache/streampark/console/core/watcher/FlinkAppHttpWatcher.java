@@ -22,7 +22,9 @@ import org.apache.streampark.common.util.DateUtils;
 import org.apache.streampark.common.util.HttpClientUtils;
 import org.apache.streampark.common.util.YarnUtils;
 import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.base.util.WebUtils;
 import org.apache.streampark.console.core.bean.AlertTemplate;
+import org.apache.streampark.console.core.bean.FlinkWatchingState;
 import org.apache.streampark.console.core.component.FlinkCheckpointProcessor;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 import org.apache.streampark.console.core.entity.FlinkCluster;
@@ -55,6 +57,7 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -63,14 +66,20 @@ import javax.annotation.PreDestroy;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /** This implementation is currently used for tracing flink job on yarn,standalone,remote mode */
@@ -102,6 +111,15 @@ public class FlinkAppHttpWatcher {
     @Autowired
     private DistributedTaskService distributedTaskService;
 
+    @Autowired
+    private YarnAppSnapshot yarnAppSnapshot;
+
+    @Autowired
+    private FlinkWatcherStateStore stateStore;
+
+    @Autowired
+    private FlinkAppStateDeltaPublisher deltaPublisher;
+
     // track interval every 5 seconds
     public static final Duration WATCHING_INTERVAL = Duration.ofSeconds(5);
 
@@ -110,6 +128,22 @@ public class FlinkAppHttpWatcher {
 
     private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5);
 
+    // lease of the watched apps in the watcher state store, renewed every 10 seconds
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(30);
+
+    private static final Duration LEASE_RENEW_INTERVAL = Duration.ofSeconds(10);
+
+    private static final Duration SAVEPOINT_EXPIRE = Duration.ofMinutes(1);
+
+    private static final Duration STARTING_EXPIRE = Duration.ofMinutes(5);
+
+    private static final Duration LOST_EXPIRE = Duration.ofMinutes(5);
+
+    private static final Duration CANCELING_EXPIRE = Duration.ofSeconds(10);
+
+    // the values of the caches below are the times the apps were put, the next owner of an app
+    // restores them until they expire
+
     /**
      *
      *
@@ -119,18 +153,18 @@ public class FlinkAppHttpWatcher {
      * set the state of the task to savepoint
      * </pre>
      */
-    private static final Cache<Long, Byte> SAVEPOINT_CACHE =
-        Caffeine.newBuilder().expireAfterWrite(1, TimeUnit.MINUTES).build();
+    private static final Cache<Long, Long> SAVEPOINT_CACHE =
+        Caffeine.newBuilder().expireAfterWrite(SAVEPOINT_EXPIRE.toMillis(), TimeUnit.MILLISECONDS).build();
 
     /**
      * Record the status of the first tracking task, because after the task is started, the overview
      * of the task will be obtained during the first tracking
      */
-    private static final Cache<Long, Byte> STARTING_CACHE =
-        Caffeine.newBuilder().expireAfterWrite(5, TimeUnit.MINUTES).build();
+    private static final Cache<Long, Long> STARTING_CACHE =
+        Caffeine.newBuilder().expireAfterWrite(STARTING_EXPIRE.toMillis(), TimeUnit.MILLISECONDS).build();
 
     private static final Cache<Long, Date> LOST_CACHE =
-        Caffeine.newBuilder().expireAfterWrite(5, TimeUnit.MINUTES).build();
+        Caffeine.newBuilder().expireAfterWrite(LOST_EXPIRE.toMillis(), TimeUnit.MILLISECONDS).build();
 
     /** tracking task list */
     private static final Map<Long, FlinkApplication> WATCHING_APPS = new ConcurrentHashMap<>(0);
@@ -152,8 +186,8 @@ public class FlinkAppHttpWatcher {
      * Cancelling tasks are placed in this cache with an expiration time of 10 seconds (the time of 2
      * task monitoring polls).
      */
-    private static final Cache<Long, Byte> CANCELING_CACHE =
-        Caffeine.newBuilder().expireAfterWrite(10, TimeUnit.SECONDS).build();
+    private static final Cache<Long, Long> CANCELING_CACHE =
+        Caffeine.newBuilder().expireAfterWrite(CANCELING_EXPIRE.toMillis(), TimeUnit.MILLISECONDS).build();
 
     private static final Cache<Long, FlinkStateChangeEvent> PREVIOUS_STATUS =
         Caffeine.newBuilder().expireAfterWrite(24, TimeUnit.HOURS).build();
@@ -167,11 +201,27 @@ public class FlinkAppHttpWatcher {
 
     private static final Map<Long, OptionStateEnum> OPTIONING = new ConcurrentHashMap<>(0);
 
+    /** apps whose watching state changed since it was saved to the watcher state store */
+    private static final Set<Long> CHANGED_APPS = ConcurrentHashMap.newKeySet();
+
+    /** the watching states saved by this node, only the changed ones are saved again */
+    private static final Map<Long, FlinkWatchingState> SAVED_STATES = new ConcurrentHashMap<>(0);
+
+    /** the watching states of all the nodes, refreshed every WATCHING_INTERVAL with HA */
+    private static volatile Map<Long, FlinkWatchingState> liveStates = Collections.emptyMap();
+
+    private final AtomicBoolean ringChanged = new AtomicBoolean(false);
+
+    /** the apps of this node should be taken over from the watcher state store */
+    private boolean takeoverPending = true;
+
     private Long lastWatchTime = 0L;
 
     private Long lastOptionTime = 0L;
 
-    private static final Byte DEFAULT_FLAG_BYTE = Byte.valueOf("0");
+    private long lastLeaseTime = 0L;
+
+    private long lastRefreshTime = 0L;
 
     @Qualifier("flinkRestAPIWatchingExecutor")
     @Autowired
@@ -180,19 +230,8 @@ public class FlinkAppHttpWatcher {
     @PostConstruct
     public void init() {
         WATCHING_APPS.clear();
-        List<FlinkApplication> applications = applicationManageService.list(
-            new LambdaQueryWrapper<FlinkApplication>()
-                .eq(FlinkApplication::getTracking, 1)
-                .notIn(FlinkApplication::getDeployMode, FlinkDeployMode.getKubernetesMode()))
-            .stream()
-            .filter(application -> distributedTaskService.isLocalProcessing(application.getId()))
-            .collect(Collectors.toList());
-
-        applications.forEach(app -> {
-            Long appId = app.getId();
-            WATCHING_APPS.put(appId, app);
-            STARTING_CACHE.put(appId, DEFAULT_FLAG_BYTE);
-        });
+        // the apps are taken over with their watching states by the first sync, once the server id is known
+        takeoverPending = true;
     }
 
     @PreDestroy
@@ -200,6 +239,261 @@ public class FlinkAppHttpWatcher {
         log.info(
             "[StreamPark][FlinkAppHttpWatcher] StreamPark Console will be shutdown,persistent application to database.");
         WATCHING_APPS.forEach((k, v) -> applicationManageService.persistMetrics(v));
+        String owner = distributedTaskService.getServerId();
+        if (owner != null) {
+            try {
+                // hand over the states, so that the next owner doesn't wait for the leases to expire
+                CHANGED_APPS.addAll(localAppIds());
+                saveChangedStates(owner);
+                stateStore.release(owner, new ArrayList<>(SAVED_STATES.keySet()));
+            } catch (Exception e) {
+                log.warn("[StreamPark][FlinkAppHttpWatcher] hand over watching states failed.", e);
+            }
+        }
+    }
+
+    @EventListener
+    public void onServerRingChanged(ServerRingChangedEvent event) {
+        log.info("[StreamPark][FlinkAppHttpWatcher] {}, rebalance the watched apps.", event);
+        ringChanged.set(true);
+    }
+
+    /**
+     * Share the watching states of the apps through the {@link FlinkWatcherStateStore}.
+     *
+     * <ul>
+     *   <li>the changed states of the apps of this node are saved, under the leases of the apps
+     *   <li>the apps moved to other nodes are handed over: their states are saved and their leases
+     *       released
+     *   <li>the apps moved to this node are taken over warm, with the states saved by their previous
+     *       owner once it released them, or once their leases expired
+     *   <li>with HA, the states of all the nodes are read for {@link #getLiveApps()}
+     * </ul>
+     */
+    @Scheduled(fixedDelayString = "${job.state-watcher.fixed-delayed:1000}")
+    public void syncWatchingStates() {
+        String owner = distributedTaskService.getServerId();
+        if (owner == null) {
+            return;
+        }
+        try {
+            if (ringChanged.getAndSet(false)) {
+                handOver(owner);
+                takeoverPending = true;
+            }
+            long now = System.currentTimeMillis();
+            if (takeoverPending || now - lastLeaseTime >= LEASE_RENEW_INTERVAL.toMillis()) {
+                lastLeaseTime = now;
+                // also catches the expired cache entries
+                CHANGED_APPS.addAll(SAVED_STATES.keySet());
+                renewLeases(owner);
+            }
+            saveChangedStates(owner);
+            if (WebUtils.isHaEnable() && now - lastRefreshTime >= WATCHING_INTERVAL.toMillis()) {
+                lastRefreshTime = now;
+                liveStates = stateStore.getAll();
+                // the pages connected to this node also follow the apps watched by the other nodes
+                liveStates.forEach((appId, state) -> {
+                    if (state.isWatching() && !WATCHING_APPS.containsKey(appId)) {
+                        deltaPublisher.offer(state.toApplication(appId));
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("[StreamPark][FlinkAppHttpWatcher] sync watching states failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void handOver(String owner) {
+        List<Long> moved = localAppIds().stream()
+            .filter(appId -> !distributedTaskService.isLocalProcessing(appId))
+            .collect(Collectors.toList());
+        if (moved.isEmpty()) {
+            return;
+        }
+        log.info("[StreamPark][FlinkAppHttpWatcher] hand over apps {} to other nodes.", moved);
+        CHANGED_APPS.addAll(moved);
+        saveChangedStates(owner);
+        stateStore.release(owner, moved);
+        moved.forEach(FlinkAppHttpWatcher::forget);
+    }
+
+    private void renewLeases(String owner) {
+        Map<Long, FlinkApplication> candidates = new HashMap<>(0);
+        if (takeoverPending) {
+            applicationManageService.list(
+                new LambdaQueryWrapper<FlinkApplication>()
+                    .eq(FlinkApplication::getTracking, 1)
+                    .notIn(FlinkApplication::getDeployMode, FlinkDeployMode.getKubernetesMode()))
+                .stream()
+                .filter(app -> !WATCHING_APPS.containsKey(app.getId()))
+                .filter(app -> distributedTaskService.isLocalProcessing(app.getId()))
+                .forEach(app -> candidates.put(app.getId(), app));
+        }
+        Set<Long> localAppIds = localAppIds();
+        Set<Long> appIds = new HashSet<>(candidates.keySet());
+        appIds.addAll(localAppIds);
+
+        Set<Long> leased;
+        Map<Long, FlinkWatchingState> states;
+        try {
+            leased = stateStore.acquire(owner, appIds, LEASE_DURATION);
+            List<Long> takeover = candidates.keySet().stream().filter(leased::contains).collect(Collectors.toList());
+            states = stateStore.get(takeover);
+        } catch (Exception e) {
+            // the consistent hash decides the owner, watch the apps cold rather than not at all
+            log.error("[StreamPark][FlinkAppHttpWatcher] watcher state store unavailable, take over apps {} cold.",
+                candidates.keySet(), e);
+            candidates.values().forEach(app -> restore(app, null));
+            takeoverPending = false;
+            return;
+        }
+        candidates.values().stream()
+            .filter(app -> leased.contains(app.getId()))
+            .forEach(app -> restore(app, states.get(app.getId())));
+        // the previous owner of the others hasn't handed them over yet, retried until their leases expire
+        takeoverPending = !leased.containsAll(candidates.keySet());
+        appIds.removeAll(leased);
+        if (!appIds.isEmpty()) {
+            log.info("[StreamPark][FlinkAppHttpWatcher] apps {} are still leased to other nodes.", appIds);
+        }
+        // the leases of these apps moved to another node, which watches them from now on
+        localAppIds.removeAll(leased);
+        if (!localAppIds.isEmpty()) {
+            log.warn("[StreamPark][FlinkAppHttpWatcher] apps {} are leased to other nodes, stop watching them.",
+                localAppIds);
+            localAppIds.forEach(FlinkAppHttpWatcher::forget);
+        }
+    }
+
+    private void saveChangedStates(String owner) {
+        Map<Long, FlinkWatchingState> changed = new HashMap<>(0);
+        for (Long appId : new ArrayList<>(CHANGED_APPS)) {
+            CHANGED_APPS.remove(appId);
+            FlinkWatchingState state = snapshot(appId);
+            FlinkWatchingState saved = SAVED_STATES.get(appId);
+            if (state.isEmpty() ? saved != null : !state.equals(saved)) {
+                changed.put(appId, state);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            stateStore.save(owner, changed);
+        } catch (Exception e) {
+            CHANGED_APPS.addAll(changed.keySet());
+            throw e;
+        }
+        List<Long> removed = new ArrayList<>(0);
+        changed.forEach((appId, state) -> {
+            if (state.isEmpty()) {
+                SAVED_STATES.remove(appId);
+                removed.add(appId);
+            } else {
+                SAVED_STATES.put(appId, state);
+            }
+        });
+        stateStore.release(owner, removed);
+    }
+
+    /** @return ids of the apps watched by this node, or by the other nodes as of the last refresh */
+    private static Set<Long> watchedAppIds() {
+        Set<Long> appIds = new HashSet<>(WATCHING_APPS.keySet());
+        liveStates.forEach((appId, state) -> {
+            if (state.isWatching()) {
+                appIds.add(appId);
+            }
+        });
+        return appIds;
+    }
+
+    /** @return ids of the apps with a watching state on this node */
+    private static Set<Long> localAppIds() {
+        Set<Long> appIds = new HashSet<>(WATCHING_APPS.keySet());
+        appIds.addAll(STOP_FROM_MAP.keySet());
+        appIds.addAll(OPTIONING.keySet());
+        appIds.addAll(CANCELLED_JOB_MAP.keySet());
+        appIds.addAll(SAVEPOINT_CACHE.asMap().keySet());
+        appIds.addAll(STARTING_CACHE.asMap().keySet());
+        appIds.addAll(LOST_CACHE.asMap().keySet());
+        appIds.addAll(CANCELING_CACHE.asMap().keySet());
+        appIds.addAll(SAVED_STATES.keySet());
+        return appIds;
+    }
+
+    private static FlinkWatchingState snapshot(Long appId) {
+        FlinkWatchingState state = new FlinkWatchingState();
+        FlinkApplication application = WATCHING_APPS.get(appId);
+        if (application != null) {
+            state.setWatching(true);
+            state.copyMetrics(application);
+        }
+        state.setStopFrom(STOP_FROM_MAP.get(appId));
+        state.setOptioning(OPTIONING.get(appId));
+        state.setCanceledUserId(CANCELLED_JOB_MAP.get(appId));
+        Date lostTime = LOST_CACHE.getIfPresent(appId);
+        state.setLostTime(lostTime == null ? null : lostTime.getTime());
+        state.setSavepointTime(SAVEPOINT_CACHE.getIfPresent(appId));
+        state.setStartingTime(STARTING_CACHE.getIfPresent(appId));
+        state.setCancelingTime(CANCELING_CACHE.getIfPresent(appId));
+        if (!state.isEmpty()) {
+            state.setPreviousStatus(PREVIOUS_STATUS.getIfPresent(appId));
+        }
+        return state;
+    }
+
+    /** Watch the app with the state saved by its previous owner, as if it never left this node. */
+    private static void restore(FlinkApplication application, FlinkWatchingState state) {
+        Long appId = application.getId();
+        long now = System.currentTimeMillis();
+        WATCHING_APPS.put(appId, application);
+        if (state == null) {
+            STARTING_CACHE.put(appId, now);
+            return;
+        }
+        log.info("[StreamPark][FlinkAppHttpWatcher] take over app {} with its watching state.", appId);
+        putIfPresent(STOP_FROM_MAP, appId, state.getStopFrom());
+        putIfPresent(OPTIONING, appId, state.getOptioning());
+        putIfPresent(CANCELLED_JOB_MAP, appId, state.getCanceledUserId());
+        if (state.getLostTime() != null && now - state.getLostTime() < LOST_EXPIRE.toMillis()) {
+            LOST_CACHE.put(appId, new Date(state.getLostTime()));
+        }
+        restoreTime(SAVEPOINT_CACHE, appId, state.getSavepointTime(), SAVEPOINT_EXPIRE, now);
+        restoreTime(STARTING_CACHE, appId, state.getStartingTime(), STARTING_EXPIRE, now);
+        restoreTime(CANCELING_CACHE, appId, state.getCancelingTime(), CANCELING_EXPIRE, now);
+        if (state.getPreviousStatus() != null) {
+            PREVIOUS_STATUS.put(appId, state.getPreviousStatus());
+        }
+        SAVED_STATES.put(appId, state);
+        CHANGED_APPS.add(appId);
+    }
+
+    private static <V> void putIfPresent(Map<Long, V> map, Long appId, V value) {
+        if (value != null) {
+            map.put(appId, value);
+        }
+    }
+
+    private static void restoreTime(Cache<Long, Long> cache, Long appId, Long time, Duration expire, long now) {
+        if (time != null && now - time < expire.toMillis()) {
+            cache.put(appId, time);
+        }
+    }
+
+    /** Drop the watching state of an app handed over to another node. */
+    private static void forget(Long appId) {
+        WATCHING_APPS.remove(appId);
+        STOP_FROM_MAP.remove(appId);
+        OPTIONING.remove(appId);
+        CANCELLED_JOB_MAP.remove(appId);
+        SAVEPOINT_CACHE.invalidate(appId);
+        STARTING_CACHE.invalidate(appId);
+        LOST_CACHE.invalidate(appId);
+        CANCELING_CACHE.invalidate(appId);
+        PREVIOUS_STATUS.invalidate(appId);
+        SAVED_STATES.remove(appId);
+        CHANGED_APPS.remove(appId);
     }
 
     /**
@@ -212,6 +506,9 @@ public class FlinkAppHttpWatcher {
      */
     @Scheduled(fixedDelayString = "${job.state-watcher.fixed-delayed:1000}")
     public void start() {
+        // push the state changes of the previous cycle
+        deltaPublisher.flush();
+        deltaPublisher.retain(watchedAppIds());
         Long timeMillis = System.currentTimeMillis();
         if (lastWatchTime == null
             || !OPTIONING.isEmpty()
@@ -242,7 +539,9 @@ public class FlinkAppHttpWatcher {
     }
 
     private void cleanupLost(FlinkApplication application) {
-        LOST_CACHE.invalidate(application.getId());
+        if (LOST_CACHE.asMap().remove(application.getId()) != null) {
+            CHANGED_APPS.add(application.getId());
+        }
     }
 
     private void doStateFailed(FlinkApplication application) {
@@ -261,6 +560,7 @@ public class FlinkAppHttpWatcher {
                     Date lostTime = LOST_CACHE.getIfPresent(application.getId());
                     if (lostTime == null) {
                         LOST_CACHE.put(application.getId(), new Date());
+                        CHANGED_APPS.add(application.getId());
                     } else if (DateUtils.toSecondDuration(lostTime, new Date()) >= 30) {
                         savepointService.expire(application.getId());
                         application.setState(FlinkAppStateEnum.LOST.getValue());
@@ -389,6 +689,7 @@ public class FlinkAppHttpWatcher {
                 application.setAvailableSlot(override.getSlotsAvailable());
             }
             STARTING_CACHE.invalidate(application.getId());
+            CHANGED_APPS.add(application.getId());
         }
     }
 
@@ -396,6 +697,7 @@ public class FlinkAppHttpWatcher {
     private void handleCheckPoints(FlinkApplication application) throws Exception {
         CheckPoints checkPoints = httpCheckpoints(application);
         if (checkPoints != null) {
+            deltaPublisher.checkpoint(application.getId(), checkPoints);
             checkpointProcessor.process(application, checkPoints);
         }
     }
@@ -449,6 +751,7 @@ public class FlinkAppHttpWatcher {
 
     private void doPersistMetrics(FlinkApplication application, boolean stopWatch) {
         Long appId = application.getId();
+        CHANGED_APPS.add(appId);
         if (FlinkAppStateEnum.isEndState(application.getState())) {
             application.setOverview(null);
             application.setTotalTM(null);
@@ -463,6 +766,7 @@ public class FlinkAppHttpWatcher {
         } else {
             WATCHING_APPS.put(appId, application);
         }
+        deltaPublisher.offer(application);
 
         FlinkStateChangeEvent event = PREVIOUS_STATUS.getIfPresent(appId);
         FlinkStateChangeEvent nowEvent = createStateChangeEvent(application);
@@ -487,7 +791,7 @@ public class FlinkAppHttpWatcher {
                                    StopFromEnum stopFrom) throws Exception {
         switch (currentState) {
             case CANCELLING:
-                CANCELING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+                CANCELING_CACHE.put(application.getId(), System.currentTimeMillis());
                 cleanSavepoint(application);
                 application.setState(currentState.getValue());
                 doPersistMetrics(application, false);
@@ -524,7 +828,8 @@ public class FlinkAppHttpWatcher {
                 log.info(
                     "[StreamPark][FlinkAppHttpWatcher] getFromFlinkRestApi, job state {},add to starting",
                     currentState.name());
-                STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+                STARTING_CACHE.put(application.getId(), System.currentTimeMillis());
+                CHANGED_APPS.add(application.getId());
                 break;
             default:
                 application.setState(currentState.getValue());
@@ -549,7 +854,7 @@ public class FlinkAppHttpWatcher {
          * information) and the status is not obtained this time (flink rest server is closed), the task is considered
          * CANCELED
          */
-        Byte flag = CANCELING_CACHE.getIfPresent(application.getId());
+        Long flag = CANCELING_CACHE.getIfPresent(application.getId());
         if (flag != null) {
             log.info("[StreamPark][FlinkAppHttpWatcher] previous state: canceling.");
             FlinkAppStateEnum flinkAppState = FlinkAppStateEnum.CANCELED;
@@ -630,13 +935,14 @@ public class FlinkAppHttpWatcher {
     private void doAlert(FlinkApplication application, FlinkAppStateEnum flinkAppState) {
         AlertTemplate alertTemplate =
             AlertTemplateUtils.createAlertTemplate(application, flinkAppState);
-        alertService.alert(application.getAlertId(), alertTemplate);
+        alertService.alertAsync(application.getAlertId(), alertTemplate);
     }
 
     private void cleanOptioning(OptionStateEnum optionState, Long key) {
         if (optionState != null) {
             lastOptionTime = System.currentTimeMillis();
             OPTIONING.remove(key);
+            CHANGED_APPS.add(key);
         }
     }
 
@@ -647,6 +953,7 @@ public class FlinkAppHttpWatcher {
             doPersistMetrics(application, false);
         }
         SAVEPOINT_CACHE.invalidate(application.getId());
+        CHANGED_APPS.add(application.getId());
     }
 
     /** set current option state */
@@ -659,6 +966,7 @@ public class FlinkAppHttpWatcher {
         if (state.equals(OptionStateEnum.CANCELLING)) {
             STOP_FROM_MAP.put(appId, StopFromEnum.STREAMPARK);
         }
+        CHANGED_APPS.add(appId);
     }
 
     public static void doWatching(FlinkApplication application) {
@@ -667,7 +975,8 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to tracking,appId:{}", application.getId());
         WATCHING_APPS.put(application.getId(), application);
-        STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+        STARTING_CACHE.put(application.getId(), System.currentTimeMillis());
+        CHANGED_APPS.add(application.getId());
     }
 
     public static void addSavepoint(Long appId) {
@@ -675,7 +984,8 @@ public class FlinkAppHttpWatcher {
             return;
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to savepoint,appId:{}", appId);
-        SAVEPOINT_CACHE.put(appId, DEFAULT_FLAG_BYTE);
+        SAVEPOINT_CACHE.put(appId, System.currentTimeMillis());
+        CHANGED_APPS.add(appId);
 
         // update to PREVIOUS_STATUS
         FlinkStateChangeEvent event = PREVIOUS_STATUS.getIfPresent(appId);
@@ -691,6 +1001,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] stop app,appId:{}", appId);
         WATCHING_APPS.remove(appId);
+        CHANGED_APPS.add(appId);
     }
 
     public static void stopCanceledJob(Long appId) {
@@ -699,21 +1010,42 @@ public class FlinkAppHttpWatcher {
         }
         log.info("flink job canceled app appId:{} by useId:{}", appId, CANCELLED_JOB_MAP.get(appId));
         CANCELLED_JOB_MAP.remove(appId);
+        CHANGED_APPS.add(appId);
     }
 
     public static void addCanceledApp(Long appId, Long userId) {
         log.info("flink job addCanceledApp app appId:{}, useId:{}", appId, userId);
         CANCELLED_JOB_MAP.put(appId, userId);
+        CHANGED_APPS.add(appId);
     }
 
     public static Long getCanceledJobUserId(Long appId) {
-        return CANCELLED_JOB_MAP.get(appId) == null ? Long.valueOf(-1) : CANCELLED_JOB_MAP.get(appId);
+        Long userId = CANCELLED_JOB_MAP.get(appId);
+        if (userId == null) {
+            FlinkWatchingState state = liveStates.get(appId);
+            userId = state == null ? null : state.getCanceledUserId();
+        }
+        return userId == null ? Long.valueOf(-1) : userId;
     }
 
     public static Collection<FlinkApplication> getWatchingApps() {
         return WATCHING_APPS.values();
     }
 
+    /**
+     * @return the apps watched by all the console nodes, with the live metrics saved by their owner
+     *     for the apps of the other nodes
+     */
+    public static Collection<FlinkApplication> getLiveApps() {
+        List<FlinkApplication> applications = new ArrayList<>(WATCHING_APPS.values());
+        liveStates.forEach((appId, state) -> {
+            if (state.isWatching() && !WATCHING_APPS.containsKey(appId)) {
+                applications.add(state.toApplication(appId));
+            }
+        });
+        return applications;
+    }
+
     private static boolean isKubernetesApp(Long appId) {
         FlinkApplication app = WATCHING_APPS.get(appId);
         if (app == null) {
@@ -723,8 +1055,7 @@ public class FlinkAppHttpWatcher {
     }
 
     private YarnAppInfo httpYarnAppInfo(FlinkApplication application) throws Exception {
-        String reqURL = "ws/v1/cluster/apps/".concat(application.getClusterId());
-        return yarnRestRequest(reqURL, YarnAppInfo.class);
+        return yarnAppSnapshot.getAppInfo(application.getClusterId());
     }
 
     private Overview httpOverview(FlinkApplication application) throws IOException {
@@ -823,7 +1154,11 @@ public class FlinkAppHttpWatcher {
     }
 
     public boolean isWatchingApp(Long id) {
-        return WATCHING_APPS.containsKey(id);
+        if (WATCHING_APPS.containsKey(id)) {
+            return true;
+        }
+        FlinkWatchingState state = liveStates.get(id);
+        return state != null && state.isWatching();
     }
 
     private <T> T httpRemoteCluster(Long clusterId, Callback<FlinkCluster, T> function) throws Exception {
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.bean.FlinkAppStateDelta;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
+import org.apache.streampark.console.core.metrics.flink.CheckPoints;
+import org.apache.streampark.console.core.websocket.WebSocketEndpoint;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Pushes the state changes of the watched flink applications to the application list pages, so the
+ * pages don't have to poll the application list.
+ *
+ * <p>The watchers offer the applications they watched, only the ones whose {@link
+ * FlinkAppStateDelta} changed since it was pushed are kept, and they are pushed once per watching
+ * cycle, in one message per team to the {@link #TOPIC_PREFIX} topic of the team.
+ */
+@Slf4j
+@Component
+public class FlinkAppStateDeltaPublisher {
+
+    public static final String TOPIC_PREFIX = "flink-app-state:";
+
+    /** topic -> message */
+    private final BiConsumer<String, String> sink;
+
+    /** the deltas pushed last, until the applications end */
+    private final Map<Long, FlinkAppStateDelta> published = new ConcurrentHashMap<>();
+
+    private final Map<Long, FlinkAppStateDelta> pending = new ConcurrentHashMap<>();
+
+    private final Map<Long, CheckPoints.CheckPoint> checkpoints = new ConcurrentHashMap<>();
+
+    public FlinkAppStateDeltaPublisher() {
+        this(WebSocketEndpoint::publish);
+    }
+
+    FlinkAppStateDeltaPublisher(BiConsumer<String, String> sink) {
+        this.sink = sink;
+    }
+
+    /** Keep the latest checkpoint of the application for its next delta. */
+    public void checkpoint(Long appId, CheckPoints checkPoints) {
+        checkPoints.getLatestCheckpoint().stream()
+            .max(Comparator.comparing(CheckPoints.CheckPoint::getId))
+            .ifPresent(checkpoint -> checkpoints.put(appId, checkpoint));
+    }
+
+    /** Keep the delta of the application until the next {@link #flush()}, if it changed. */
+    public void offer(FlinkApplication application) {
+        Long appId = application.getId();
+        if (appId == null || application.getTeamId() == null) {
+            return;
+        }
+        FlinkAppStateDelta delta = FlinkAppStateDelta.of(application, checkpoints.get(appId));
+        if (delta.equals(published.get(appId))) {
+            // changed back within the cycle
+            pending.remove(appId);
+        } else {
+            pending.put(appId, delta);
+        }
+    }
+
+    /**
+     * Forget the pushed deltas of the applications that are no longer watched, e.g. handed over to
+     * another node or no longer tracked, their next delta is pushed whatever it is.
+     *
+     * @param watchedAppIds ids of the applications still watched
+     */
+    public void retain(Set<Long> watchedAppIds) {
+        published.keySet().retainAll(watchedAppIds);
+        checkpoints.keySet().retainAll(watchedAppIds);
+    }
+
+    /** Push the changed deltas since the last flush, one message per team. */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, List<FlinkAppStateDelta>> teamDeltas = new HashMap<>();
+        for (Long appId : new ArrayList<>(pending.keySet())) {
+            FlinkAppStateDelta delta = pending.remove(appId);
+            if (delta == null) {
+                continue;
+            }
+            teamDeltas.computeIfAbsent(delta.getTeamId(), k -> new ArrayList<>()).add(delta);
+            if (delta.getState() != null && FlinkAppStateEnum.isEndState(delta.getState())) {
+                published.remove(appId);
+                checkpoints.remove(appId);
+            } else {
+                published.put(appId, delta);
+            }
+        }
+        teamDeltas.forEach((teamId, deltas) -> {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("type", "flink-app-state");
+            message.put("teamId", teamId);
+            message.put("apps", deltas);
+            try {
+                sink.accept(TOPIC_PREFIX + teamId, JacksonUtils.write(message));
+            } catch (JsonProcessingException e) {
+                log.error("[StreamPark][FlinkAppStateDeltaPublisher] serialize the deltas of team {} failed.", teamId, e);
+            }
+        });
+    }
+}
@@ -22,8 +22,6 @@ import org.apache.streampark.common.conf.InternalConfigHolder;
 import org.apache.streampark.common.enums.ClusterState;
 import org.apache.streampark.common.enums.FlinkDeployMode;
 import org.apache.streampark.common.util.HadoopUtils;
-import org.apache.streampark.common.util.HttpClientUtils;
-import org.apache.streampark.common.util.YarnUtils;
 import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.core.entity.FlinkCluster;
 import org.apache.streampark.console.core.metrics.flink.Overview;
@@ -32,11 +30,10 @@ import org.apache.streampark.console.core.service.FlinkClusterService;
 import org.apache.streampark.console.core.service.alert.AlertService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationInfoService;
 import org.apache.streampark.console.core.utils.AlertTemplateUtils;
+import org.apache.streampark.console.core.watcher.ClusterStateChangedEvent.ClusterKind;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.yarn.api.records.YarnApplicationState;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.core5.util.Timeout;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.github.benmanes.caffeine.cache.Cache;
@@ -44,6 +41,7 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -55,7 +53,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.TimeUnit;
 
 /** This implementation is currently used for tracing Cluster on yarn,remote,K8s mode */
 @Slf4j
@@ -71,7 +68,11 @@ public class FlinkClusterWatcher {
     @Autowired
     private FlinkApplicationInfoService applicationInfoService;
 
-    private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5L);
+    @Autowired
+    private YarnAppSnapshot yarnAppSnapshot;
+
+    @Autowired
+    private ClusterHealthProber healthProber;
 
     @Qualifier("flinkClusterWatchingExecutor")
     @Autowired
@@ -110,22 +111,30 @@ public class FlinkClusterWatcher {
             lastWatchTime = timeMillis;
             immediateWatch = false;
             WATCHER_CLUSTERS.forEach(
-                (aLong, flinkCluster) -> executorService.execute(
-                    () -> {
-                        ClusterState state = getClusterState(flinkCluster);
-                        switch (state) {
-                            case FAILED:
-                            case LOST:
-                            case UNKNOWN:
-                            case KILLED:
-                                flinkClusterService.updateClusterState(flinkCluster.getId(), state);
-                                unWatching(flinkCluster);
-                                alert(flinkCluster, state);
-                                break;
-                            default:
-                                break;
-                        }
-                    }));
+                (id, flinkCluster) -> healthProber.probeAsync(
+                    executorService, ClusterKind.FLINK, id, () -> getClusterState(flinkCluster)));
+        }
+    }
+
+    @EventListener
+    public void onClusterStateChanged(ClusterStateChangedEvent event) {
+        FlinkCluster flinkCluster = WATCHER_CLUSTERS.get(event.getClusterId());
+        if (event.getKind() != ClusterKind.FLINK || flinkCluster == null) {
+            return;
+        }
+        ClusterState state = event.getState();
+        switch (state) {
+            case FAILED:
+            case LOST:
+            case UNKNOWN:
+            case KILLED:
+                flinkClusterService.updateClusterState(flinkCluster.getId(), state);
+                unWatching(flinkCluster);
+                healthProber.forget(ClusterKind.FLINK, flinkCluster.getId());
+                alert(flinkCluster, state);
+                break;
+            default:
+                break;
         }
     }
 
@@ -137,7 +146,7 @@ public class FlinkClusterWatcher {
                     cluster.getId(), InternalConfigHolder.get(CommonConfig.SPRING_PROFILES_ACTIVE())));
             cluster.setClusterState(state.getState());
             cluster.setEndTime(new Date());
-            alertService.alert(
+            alertService.alertAsync(
                 cluster.getAlertId(), AlertTemplateUtils.createAlertTemplate(cluster, state));
         }
     }
@@ -153,7 +162,7 @@ public class FlinkClusterWatcher {
         if (state != null) {
             return state;
         }
-        state = httpClusterState(flinkCluster);
+        state = httpClusterState(flinkCluster, true);
         if (ClusterState.isRunning(state)) {
             FAILED_STATES.invalidate(flinkCluster.getId());
         } else {
@@ -169,8 +178,8 @@ public class FlinkClusterWatcher {
      * @param flinkCluster The FlinkCluster object representing the cluster.
      * @return The ClusterState object representing the state of the cluster.
      */
-    private ClusterState httpRemoteClusterState(FlinkCluster flinkCluster) {
-        return getStateFromFlinkRestApi(flinkCluster);
+    private ClusterState httpRemoteClusterState(FlinkCluster flinkCluster, boolean failFast) {
+        return getStateFromFlinkRestApi(flinkCluster, failFast);
     }
 
     /**
@@ -179,8 +188,8 @@ public class FlinkClusterWatcher {
      * @param flinkCluster
      * @return
      */
-    private ClusterState httpYarnSessionClusterState(FlinkCluster flinkCluster) {
-        ClusterState state = getStateFromFlinkRestApi(flinkCluster);
+    private ClusterState httpYarnSessionClusterState(FlinkCluster flinkCluster, boolean failFast) {
+        ClusterState state = getStateFromFlinkRestApi(flinkCluster, failFast);
         if (ClusterState.LOST == state) {
             return getStateFromYarnRestApi(flinkCluster);
         }
@@ -193,12 +202,12 @@ public class FlinkClusterWatcher {
      * @param flinkCluster
      * @return
      */
-    private ClusterState httpClusterState(FlinkCluster flinkCluster) {
+    private ClusterState httpClusterState(FlinkCluster flinkCluster, boolean failFast) {
         switch (flinkCluster.getFlinkDeployModeEnum()) {
             case REMOTE:
-                return httpRemoteClusterState(flinkCluster);
+                return httpRemoteClusterState(flinkCluster, failFast);
             case YARN_SESSION:
-                return httpYarnSessionClusterState(flinkCluster);
+                return httpYarnSessionClusterState(flinkCluster, failFast);
             default:
                 return ClusterState.UNKNOWN;
         }
@@ -210,7 +219,7 @@ public class FlinkClusterWatcher {
      * @param flinkCluster
      * @return
      */
-    private ClusterState getStateFromFlinkRestApi(FlinkCluster flinkCluster) {
+    private ClusterState getStateFromFlinkRestApi(FlinkCluster flinkCluster, boolean failFast) {
         String address = flinkCluster.getAddress();
         String jobManagerUrl = flinkCluster.getJobManagerUrl();
         String flinkUrl =
@@ -218,10 +227,7 @@ public class FlinkClusterWatcher {
                 ? address.concat("/overview")
                 : jobManagerUrl.concat("/overview");
         try {
-            String res =
-                HttpClientUtils.httpGetRequest(
-                    flinkUrl,
-                    RequestConfig.custom().setConnectTimeout(5000, TimeUnit.MILLISECONDS).build());
+            String res = healthProber.httpGet(flinkUrl, failFast);
             JacksonUtils.read(res, Overview.class);
             return ClusterState.RUNNING;
         } catch (Exception ignored) {
@@ -237,13 +243,11 @@ public class FlinkClusterWatcher {
      * @return
      */
     private ClusterState getStateFromYarnRestApi(FlinkCluster flinkCluster) {
-        String yarnUrl = "ws/v1/cluster/apps/".concat(flinkCluster.getClusterId());
         try {
-            String result = YarnUtils.restRequest(yarnUrl, HTTP_TIMEOUT);
-            if (null == result) {
+            YarnAppInfo yarnAppInfo = yarnAppSnapshot.getAppInfo(flinkCluster.getClusterId());
+            if (null == yarnAppInfo) {
                 return ClusterState.UNKNOWN;
             }
-            YarnAppInfo yarnAppInfo = JacksonUtils.read(result, YarnAppInfo.class);
             YarnApplicationState status = HadoopUtils.toYarnState(yarnAppInfo.getApp().getState());
             if (status == null) {
                 log.error(
@@ -296,7 +300,7 @@ public class FlinkClusterWatcher {
      * @return <code>false</code> if the connection of the cluster is invalid, <code>true</code> else.
      */
     public Boolean verifyClusterConnection(FlinkCluster flinkCluster) {
-        ClusterState clusterStateEnum = httpClusterState(flinkCluster);
+        ClusterState clusterStateEnum = httpClusterState(flinkCluster, false);
         return ClusterState.isRunning(clusterStateEnum);
     }
 }
@@ -40,12 +40,10 @@ import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
-import java.util.concurrent.Executor;
 
 import scala.Enumeration;
 
@@ -75,10 +73,6 @@ public class FlinkK8sChangeEventListener {
     @Autowired
     private FlinkCheckpointProcessor checkpointProcessor;
 
-    @Qualifier("streamparkNotifyExecutor")
-    @Autowired
-    private Executor executor;
-
     /**
      * Catch FlinkJobStatusChangeEvent then storage it persistently to db. Actually update
      * org.apache.streampark.console.core.entity.Application records.
@@ -104,8 +98,7 @@ public class FlinkK8sChangeEventListener {
             || FlinkAppStateEnum.LOST == state
             || FlinkAppStateEnum.RESTARTING == state
             || FlinkAppStateEnum.FINISHED == state) {
-            executor.execute(
-                () -> alertService.alert(app.getAlertId(), AlertTemplateUtils.createAlertTemplate(app, state)));
+            alertService.alertAsync(app.getAlertId(), AlertTemplateUtils.createAlertTemplate(app, state));
         }
     }
 
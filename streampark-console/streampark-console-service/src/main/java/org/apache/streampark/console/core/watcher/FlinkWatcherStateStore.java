@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.core.bean.FlinkWatchingState;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watching states of the flink applications shared by the console nodes, selected with
+ * "job.state-watcher.store": jdbc (default) or redis.
+ *
+ * <p>The consistent hash of {@link org.apache.streampark.console.core.service.DistributedTaskService}
+ * decides which node watches an application, the lease makes sure the next owner only restores the
+ * state of an application once the previous owner has handed it over, or has stopped renewing it.
+ */
+public interface FlinkWatcherStateStore {
+
+    /**
+     * Acquire or renew the leases of the applications, a lease is granted if it's free, held by the
+     * owner already, or has expired.
+     *
+     * @param owner server id of the console node
+     * @param appIds application ids
+     * @param lease lease duration
+     * @return ids of the applications leased to the owner
+     */
+    Set<Long> acquire(String owner, Collection<Long> appIds, Duration lease);
+
+    /** Release the leases of the applications held by the owner. */
+    void release(String owner, Collection<Long> appIds);
+
+    /**
+     * Save the states of the applications leased to the owner, an empty state removes the state of
+     * the application.
+     */
+    void save(String owner, Map<Long, FlinkWatchingState> states);
+
+    /** @return application id -> state */
+    Map<Long, FlinkWatchingState> get(Collection<Long> appIds);
+
+    /** @return application id -> state of all the applications */
+    Map<Long, FlinkWatchingState> getAll();
+}
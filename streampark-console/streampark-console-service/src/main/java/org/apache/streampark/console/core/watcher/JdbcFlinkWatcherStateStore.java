@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.bean.FlinkWatchingState;
+import org.apache.streampark.console.core.entity.FlinkWatcherState;
+import org.apache.streampark.console.core.mapper.FlinkWatcherStateMapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Watcher state store on the system database, the leases are rows of t_flink_watcher_state. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "job.state-watcher.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcFlinkWatcherStateStore implements FlinkWatcherStateStore {
+
+    @Autowired
+    private FlinkWatcherStateMapper mapper;
+
+    @Override
+    public Set<Long> acquire(String owner, Collection<Long> appIds, Duration lease) {
+        if (appIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Date now = new Date();
+        Date expireTime = new Date(now.getTime() + lease.toMillis());
+        // the row is only updated if the lease is free, held by the owner or expired
+        mapper.update(
+            null,
+            new LambdaUpdateWrapper<FlinkWatcherState>()
+                .set(FlinkWatcherState::getOwner, owner)
+                .set(FlinkWatcherState::getLeaseExpireTime, expireTime)
+                .in(FlinkWatcherState::getAppId, appIds)
+                .and(
+                    w -> w.eq(FlinkWatcherState::getOwner, owner)
+                        .or()
+                        .isNull(FlinkWatcherState::getOwner)
+                        .or()
+                        .lt(FlinkWatcherState::getLeaseExpireTime, now)));
+
+        Map<Long, String> owners = new HashMap<>(appIds.size());
+        mapper.selectList(
+            new LambdaQueryWrapper<FlinkWatcherState>()
+                .select(FlinkWatcherState::getAppId, FlinkWatcherState::getOwner)
+                .in(FlinkWatcherState::getAppId, appIds))
+            .forEach(row -> owners.put(row.getAppId(), row.getOwner()));
+
+        Set<Long> acquired = new HashSet<>(appIds.size());
+        for (Long appId : appIds) {
+            if (owners.containsKey(appId)) {
+                if (owner.equals(owners.get(appId))) {
+                    acquired.add(appId);
+                }
+                continue;
+            }
+            FlinkWatcherState row = new FlinkWatcherState();
+            row.setAppId(appId);
+            row.setOwner(owner);
+            row.setLeaseExpireTime(expireTime);
+            row.setModifyTime(now);
+            try {
+                mapper.insert(row);
+                acquired.add(appId);
+            } catch (DuplicateKeyException e) {
+                log.debug("[StreamPark][JdbcFlinkWatcherStateStore] lease of app {} was acquired by another node.", appId);
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public void release(String owner, Collection<Long> appIds) {
+        if (appIds.isEmpty()) {
+            return;
+        }
+        mapper.delete(
+            new LambdaQueryWrapper<FlinkWatcherState>()
+                .eq(FlinkWatcherState::getOwner, owner)
+                .in(FlinkWatcherState::getAppId, appIds)
+                .isNull(FlinkWatcherState::getState));
+        mapper.update(
+            null,
+            new LambdaUpdateWrapper<FlinkWatcherState>()
+                .set(FlinkWatcherState::getOwner, null)
+                .set(FlinkWatcherState::getLeaseExpireTime, null)
+                .eq(FlinkWatcherState::getOwner, owner)
+                .in(FlinkWatcherState::getAppId, appIds));
+    }
+
+    @Override
+    public void save(String owner, Map<Long, FlinkWatchingState> states) {
+        Date now = new Date();
+        states.forEach((appId, state) -> {
+            String json = null;
+            if (!state.isEmpty()) {
+                try {
+                    json = JacksonUtils.write(state);
+                } catch (JsonProcessingException e) {
+                    log.error("[StreamPark][JdbcFlinkWatcherStateStore] serialize state of app {} failed.", appId, e);
+                    return;
+                }
+            }
+            int updated = mapper.update(
+                null,
+                new LambdaUpdateWrapper<FlinkWatcherState>()
+                    .set(FlinkWatcherState::getState, json)
+                    .set(FlinkWatcherState::getModifyTime, now)
+                    .eq(FlinkWatcherState::getAppId, appId)
+                    .eq(FlinkWatcherState::getOwner, owner));
+            if (updated == 0) {
+                log.debug("[StreamPark][JdbcFlinkWatcherStateStore] app {} isn't leased to {}, state not saved.", appId, owner);
+            }
+        });
+    }
+
+    @Override
+    public Map<Long, FlinkWatchingState> get(Collection<Long> appIds) {
+        if (appIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return toStates(
+            mapper.selectList(
+                new LambdaQueryWrapper<FlinkWatcherState>()
+                    .select(FlinkWatcherState::getAppId, FlinkWatcherState::getState)
+                    .in(FlinkWatcherState::getAppId, appIds)
+                    .isNotNull(FlinkWatcherState::getState)));
+    }
+
+    @Override
+    public Map<Long, FlinkWatchingState> getAll() {
+        return toStates(
+            mapper.selectList(
+                new LambdaQueryWrapper<FlinkWatcherState>()
+                    .select(FlinkWatcherState::getAppId, FlinkWatcherState::getState)
+                    .isNotNull(FlinkWatcherState::getState)));
+    }
+
+    private static Map<Long, FlinkWatchingState> toStates(List<FlinkWatcherState> rows) {
+        Map<Long, FlinkWatchingState> states = new HashMap<>(rows.size());
+        for (FlinkWatcherState row : rows) {
+            try {
+                states.put(row.getAppId(), JacksonUtils.read(row.getState(), FlinkWatchingState.class));
+            } catch (JsonProcessingException e) {
+                log.warn("[StreamPark][JdbcFlinkWatcherStateStore] invalid state of app {}, ignored.", row.getAppId(), e);
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.util.RedisEndpoint;
+import org.apache.streampark.common.util.RedisUtils;
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.bean.FlinkWatchingState;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Response;
+
+import javax.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watcher state store on redis, for the deployments that don't want the watcher states in the
+ * system database. The states are the fields of a hash, a lease is a key expiring with the lease.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "job.state-watcher.store", havingValue = "redis")
+public class RedisFlinkWatcherStateStore implements FlinkWatcherStateStore {
+
+    private static final String STATE_KEY = "streampark:flink-watcher:state";
+
+    private static final String LEASE_KEY_PREFIX = "streampark:flink-watcher:lease:";
+
+    /** KEYS[1]: lease key, ARGV[1]: owner, ARGV[2]: lease in milliseconds */
+    private static final String ACQUIRE_SCRIPT =
+        "local owner = redis.call('get', KEYS[1]) "
+            + "if owner == false or owner == ARGV[1] then "
+            + "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end "
+            + "return 0";
+
+    /** KEYS[1]: lease key, ARGV[1]: owner */
+    private static final String RELEASE_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end "
+            + "return 0";
+
+    /** KEYS[1]: lease key, KEYS[2]: state key, ARGV[1]: owner, ARGV[2]: app id, ARGV[3]: state */
+    private static final String SAVE_SCRIPT =
+        "if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end "
+            + "if ARGV[3] == '' then return redis.call('hdel', KEYS[2], ARGV[2]) end "
+            + "return redis.call('hset', KEYS[2], ARGV[2], ARGV[3])";
+
+    @Value("${job.state-watcher.redis-url:redis://localhost:6379/0}")
+    private String redisUrl;
+
+    private RedisEndpoint endpoint;
+
+    @PostConstruct
+    public void init() {
+        endpoint = new RedisEndpoint(redisUrl);
+        log.info("[StreamPark][RedisFlinkWatcherStateStore] watcher states are stored in redis {}:{}",
+            endpoint.host(), endpoint.port());
+    }
+
+    @Override
+    public Set<Long> acquire(String owner, Collection<Long> appIds, Duration lease) {
+        if (appIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String leaseMillis = String.valueOf(lease.toMillis());
+        Map<Long, Response<Object>> responses = RedisUtils.doPipeline(
+            pipeline -> {
+                Map<Long, Response<Object>> result = new HashMap<>(appIds.size());
+                for (Long appId : appIds) {
+                    result.put(appId, pipeline.eval(ACQUIRE_SCRIPT,
+                        Collections.singletonList(leaseKey(appId)), Arrays.asList(owner, leaseMillis)));
+                }
+                return result;
+            },
+            endpoint);
+        Set<Long> acquired = new HashSet<>(appIds.size());
+        responses.forEach((appId, response) -> {
+            if (Long.valueOf(1).equals(response.get())) {
+                acquired.add(appId);
+            }
+        });
+        return acquired;
+    }
+
+    @Override
+    public void release(String owner, Collection<Long> appIds) {
+        if (appIds.isEmpty()) {
+            return;
+        }
+        RedisUtils.doPipeline(
+            pipeline -> {
+                for (Long appId : appIds) {
+                    pipeline.eval(RELEASE_SCRIPT, Collections.singletonList(leaseKey(appId)), Collections.singletonList(owner));
+                }
+                return null;
+            },
+            endpoint);
+    }
+
+    @Override
+    public void save(String owner, Map<Long, FlinkWatchingState> states) {
+        Map<Long, String> values = new HashMap<>(states.size());
+        states.forEach((appId, state) -> {
+            try {
+                values.put(appId, state.isEmpty() ? "" : JacksonUtils.write(state));
+            } catch (JsonProcessingException e) {
+                log.error("[StreamPark][RedisFlinkWatcherStateStore] serialize state of app {} failed.", appId, e);
+            }
+        });
+        if (values.isEmpty()) {
+            return;
+        }
+        RedisUtils.doPipeline(
+            pipeline -> {
+                values.forEach((appId, value) -> pipeline.eval(SAVE_SCRIPT,
+                    Arrays.asList(leaseKey(appId), STATE_KEY), Arrays.asList(owner, appId.toString(), value)));
+                return null;
+            },
+            endpoint);
+    }
+
+    @Override
+    public Map<Long, FlinkWatchingState> get(Collection<Long> appIds) {
+        if (appIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> fields = new ArrayList<>(appIds.size());
+        appIds.forEach(appId -> fields.add(appId.toString()));
+        List<String> values = RedisUtils.doRedis(
+            jedis -> jedis.hmget(STATE_KEY, fields.toArray(new String[0])), null, endpoint);
+        Map<String, String> hash = new HashMap<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            if (values.get(i) != null) {
+                hash.put(fields.get(i), values.get(i));
+            }
+        }
+        return toStates(hash);
+    }
+
+    @Override
+    public Map<Long, FlinkWatchingState> getAll() {
+        return toStates(RedisUtils.doRedis(jedis -> jedis.hgetAll(STATE_KEY), null, endpoint));
+    }
+
+    private static Map<Long, FlinkWatchingState> toStates(Map<String, String> hash) {
+        Map<Long, FlinkWatchingState> states = new HashMap<>(hash.size());
+        hash.forEach((field, value) -> {
+            try {
+                states.put(Long.valueOf(field), JacksonUtils.read(value, FlinkWatchingState.class));
+            } catch (JsonProcessingException | NumberFormatException e) {
+                log.warn("[StreamPark][RedisFlinkWatcherStateStore] invalid state of app {}, ignored.", field, e);
+            }
+        });
+        return states;
+    }
+
+    private static String leaseKey(Long appId) {
+        return LEASE_KEY_PREFIX + appId;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Spring event published by {@link org.apache.streampark.console.core.service.DistributedTaskService}
+ * when a console node joined or left the consistent hash ring, the applications of the node are
+ * moved to other nodes, or other nodes moved some of theirs to it.
+ */
+@Getter
+@ToString
+public class ServerRingChangedEvent {
+
+    private final String serverId;
+
+    /** true if the server joined the ring, false if it left */
+    private final boolean added;
+
+    public ServerRingChangedEvent(String serverId, boolean added) {
+        this.serverId = serverId;
+        this.added = added;
+    }
+}
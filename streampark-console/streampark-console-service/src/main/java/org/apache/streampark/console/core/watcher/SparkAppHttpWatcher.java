@@ -20,13 +20,11 @@ package org.apache.streampark.console.core.watcher;
 import org.apache.streampark.common.enums.SparkDeployMode;
 import org.apache.streampark.common.util.HadoopUtils;
 import org.apache.streampark.common.util.YarnUtils;
-import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.core.bean.AlertTemplate;
 import org.apache.streampark.console.core.entity.SparkApplication;
 import org.apache.streampark.console.core.enums.SparkAppStateEnum;
 import org.apache.streampark.console.core.enums.SparkOptionStateEnum;
 import org.apache.streampark.console.core.enums.StopFromEnum;
-import org.apache.streampark.console.core.metrics.spark.Job;
 import org.apache.streampark.console.core.metrics.spark.SparkApplicationMetrics;
 import org.apache.streampark.console.core.metrics.spark.SparkApplicationSummary;
 import org.apache.streampark.console.core.metrics.yarn.YarnAppInfo;
@@ -62,8 +60,12 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -93,6 +95,9 @@ public class SparkAppHttpWatcher {
     @Autowired
     SparkClusterWatcher sparkClusterWatcher;
 
+    @Autowired
+    private YarnAppSnapshot yarnAppSnapshot;
+
     // track interval every 5 seconds
     public static final Duration WATCHING_INTERVAL = Duration.ofSeconds(5);
 
@@ -101,6 +106,12 @@ public class SparkAppHttpWatcher {
 
     private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5);
 
+    /** Unchanged metrics of a running application are still persisted at this interval. */
+    private static final Duration PERSIST_INTERVAL = Duration.ofSeconds(30);
+
+    /** Maximum of the applications whose job progress is requested from spark at the same time. */
+    private static final int MAX_CONCURRENT_PROGRESS_REQUESTS = 16;
+
     /**
      * Record the status of the first tracking task, because after the task is started, the overview
      * of the task will be obtained during the first tracking
@@ -127,6 +138,16 @@ public class SparkAppHttpWatcher {
 
     private static final Map<Long, SparkOptionStateEnum> OPTIONING = new ConcurrentHashMap<>(0);
 
+    /** Applications being watched by the executor, an application is watched once at a time. */
+    private static final Set<Long> WATCHING_IN_PROGRESS = ConcurrentHashMap.newKeySet();
+
+    /** The last persisted metrics of the applications, Map<applicationId, metrics> */
+    private static final Map<Long, PersistedMetrics> PERSISTED_METRICS = new ConcurrentHashMap<>(0);
+
+    private static final SparkJobProgressTracker JOB_PROGRESS_TRACKER = new SparkJobProgressTracker();
+
+    private static final Semaphore PROGRESS_REQUEST_PERMITS = new Semaphore(MAX_CONCURRENT_PROGRESS_REQUESTS);
+
     private Long lastWatchTime = 0L;
 
     private Long lastOptionTime = 0L;
@@ -185,19 +206,30 @@ public class SparkAppHttpWatcher {
     }
 
     private void watch(Long id, SparkApplication application) {
-        executorService.execute(
-            () -> {
-                try {
-                    if (SparkDeployMode.isYarnMode(application.getDeployMode())) {
-                        getStateFromYarn(application);
-                    }
-                    if (SparkDeployMode.isRemoteMode(application.getDeployMode())) {
-                        getStateFromMasterUrl(application);
+        // the previous watch of a slow application is still running, skip this cycle
+        if (!WATCHING_IN_PROGRESS.add(id)) {
+            return;
+        }
+        try {
+            executorService.execute(
+                () -> {
+                    try {
+                        if (SparkDeployMode.isYarnMode(application.getDeployMode())) {
+                            getStateFromYarn(application);
+                        }
+                        if (SparkDeployMode.isRemoteMode(application.getDeployMode())) {
+                            getStateFromMasterUrl(application);
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        WATCHING_IN_PROGRESS.remove(id);
                     }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            });
+                });
+        } catch (RejectedExecutionException e) {
+            WATCHING_IN_PROGRESS.remove(id);
+            log.warn("[StreamPark][SparkAppHttpWatcher] watching executor is busy, skip app {} this time.", id);
+        }
     }
 
     private void getStateFromMasterUrl(SparkApplication application) {
@@ -294,6 +326,16 @@ public class SparkAppHttpWatcher {
                     SparkApplicationSummary summary;
                     try {
                         summary = httpStageAndTaskStatus(application);
+                        if (summary == null) {
+                            // no request permit in time, keep the last progress
+                            summary = new SparkApplicationSummary(
+                                application.getNumTasks(),
+                                application.getNumCompletedTasks(),
+                                application.getNumStages(),
+                                application.getNumCompletedStages(),
+                                null,
+                                null);
+                        }
                         summary.setUsedMemory(Long.parseLong(yarnAppInfo.getApp().getAllocatedMB()));
                         summary.setUsedVCores(Long.parseLong(yarnAppInfo.getApp().getAllocatedVCores()));
                         application.fillRunningMetrics(summary);
@@ -334,6 +376,13 @@ public class SparkAppHttpWatcher {
             unWatching(application.getId());
         } else {
             WATCHING_APPS.put(application.getId(), application);
+            // only persist the changes, and the duration from time to time
+            PersistedMetrics metrics = new PersistedMetrics(application);
+            PersistedMetrics persisted = PERSISTED_METRICS.get(application.getId());
+            if (persisted != null && persisted.sameAs(metrics)) {
+                return;
+            }
+            PERSISTED_METRICS.put(application.getId(), metrics);
         }
         applicationManageService.persistMetrics(application);
     }
@@ -361,11 +410,14 @@ public class SparkAppHttpWatcher {
             "[StreamPark][SparkAppHttpWatcher] add app to tracking, appId:{}", application.getId());
         WATCHING_APPS.put(application.getId(), application);
         STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+        PERSISTED_METRICS.remove(application.getId());
     }
 
     public static void unWatching(Long appId) {
         log.info("[StreamPark][SparkAppHttpWatcher] stop app, appId:{}", appId);
         WATCHING_APPS.remove(appId);
+        PERSISTED_METRICS.remove(appId);
+        JOB_PROGRESS_TRACKER.remove(appId);
     }
 
     public static void addCanceledApp(Long appId, Long userId) {
@@ -383,48 +435,57 @@ public class SparkAppHttpWatcher {
     }
 
     private YarnAppInfo httpYarnAppInfo(SparkApplication application) throws Exception {
-        String reqURL = "ws/v1/cluster/apps/".concat(application.getClusterId());
-        return yarnRestRequest(reqURL, YarnAppInfo.class);
-    }
-
-    private Job[] httpJobsStatus(SparkApplication application) throws IOException {
-        String format = "proxy/%s/api/v1/applications/%s/jobs";
-        String reqURL = String.format(format, application.getClusterId(), application.getClusterId());
-        return yarnRestRequest(reqURL, Job[].class);
+        return yarnAppSnapshot.getAppInfo(application.getClusterId());
     }
 
     /**
-     * Calculate spark stage and task metric from yarn rest api. Only available when yarn application
-     * status is RUNNING.
+     * Calculate spark stage and task metric from the spark REST api through the yarn proxy. Only
+     * available when yarn application status is RUNNING. The progress is tracked incrementally, see
+     * {@link SparkJobProgressTracker}.
      *
      * @param application
-     * @return task progress
-     * @throws Exception
+     * @return task progress, or null if the application has to wait for its turn too long
+     * @throws IOException
      */
     private SparkApplicationSummary httpStageAndTaskStatus(SparkApplication application) throws IOException {
-        Job[] jobs = httpJobsStatus(application);
-        SparkApplicationSummary summary = new SparkApplicationSummary(0L, 0L, 0L, 0L, null, null);
-        if (jobs == null) {
-            return summary;
+        try {
+            if (!PROGRESS_REQUEST_PERMITS.tryAcquire(HTTP_TIMEOUT.toMilliseconds(), TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            String clusterId = application.getClusterId();
+            return JOB_PROGRESS_TRACKER.update(
+                application.getId(),
+                clusterId,
+                (path, reader) -> sparkRestRequest(clusterId, path, reader));
+        } finally {
+            PROGRESS_REQUEST_PERMITS.release();
         }
-        Arrays.stream(jobs)
-            .forEach(
-                job -> {
-                    summary.setNumTasks(job.getNumTasks() + summary.getNumTasks());
-                    summary.setNumCompletedTasks(
-                        job.getNumCompletedTasks() + summary.getNumCompletedTasks());
-                    summary.setNumStages(job.getStageIds().size() + summary.getNumStages());
-                    summary.setNumStages(job.getNumCompletedStages() + summary.getNumCompletedStages());
-                });
-        return summary;
     }
 
-    private <T> T yarnRestRequest(String url, Class<T> clazz) throws IOException {
-        String result = YarnUtils.restRequest(url, HTTP_TIMEOUT);
-        if (null == result) {
-            return null;
+    private void sparkRestRequest(
+                                  String clusterId, String path, SparkJobProgressTracker.BodyReader reader) throws IOException {
+        String format = "proxy/%s/api/v1/applications/%s/%s";
+        String reqURL = String.format(format, clusterId, clusterId, path);
+        // a response that can't be parsed is returned rather than thrown, so it isn't retried
+        IOException error = YarnUtils.restRequest(
+            reqURL,
+            HTTP_TIMEOUT,
+            in -> {
+                try {
+                    reader.read(in);
+                    return null;
+                } catch (IOException e) {
+                    return e;
+                }
+            });
+        if (error != null) {
+            throw error;
         }
-        return JacksonUtils.read(result, clazz);
     }
 
     public boolean isWatchingApp(Long id) {
@@ -439,6 +500,35 @@ public class SparkAppHttpWatcher {
      */
     private void doAlert(SparkApplication application, SparkAppStateEnum appState) {
         AlertTemplate alertTemplate = AlertTemplateUtils.createAlertTemplate(application, appState);
-        alertService.alert(application.getAlertId(), alertTemplate);
+        alertService.alertAsync(application.getAlertId(), alertTemplate);
+    }
+
+    /** The persisted metrics of an application, but the duration. */
+    private static final class PersistedMetrics {
+
+        private final List<Object> values;
+
+        private final long persistTime = System.currentTimeMillis();
+
+        private PersistedMetrics(SparkApplication application) {
+            this.values = Arrays.asList(
+                application.getState(),
+                application.getClusterId(),
+                application.getTracking(),
+                application.getOptionState(),
+                application.getStartTime(),
+                application.getEndTime(),
+                application.getNumTasks(),
+                application.getNumCompletedTasks(),
+                application.getNumStages(),
+                application.getNumCompletedStages(),
+                application.getUsedMemory(),
+                application.getUsedVCores());
+        }
+
+        private boolean sameAs(PersistedMetrics other) {
+            return Objects.equals(values, other.values)
+                && other.persistTime - persistTime < PERSIST_INTERVAL.toMillis();
+        }
     }
 }
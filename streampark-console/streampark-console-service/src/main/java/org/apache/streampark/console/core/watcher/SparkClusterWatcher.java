@@ -18,27 +18,26 @@
 package org.apache.streampark.console.core.watcher;
 
 import org.apache.streampark.common.enums.ClusterState;
-import org.apache.streampark.common.util.HttpClientUtils;
 import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.core.entity.SparkCluster;
 import org.apache.streampark.console.core.metrics.spark.SparkApplicationMetrics;
 import org.apache.streampark.console.core.service.SparkClusterService;
-
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.core5.util.Timeout;
+import org.apache.streampark.console.core.watcher.ClusterStateChangedEvent.ClusterKind;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
@@ -55,12 +54,13 @@ public class SparkClusterWatcher {
     @Autowired
     private SparkClusterService sparkClusterService;
 
-    private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5L);
-
     @Qualifier("sparkRestAPIWatchingExecutor")
     @Autowired
     private Executor executorService;
 
+    @Autowired
+    private ClusterHealthProber healthProber;
+
     private Long lastWatchTime = 0L;
 
     // Track interval every 30 seconds
@@ -96,22 +96,30 @@ public class SparkClusterWatcher {
             lastWatchTime = timeMillis;
             immediateWatch = false;
             WATCHER_CLUSTERS.forEach(
-                (aLong, sparkCluster) -> executorService.execute(
-                    () -> {
-                        ClusterState state = getClusterState(sparkCluster);
-                        switch (state) {
-                            case FAILED:
-                            case LOST:
-                            case UNKNOWN:
-                            case KILLED:
-                                sparkClusterService.updateClusterState(sparkCluster.getId(), state);
-                                unWatching(sparkCluster);
-                                alert(sparkCluster, state);
-                                break;
-                            default:
-                                break;
-                        }
-                    }));
+                (id, sparkCluster) -> healthProber.probeAsync(
+                    executorService, ClusterKind.SPARK, id, () -> getClusterState(sparkCluster)));
+        }
+    }
+
+    @EventListener
+    public void onClusterStateChanged(ClusterStateChangedEvent event) {
+        SparkCluster sparkCluster = WATCHER_CLUSTERS.get(event.getClusterId());
+        if (event.getKind() != ClusterKind.SPARK || sparkCluster == null) {
+            return;
+        }
+        ClusterState state = event.getState();
+        switch (state) {
+            case FAILED:
+            case LOST:
+            case UNKNOWN:
+            case KILLED:
+                sparkClusterService.updateClusterState(sparkCluster.getId(), state);
+                unWatching(sparkCluster);
+                healthProber.forget(ClusterKind.SPARK, sparkCluster.getId());
+                alert(sparkCluster, state);
+                break;
+            default:
+                break;
         }
     }
 
@@ -130,7 +138,7 @@ public class SparkClusterWatcher {
         if (state != null) {
             return state;
         }
-        state = httpClusterState(sparkCluster);
+        state = httpClusterState(sparkCluster, true);
         if (ClusterState.isRunning(state)) {
             FAILED_STATES.invalidate(sparkCluster.getId());
         } else {
@@ -146,9 +154,9 @@ public class SparkClusterWatcher {
      * @param sparkCluster The SparkCluster object representing the cluster.
      * @return The ClusterState object representing the state of the cluster.
      */
-    private ClusterState httpRemoteClusterState(SparkCluster sparkCluster) {
+    private ClusterState httpRemoteClusterState(SparkCluster sparkCluster, boolean failFast) {
         try {
-            SparkApplicationMetrics metrics = getSparkApplicationMetrics(sparkCluster.getMasterWebUrl());
+            SparkApplicationMetrics metrics = getSparkApplicationMetrics(sparkCluster.getMasterWebUrl(), failFast);
             return metrics.isRunning() ? ClusterState.RUNNING : ClusterState.LOST;
         } catch (Exception ignored) {
             log.error("cluster id:{} get state from spark json api failed", sparkCluster.getId());
@@ -158,7 +166,7 @@ public class SparkClusterWatcher {
 
     public SparkApplicationMetrics getSparkApplicationMetrics(Long clusterId) {
         try {
-            return getSparkApplicationMetrics(sparkClusterService.getById(clusterId).getMasterWebUrl());
+            return getSparkApplicationMetrics(sparkClusterService.getById(clusterId).getMasterWebUrl(), true);
         } catch (Exception e) {
             log.error("cluster id:{} get state from spark json api failed", clusterId);
             throw e;
@@ -171,28 +179,28 @@ public class SparkClusterWatcher {
      * @param sparkCluster
      * @return
      */
-    private ClusterState httpClusterState(SparkCluster sparkCluster) {
+    private ClusterState httpClusterState(SparkCluster sparkCluster, boolean failFast) {
         switch (sparkCluster.getDeployModeEnum()) {
             case REMOTE:
-                return httpRemoteClusterState(sparkCluster);
+                return httpRemoteClusterState(sparkCluster, failFast);
             default:
                 return ClusterState.UNKNOWN;
         }
     }
 
     public SparkApplicationMetrics getSparkApplicationMetrics(String masterWebUi) {
+        return getSparkApplicationMetrics(masterWebUi, false);
+    }
+
+    private SparkApplicationMetrics getSparkApplicationMetrics(String masterWebUi, boolean failFast) {
         String sparkJsonUrl =
             masterWebUi.endsWith("json/")
                 ? masterWebUi
                 : masterWebUi.concat("/json/");
-        String res =
-            HttpClientUtils.httpGetRequest(
-                sparkJsonUrl,
-                RequestConfig.custom().setConnectTimeout(HTTP_TIMEOUT).build());
         try {
-            return JacksonUtils.read(res, SparkApplicationMetrics.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            return JacksonUtils.read(healthProber.httpGet(sparkJsonUrl, failFast), SparkApplicationMetrics.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -224,7 +232,7 @@ public class SparkClusterWatcher {
      * @return <code>false</code> if the connection of the cluster is invalid, <code>true</code> else.
      */
     public Boolean verifyClusterConnection(SparkCluster sparkCluster) {
-        ClusterState clusterStateEnum = httpClusterState(sparkCluster);
+        ClusterState clusterStateEnum = httpClusterState(sparkCluster, false);
         return ClusterState.isRunning(clusterStateEnum);
     }
 }
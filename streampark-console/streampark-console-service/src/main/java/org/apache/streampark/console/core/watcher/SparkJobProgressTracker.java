@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.metrics.spark.Job;
+import org.apache.streampark.console.core.metrics.spark.SparkApplicationSummary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental stage and task progress of the spark jobs of the watched applications.
+ *
+ * <p>The spark REST api lists the jobs of an application from the newest to the oldest, and a
+ * long-running application retains thousands of them. The tracker keeps a rolling summary per
+ * application: finished jobs are folded into the totals once, and the jobs list is read as a
+ * stream only until the last job already seen, the rest of the response is dropped. The jobs still
+ * running are refreshed with the "status=running" filter, and a job that left that list is requested
+ * once by its id to fold its final numbers.
+ */
+@Slf4j
+class SparkJobProgressTracker {
+
+    private static final Set<String> FINISHED_STATUSES =
+        new HashSet<>(Arrays.asList("SUCCEEDED", "FAILED"));
+
+    /** A job id skipped by the listing, e.g. submitted concurrently, is looked up this many times. */
+    private static final int MAX_MISSING_LOOKUPS = 5;
+
+    /** application id -> progress */
+    private final Map<Long, Progress> progresses = new ConcurrentHashMap<>();
+
+    /** Reads the body of a spark REST api path, relative to "api/v1/applications/{appId}/". */
+    @FunctionalInterface
+    interface RestClient {
+
+        void read(String path, BodyReader reader) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface BodyReader {
+
+        void read(InputStream in) throws IOException;
+    }
+
+    /**
+     * Update the progress of the application with the jobs started or finished since the last
+     * update, the progress is reset when the application is resubmitted with a new cluster id.
+     *
+     * @param appId application id
+     * @param clusterId spark application id
+     * @param client client of the spark REST api of the application
+     * @return the progress of all the jobs of the application
+     */
+    SparkApplicationSummary update(Long appId, String clusterId, RestClient client) throws IOException {
+        Progress progress = progresses.compute(
+            appId, (k, v) -> v == null || !v.clusterId.equals(clusterId) ? new Progress(clusterId) : v);
+        return progress.update(client);
+    }
+
+    void remove(Long appId) {
+        progresses.remove(appId);
+    }
+
+    private static final class Progress {
+
+        private final String clusterId;
+
+        /** The highest job id read from the jobs list, jobs up to it are only read once. */
+        private long lastJobId = -1;
+
+        /** Totals of the finished jobs. */
+        private final Counts finished = new Counts();
+
+        /** job id -> jobs up to lastJobId which aren't finished, or weren't listed yet */
+        private final Map<Long, Pending> pending = new HashMap<>();
+
+        private Progress(String clusterId) {
+            this.clusterId = clusterId;
+        }
+
+        synchronized SparkApplicationSummary update(RestClient client) throws IOException {
+            List<Long> previous = new ArrayList<>(pending.keySet());
+            readNewJobs(client);
+            if (!previous.isEmpty()) {
+                refreshPendingJobs(client, previous);
+            }
+            Counts total = new Counts();
+            total.add(finished);
+            pending.values().stream().filter(p -> p.counts != null).forEach(p -> total.add(p.counts));
+            return new SparkApplicationSummary(
+                total.numTasks, total.numCompletedTasks, total.numStages, total.numCompletedStages, null, null);
+        }
+
+        private void readNewJobs(RestClient client) throws IOException {
+            long lastRead = lastJobId;
+            client.read("jobs", in -> {
+                MappingIterator<Job> jobs = JacksonUtils.readValues(in, Job.class);
+                // id of the job read before, jobs are listed from the newest to the oldest
+                long newer = -1;
+                while (jobs.hasNextValue()) {
+                    Job job = jobs.nextValue();
+                    if (job.getId() == null) {
+                        continue;
+                    }
+                    if (job.getId() <= lastRead) {
+                        // the rest was read by the previous updates
+                        addMissing(lastRead, newer);
+                        return;
+                    }
+                    addMissing(job.getId(), newer);
+                    newer = job.getId();
+                    lastJobId = Math.max(lastJobId, job.getId());
+                    onJob(job);
+                }
+                // the end of the list, older jobs were evicted by spark.ui.retainedJobs
+            });
+        }
+
+        /** The ids between two listed jobs belong to jobs that weren't listed yet. */
+        private void addMissing(long older, long newer) {
+            for (long id = older + 1; newer >= 0 && id < newer; id++) {
+                pending.putIfAbsent(id, new Pending());
+            }
+        }
+
+        private void refreshPendingJobs(RestClient client, List<Long> previous) throws IOException {
+            Map<Long, Job> running = new HashMap<>();
+            client.read("jobs?status=running", in -> {
+                MappingIterator<Job> jobs = JacksonUtils.readValues(in, Job.class);
+                while (jobs.hasNextValue()) {
+                    Job job = jobs.nextValue();
+                    if (job.getId() != null) {
+                        running.put(job.getId(), job);
+                    }
+                }
+            });
+            for (Long id : previous) {
+                Pending job = pending.get(id);
+                if (job == null) {
+                    continue;
+                }
+                if (running.containsKey(id)) {
+                    onJob(running.get(id));
+                    continue;
+                }
+                Job[] found = new Job[1];
+                client.read("jobs/" + id, in -> {
+                    try {
+                        found[0] = JacksonUtils.read(in, Job.class);
+                    } catch (JsonProcessingException e) {
+                        // "unknown job", not started yet or already evicted by spark.ui.retainedJobs
+                        found[0] = null;
+                    }
+                });
+                if (found[0] != null && found[0].getId() != null) {
+                    onJob(found[0]);
+                } else if (job.counts != null) {
+                    // evicted, so it has finished
+                    pending.remove(id);
+                    finished.add(job.counts);
+                } else if (++job.lookups >= MAX_MISSING_LOOKUPS) {
+                    log.debug("[StreamPark][SparkJobProgressTracker] job {} of {} not found, ignored.", id, clusterId);
+                    pending.remove(id);
+                }
+            }
+        }
+
+        private void onJob(Job job) {
+            Counts counts = Counts.of(job);
+            if (FINISHED_STATUSES.contains(job.getStatus())) {
+                pending.remove(job.getId());
+                finished.add(counts);
+            } else {
+                pending.computeIfAbsent(job.getId(), k -> new Pending()).counts = counts;
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        /** null until the job was listed */
+        private Counts counts;
+
+        private int lookups;
+    }
+
+    private static final class Counts {
+
+        private long numTasks;
+        private long numCompletedTasks;
+        private long numStages;
+        private long numCompletedStages;
+
+        private static Counts of(Job job) {
+            Counts counts = new Counts();
+            counts.numTasks = valueOf(job.getNumTasks());
+            counts.numCompletedTasks = valueOf(job.getNumCompletedTasks());
+            counts.numStages = job.getStageIds() == null ? 0 : job.getStageIds().size();
+            counts.numCompletedStages = valueOf(job.getNumCompletedStages());
+            return counts;
+        }
+
+        private void add(Counts other) {
+            numTasks += other.numTasks;
+            numCompletedTasks += other.numCompletedTasks;
+            numStages += other.numStages;
+            numCompletedStages += other.numCompletedStages;
+        }
+
+        private static long valueOf(Integer value) {
+            return value == null ? 0 : value;
+        }
+    }
+}
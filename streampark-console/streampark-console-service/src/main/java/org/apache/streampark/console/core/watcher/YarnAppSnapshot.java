@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.enums.ApplicationType;
+import org.apache.streampark.common.util.YarnUtils;
+import org.apache.streampark.console.base.util.JacksonUtils;
+import org.apache.streampark.console.core.metrics.yarn.YarnAppInfo;
+import org.apache.streampark.console.core.metrics.yarn.YarnAppsInfo;
+
+import org.apache.hc.core5.util.Timeout;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory snapshot of the yarn applications submitted by StreamPark, shared by the flink and
+ * spark watchers, so that a watch cycle costs a couple of RM requests instead of one per app.
+ *
+ * <p>The active applications are listed with one filtered "ws/v1/cluster/apps" request every
+ * {@link #FULL_SYNC_INTERVAL}, in between only the applications started or finished since the last
+ * refresh are requested. An application missing from the snapshot, or whose state may have changed
+ * since it was listed, is requested individually.
+ *
+ * <p>The RM is requested without holding the lock of the snapshot, and concurrent lookups of the same
+ * key share one request: one refresh of the snapshot at a time, one request of an application at a
+ * time.
+ */
+@Slf4j
+@Component
+public class YarnAppSnapshot {
+
+    private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(10);
+
+    /** How long a refreshed snapshot is served before it's refreshed again. */
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(2);
+
+    static final Duration FULL_SYNC_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * How long a running application is served, its allocated resources change while it runs. The
+     * full sync lists it again in time, otherwise it's requested individually.
+     */
+    static final Duration RUNNING_TTL = FULL_SYNC_INTERVAL;
+
+    /** Finished applications are kept this long after they were listed. */
+    private static final Duration FINISHED_RETENTION = Duration.ofMinutes(10);
+
+    /** Tolerance of the clock difference between StreamPark and the RM, and of the RM reporting order. */
+    private static final long CLOCK_SKEW_MS = Duration.ofMinutes(1).toMillis();
+
+    private static final String ACTIVE_STATES = "NEW,NEW_SAVING,SUBMITTED,ACCEPTED,RUNNING";
+
+    private static final Set<String> FINAL_STATES =
+        new HashSet<>(Arrays.asList("FINISHED", "FAILED", "KILLED"));
+
+    private static final String APPLICATION_TYPES =
+        Stream.concat(
+            Arrays.stream(ApplicationType.values())
+                .filter(type -> type != ApplicationType.UNKNOWN)
+                .map(ApplicationType::getName),
+            // default application type of the spark applications submitted by spark-submit
+            Stream.of("SPARK"))
+            .map(YarnAppSnapshot::encode)
+            .collect(Collectors.joining(","));
+
+    /** key of the refresh of the snapshot in {@link #inFlight}, the other keys are application ids */
+    private static final String REFRESH_KEY = "";
+
+    private final RmClient rmClient;
+
+    private final LongSupplier clock;
+
+    /** application id -> app info */
+    private final Map<String, Entry> apps = new ConcurrentHashMap<>();
+
+    /** key -> the request in flight */
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // the fields below are guarded by this
+
+    private long lastRefreshTime;
+
+    private long lastFullSyncTime;
+
+    private IOException lastRefreshError;
+
+    /** max started time of the listed applications, in RM clock */
+    private long startedTimeBegin;
+
+    /** max finished time of the listed applications, in RM clock */
+    private long finishedTimeBegin;
+
+    /** incremented by {@link #invalidate()}, a refresh started before is discarded */
+    private long generation;
+
+    public YarnAppSnapshot() {
+        this(url -> YarnUtils.restRequest(url, HTTP_TIMEOUT), System::currentTimeMillis);
+    }
+
+    YarnAppSnapshot(RmClient rmClient, LongSupplier clock) {
+        this.rmClient = rmClient;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the yarn application report of the application.
+     *
+     * @param appId yarn application id
+     * @return null if the application can't be found
+     * @throws IOException if the RM can't be requested
+     */
+    public YarnAppInfo getAppInfo(String appId) throws IOException {
+        long refreshTime = refreshIfExpired();
+        Entry entry = apps.get(appId);
+        if (entry == null || !entry.isFresh(refreshTime, clock.getAsLong())) {
+            entry = singleFlight(appId, () -> requestApp(appId));
+            if (entry == null) {
+                return null;
+            }
+        }
+        YarnAppInfo appInfo = new YarnAppInfo();
+        appInfo.setApp(entry.app);
+        return appInfo;
+    }
+
+    /** Drop the snapshot, the next lookup lists all the active applications again. */
+    public synchronized void invalidate() {
+        apps.clear();
+        lastRefreshTime = 0;
+        lastFullSyncTime = 0;
+        lastRefreshError = null;
+        generation++;
+    }
+
+    /** @return the time of the current snapshot */
+    private long refreshIfExpired() throws IOException {
+        synchronized (this) {
+            if (!isExpired()) {
+                return currentSnapshot();
+            }
+        }
+        return singleFlight(REFRESH_KEY, this::refresh);
+    }
+
+    private boolean isExpired() {
+        return clock.getAsLong() - lastRefreshTime >= REFRESH_INTERVAL.toMillis();
+    }
+
+    private long currentSnapshot() throws IOException {
+        if (lastRefreshError != null) {
+            // don't hammer a failing RM, every lookup of this round fails the same way
+            throw lastRefreshError;
+        }
+        return lastRefreshTime;
+    }
+
+    private long refresh() throws IOException {
+        long now;
+        long gen;
+        boolean fullSync;
+        long startedBegin;
+        long finishedBegin;
+        synchronized (this) {
+            // refreshed by the flight that just landed
+            if (!isExpired()) {
+                return currentSnapshot();
+            }
+            now = clock.getAsLong();
+            gen = generation;
+            fullSync = now - lastFullSyncTime >= FULL_SYNC_INTERVAL.toMillis();
+            startedBegin = lastFullSyncTime == 0 ? now : startedTimeBegin;
+            finishedBegin = lastFullSyncTime == 0 ? now - FINISHED_RETENTION.toMillis() : finishedTimeBegin;
+        }
+
+        List<YarnAppInfo.App> active;
+        List<YarnAppInfo.App> started;
+        List<YarnAppInfo.App> finished;
+        try {
+            // overlap the previous request a bit, in case the RM reports the times out of order
+            active = fullSync ? listApps("states=" + ACTIVE_STATES) : Collections.emptyList();
+            started = fullSync
+                ? Collections.emptyList()
+                : listApps("startedTimeBegin=" + (startedBegin - CLOCK_SKEW_MS));
+            finished = listApps("finishedTimeBegin=" + (finishedBegin - CLOCK_SKEW_MS));
+        } catch (IOException e) {
+            log.warn("[StreamPark][YarnAppSnapshot] refresh yarn applications failed: {}", e.getMessage());
+            synchronized (this) {
+                if (gen == generation) {
+                    lastRefreshTime = now;
+                    lastRefreshError = e;
+                }
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            if (gen != generation) {
+                // invalidated meanwhile, the next lookup refreshes again
+                return now;
+            }
+            startedTimeBegin = startedBegin;
+            finishedTimeBegin = finishedBegin;
+            if (fullSync) {
+                Set<String> listed = new HashSet<>();
+                Stream.concat(active.stream(), finished.stream()).forEach(app -> listed.add(put(app, now)));
+                // the active applications that weren't listed have changed their state, look them up again
+                apps.entrySet().removeIf(e -> !listed.contains(e.getKey()) && !e.getValue().isFinal());
+                lastFullSyncTime = now;
+                log.debug(
+                    "[StreamPark][YarnAppSnapshot] full sync, active apps: {}, finished apps: {}",
+                    active.size(),
+                    finished.size());
+            } else {
+                started.forEach(app -> put(app, now));
+                finished.forEach(app -> put(app, now));
+            }
+            lastRefreshTime = now;
+            lastRefreshError = null;
+            evictFinished(now);
+            return now;
+        }
+    }
+
+    private String put(YarnAppInfo.App app, long fetchTime) {
+        apps.put(app.getId(), new Entry(app, fetchTime));
+        if (app.getStartedTime() != null) {
+            startedTimeBegin = Math.max(startedTimeBegin, app.getStartedTime());
+        }
+        if (app.getFinishedTime() != null) {
+            finishedTimeBegin = Math.max(finishedTimeBegin, app.getFinishedTime());
+        }
+        return app.getId();
+    }
+
+    private void evictFinished(long now) {
+        long expired = now - FINISHED_RETENTION.toMillis();
+        apps.entrySet().removeIf(e -> e.getValue().isFinal() && e.getValue().fetchTime < expired);
+    }
+
+    /**
+     * Run the request of the key, or wait for the one in flight of the same key, the waiters get its
+     * result or its failure.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(String key, Request<T> request) throws IOException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> current = inFlight.putIfAbsent(key, flight);
+        if (current != null) {
+            try {
+                return (T) current.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for the yarn request of " + key, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+        try {
+            T result = request.run();
+            flight.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private List<YarnAppInfo.App> listApps(String filter) throws IOException {
+        String url = String.format("ws/v1/cluster/apps?applicationTypes=%s&%s", APPLICATION_TYPES, filter);
+        String result = rmClient.get(url);
+        if (result == null) {
+            throw new IOException("empty response of " + url);
+        }
+        YarnAppsInfo appsInfo = JacksonUtils.read(result, YarnAppsInfo.class);
+        if (appsInfo.getApps() == null || appsInfo.getApps().getApp() == null) {
+            return Collections.emptyList();
+        }
+        return appsInfo.getApps().getApp();
+    }
+
+    private Entry requestApp(String appId) throws IOException {
+        long fetchTime = clock.getAsLong();
+        String result = rmClient.get("ws/v1/cluster/apps/".concat(appId));
+        if (result == null) {
+            return null;
+        }
+        YarnAppInfo appInfo = JacksonUtils.read(result, YarnAppInfo.class);
+        if (appInfo.getApp() == null) {
+            return null;
+        }
+        Entry entry = new Entry(appInfo.getApp(), fetchTime);
+        apps.put(appId, entry);
+        return entry;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name()).replace("+", "%20");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Requests the yarn rest api of the active RM. */
+    @FunctionalInterface
+    interface RmClient {
+
+        /** @return null if the response is empty */
+        String get(String url) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Request<T> {
+
+        T run() throws IOException;
+    }
+
+    private static class Entry {
+
+        private final YarnAppInfo.App app;
+
+        private final long fetchTime;
+
+        private Entry(YarnAppInfo.App app, long fetchTime) {
+            this.app = app;
+            this.fetchTime = fetchTime;
+        }
+
+        private boolean isFinal() {
+            return FINAL_STATES.contains(app.getState());
+        }
+
+        /**
+         * A finished application never changes, and a running one can only finish, which is picked
+         * up by the finished applications request, but its allocated resources are only served for
+         * {@link #RUNNING_TTL}. The other states must be listed in the current snapshot.
+         */
+        private boolean isFresh(long snapshotTime, long now) {
+            if (isFinal()) {
+                return true;
+            }
+            if ("RUNNING".equals(app.getState())) {
+                return now - fetchTime < RUNNING_TTL.toMillis();
+            }
+            return fetchTime >= snapshotTime;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded outbound queue of a websocket session, drained through the async remote of the session
+ * one message at a time, so the senders never wait for the client.
+ *
+ * <p>When the queue is full, the oldest non-critical message is dropped for the new one. A
+ * non-critical message is dropped itself if all the queued messages are critical, and a critical
+ * message drops the oldest critical one.
+ */
+@Slf4j
+final class OutboundQueue {
+
+    private final String id;
+
+    private final Session session;
+
+    private final int capacity;
+
+    private final Deque<Outbound> messages = new ArrayDeque<>();
+
+    /** topics subscribed by the client */
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    /** whether a message is being sent by the async remote, guarded by this */
+    private boolean sending;
+
+    private boolean closed;
+
+    private long dropped;
+
+    OutboundQueue(String id, Session session, int capacity) {
+        this.id = id;
+        this.session = session;
+        this.capacity = capacity;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    Set<String> getTopics() {
+        return topics;
+    }
+
+    /**
+     * Queue the message, it returns at once.
+     *
+     * @return false if the message was dropped
+     */
+    boolean offer(String text, boolean critical) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (messages.size() >= capacity && !evict(critical)) {
+                logDropped();
+                return false;
+            }
+            messages.addLast(new Outbound(text, critical));
+            if (sending) {
+                return true;
+            }
+            sending = true;
+        }
+        sendNext();
+        return true;
+    }
+
+    /** Drop the queued messages, the message being sent is still completed by the container. */
+    synchronized void close() {
+        closed = true;
+        messages.clear();
+    }
+
+    private boolean evict(boolean critical) {
+        Iterator<Outbound> iterator = messages.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().critical) {
+                iterator.remove();
+                logDropped();
+                return true;
+            }
+        }
+        if (critical) {
+            messages.pollFirst();
+            logDropped();
+            return true;
+        }
+        return false;
+    }
+
+    private void logDropped() {
+        // log the first drop, then every 1000th, a stuck client would flood the log otherwise
+        if (dropped++ % 1000 == 0) {
+            log.warn("[StreamPark][WebSocketEndpoint] the outbound queue of {} is full, {} messages dropped so far.",
+                id, dropped);
+        }
+    }
+
+    private void sendNext() {
+        Outbound next;
+        synchronized (this) {
+            next = closed ? null : messages.pollFirst();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        try {
+            session.getAsyncRemote().sendText(next.text, this::onSent);
+        } catch (Exception e) {
+            // the session is closed, or its async remote is broken
+            log.warn("[StreamPark][WebSocketEndpoint] send message to {} failed: {}", id, e.getMessage());
+            close();
+            synchronized (this) {
+                sending = false;
+            }
+        }
+    }
+
+    private void onSent(SendResult result) {
+        if (!result.isOK()) {
+            log.warn("[StreamPark][WebSocketEndpoint] send message to {} failed: {}",
+                id, result.getException() == null ? null : result.getException().getMessage());
+        }
+        sendNext();
+    }
+
+    private static final class Outbound {
+
+        private final String text;
+
+        private final boolean critical;
+
+        private Outbound(String text, boolean critical) {
+            this.text = text;
+            this.critical = critical;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import org.apache.streampark.console.base.util.EncryptUtils;
+import org.apache.streampark.console.core.enums.UserTypeEnum;
+import org.apache.streampark.console.core.watcher.FlinkAppStateDeltaPublisher;
+import org.apache.streampark.console.system.authentication.AuthTokenVerifier;
+import org.apache.streampark.console.system.entity.User;
+import org.apache.streampark.console.system.service.MemberService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Only lets the members of a team, and the admins, subscribe to the {@link
+ * FlinkAppStateDeltaPublisher#TOPIC_PREFIX} topic of the team. The user is resolved from the
+ * authorization token of the subscription, verified like the token of an http request by {@link
+ * AuthTokenVerifier}, and must be the user the websocket was opened for.
+ */
+@Slf4j
+@Component
+public class TeamTopicAuthorizer implements TopicAuthorizer {
+
+    @Autowired
+    private AuthTokenVerifier tokenVerifier;
+
+    @Autowired
+    private MemberService memberService;
+
+    @PostConstruct
+    public void register() {
+        WebSocketEndpoint.setTopicAuthorizer(this);
+    }
+
+    @Override
+    public boolean authorize(String socketId, String token, String topic) {
+        if (!topic.startsWith(FlinkAppStateDeltaPublisher.TOPIC_PREFIX)) {
+            return false;
+        }
+        Long teamId;
+        try {
+            teamId = Long.valueOf(topic.substring(FlinkAppStateDeltaPublisher.TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        User user = resolveUser(token);
+        if (user == null || !user.getUserId().toString().equals(socketId)) {
+            return false;
+        }
+        return user.getUserType() == UserTypeEnum.ADMIN
+            || memberService.getByTeamIdUserName(teamId, user.getUsername()) != null;
+    }
+
+    /** @return the user of the authorization token, null if the token is not valid */
+    private User resolveUser(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            User user = tokenVerifier.verify(EncryptUtils.decrypt(token));
+            return User.STATUS_LOCK.equals(user.getStatus()) ? null : user;
+        } catch (Exception e) {
+            log.debug("[StreamPark][TeamTopicAuthorizer] invalid authorization token.", e);
+            return null;
+        }
+    }
+}
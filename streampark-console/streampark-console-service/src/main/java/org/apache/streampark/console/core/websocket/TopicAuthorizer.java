@@ -0,0 +1,31 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+/** Decides whether the user of a websocket session may subscribe to a topic. */
+@FunctionalInterface
+public interface TopicAuthorizer {
+
+    /**
+     * @param socketId id of the websocket, i.e. the user id the page connected with
+     * @param token authorization token sent with the subscription, may be null
+     * @param topic topic to subscribe to
+     * @return true to accept the subscription
+     */
+    boolean authorize(String socketId, String token, String topic);
+}
@@ -17,30 +17,52 @@
 
 package org.apache.streampark.console.core.websocket;
 
+import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.core.entity.Message;
 
-import io.undertow.util.CopyOnWriteMap;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.websocket.OnClose;
 import javax.websocket.OnError;
+import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Websocket of the console pages, keyed by the user id.
+ *
+ * <p>Every session has a bounded {@link OutboundQueue} drained through its async remote, the
+ * writes only queue the message, so a slow client never holds up the caller nor the other clients.
+ *
+ * <p>The client subscribes to a topic with {@code {"action": "subscribe", "topic": "..."}} and
+ * unsubscribes with the {@code unsubscribe} action, the messages of the topic are then {@link
+ * #publish published} to it. The subscription carries the authorization token of the page, {@code
+ * "token": "..."}, and is only accepted if the {@link TopicAuthorizer} allows it.
+ */
 @Getter
 @Slf4j
 @Component
 @ServerEndpoint(value = "/websocket/{id}")
 public class WebSocketEndpoint {
 
-    private static final Map<String, Session> SOCKET_SESSIONS = new CopyOnWriteMap<>();
+    /** outbound queue capacity of every session */
+    static final int QUEUE_CAPACITY = 256;
+
+    private static final Map<String, OutboundQueue> SOCKET_SESSIONS = new ConcurrentHashMap<>();
+
+    /** rejects every subscription until the authorizer of the application is set */
+    private static volatile TopicAuthorizer topicAuthorizer = (socketId, token, topic) -> false;
 
     private String id;
 
@@ -51,46 +73,111 @@ public class WebSocketEndpoint {
         log.debug("Websocket onOpen....");
         this.id = id;
         this.session = session;
-        SOCKET_SESSIONS.put(id, session);
+        OutboundQueue previous = SOCKET_SESSIONS.put(id, new OutboundQueue(id, session, QUEUE_CAPACITY));
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     @OnClose
     public void onClose() {
-        if (SOCKET_SESSIONS.containsKey(this.id)) {
-            try (Session remove = SOCKET_SESSIONS.remove(this.id)) {
-                if (remove != null) {
-                    log.debug("Websocket onClose id: {}", this.id);
-                }
+        OutboundQueue queue = SOCKET_SESSIONS.get(this.id);
+        // the id may be taken by a newer session already
+        if (queue != null && queue.getSession() == this.session && SOCKET_SESSIONS.remove(this.id, queue)) {
+            queue.close();
+            try (Session remove = queue.getSession()) {
+                log.debug("Websocket onClose id: {}", this.id);
             } catch (IOException e) {
                 log.error("WebSocket onClose error: {}", e.getMessage(), e);
             }
         }
     }
 
+    @OnMessage
+    public void onMessage(String message) {
+        OutboundQueue queue = SOCKET_SESSIONS.get(this.id);
+        if (queue == null || queue.getSession() != this.session) {
+            return;
+        }
+        Map<String, String> request;
+        try {
+            request = JacksonUtils.toMap(message);
+        } catch (JsonProcessingException e) {
+            log.warn("Websocket {} unknown message: {}", this.id, message);
+            return;
+        }
+        String topic = request.get("topic");
+        if (topic == null) {
+            log.warn("Websocket {} unknown message: {}", this.id, message);
+        } else if (Objects.equals(request.get("action"), "subscribe")) {
+            if (topicAuthorizer.authorize(this.id, request.get("token"), topic)) {
+                queue.getTopics().add(topic);
+            } else {
+                log.warn("Websocket {} is not allowed to subscribe to {}", this.id, topic);
+                reject(queue, topic);
+            }
+        } else if (Objects.equals(request.get("action"), "unsubscribe")) {
+            queue.getTopics().remove(topic);
+        } else {
+            log.warn("Websocket {} unknown message: {}", this.id, message);
+        }
+    }
+
+    private static void reject(OutboundQueue queue, String topic) {
+        Map<String, String> rejection = new LinkedHashMap<>();
+        rejection.put("type", "subscribe-rejected");
+        rejection.put("topic", topic);
+        try {
+            queue.offer(JacksonUtils.write(rejection), false);
+        } catch (JsonProcessingException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
     @OnError
     public void onError(Session session, Throwable e) {
         log.error(e.getMessage(), e);
     }
 
+    /** Queue a non-critical message to the session, the oldest ones are dropped if it's full. */
     public static void writeMessage(String socketId, String message) {
-        try {
-            Session session = SOCKET_SESSIONS.get(socketId);
-            if (session != null) {
-                session.getBasicRemote().sendText(message);
-            }
-        } catch (IOException e) {
-            log.error(e.getMessage(), e);
+        OutboundQueue queue = SOCKET_SESSIONS.get(socketId);
+        if (queue != null) {
+            queue.offer(message, false);
         }
     }
 
+    /** Queue a non-critical message to every session. */
+    public static void broadcast(String message) {
+        SOCKET_SESSIONS.values().forEach(queue -> queue.offer(message, false));
+    }
+
+    /** Queue a non-critical message to every session subscribed to the topic. */
+    public static void publish(String topic, String message) {
+        SOCKET_SESSIONS.values().forEach(queue -> {
+            if (queue.getTopics().contains(topic)) {
+                queue.offer(message, false);
+            }
+        });
+    }
+
+    /** Queue the notice to the session of its user, it's only dropped for newer notices. */
     public static void pushNotice(Message message) {
-        try {
-            Session session = SOCKET_SESSIONS.get(message.getUserId().toString());
-            if (session != null) {
-                session.getBasicRemote().sendObject(message);
+        OutboundQueue queue = SOCKET_SESSIONS.get(message.getUserId().toString());
+        if (queue != null) {
+            try {
+                queue.offer(JacksonUtils.write(message), true);
+            } catch (JsonProcessingException e) {
+                log.error(e.getMessage(), e);
             }
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
         }
     }
+
+    static void setTopicAuthorizer(TopicAuthorizer authorizer) {
+        topicAuthorizer = authorizer;
+    }
+
+    static boolean isConnected(String socketId) {
+        return SOCKET_SESSIONS.containsKey(socketId);
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.system.authentication;
+
+import org.apache.streampark.common.util.SystemPropertyUtils;
+import org.apache.streampark.console.base.util.EncryptUtils;
+import org.apache.streampark.console.core.enums.AuthenticationType;
+import org.apache.streampark.console.system.entity.AccessToken;
+import org.apache.streampark.console.system.entity.User;
+import org.apache.streampark.console.system.service.AccessTokenService;
+import org.apache.streampark.console.system.service.UserService;
+
+import org.apache.shiro.authc.AuthenticationException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies an authorization token, for the http requests through {@link ShiroRealm} and for the
+ * websocket subscriptions: a sign-in token must be issued after the console started, an openapi
+ * token must be the current access token of the user, enabled and of a user that isn't locked.
+ */
+@Component
+public class AuthTokenVerifier {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    /**
+     * @param credential the decrypted authorization token
+     * @return the user of the token
+     * @throws AuthenticationException if the token is invalid, expired or revoked
+     */
+    public User verify(String credential) throws AuthenticationException {
+        String username = JWTUtil.getUserName(credential);
+        Long userId = JWTUtil.getUserId(credential);
+        AuthenticationType authType = JWTUtil.getAuthType(credential);
+
+        if (username == null || userId == null || authType == null) {
+            throw new AuthenticationException("the authorization token is invalid");
+        }
+
+        switch (authType) {
+            case SIGN:
+                Long timestamp = JWTUtil.getTimestamp(credential);
+                Long startTime = SystemPropertyUtils.getLong("streampark.start.timestamp", 0);
+                if (timestamp == null || timestamp < startTime) {
+                    throw new AuthenticationException("the authorization token is expired");
+                }
+                break;
+            case OPENAPI:
+                // Check whether the token belongs to the api and whether the permission is valid
+                AccessToken accessToken = accessTokenService.getByUserId(userId);
+                try {
+                    String encryptToken = EncryptUtils.encrypt(credential);
+                    if (accessToken == null || !accessToken.getToken().equals(encryptToken)) {
+                        throw new AuthenticationException("the openapi authorization token is invalid");
+                    }
+                } catch (AuthenticationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new AuthenticationException(e);
+                }
+
+                if (AccessToken.STATUS_DISABLE.equals(accessToken.getStatus())) {
+                    throw new AuthenticationException(
+                        "the openapi authorization token is disabled, please contact the administrator");
+                }
+
+                if (User.STATUS_LOCK.equals(accessToken.getUserStatus())) {
+                    throw new AuthenticationException(
+                        "the user [" + username + "] has been locked, please contact the administrator");
+                }
+                break;
+            default:
+                break;
+        }
+
+        // Query user information by username
+        User user = userService.getByUsername(username);
+        if (user == null || !JWTUtil.verify(credential, username, user.getPassword())) {
+            throw new AuthenticationException("the authorization token verification failed.");
+        }
+        return user;
+    }
+}
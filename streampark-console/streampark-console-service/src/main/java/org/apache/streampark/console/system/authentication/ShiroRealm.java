@@ -17,12 +17,8 @@
 
 package org.apache.streampark.console.system.authentication;
 
-import org.apache.streampark.common.util.SystemPropertyUtils;
-import org.apache.streampark.console.base.util.EncryptUtils;
 import org.apache.streampark.console.core.enums.AuthenticationType;
 import org.apache.streampark.console.system.entity.AccessToken;
-import org.apache.streampark.console.system.entity.User;
-import org.apache.streampark.console.system.service.AccessTokenService;
 import org.apache.streampark.console.system.service.UserService;
 
 import org.apache.shiro.SecurityUtils;
@@ -46,7 +42,7 @@ public class ShiroRealm extends AuthorizingRealm {
     private UserService userService;
 
     @Autowired
-    private AccessTokenService accessTokenService;
+    private AuthTokenVerifier tokenVerifier;
 
     @Override
     public boolean supports(AuthenticationToken token) {
@@ -82,55 +78,10 @@ public class ShiroRealm extends AuthorizingRealm {
     protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken authenticationToken) throws AuthenticationException {
         // The token here is passed from the executeLogin method of JWTFilter and has been decrypted
         String credential = (String) authenticationToken.getCredentials();
-        String username = JWTUtil.getUserName(credential);
-        Long userId = JWTUtil.getUserId(credential);
-        AuthenticationType authType = JWTUtil.getAuthType(credential);
-
-        if (username == null || userId == null || authType == null) {
-            throw new AuthenticationException("the authorization token is invalid");
-        }
-
-        switch (authType) {
-            case SIGN:
-                Long timestamp = JWTUtil.getTimestamp(credential);
-                Long startTime = SystemPropertyUtils.getLong("streampark.start.timestamp", 0);
-                if (timestamp < startTime) {
-                    throw new AuthenticationException("the authorization token is expired");
-                }
-                break;
-            case OPENAPI:
-                // Check whether the token belongs to the api and whether the permission is valid
-                AccessToken accessToken = accessTokenService.getByUserId(userId);
-                try {
-                    String encryptToken = EncryptUtils.encrypt(credential);
-                    if (accessToken == null || !accessToken.getToken().equals(encryptToken)) {
-                        throw new AuthenticationException("the openapi authorization token is invalid");
-                    }
-                } catch (Exception e) {
-                    throw new AuthenticationException(e);
-                }
-
-                if (AccessToken.STATUS_DISABLE.equals(accessToken.getStatus())) {
-                    throw new AuthenticationException(
-                        "the openapi authorization token is disabled, please contact the administrator");
-                }
-
-                if (User.STATUS_LOCK.equals(accessToken.getUserStatus())) {
-                    throw new AuthenticationException(
-                        "the user [" + username + "] has been locked, please contact the administrator");
-                }
-                SecurityUtils.getSubject().getSession().setAttribute(AccessToken.IS_API_TOKEN, true);
-                break;
-            default:
-                break;
-        }
-
-        // Query user information by username
-        User user = userService.getByUsername(username);
-        if (user == null || !JWTUtil.verify(credential, username, user.getPassword())) {
-            throw new AuthenticationException("the authorization token verification failed.");
+        tokenVerifier.verify(credential);
+        if (JWTUtil.getAuthType(credential) == AuthenticationType.OPENAPI) {
+            SecurityUtils.getSubject().getSession().setAttribute(AccessToken.IS_API_TOKEN, true);
         }
-
         return new SimpleAuthenticationInfo(credential, credential, "streampark_shiro_realm");
     }
 }
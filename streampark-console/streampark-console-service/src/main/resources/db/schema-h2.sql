@@ -231,6 +231,24 @@ create table if not exists `t_flink_sql` (
 );
 
 
+-- ----------------------------
+-- Table structure for t_flink_app_reference
+-- ----------------------------
+create table if not exists `t_flink_app_reference`
+(
+    `id`                           bigint generated by default as identity not null,
+    `app_id`                       bigint not null,
+    `ref_type`                     tinyint not null comment '0: variable, 1: resource',
+    `ref_key`                      varchar(255) not null comment 'variable code or resource id',
+    `source_type`                  tinyint not null comment '0: args, 1: jar, 2: flink sql',
+    `source_id`                    bigint not null comment 'flink sql id for the flink sql references, app id otherwise',
+    primary key (`id`)
+);
+create index if not exists `inx_ref` on `t_flink_app_reference` (`ref_type`, `ref_key`);
+create index if not exists `inx_ref_app` on `t_flink_app_reference` (`app_id`);
+create index if not exists `inx_ref_source` on `t_flink_app_reference` (`source_type`, `source_id`);
+
+
 -- ----------------------------
 -- Table structure for t_distributed_task
 -- ----------------------------
@@ -244,6 +262,20 @@ create table if not exists `t_distributed_task`
 );
 
 
+-- ----------------------------
+-- Table structure for t_flink_watcher_state
+-- ----------------------------
+create table if not exists `t_flink_watcher_state`
+(
+    `app_id`                       bigint not null,
+    `owner`                        varchar(255) default null comment 'server id of the console node holding the lease',
+    `lease_expire_time`            datetime default null,
+    `state`                        text comment 'watching state of the app',
+    `modify_time`                  datetime not null default current_timestamp comment 'modify time',
+    primary key (`app_id`)
+);
+
+
 -- ----------------------------
 -- Table of t_resource
 -- ----------------------------
@@ -323,6 +355,7 @@ create table if not exists `t_variable` (
   `creator_id` bigint not null comment 'user id of creator',
   `team_id` bigint not null comment 'team id',
   `desensitization` tinyint not null default 0 comment '0 is no desensitization, 1 is desensitization, if set to desensitization, it will be replaced by * when displayed',
+  `version` bigint not null default 0 comment 'incremented by every update of the variable',
   `create_time` datetime default null comment 'create time',
   `modify_time` datetime default null comment 'modify time',
   primary key (`id`),
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.component;
+
+import org.apache.streampark.console.core.bean.FlinkConnector;
+import org.apache.streampark.console.core.bean.FlinkConnectorIntrospection;
+import org.apache.streampark.console.core.entity.FlinkEnv;
+
+import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.table.factories.Factory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlinkConnectorIntrospectorTest {
+
+    private static final String FACTORY_SERVICE = "META-INF/services/" + Factory.class.getName();
+
+    private final List<URLClassLoader> loaders = new ArrayList<>();
+
+    @Test
+    void testIntrospectOncePerJarContent(@TempDir Path tempDir) throws IOException {
+        File jar = tempDir.resolve("flink-connector-test.jar").toFile();
+        writeConnectorJar(jar, null);
+        List<FlinkEnv> envs = Arrays.asList(
+            flinkEnv(tempDir.resolve("flink-1.18.0"), "1.18.0", true),
+            flinkEnv(tempDir.resolve("flink-1.12.0"), "1.12.0", false));
+        File storeDir = tempDir.resolve("connectors").toFile();
+
+        FlinkConnectorIntrospector introspector = newIntrospector(storeDir, envs);
+        FlinkConnectorIntrospection introspection = introspector.introspect(jar);
+        assertThat(introspection.getCheckedFlinkVersions()).containsExactly("1.12.0", "1.18.0");
+        assertThat(introspection.getConnectors()).hasSize(1);
+        FlinkConnector connector = introspection.getConnectors().get(0);
+        assertThat(connector.getClassName()).isEqualTo(TestFactory.class.getName());
+        assertThat(connector.getFactoryIdentifier()).isEqualTo("test-connector");
+        assertThat(connector.getRequiredOptions()).containsEntry("hosts", null);
+        assertThat(connector.getOptionalOptions()).containsEntry("lookup.max-retries", "3");
+        // the flink libs of 1.12.0 are missing, so the factory doesn't load under it
+        assertThat(connector.getFlinkVersions()).containsExactly("1.18.0");
+        // one loader for the factories, one per flink env, all closed
+        assertThat(loaders).hasSize(3);
+        assertClosed(loaders);
+
+        // cached in memory
+        loaders.clear();
+        assertThat(introspector.introspect(jar).getConnectors().get(0).getFactoryIdentifier())
+            .isEqualTo("test-connector");
+        assertThat(loaders).isEmpty();
+
+        // stored by the digest of the jar, e.g. after a restart
+        FlinkConnectorIntrospector restarted = newIntrospector(storeDir, envs);
+        assertThat(restarted.introspect(jar).getConnectors().get(0).getFlinkVersions()).containsExactly("1.18.0");
+        assertThat(loaders).isEmpty();
+
+        // a new flink env
+        List<FlinkEnv> moreEnvs = new ArrayList<>(envs);
+        moreEnvs.add(flinkEnv(tempDir.resolve("flink-1.19.0"), "1.19.0", true));
+        FlinkConnectorIntrospector upgraded = newIntrospector(storeDir, moreEnvs);
+        assertThat(upgraded.introspect(jar).getConnectors().get(0).getFlinkVersions())
+            .containsExactly("1.18.0", "1.19.0");
+        assertThat(loaders).hasSize(4);
+        assertClosed(loaders);
+
+        // the jar changed
+        loaders.clear();
+        writeConnectorJar(jar, "changed-1");
+        assertThat(upgraded.introspect(jar).getConnectors()).hasSize(1);
+        assertThat(loaders).hasSize(4);
+        assertClosed(loaders);
+
+        // the jar uploaded again over the same path, with the same length and last-modified time
+        loaders.clear();
+        long length = jar.length();
+        long lastModified = jar.lastModified();
+        writeConnectorJar(jar, "changed-2");
+        assertThat(jar.setLastModified(lastModified)).isTrue();
+        assertThat(jar.length()).isEqualTo(length);
+        assertThat(upgraded.introspect(jar).getConnectors()).hasSize(1);
+        assertThat(loaders).hasSize(4);
+        assertClosed(loaders);
+    }
+
+    @Test
+    void testInvalidConnector(@TempDir Path tempDir) throws IOException {
+        File jar = tempDir.resolve("not-a-connector.jar").toFile();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            out.putNextEntry(new JarEntry("README"));
+            out.write("no factory".getBytes(StandardCharsets.UTF_8));
+        }
+        FlinkConnectorIntrospector introspector = newIntrospector(tempDir.toFile(), Collections.emptyList());
+        assertThatThrownBy(() -> introspector.introspect(jar))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("invalid flink connector");
+        assertThat(loaders).isEmpty();
+    }
+
+    private FlinkConnectorIntrospector newIntrospector(File storeDir, List<FlinkEnv> envs) {
+        return new FlinkConnectorIntrospector(storeDir, () -> envs) {
+
+            @Override
+            URLClassLoader newClassLoader(URL[] urls, ClassLoader parent) {
+                URLClassLoader loader = super.newClassLoader(urls, parent);
+                loaders.add(loader);
+                return loader;
+            }
+        };
+    }
+
+    private static void assertClosed(List<URLClassLoader> loaders) {
+        // a closed loader doesn't find the resources of its jars anymore
+        for (URLClassLoader loader : loaders) {
+            assertThat(loader.findResource(FACTORY_SERVICE)).isNull();
+        }
+    }
+
+    /**
+     * A connector jar declaring {@link TestFactory}, and a missing factory. The readme is stored
+     * uncompressed, so readmes of the same length give jars of the same length.
+     */
+    private static void writeConnectorJar(File jar, String readme) throws IOException {
+        String factoryClass = TestFactory.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            out.putNextEntry(new JarEntry(FACTORY_SERVICE));
+            out.write(("# test factories\n" + TestFactory.class.getName() + "\norg.example.MissingFactory\n")
+                .getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new JarEntry(factoryClass));
+            try (InputStream in = TestFactory.class.getClassLoader().getResourceAsStream(factoryClass)) {
+                copy(in, out);
+            }
+            if (readme != null) {
+                byte[] bytes = readme.getBytes(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                JarEntry entry = new JarEntry("README");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(bytes.length);
+                entry.setCompressedSize(bytes.length);
+                entry.setCrc(crc.getValue());
+                out.putNextEntry(entry);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /** A flink home, with the flink-core and flink-table-common jars in its lib if it's complete */
+    private static FlinkEnv flinkEnv(Path flinkHome, String version, boolean complete) throws IOException {
+        Path lib = Files.createDirectories(flinkHome.resolve("lib"));
+        if (complete) {
+            for (Class<?> clazz : Arrays.asList(ConfigOption.class, Factory.class)) {
+                File source = new File(clazz.getProtectionDomain().getCodeSource().getLocation().getPath());
+                Files.copy(source.toPath(), lib.resolve(source.getName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        FlinkEnv flinkEnv = new FlinkEnv();
+        flinkEnv.setFlinkHome(flinkHome.toString());
+        flinkEnv.setVersion(version);
+        return flinkEnv;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    public static class TestFactory implements Factory {
+
+        private static final ConfigOption<String> HOSTS =
+            ConfigOptions.key("hosts").stringType().noDefaultValue();
+
+        private static final ConfigOption<Integer> MAX_RETRIES =
+            ConfigOptions.key("lookup.max-retries").intType().defaultValue(3);
+
+        @Override
+        public String factoryIdentifier() {
+            return "test-connector";
+        }
+
+        @Override
+        public Set<ConfigOption<?>> requiredOptions() {
+            return Collections.singleton(HOSTS);
+        }
+
+        @Override
+        public Set<ConfigOption<?>> optionalOptions() {
+            return Collections.singleton(MAX_RETRIES);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.console.SpringUnitTestBase;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkSql;
+import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlinkAppReferenceServiceTest extends SpringUnitTestBase {
+
+    private static final Long TEAM_ID = 900100L;
+
+    private static final long FIRST_APP_ID = 900100L;
+
+    private static final int APPS = 60;
+
+    private static final int VERSIONS = 50;
+
+    @Autowired
+    private FlinkAppReferenceService referenceService;
+
+    @Autowired
+    private FlinkApplicationManageService applicationManageService;
+
+    @Autowired
+    private FlinkSqlService flinkSqlService;
+
+    @Test
+    void testLookupsAfterEditsAndDeletes() {
+        List<Long> appIds = new ArrayList<>();
+        for (int i = 0; i < APPS; i++) {
+            FlinkApplication application = new FlinkApplication();
+            application.setId(FIRST_APP_ID + i);
+            application.setTeamId(TEAM_ID);
+            application.setJobName("reference-test-" + i);
+            application.setArgs(i == 0 ? "--brokers ${kafka_brokers}" : "--parallelism 1");
+            applicationManageService.save(application);
+            referenceService.indexApplication(application);
+            appIds.add(application.getId());
+        }
+        long smallIndexNanos = timeLookups();
+
+        // every app uses ${sink_N} in its sql versions, only app 1 uses ${kafka_brokers} in its last one
+        List<Long> lastSqlIds = new ArrayList<>();
+        for (int i = 0; i < APPS; i++) {
+            FlinkSql flinkSql = null;
+            for (int v = 0; v < VERSIONS; v++) {
+                flinkSql = new FlinkSql();
+                flinkSql.setAppId(appIds.get(i));
+                String source = i == 1 && v == VERSIONS - 1 ? "'${kafka_brokers}'" : "'broker:9092'";
+                flinkSql.setSql("insert into ${sink_" + (i % 3) + "} select * from kafka where brokers = " + source);
+                flinkSql.setTeamResource("[\"" + (100 + i % 3) + "\"]");
+                flinkSqlService.create(flinkSql);
+            }
+            lastSqlIds.add(flinkSql.getId());
+        }
+        assertThat(referenceService.count()).isGreaterThanOrEqualTo((long) APPS * VERSIONS);
+
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "kafka_brokers"))
+            .containsExactlyInAnyOrder(appIds.get(0), appIds.get(1));
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "sink_0")).hasSize(APPS / 3);
+        assertThat(referenceService.listAppIdsByResource(TEAM_ID, 101L)).hasSize(APPS / 3).contains(appIds.get(1));
+        assertThat(referenceService.listAppIdsByVariable(100000L, "kafka_brokers")).isEmpty();
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "kafka")).isEmpty();
+
+        // the lookups don't read the sql versions, so they don't slow down with them
+        long largeIndexNanos = timeLookups();
+        assertThat(largeIndexNanos).isLessThan(Math.max(smallIndexNanos * 10, 500_000_000L));
+
+        // edit the args of app 0, the variable is no longer used by it
+        FlinkApplication application = applicationManageService.getById(appIds.get(0));
+        application.setArgs("--brokers ${kafka_brokers_v2}");
+        referenceService.indexApplication(application);
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "kafka_brokers")).containsExactly(appIds.get(1));
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "kafka_brokers_v2")).containsExactly(appIds.get(0));
+
+        // delete the only version of app 1 using the variable
+        flinkSqlService.removeById(lastSqlIds.get(1));
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "kafka_brokers")).isEmpty();
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "sink_1")).contains(appIds.get(1));
+
+        // delete all the versions of app 1
+        flinkSqlService.removeByAppId(appIds.get(1));
+        assertThat(referenceService.listAppIdsByVariable(TEAM_ID, "sink_1")).doesNotContain(appIds.get(1));
+        assertThat(referenceService.listAppIdsByResource(TEAM_ID, 101L)).doesNotContain(appIds.get(1));
+    }
+
+    private long timeLookups() {
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            referenceService.listAppIdsByVariable(TEAM_ID, "kafka_brokers");
+            referenceService.listAppIdsByResource(TEAM_ID, 101L);
+        }
+        return System.nanoTime() - start;
+    }
+}
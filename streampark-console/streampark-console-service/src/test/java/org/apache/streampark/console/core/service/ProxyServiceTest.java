@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service;
+
+import org.apache.streampark.console.core.entity.ApplicationLog;
+import org.apache.streampark.console.core.service.impl.ProxyServiceImpl;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProxyServiceTest {
+
+    private static final long LOG_ID = 1L;
+
+    /** path and Accept-Encoding of the requests the upstream received */
+    private final List<String> upstreamRequests = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch firstEventReceived = new CountDownLatch(1);
+
+    private HttpServer upstream;
+
+    private ProxyServiceImpl proxyService;
+
+    private ApplicationLog applicationLog;
+
+    @BeforeEach
+    void before() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            upstreamRequests.add(exchange.getRequestURI().getPath() + " " + encoding);
+            byte[] body;
+            if (encoding != null && encoding.contains("gzip")) {
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+                body = "gzip body".getBytes(StandardCharsets.UTF_8);
+            } else {
+                body = "plain body".getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        // server-sent events, the second event is only sent once the client got the first one
+        upstream.createContext("/events", exchange -> {
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write("data: 1\n\n".getBytes(StandardCharsets.UTF_8));
+                output.flush();
+                firstEventReceived.await(10, TimeUnit.SECONDS);
+                output.write("data: 2\n\n".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        upstream.start();
+
+        proxyService = new ProxyServiceImpl();
+        applicationLog = new ApplicationLog();
+        applicationLog.setId(LOG_ID);
+        applicationLog.setTrackingUrl("http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterEach
+    void after() {
+        proxyService.close();
+        upstream.stop(0);
+    }
+
+    @Test
+    void testCachedResponsesAreKeyedByAcceptEncoding() throws Exception {
+        assertThat(get("/config", "gzip")).isEqualTo("gzip body");
+        assertThat(get("/config", null)).isEqualTo("plain body");
+        assertThat(get("/config", "gzip")).isEqualTo("gzip body");
+        assertThat(get("/config", null)).isEqualTo("plain body");
+
+        assertThat(upstreamRequests).containsExactly("/config gzip", "/config null");
+    }
+
+    @Test
+    void testOnlyTheWholeEndpointIsCached() throws Exception {
+        get("/config", null);
+        get("/config", null);
+        get("/jobs/1234/config", null);
+        get("/jobs/1234/config", null);
+        get("/jobmanager/config", null);
+        get("/jobmanager/config", null);
+
+        assertThat(upstreamRequests).containsExactly(
+            "/config null", "/jobs/1234/config null", "/jobs/1234/config null", "/jobmanager/config null");
+    }
+
+    @Test
+    void testEventsArePassedThroughAsTheyArrive() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/history/" + LOG_ID + "/events");
+        ResponseEntity<?> response = proxyService.proxyHistory(request, applicationLog);
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).isEqualTo("text/event-stream");
+        assertThat(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)).isFalse();
+
+        List<String> flushed = new ArrayList<>();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+
+            @Override
+            public void flush() {
+                String received = new String(toByteArray(), StandardCharsets.UTF_8);
+                flushed.add(received);
+                if (received.contains("data: 1")) {
+                    firstEventReceived.countDown();
+                }
+            }
+        };
+        ((StreamingResponseBody) response.getBody()).writeTo(output);
+
+        // flushed to the client before the second event was sent
+        assertThat(flushed).contains("data: 1\n\n");
+        assertThat(flushed.get(flushed.size() - 1)).isEqualTo("data: 1\n\ndata: 2\n\n");
+        assertThat(leasedConnections()).isZero();
+    }
+
+    @Test
+    void testUpstreamIsReleasedWhenTheBodyIsNeverWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/history/" + LOG_ID + "/jobs");
+        ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            ResponseEntity<?> response = proxyService.proxyHistory(request, applicationLog);
+            assertThat(response.getBody()).isInstanceOf(StreamingResponseBody.class);
+            assertThat(leasedConnections()).isEqualTo(1);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        // e.g. the client went away before the async processing started
+        attributes.requestCompleted();
+        assertThat(leasedConnections()).isZero();
+    }
+
+    private int leasedConnections() {
+        PoolingHttpClientConnectionManager connectionManager =
+            (PoolingHttpClientConnectionManager) ReflectionTestUtils.getField(proxyService, "connectionManager");
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    private String get(String endpoint, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/proxy/history/" + LOG_ID + endpoint);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        ResponseEntity<?> response = proxyService.proxyHistory(request, applicationLog);
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        Object body = response.getBody();
+        if (body instanceof StreamingResponseBody) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ((StreamingResponseBody) body).writeTo(output);
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+        return new String((byte[]) body, StandardCharsets.UTF_8);
+    }
+}
@@ -19,10 +19,21 @@ package org.apache.streampark.console.core.service;
 
 import org.apache.streampark.console.SpringUnitTestBase;
 import org.apache.streampark.console.core.entity.Variable;
+import org.apache.streampark.console.core.mapper.VariableMapper;
+import org.apache.streampark.console.core.service.impl.VariableServiceImpl;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /** org.apache.streampark.console.core.service.VariableServiceTest */
 class VariableServiceTest extends SpringUnitTestBase {
@@ -30,6 +41,9 @@ class VariableServiceTest extends SpringUnitTestBase {
     @Autowired
     private VariableService variableService;
 
+    @Autowired
+    private VariableMapper variableMapper;
+
     /** Test whether the variable will be replaced normally */
     @Test
     void testNormalReplace() {
@@ -72,4 +86,117 @@ class VariableServiceTest extends SpringUnitTestBase {
         String realParam = variableService.replaceVariable(teamId, paramWithPlaceholders);
         Assertions.assertNotEquals("--kafka.brokers " + variableVariable, realParam);
     }
+
+    /** Test that the cached substitution never serves a variable value after it's changed */
+    @Test
+    void testReplaceAfterUpdate() {
+        Long teamId = 900200L;
+        Variable variable = new Variable();
+        variable.setVariableCode("kafka.brokers");
+        variable.setVariableValue("broker1:9092");
+        variable.setCreatorId(100000L);
+        variable.setTeamId(teamId);
+        variableService.save(variable);
+        String paramWithPlaceholders = "--brokers ${kafka.brokers} --topic ${kafka.topic}";
+        Assertions.assertEquals(
+            "--brokers broker1:9092 --topic ${kafka.topic}",
+            variableService.replaceVariable(teamId, paramWithPlaceholders));
+
+        Variable topic = new Variable();
+        topic.setVariableCode("kafka.topic");
+        topic.setVariableValue("orders");
+        topic.setCreatorId(100000L);
+        topic.setTeamId(teamId);
+        variableService.save(topic);
+        Assertions.assertEquals(
+            "--brokers broker1:9092 --topic orders", variableService.replaceVariable(teamId, paramWithPlaceholders));
+
+        variable.setVariableValue("broker2:9092");
+        variableService.updateVariable(variable);
+        Assertions.assertEquals(
+            "--brokers broker2:9092 --topic orders", variableService.replaceVariable(teamId, paramWithPlaceholders));
+
+        variableService.remove(topic);
+        Assertions.assertEquals(
+            "--brokers broker2:9092 --topic ${kafka.topic}",
+            variableService.replaceVariable(teamId, paramWithPlaceholders));
+        // other teams don't see the variables
+        Assertions.assertEquals(paramWithPlaceholders, variableService.replaceVariable(900201L, paramWithPlaceholders));
+    }
+
+    /** Test that a console node never serves a variable value after it's changed on another node */
+    @Test
+    void testReplaceAfterUpdateOnAnotherNode() {
+        Long teamId = 900400L;
+        VariableServiceImpl otherNode = new VariableServiceImpl();
+        ReflectionTestUtils.setField(otherNode, "baseMapper", variableMapper);
+
+        Variable variable = new Variable();
+        variable.setVariableCode("kafka.brokers");
+        variable.setVariableValue("broker1:9092");
+        variable.setCreatorId(100000L);
+        variable.setTeamId(teamId);
+        variableService.save(variable);
+        String param = "--brokers ${kafka.brokers}";
+        Assertions.assertEquals("--brokers broker1:9092", otherNode.replaceVariable(teamId, param));
+
+        variable.setVariableValue("broker2:9092");
+        variableService.updateVariable(variable);
+        Assertions.assertEquals("--brokers broker2:9092", otherNode.replaceVariable(teamId, param));
+
+        variableService.remove(variable);
+        Assertions.assertEquals(param, otherNode.replaceVariable(teamId, param));
+    }
+
+    /** Compare the cached substitution with querying the variables and replacing them by regex */
+    @Test
+    void testReplaceLargeSql() {
+        Long teamId = 900300L;
+        int variables = 300;
+        for (int i = 0; i < variables; i++) {
+            Variable variable = new Variable();
+            variable.setVariableCode("var_" + i);
+            variable.setVariableValue("value-" + i);
+            variable.setCreatorId(100000L);
+            variable.setTeamId(teamId);
+            variableService.save(variable);
+        }
+        Random random = new Random(42);
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sql.append("insert into ${var_").append(random.nextInt(variables)).append("} select * from t_")
+                .append(i).append(" where c = '${var_").append(random.nextInt(variables + 10)).append("}';\n");
+        }
+        String mixed = sql.toString();
+
+        String expected = replaceByRegex(teamId, mixed);
+        Assertions.assertFalse(expected.contains("${var_1}"));
+        Assertions.assertTrue(expected.contains("${var_" + variables));
+
+        @SuppressWarnings("unchecked")
+        Cache<Long, ?> substitutionTables = (Cache<Long, ?>) ReflectionTestUtils.getField(
+            AopTestUtils.getTargetObject(variableService), "substitutionTables");
+        Assertions.assertEquals(expected, variableService.replaceVariable(teamId, mixed));
+        Object table = substitutionTables.getIfPresent(teamId);
+        Assertions.assertNotNull(table);
+        // served from the cached substitution table
+        Assertions.assertEquals(expected, variableService.replaceVariable(teamId, mixed));
+        Assertions.assertSame(table, substitutionTables.getIfPresent(teamId));
+    }
+
+    /** The substitution before the variables were cached */
+    private String replaceByRegex(Long teamId, String mixed) {
+        Map<String, String> variableMap = variableService.listByTeamId(teamId).stream()
+            .collect(Collectors.toMap(Variable::getVariableCode, Variable::getVariableValue));
+        String restore = mixed;
+        Matcher matcher = Pattern.compile("\\$\\{([A-Za-z])+([A-Za-z0-9._-])+\\}").matcher(restore);
+        while (matcher.find()) {
+            String placeholder = matcher.group();
+            String variableValue = variableMap.get(placeholder.substring(2, placeholder.length() - 1));
+            if (variableValue != null) {
+                restore = restore.replace(placeholder, variableValue);
+            }
+        }
+        return restore;
+    }
 }
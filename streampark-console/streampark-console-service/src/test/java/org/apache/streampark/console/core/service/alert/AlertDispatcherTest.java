@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.alert;
+
+import org.apache.streampark.console.base.exception.AlertException;
+import org.apache.streampark.console.core.bean.AlertConfigParams;
+import org.apache.streampark.console.core.bean.AlertTemplate;
+import org.apache.streampark.console.core.enums.AlertTypeEnum;
+import org.apache.streampark.console.core.service.alert.impl.AlertDispatcher;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlertDispatcherTest {
+
+    private static final long CHANNEL_LATENCY_MILLIS = 200;
+
+    private final Map<AlertTypeEnum, List<String>> sent = new ConcurrentHashMap<>();
+
+    private AlertDispatcher dispatcher;
+
+    @AfterEach
+    void after() {
+        dispatcher.close();
+    }
+
+    @Test
+    void testWatcherPollDoesNotWaitForChannels() {
+        dispatcher = newDispatcher(0, 5000, CHANNEL_LATENCY_MILLIS);
+
+        // a watcher poll that finds 10 failed applications
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertThat(dispatcher.dispatch(1L, template("job-" + i, "FAILED"))).isTrue();
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(CHANNEL_LATENCY_MILLIS);
+
+        // 3 channels of 2 senders each, instead of 30 alerts one after another
+        await(() -> sentCount() == 30, 10 * 3 * CHANNEL_LATENCY_MILLIS);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+            .isLessThan(10 * 3 * CHANNEL_LATENCY_MILLIS / 2);
+    }
+
+    @Test
+    void testRepeatsAreMergedIntoDigest() {
+        dispatcher = newDispatcher(1000, 5000, 0);
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(1L, template("job", "FAILED"));
+        }
+        dispatcher.dispatch(1L, template("job", "LOST"));
+        dispatcher.dispatch(2L, template("job", "FAILED"));
+
+        await(() -> sent.getOrDefault(AlertTypeEnum.EMAIL, Arrays.asList()).size() == 4, 5000);
+        assertThat(sent.get(AlertTypeEnum.EMAIL)).containsExactlyInAnyOrder(
+            "job FAILED", "job LOST", "job FAILED", "job FAILED (4 more times in the last 1s)");
+    }
+
+    @Test
+    void testSlowChannelTimesOut() {
+        dispatcher = newDispatcher(0, 100, 5000);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> dispatcher.send(1L, template("job", "FAILED")))
+            .isInstanceOf(AlertException.class)
+            .hasMessageContaining("timed out");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+    }
+
+    @Test
+    void testQueuedAlertsAreNotTimedOut() {
+        // 2 senders per channel, the 6 alerts of every channel queue for 3 times the latency
+        dispatcher = newDispatcher(0, 2 * CHANNEL_LATENCY_MILLIS, CHANNEL_LATENCY_MILLIS);
+
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(1L, template("job-" + i, "FAILED"));
+        }
+        await(() -> sentCount() == 18, 10 * CHANNEL_LATENCY_MILLIS);
+    }
+
+    private AlertDispatcher newDispatcher(long mergeWindowMillis, long channelTimeoutMillis, long latencyMillis) {
+        AlertConfigParams params = new AlertConfigParams();
+        params.setAlertType(AlertTypeEnum.encode(
+            Arrays.asList(AlertTypeEnum.EMAIL, AlertTypeEnum.DING_TALK, AlertTypeEnum.LARK)));
+        return new AlertDispatcher(
+            alertConfigId -> params,
+            alertType -> (config, template) -> {
+                sleep(latencyMillis);
+                sent.computeIfAbsent(alertType, k -> new CopyOnWriteArrayList<>()).add(template.getSubject());
+                return true;
+            },
+            100,
+            2,
+            mergeWindowMillis,
+            channelTimeoutMillis);
+    }
+
+    private int sentCount() {
+        return sent.values().stream().mapToInt(List::size).sum();
+    }
+
+    private static AlertTemplate template(String jobName, String status) {
+        AlertTemplate template = new AlertTemplate();
+        template.setJobName(jobName);
+        template.setStatus(status);
+        template.setType(1);
+        template.setTitle(jobName + " " + status);
+        template.setSubject(jobName + " " + status);
+        return template;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AlertException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for the alerts").isLessThan(deadline);
+            sleep(10);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.service.application;
+
+import org.apache.streampark.common.enums.FlinkDeployMode;
+import org.apache.streampark.console.core.bean.BulkOperation;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.entity.FlinkEnv;
+import org.apache.streampark.console.core.enums.DistributedTaskEnum;
+import org.apache.streampark.console.core.runner.EnvInitializer;
+import org.apache.streampark.console.core.service.DistributedTaskService;
+import org.apache.streampark.console.core.service.FlinkEnvService;
+import org.apache.streampark.console.core.service.application.impl.FlinkApplicationBulkActionServiceImpl;
+
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.util.ThreadContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlinkApplicationBulkActionServiceTest {
+
+    private static final long TEAM_ID = 1L;
+
+    private final FlinkApplicationActionService actionService = mock(FlinkApplicationActionService.class);
+
+    /** application id -> start future, completed by the tests */
+    private final Map<Long, CompletableFuture<Object>> startFutures = new ConcurrentHashMap<>();
+
+    private FlinkApplicationBulkActionServiceImpl bulkActionService;
+
+    @BeforeEach
+    void before() {
+        // the actions are run on behalf of the caller
+        ThreadContext.bind(new DefaultSecurityManager());
+
+        FlinkEnvService flinkEnvService = mock(FlinkEnvService.class);
+        when(flinkEnvService.getByIdOrDefault(any())).thenReturn(new FlinkEnv());
+        DistributedTaskService distributedTaskService = mock(DistributedTaskService.class);
+        when(distributedTaskService.isLocalProcessing(anyLong())).thenReturn(true);
+        when(actionService.getStartFuture(anyLong()))
+            .thenAnswer(invocation -> startFutures.computeIfAbsent(invocation.getArgument(0),
+                id -> new CompletableFuture<>()));
+
+        bulkActionService = new FlinkApplicationBulkActionServiceImpl();
+        ReflectionTestUtils.setField(bulkActionService, "applicationActionService", actionService);
+        ReflectionTestUtils.setField(bulkActionService, "flinkEnvService", flinkEnvService);
+        ReflectionTestUtils.setField(bulkActionService, "envInitializer", mock(EnvInitializer.class));
+        ReflectionTestUtils.setField(bulkActionService, "distributedTaskService", distributedTaskService);
+        ReflectionTestUtils.setField(bulkActionService, "permitsPerSecond", 100d);
+        ReflectionTestUtils.setField(bulkActionService, "maxConcurrent", 20);
+        ReflectionTestUtils.setField(bulkActionService, "maxConcurrentPerCluster", 2);
+        ReflectionTestUtils.setField(bulkActionService, "maxConcurrentPerQueue", 2);
+        ReflectionTestUtils.setField(bulkActionService, "submitTimeoutSeconds", 300L);
+    }
+
+    @AfterEach
+    void after() {
+        bulkActionService.close();
+        ThreadContext.unbindSecurityManager();
+    }
+
+    @Test
+    void testConcurrentSubmissionsPerClusterAreLimited() throws Exception {
+        bulkActionService.init();
+        BulkOperation operation = submit(applications(5));
+
+        verify(actionService, timeout(5000).times(2)).start(any(), eq(false));
+        verify(actionService, after(300).times(2)).start(any(), eq(false));
+        assertThat(operation.getRunning()).isEqualTo(2);
+        assertThat(operation.getPending()).isEqualTo(3);
+
+        // a finished submission makes room for the next application of the cluster
+        startFutures.values().iterator().next().complete(null);
+        verify(actionService, timeout(5000).times(3)).start(any(), eq(false));
+
+        while (!operation.isDone()) {
+            startFutures.values().forEach(future -> future.complete(null));
+            Thread.sleep(10);
+        }
+        assertThat(operation.getSucceeded()).isEqualTo(5);
+        assertThat(operation.getFailed()).isZero();
+    }
+
+    @Test
+    void testLocalStartIsCanceledOnTimeout() throws Exception {
+        ReflectionTestUtils.setField(bulkActionService, "submitTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(bulkActionService, "maxConcurrentPerCluster", 1);
+        bulkActionService.init();
+        BulkOperation operation = submit(applications(2));
+
+        // the timed out start releases its slot, so the second application is started as well
+        await(operation::isDone, 5000);
+        verify(actionService, times(2)).start(any(), eq(false));
+        assertThat(operation.getFailed()).isEqualTo(2);
+        assertThat(operation.getFailures().values()).containsOnly("not started in 1s");
+        assertThat(startFutures.values()).allMatch(CompletableFuture::isCancelled);
+        assertThat(operation.getRunning()).isZero();
+    }
+
+    @Test
+    void testCancelSkipsTheWaitingApplications() throws Exception {
+        ReflectionTestUtils.setField(bulkActionService, "maxConcurrentPerCluster", 1);
+        bulkActionService.init();
+        BulkOperation operation = submit(applications(3));
+
+        verify(actionService, timeout(5000).times(1)).start(any(), eq(false));
+        bulkActionService.cancel(operation.getId());
+        startFutures.values().forEach(future -> future.complete(null));
+
+        await(operation::isDone, 5000);
+        verify(actionService, after(300).times(1)).start(any(), eq(false));
+        assertThat(operation.getSucceeded()).isEqualTo(1);
+        assertThat(operation.getCanceled()).isEqualTo(2);
+        assertThat(operation.getPending()).isZero();
+    }
+
+    private BulkOperation submit(List<FlinkApplication> applications) {
+        when(actionService.listByIds(any())).thenReturn(applications);
+        List<Long> appIds = applications.stream().map(FlinkApplication::getId).collect(Collectors.toList());
+        return bulkActionService.submit(TEAM_ID, appIds, DistributedTaskEnum.START, 0, false);
+    }
+
+    /** applications of the same remote cluster */
+    private static List<FlinkApplication> applications(int count) {
+        List<FlinkApplication> applications = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            FlinkApplication application = new FlinkApplication();
+            application.setId(id);
+            application.setTeamId(TEAM_ID);
+            application.setDeployMode(FlinkDeployMode.REMOTE.getMode());
+            application.setFlinkClusterId(1L);
+            application.setVersionId(1L);
+            applications.add(application);
+        }
+        return applications;
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for the operation").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
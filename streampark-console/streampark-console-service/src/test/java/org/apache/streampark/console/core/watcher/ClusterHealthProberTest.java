@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.common.enums.ClusterState;
+import org.apache.streampark.console.core.watcher.ClusterHealthProber.CircuitBreaker;
+import org.apache.streampark.console.core.watcher.ClusterHealthProber.LatencyHistogram;
+import org.apache.streampark.console.core.watcher.ClusterStateChangedEvent.ClusterKind;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterHealthProberTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private final List<ClusterStateChangedEvent> events = new ArrayList<>();
+
+    /** runs the probes when the test says so */
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+    private final Executor executor = tasks::add;
+
+    private final ClusterHealthProber prober = new ClusterHealthProber(clock::get);
+
+    @BeforeEach
+    void before() {
+        ApplicationEventPublisher publisher = event -> events.add((ClusterStateChangedEvent) event);
+        ReflectionTestUtils.setField(prober, "eventPublisher", publisher);
+    }
+
+    @Test
+    void testCircuitOpensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(clock::get);
+
+        // a success resets the count of consecutive failures
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertThat(breaker.onFailure()).isFalse();
+        assertThat(breaker.onFailure()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.onFailure()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+
+        // open for the open duration
+        clock.addAndGet(ClusterHealthProber.OPEN_DURATION.toMillis() - 1);
+        assertThat(breaker.allowRequest()).isFalse();
+        clock.addAndGet(1);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        // half-open, the next failure opens it again at once
+        assertThat(breaker.onFailure()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+
+        // a success after the open duration closes it
+        clock.addAndGet(ClusterHealthProber.OPEN_DURATION.toMillis());
+        assertThat(breaker.allowRequest()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.onFailure()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void testOpenCircuitFailsFast() {
+        // nothing listens on the port, every request fails
+        String url = "http://localhost:1/overview";
+        for (int i = 0; i < ClusterHealthProber.FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> prober.httpGet(url, true)).isInstanceOf(IOException.class);
+        }
+        assertThatThrownBy(() -> prober.httpGet(url, true))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("failed " + ClusterHealthProber.FAILURE_THRESHOLD + " times in a row");
+        // the other endpoints are still requested
+        assertThatThrownBy(() -> prober.httpGet("http://localhost:2/overview", true))
+            .isInstanceOf(IOException.class)
+            .hasMessageNotContaining("times in a row");
+    }
+
+    @Test
+    void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getPercentileMillis(99)).isZero();
+        assertThat(histogram.getMeanMillis()).isZero();
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(5);
+        }
+        histogram.record(300);
+        histogram.record(20000);
+
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMaxMillis()).isEqualTo(20000);
+        assertThat(histogram.getMeanMillis()).isEqualTo((98 * 5 + 300 + 20000) / 100.0);
+        // the upper bound of the bucket, but never more than the max
+        assertThat(histogram.getPercentileMillis(50)).isEqualTo(10);
+        assertThat(histogram.getPercentileMillis(99)).isEqualTo(500);
+        assertThat(histogram.getPercentileMillis(100)).isEqualTo(20000);
+    }
+
+    @Test
+    void testProbeLatencyIsRecorded() {
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> {
+            clock.addAndGet(120);
+            return ClusterState.RUNNING;
+        });
+        runTasks();
+
+        LatencyHistogram latency = prober.getLatency(ClusterKind.FLINK, 1L);
+        assertThat(latency.getCount()).isEqualTo(1);
+        assertThat(latency.getMaxMillis()).isEqualTo(120);
+        assertThat(latency.getPercentileMillis(50)).isEqualTo(120);
+    }
+
+    @Test
+    void testClusterIsProbedOnceAtATime() {
+        AtomicInteger probes = new AtomicInteger();
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> probe(probes, ClusterState.RUNNING));
+        // the previous probe of the cluster is still pending
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> probe(probes, ClusterState.RUNNING));
+        // the other clusters are probed meanwhile
+        prober.probeAsync(executor, ClusterKind.SPARK, 1L, () -> probe(probes, ClusterState.RUNNING));
+        assertThat(tasks).hasSize(2);
+
+        runTasks();
+        assertThat(probes).hasValue(2);
+
+        // probed again once the previous probe is done
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> probe(probes, ClusterState.LOST));
+        assertThat(tasks).hasSize(1);
+        runTasks();
+        assertThat(probes).hasValue(3);
+
+        // a rejected probe doesn't hold the cluster
+        prober.probeAsync(task -> {
+            throw new RejectedExecutionException();
+        }, ClusterKind.FLINK, 1L, () -> probe(probes, ClusterState.LOST));
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> probe(probes, ClusterState.LOST));
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testStateTransitionsArePublished() {
+        probeNow(1L, ClusterState.RUNNING);
+        probeNow(1L, ClusterState.RUNNING);
+        probeNow(1L, ClusterState.LOST);
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getPreviousState()).isNull();
+        assertThat(events.get(0).getState()).isEqualTo(ClusterState.RUNNING);
+        assertThat(events.get(1).getPreviousState()).isEqualTo(ClusterState.RUNNING);
+        assertThat(events.get(1).getState()).isEqualTo(ClusterState.LOST);
+
+        // a failed probe is an unknown state
+        prober.probeAsync(executor, ClusterKind.FLINK, 1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        runTasks();
+        assertThat(events.get(2).getState()).isEqualTo(ClusterState.UNKNOWN);
+
+        // a forgotten cluster is published again
+        prober.forget(ClusterKind.FLINK, 1L);
+        probeNow(1L, ClusterState.UNKNOWN);
+        assertThat(events).hasSize(4);
+        assertThat(events.get(3).getPreviousState()).isNull();
+    }
+
+    private void probeNow(Long clusterId, ClusterState state) {
+        prober.probeAsync(executor, ClusterKind.FLINK, clusterId, () -> state);
+        runTasks();
+    }
+
+    private static ClusterState probe(AtomicInteger probes, ClusterState state) {
+        probes.incrementAndGet();
+        return state;
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlinkAppStateDeltaPublisherTest {
+
+    private static final int TEAMS = 2;
+
+    private static final int APPS = 100;
+
+    private static final int SUBSCRIBERS_PER_TEAM = 20;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** the application list pages: team id -> app id -> state */
+    private final Map<Long, List<Map<Long, Integer>>> pages = new HashMap<>();
+
+    private final AtomicInteger pageQueries = new AtomicInteger();
+
+    private final List<JsonNode> messages = new ArrayList<>();
+
+    private final FlinkAppStateDeltaPublisher publisher = new FlinkAppStateDeltaPublisher((topic, message) -> {
+        try {
+            JsonNode node = mapper.readTree(message);
+            assertThat(topic).isEqualTo(FlinkAppStateDeltaPublisher.TOPIC_PREFIX + node.get("teamId").asLong());
+            messages.add(node);
+            // every subscribed page of the team applies the deltas
+            for (Map<Long, Integer> page : pages.get(node.get("teamId").asLong())) {
+                node.get("apps").forEach(app -> page.put(app.get("id").asLong(), app.get("state").asInt()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    });
+
+    @Test
+    void testPagesFollowTheWatcherWithoutQueries() {
+        List<FlinkApplication> apps = new ArrayList<>();
+        for (long id = 0; id < APPS; id++) {
+            apps.add(app(id, id % TEAMS, FlinkAppStateEnum.STARTING));
+        }
+        for (long teamId = 0; teamId < TEAMS; teamId++) {
+            List<Map<Long, Integer>> subscribers = new ArrayList<>();
+            for (int i = 0; i < SUBSCRIBERS_PER_TEAM; i++) {
+                subscribers.add(loadPage(apps, teamId));
+            }
+            pages.put(teamId, subscribers);
+        }
+
+        // the first cycle pushes every app once, one message per team
+        watchCycle(apps);
+        assertThat(messages).hasSize(TEAMS);
+        assertThat(messages).allSatisfy(message -> assertThat(message.get("apps")).hasSize(APPS / TEAMS));
+
+        for (int cycle = 0; cycle < 10; cycle++) {
+            messages.clear();
+            // a few apps change, the others only get a longer duration
+            apps.forEach(app -> app.setDuration(app.getDuration() + 5000));
+            apps.get(cycle).setState(FlinkAppStateEnum.RUNNING.getValue());
+            apps.get(cycle + 51).setState(FlinkAppStateEnum.RUNNING.getValue());
+            watchCycle(apps);
+
+            assertThat(messages).hasSize(TEAMS);
+            assertThat(messages).allSatisfy(message -> assertThat(message.get("apps")).hasSize(1));
+        }
+
+        // the pages are up to date, and only queried when they were opened
+        pages.forEach((teamId, subscribers) -> subscribers.forEach(page -> apps.stream()
+            .filter(app -> app.getTeamId().equals(teamId))
+            .forEach(app -> assertThat(page.get(app.getId())).isEqualTo(app.getState()))));
+        assertThat(pageQueries).hasValue(TEAMS * SUBSCRIBERS_PER_TEAM);
+    }
+
+    @Test
+    void testEndedAppsArePushedOnce() {
+        pages.put(1L, new ArrayList<>());
+        FlinkApplication app = app(1L, 1L, FlinkAppStateEnum.RUNNING);
+        publisher.offer(app);
+        publisher.flush();
+
+        app.setState(FlinkAppStateEnum.CANCELED.getValue());
+        publisher.offer(app);
+        publisher.flush();
+        publisher.flush();
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(1).get("apps").get(0).get("state").asInt())
+            .isEqualTo(FlinkAppStateEnum.CANCELED.getValue());
+
+        // a restarted app is pushed again
+        app.setState(FlinkAppStateEnum.RUNNING.getValue());
+        publisher.offer(app);
+        publisher.flush();
+        assertThat(messages).hasSize(3);
+        assertThat(messages.get(2).get("teamId").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    void testUnwatchedAppsAreForgotten() {
+        pages.put(1L, new ArrayList<>());
+        FlinkApplication app = app(1L, 1L, FlinkAppStateEnum.RUNNING);
+        publisher.offer(app);
+        publisher.flush();
+        publisher.offer(app);
+        publisher.flush();
+        assertThat(messages).hasSize(1);
+
+        // the app left the watcher without an end state, e.g. handed over to another node
+        publisher.retain(Collections.emptySet());
+        publisher.offer(app);
+        publisher.flush();
+        assertThat(messages).hasSize(2);
+
+        // the watched apps are kept
+        publisher.retain(Collections.singleton(1L));
+        publisher.offer(app);
+        publisher.flush();
+        assertThat(messages).hasSize(2);
+    }
+
+    private void watchCycle(List<FlinkApplication> apps) {
+        apps.forEach(publisher::offer);
+        publisher.flush();
+    }
+
+    private Map<Long, Integer> loadPage(List<FlinkApplication> apps, long teamId) {
+        pageQueries.incrementAndGet();
+        Map<Long, Integer> page = new HashMap<>();
+        apps.stream()
+            .filter(app -> app.getTeamId() == teamId)
+            .forEach(app -> page.put(app.getId(), app.getState()));
+        return page;
+    }
+
+    private static FlinkApplication app(long id, long teamId, FlinkAppStateEnum state) {
+        FlinkApplication app = new FlinkApplication();
+        app.setId(id);
+        app.setTeamId(teamId);
+        app.setState(state.getValue());
+        app.setDuration(0L);
+        return app;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.SpringUnitTestBase;
+import org.apache.streampark.console.core.bean.FlinkWatchingState;
+import org.apache.streampark.console.core.enums.OptionStateEnum;
+import org.apache.streampark.console.core.enums.StopFromEnum;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcFlinkWatcherStateStoreTest extends SpringUnitTestBase {
+
+    @Autowired
+    private JdbcFlinkWatcherStateStore stateStore;
+
+    @Test
+    void testLeaseIsHandedOver() throws InterruptedException {
+        Duration lease = Duration.ofMinutes(1);
+        assertThat(stateStore.acquire("node-1", Arrays.asList(900001L, 900002L), lease))
+            .containsExactlyInAnyOrder(900001L, 900002L);
+        // held by node-1 until it's released or expired
+        assertThat(stateStore.acquire("node-2", Arrays.asList(900001L, 900002L), lease)).isEmpty();
+
+        FlinkWatchingState state = new FlinkWatchingState();
+        state.setWatching(true);
+        state.setStopFrom(StopFromEnum.STREAMPARK);
+        state.setOptioning(OptionStateEnum.CANCELLING);
+        state.setCanceledUserId(100000L);
+        stateStore.save("node-1", Collections.singletonMap(900001L, state));
+        // not leased to node-2, ignored
+        stateStore.save("node-2", Collections.singletonMap(900001L, new FlinkWatchingState()));
+
+        stateStore.release("node-1", Collections.singletonList(900001L));
+        assertThat(stateStore.acquire("node-2", Collections.singletonList(900001L), lease)).containsExactly(900001L);
+        Map<Long, FlinkWatchingState> states = stateStore.get(Arrays.asList(900001L, 900002L));
+        assertThat(states).containsOnlyKeys(900001L);
+        assertThat(states.get(900001L)).isEqualTo(state);
+
+        // the expired lease of node-1 is taken over
+        stateStore.acquire("node-1", Collections.singletonList(900002L), Duration.ofMillis(1));
+        Thread.sleep(10);
+        assertThat(stateStore.acquire("node-2", Collections.singletonList(900002L), lease)).containsExactly(900002L);
+
+        stateStore.save("node-2", Collections.singletonMap(900001L, new FlinkWatchingState()));
+        stateStore.release("node-2", Arrays.asList(900001L, 900002L));
+        assertThat(stateStore.getAll()).doesNotContainKeys(900001L, 900002L);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.core.metrics.spark.SparkApplicationSummary;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SparkJobProgressTrackerTest {
+
+    private final SparkJobProgressTracker tracker = new SparkJobProgressTracker();
+
+    private final Map<String, String> responses = new HashMap<>();
+
+    private final List<String> requests = new ArrayList<>();
+
+    @Test
+    void testFinishedJobsAreReadOnce() throws IOException {
+        responses.put("jobs", jobs(job(2, "RUNNING", 10, 4), job(1, "SUCCEEDED", 5, 5), job(0, "SUCCEEDED", 5, 5)));
+        assertSummary(update("app_1"), 20, 14);
+
+        // the listing stops at the last job read, the garbage after it is never parsed
+        responses.put("jobs", "[" + job(4, "SUCCEEDED", 3, 3) + "," + job(3, "RUNNING", 6, 1) + ","
+            + job(2, "RUNNING", 10, 8) + ", not json");
+        responses.put("jobs?status=running", jobs(job(3, "RUNNING", 6, 1), job(2, "RUNNING", 10, 8)));
+        assertSummary(update("app_1"), 29, 22);
+
+        // job 2 left the running jobs, so it's requested by id
+        requests.clear();
+        responses.put("jobs", jobs(job(3, "RUNNING", 6, 6)));
+        responses.put("jobs?status=running", jobs(job(3, "RUNNING", 6, 6)));
+        responses.put("jobs/2", job(2, "SUCCEEDED", 10, 10));
+        assertSummary(update("app_1"), 29, 29);
+        assertThat(requests).containsExactly("jobs", "jobs?status=running", "jobs/2");
+    }
+
+    @Test
+    void testMissingJobsAreLookedUp() throws IOException {
+        responses.put("jobs", jobs(job(0, "SUCCEEDED", 1, 1)));
+        assertSummary(update("app_1"), 1, 1);
+
+        // job 2 is listed before job 1 was
+        responses.put("jobs", jobs(job(2, "SUCCEEDED", 2, 2), job(0, "SUCCEEDED", 1, 1)));
+        assertSummary(update("app_1"), 3, 3);
+
+        responses.put("jobs", jobs(job(2, "SUCCEEDED", 2, 2)));
+        responses.put("jobs?status=running", jobs());
+        responses.put("jobs/1", job(1, "FAILED", 4, 3));
+        assertSummary(update("app_1"), 7, 6);
+    }
+
+    @Test
+    void testNewClusterIdResetsProgress() throws IOException {
+        responses.put("jobs", jobs(job(0, "SUCCEEDED", 5, 5)));
+        assertSummary(update("app_1"), 5, 5);
+        assertSummary(update("app_1"), 5, 5);
+
+        responses.put("jobs", jobs(job(0, "SUCCEEDED", 2, 2)));
+        assertSummary(update("app_2"), 2, 2);
+    }
+
+    private SparkApplicationSummary update(String clusterId) throws IOException {
+        return tracker.update(1L, clusterId, (path, reader) -> {
+            requests.add(path);
+            String body = responses.getOrDefault(path, "unknown job");
+            reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        });
+    }
+
+    private static void assertSummary(SparkApplicationSummary summary, long numTasks, long numCompletedTasks) {
+        assertThat(summary.getNumTasks()).isEqualTo(numTasks);
+        assertThat(summary.getNumCompletedTasks()).isEqualTo(numCompletedTasks);
+    }
+
+    private static String jobs(String... jobs) {
+        return "[" + String.join(",", jobs) + "]";
+    }
+
+    private static String job(long id, String status, int numTasks, int numCompletedTasks) {
+        return String.format(
+            "{\"jobId\":%d,\"status\":\"%s\",\"stageIds\":[%d],\"numTasks\":%d,\"numCompletedTasks\":%d,\"numCompletedStages\":%d}",
+            id, status, id, numTasks, numCompletedTasks, numTasks == numCompletedTasks ? 1 : 0);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import org.apache.streampark.console.core.metrics.yarn.YarnAppInfo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class YarnAppSnapshotTest {
+
+    private static final String ACTIVE = "states=";
+
+    private static final String STARTED = "startedTimeBegin=";
+
+    private static final String FINISHED = "finishedTimeBegin=";
+
+    private static final String APP = "ws/v1/cluster/apps/";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+
+    /** request kind -> response, null for a failure */
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    /** the requests of this kind wait for the gate */
+    private volatile String gated;
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private final YarnAppSnapshot snapshot = new YarnAppSnapshot(this::request, clock::get);
+
+    @AfterEach
+    void after() {
+        gate.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneRefresh() throws Exception {
+        responses.put(ACTIVE, apps(app("application_1", "RUNNING", 1024)));
+        responses.put(FINISHED, apps());
+        gated = ACTIVE;
+
+        List<Future<YarnAppInfo>> lookups = lookupConcurrently("application_1");
+        awaitRequests(1);
+        // the other lookups wait for the refresh in flight instead of refreshing in turn
+        Thread.sleep(100);
+        gate.countDown();
+
+        for (Future<YarnAppInfo> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS).getApp().getAllocatedMB()).isEqualTo("1024");
+        }
+        assertThat(requests).containsExactly(ACTIVE, FINISHED);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneRequest() throws Exception {
+        responses.put(ACTIVE, apps());
+        responses.put(FINISHED, apps());
+        responses.put(APP, "{\"app\":" + app("application_2", "RUNNING", 512) + "}");
+        gated = APP;
+
+        List<Future<YarnAppInfo>> lookups = lookupConcurrently("application_2");
+        awaitRequests(3);
+        Thread.sleep(100);
+        gate.countDown();
+
+        for (Future<YarnAppInfo> lookup : lookups) {
+            assertThat(lookup.get(5, TimeUnit.SECONDS).getApp().getAllocatedMB()).isEqualTo("512");
+        }
+        assertThat(requests).containsExactly(ACTIVE, FINISHED, APP);
+    }
+
+    @Test
+    void testRunningAppResourcesAreRefreshed() throws Exception {
+        responses.put(ACTIVE, apps(app("application_1", "RUNNING", 1024)));
+        responses.put(STARTED, apps());
+        responses.put(FINISHED, apps());
+        assertThat(snapshot.getAppInfo("application_1").getApp().getAllocatedMB()).isEqualTo("1024");
+
+        // served from the snapshot, only the started and finished apps are requested
+        responses.put(ACTIVE, apps(app("application_1", "RUNNING", 2048)));
+        clock.addAndGet(YarnAppSnapshot.RUNNING_TTL.toMillis() / 2);
+        assertThat(snapshot.getAppInfo("application_1").getApp().getAllocatedMB()).isEqualTo("1024");
+
+        // the app isn't served past its ttl
+        clock.addAndGet(YarnAppSnapshot.RUNNING_TTL.toMillis() / 2);
+        assertThat(snapshot.getAppInfo("application_1").getApp().getAllocatedMB()).isEqualTo("2048");
+        assertThat(requests).containsExactly(ACTIVE, FINISHED, STARTED, FINISHED, ACTIVE, FINISHED);
+    }
+
+    @Test
+    void testRefreshFailureIsSharedByTheRound() throws Exception {
+        responses.put(FINISHED, apps());
+        assertThatThrownBy(() -> snapshot.getAppInfo("application_1")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> snapshot.getAppInfo("application_2")).isInstanceOf(IOException.class);
+        assertThat(requests).containsExactly(ACTIVE);
+
+        responses.put(ACTIVE, apps(app("application_1", "RUNNING", 1024)));
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(2));
+        assertThat(snapshot.getAppInfo("application_1").getApp().getAllocatedMB()).isEqualTo("1024");
+    }
+
+    private String request(String url) throws IOException {
+        int filter = url.indexOf('&') + 1;
+        String kind = url.startsWith(APP) ? APP : url.substring(filter, url.indexOf('=', filter) + 1);
+        requests.add(kind);
+        if (kind.equals(gated)) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String response = responses.get(kind);
+        if (response == null) {
+            throw new IOException("connection refused");
+        }
+        return response;
+    }
+
+    private List<Future<YarnAppInfo>> lookupConcurrently(String appId) {
+        List<Future<YarnAppInfo>> lookups = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            lookups.add(executor.submit(() -> snapshot.getAppInfo(appId)));
+        }
+        return lookups;
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.size() < count) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for the requests").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static String apps(String... apps) {
+        return "{\"apps\":{\"app\":[" + String.join(",", apps) + "]}}";
+    }
+
+    private static String app(String id, String state, int allocatedMB) {
+        return String.format(
+            "{\"id\":\"%s\",\"state\":\"%s\",\"startedTime\":1,\"allocatedMB\":\"%d\"}", id, state, allocatedMB);
+    }
+}
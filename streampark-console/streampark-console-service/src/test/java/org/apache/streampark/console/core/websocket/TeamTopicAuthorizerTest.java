@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import org.apache.streampark.console.core.enums.AuthenticationType;
+import org.apache.streampark.console.core.enums.UserTypeEnum;
+import org.apache.streampark.console.core.watcher.FlinkAppStateDeltaPublisher;
+import org.apache.streampark.console.system.authentication.AuthTokenVerifier;
+import org.apache.streampark.console.system.authentication.JWTUtil;
+import org.apache.streampark.console.system.entity.AccessToken;
+import org.apache.streampark.console.system.entity.Member;
+import org.apache.streampark.console.system.entity.User;
+import org.apache.streampark.console.system.service.AccessTokenService;
+import org.apache.streampark.console.system.service.MemberService;
+import org.apache.streampark.console.system.service.UserService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TeamTopicAuthorizerTest {
+
+    private static final String START_TIMESTAMP = "streampark.start.timestamp";
+
+    private static final String TOPIC = FlinkAppStateDeltaPublisher.TOPIC_PREFIX + "100";
+
+    private final AccessTokenService accessTokenService = mock(AccessTokenService.class);
+
+    private final TeamTopicAuthorizer authorizer = new TeamTopicAuthorizer();
+
+    private final User user = new User();
+
+    private String startTimestamp;
+
+    @BeforeEach
+    void before() {
+        user.setUserId(10000L);
+        user.setUsername("member");
+        user.setPassword("streampark");
+        user.setUserType(UserTypeEnum.USER);
+        user.setStatus(User.STATUS_VALID);
+
+        UserService userService = mock(UserService.class);
+        when(userService.getByUsername("member")).thenReturn(user);
+        MemberService memberService = mock(MemberService.class);
+        when(memberService.getByTeamIdUserName(100L, "member")).thenReturn(new Member());
+
+        AuthTokenVerifier tokenVerifier = new AuthTokenVerifier();
+        ReflectionTestUtils.setField(tokenVerifier, "userService", userService);
+        ReflectionTestUtils.setField(tokenVerifier, "accessTokenService", accessTokenService);
+        ReflectionTestUtils.setField(authorizer, "tokenVerifier", tokenVerifier);
+        ReflectionTestUtils.setField(authorizer, "memberService", memberService);
+
+        startTimestamp = System.getProperty(START_TIMESTAMP);
+    }
+
+    @AfterEach
+    void after() {
+        if (startTimestamp == null) {
+            System.clearProperty(START_TIMESTAMP);
+        } else {
+            System.setProperty(START_TIMESTAMP, startTimestamp);
+        }
+    }
+
+    @Test
+    void testSignTokenIssuedBeforeTheStart() throws Exception {
+        System.setProperty(START_TIMESTAMP, String.valueOf(System.currentTimeMillis() - 60_000));
+        String token = JWTUtil.sign(user, AuthenticationType.SIGN);
+        assertThat(authorizer.authorize("10000", token, TOPIC)).isTrue();
+        // not the user of the websocket, or not a member of the team
+        assertThat(authorizer.authorize("10001", token, TOPIC)).isFalse();
+        assertThat(authorizer.authorize("10000", token, FlinkAppStateDeltaPublisher.TOPIC_PREFIX + "101"))
+            .isFalse();
+
+        // the console restarted since the token was issued
+        System.setProperty(START_TIMESTAMP, String.valueOf(System.currentTimeMillis() + 60_000));
+        assertThat(authorizer.authorize("10000", token, TOPIC)).isFalse();
+    }
+
+    @Test
+    void testDisabledAccessToken() throws Exception {
+        String token = JWTUtil.sign(user, AuthenticationType.OPENAPI);
+        AccessToken accessToken = new AccessToken();
+        accessToken.setUserId(10000L);
+        accessToken.setToken(token);
+        accessToken.setStatus(AccessToken.STATUS_ENABLE);
+        accessToken.setUserStatus(User.STATUS_VALID);
+        when(accessTokenService.getByUserId(10000L)).thenReturn(accessToken);
+        assertThat(authorizer.authorize("10000", token, TOPIC)).isTrue();
+
+        accessToken.setStatus(AccessToken.STATUS_DISABLE);
+        assertThat(authorizer.authorize("10000", token, TOPIC)).isFalse();
+
+        // a token replaced by a new one
+        accessToken.setStatus(AccessToken.STATUS_ENABLE);
+        accessToken.setToken(JWTUtil.sign(user, AuthenticationType.OPENAPI, System.currentTimeMillis() + 1000));
+        assertThat(authorizer.authorize("10000", token, TOPIC)).isFalse();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.websocket;
+
+import io.undertow.Undertow;
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.websockets.jsr.WebSocketDeploymentInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.ContainerProvider;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Websocket fan-out through an embedded undertow, with a client that never reads its socket. */
+class WebSocketEndpointTest {
+
+    private Undertow server;
+
+    private int port;
+
+    private Socket stuckClient;
+
+    private Session client;
+
+    @BeforeEach
+    void before() throws Exception {
+        DeploymentInfo deployment = Servlets.deployment()
+            .setClassLoader(getClass().getClassLoader())
+            .setContextPath("/")
+            .setDeploymentName("websocket-test")
+            .addServletContextAttribute(
+                WebSocketDeploymentInfo.ATTRIBUTE_NAME,
+                new WebSocketDeploymentInfo()
+                    .setBuffers(new DefaultByteBufferPool(false, 8192))
+                    .addEndpoint(WebSocketEndpoint.class));
+        DeploymentManager manager = Servlets.defaultContainer().addDeployment(deployment);
+        manager.deploy();
+        server = Undertow.builder()
+            .addHttpListener(0, "localhost")
+            .setHandler(manager.start())
+            .build();
+        server.start();
+        port = ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+    }
+
+    @AfterEach
+    void after() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (stuckClient != null) {
+            stuckClient.close();
+        }
+        server.stop();
+    }
+
+    @Test
+    void testStuckClientDoesNotHoldUpOthers() throws Exception {
+        stuckClient = connectWithoutReading("stuck");
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        client = connect("fast", received);
+        awaitConnected("stuck");
+        awaitConnected("fast");
+
+        // far beyond the socket buffers of the stuck client, a blocking write would never return
+        char[] chars = new char[64 * 1024];
+        Arrays.fill(chars, 'x');
+        String payload = new String(chars);
+        int messages = WebSocketEndpoint.QUEUE_CAPACITY * 2;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            WebSocketEndpoint.writeMessage("stuck", payload);
+            WebSocketEndpoint.broadcast("broadcast-" + i);
+        }
+        WebSocketEndpoint.writeMessage("fast", "done");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+
+        // the fast client gets the broadcasts in order, the oldest ones may be dropped if it lags
+        int last = -1;
+        String message;
+        while (!"done".equals(message = received.poll(5, TimeUnit.SECONDS))) {
+            assertThat(message).as("the messages were not received").isNotNull();
+            int index = Integer.parseInt(message.substring("broadcast-".length()));
+            assertThat(index).isGreaterThan(last);
+            last = index;
+        }
+        assertThat(last).isEqualTo(messages - 1);
+    }
+
+    @Test
+    void testSubscriptionNeedsAuthorization() throws Exception {
+        WebSocketEndpoint.setTopicAuthorizer(
+            (socketId, token, topic) -> "member".equals(socketId) && "token".equals(token) && topic.equals("team:1"));
+        try {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            client = connect("member", received);
+            awaitConnected("member");
+
+            client.getBasicRemote().sendText("{\"action\":\"subscribe\",\"topic\":\"team:2\",\"token\":\"token\"}");
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains("subscribe-rejected").contains("team:2");
+            client.getBasicRemote().sendText("{\"action\":\"subscribe\",\"topic\":\"team:1\"}");
+            assertThat(received.poll(5, TimeUnit.SECONDS)).contains("subscribe-rejected").contains("team:1");
+            client.getBasicRemote().sendText("{\"action\":\"subscribe\",\"topic\":\"team:1\",\"token\":\"token\"}");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            String message;
+            do {
+                WebSocketEndpoint.publish("team:2", "team-2");
+                WebSocketEndpoint.publish("team:1", "team-1");
+                message = received.poll(100, TimeUnit.MILLISECONDS);
+                assertThat(System.currentTimeMillis()).as("team:1 is not subscribed").isLessThan(deadline);
+            } while (message == null);
+            assertThat(message).isEqualTo("team-1");
+        } finally {
+            WebSocketEndpoint.setTopicAuthorizer((socketId, token, topic) -> false);
+        }
+    }
+
+    private Session connect(String id, BlockingQueue<String> received) throws Exception {
+        Endpoint endpoint = new Endpoint() {
+
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(String.class, (MessageHandler.Whole<String>) received::add);
+            }
+        };
+        return ContainerProvider.getWebSocketContainer().connectToServer(
+            endpoint,
+            ClientEndpointConfig.Builder.create().build(),
+            URI.create("ws://localhost:" + port + "/websocket/" + id));
+    }
+
+    /** Open a websocket by hand and never read it, so the server writes to it are stuck. */
+    private Socket connectWithoutReading(String id) throws Exception {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(1024);
+        socket.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /websocket/" + id + " HTTP/1.1\r\n"
+            + "Host: localhost:" + port + "\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+            + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        // read the handshake response only
+        InputStream in = socket.getInputStream();
+        StringBuilder response = new StringBuilder();
+        while (response.indexOf("\r\n\r\n") < 0) {
+            int b = in.read();
+            assertThat(b).as("handshake response of %s", id).isNotNegative();
+            response.append((char) b);
+        }
+        assertThat(response.toString()).startsWith("HTTP/1.1 101");
+        return socket;
+    }
+
+    private static void awaitConnected(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!WebSocketEndpoint.isConnected(id)) {
+            assertThat(System.currentTimeMillis()).as("%s is not connected", id).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -18,9 +18,11 @@
 package org.apache.streampark.catalog;
 
 import org.apache.streampark.catalog.connections.JdbcConnectionProvider;
+import org.apache.streampark.catalog.connections.PooledJdbcConnectionProvider;
 
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.flink.shaded.jackson2.com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.flink.table.catalog.AbstractCatalogStore;
 import org.apache.flink.table.catalog.CatalogDescriptor;
 import org.apache.flink.table.catalog.exceptions.CatalogException;
@@ -29,46 +31,92 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
- *  Catalog Store for Jdbc.
+ * Catalog Store for Jdbc.
+ *
+ * <p>The stored catalogs are cached in memory: the whole table is loaded with one query and served
+ * until {@code cacheTtl} expires, the changes made through this store are applied to the cache
+ * immediately, the changes made by other processes are visible once the cache expired. A zero
+ * {@code cacheTtl} disables the cache, every call queries the table.
+ *
+ * <p>A catalog is stored with the upsert of the database, "on duplicate key update" on MySQL and
+ * MariaDB, "on conflict" on PostgreSQL, otherwise an update followed by an insert if the catalog
+ * doesn't exist yet.
+ *
+ * <p>The store is thread safe. The statements run on connections borrowed from the provider: the
+ * ones of a {@link PooledJdbcConnectionProvider} run concurrently, the ones of a provider with a
+ * single connection are serialized on that provider.
  */
 public class JdbcCatalogStore extends AbstractCatalogStore {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcCatalogStore.class);
+
+    private static final TypeReference<Map<String, String>> CONFIGURATION_TYPE =
+        new TypeReference<Map<String, String>>() {
+        };
+
     private final JdbcConnectionProvider jdbcConnectionProvider;
-    private transient Connection connection;
-    private transient Statement statement;
-    private transient ResultSet resultSet;
 
     private final String catalogTableName;
 
+    private final long cacheTtlMillis;
+
+    /** catalog name -> configuration of all the stored catalogs, null if not loaded. */
+    private volatile Map<String, Map<String, String>> cachedCatalogs;
+
+    private volatile long cacheLoadTime;
+
+    /** incremented by every change of the cached catalogs, guarded by cacheLock */
+    private long cacheVersion;
+
+    private final Object cacheLock = new Object();
+
+    /** one load of the catalogs at a time */
+    private final Object loadLock = new Object();
+
+    /** detected on the first store */
+    private volatile UpsertDialect upsertDialect;
+
     public JdbcCatalogStore(JdbcConnectionProvider jdbcConnectionProvider, String catalogTableName) {
+        this(jdbcConnectionProvider, catalogTableName, JdbcCatalogStoreFactoryOptions.CACHE_TTL.defaultValue());
+    }
+
+    public JdbcCatalogStore(
+                            JdbcConnectionProvider jdbcConnectionProvider,
+                            String catalogTableName,
+                            Duration cacheTtl) {
         this.jdbcConnectionProvider = jdbcConnectionProvider;
         this.catalogTableName = catalogTableName;
+        this.cacheTtlMillis = cacheTtl.toMillis();
     }
 
     @Override
     public void open() {
         try {
-            this.connection = jdbcConnectionProvider.getOrEstablishConnection();
-            this.statement = this.connection.createStatement();
+            jdbcConnectionProvider.releaseConnection(jdbcConnectionProvider.borrowConnection());
             super.open();
         } catch (SQLException | ClassNotFoundException e) {
-            throw new RuntimeException(e);
+            throw new CatalogException("Open jdbc catalog store failed!", e);
         }
     }
 
     @Override
     public void close() {
-        closeResultSetAndStatement();
+        invalidateCache();
         try {
             jdbcConnectionProvider.close();
         } catch (Exception e) {
@@ -80,15 +128,11 @@ public class JdbcCatalogStore extends AbstractCatalogStore {
     @Override
     public void storeCatalog(String catalogName, CatalogDescriptor catalogDescriptor) throws CatalogException {
         checkOpenState();
+        Map<String, String> configuration = catalogDescriptor.getConfiguration().toMap();
         try {
-            if (!contains(catalogName)) {
-                statement.executeUpdate(String.format(
-                    "insert into %s (catalog_name,configuration,create_time,update_time) values ('%s','%s',now(),now())",
-                    this.catalogTableName, catalogName,
-                    JacksonUtils.write(catalogDescriptor.getConfiguration().toMap())));
-            } else {
-                LOG.error("catalog {} is exist.", catalogName);
-            }
+            String json = JacksonUtils.write(configuration);
+            execute(connection -> upsert(connection, catalogName, json));
+            updateCache(catalogs -> catalogs.put(catalogName, configuration));
         } catch (SQLException | JsonProcessingException e) {
             throw new CatalogException(String.format("Store catalog %s failed!", catalogName), e);
         }
@@ -97,47 +141,66 @@ public class JdbcCatalogStore extends AbstractCatalogStore {
     @Override
     public void removeCatalog(String catalogName, boolean ignoreIfNotExists) throws CatalogException {
         checkOpenState();
+        int effectRow;
         try {
-            int effectRow = statement.executeUpdate(
-                String.format("delete from %s where catalog_name='%s'", this.catalogTableName, catalogName));
-
-            if (effectRow == 0 && !ignoreIfNotExists) {
-                throw new CatalogException(String.format("Remove catalog %s failed!", catalogName));
-            }
+            effectRow = execute(connection -> {
+                try (
+                    PreparedStatement statement = connection.prepareStatement(
+                        String.format("delete from %s where catalog_name=?", catalogTableName))) {
+                    statement.setString(1, catalogName);
+                    return statement.executeUpdate();
+                }
+            });
+            updateCache(catalogs -> catalogs.remove(catalogName));
         } catch (SQLException e) {
             LOG.error("Remove catalog {} failed!", catalogName, e);
             throw new CatalogException(String.format("Remove catalog %s failed!", catalogName));
         }
+        if (effectRow == 0 && !ignoreIfNotExists) {
+            throw new CatalogException(String.format("Remove catalog %s failed!", catalogName));
+        }
     }
 
     @Override
     public Optional<CatalogDescriptor> getCatalog(String catalogName) throws CatalogException {
         checkOpenState();
         try {
-            resultSet = statement
-                .executeQuery(
-                    String.format("select * from %s where catalog_name='%s'", this.catalogTableName, catalogName));
-            while (resultSet.next()) {
-                return Optional.of(CatalogDescriptor.of(catalogName,
-                    Configuration.fromMap(JacksonUtils.read(resultSet.getString("configuration"), Map.class))));
+            Map<String, String> configuration;
+            if (cacheTtlMillis > 0) {
+                configuration = getCachedCatalogs().get(catalogName);
+            } else {
+                String json = query(
+                    String.format("select configuration from %s where catalog_name=?", catalogTableName),
+                    catalogName);
+                configuration = json == null ? null : JacksonUtils.read(json, CONFIGURATION_TYPE);
             }
+            return Optional.ofNullable(configuration)
+                .map(conf -> CatalogDescriptor.of(catalogName, Configuration.fromMap(conf)));
         } catch (SQLException | JsonProcessingException e) {
             throw new CatalogException(String.format("Get catalog %s failed!", catalogName), e);
         }
-        return Optional.empty();
     }
 
     @Override
     public Set<String> listCatalogs() throws CatalogException {
         checkOpenState();
-        Set<String> catalogs = new HashSet<>();
         try {
-            resultSet = statement.executeQuery(String.format("select * from %s;", this.catalogTableName));
-            while (resultSet.next()) {
-                catalogs.add(resultSet.getString("catalog_name"));
+            if (cacheTtlMillis > 0) {
+                return new HashSet<>(getCachedCatalogs().keySet());
             }
-            return catalogs;
-        } catch (SQLException e) {
+            return execute(connection -> {
+                try (
+                    PreparedStatement statement = connection.prepareStatement(
+                        String.format("select catalog_name from %s", catalogTableName));
+                    ResultSet resultSet = statement.executeQuery()) {
+                    Set<String> catalogs = new HashSet<>();
+                    while (resultSet.next()) {
+                        catalogs.add(resultSet.getString(1));
+                    }
+                    return catalogs;
+                }
+            });
+        } catch (SQLException | JsonProcessingException e) {
             throw new CatalogException("List catalogs failed!", e);
         }
     }
@@ -146,30 +209,220 @@ public class JdbcCatalogStore extends AbstractCatalogStore {
     public boolean contains(String catalogName) throws CatalogException {
         checkOpenState();
         try {
-            resultSet = statement.executeQuery(
-                String.format("select * from %s where catalog_name='%s';", this.catalogTableName, catalogName));
-            while (resultSet.next()) {
-                resultSet.getString("catalog_name");
-                return true;
+            if (cacheTtlMillis > 0) {
+                return getCachedCatalogs().containsKey(catalogName);
             }
-        } catch (SQLException e) {
+            return query(
+                String.format("select catalog_name from %s where catalog_name=?", catalogTableName),
+                catalogName) != null;
+        } catch (SQLException | JsonProcessingException e) {
             throw new CatalogException(String.format("Catalog %s is contains failed!", catalogName), e);
         }
-        return false;
     }
 
-    private void closeResultSetAndStatement() {
-        try {
-            if (resultSet != null && !resultSet.isClosed()) {
-                resultSet.close();
+    /** Drop the cached catalogs, the next lookup loads them again. */
+    public void invalidateCache() {
+        synchronized (cacheLock) {
+            cachedCatalogs = null;
+            cacheVersion++;
+        }
+    }
+
+    private Map<String, Map<String, String>> getCachedCatalogs() throws SQLException, JsonProcessingException {
+        Map<String, Map<String, String>> catalogs = cachedCatalogs;
+        if (catalogs != null && System.currentTimeMillis() - cacheLoadTime < cacheTtlMillis) {
+            return catalogs;
+        }
+        synchronized (loadLock) {
+            if (cachedCatalogs == null || System.currentTimeMillis() - cacheLoadTime >= cacheTtlMillis) {
+                long loadTime = System.currentTimeMillis();
+                long version;
+                synchronized (cacheLock) {
+                    version = cacheVersion;
+                }
+                Map<String, String> rows = execute(connection -> {
+                    try (
+                        PreparedStatement statement = connection.prepareStatement(
+                            String.format("select catalog_name,configuration from %s", catalogTableName));
+                        ResultSet resultSet = statement.executeQuery()) {
+                        Map<String, String> result = new HashMap<>();
+                        while (resultSet.next()) {
+                            result.put(resultSet.getString(1), resultSet.getString(2));
+                        }
+                        return result;
+                    }
+                });
+                Map<String, Map<String, String>> loaded = new HashMap<>(rows.size());
+                for (Map.Entry<String, String> row : rows.entrySet()) {
+                    loaded.put(row.getKey(), JacksonUtils.read(row.getValue(), CONFIGURATION_TYPE));
+                }
+                Map<String, Map<String, String>> result = Collections.unmodifiableMap(loaded);
+                synchronized (cacheLock) {
+                    // a change made during the load may be missing from it, it's served once and loaded again
+                    if (version == cacheVersion) {
+                        cacheLoadTime = loadTime;
+                        cachedCatalogs = result;
+                    }
+                }
+                LOG.debug("Loaded {} catalogs from {}.", loaded.size(), catalogTableName);
+                return result;
             }
-            if (statement != null && !statement.isClosed()) {
-                statement.close();
+            return cachedCatalogs;
+        }
+    }
+
+    /** Apply a change made through this store to the cached catalogs, copy on write. */
+    private void updateCache(Consumer<Map<String, Map<String, String>>> update) {
+        synchronized (cacheLock) {
+            cacheVersion++;
+            Map<String, Map<String, String>> catalogs = cachedCatalogs;
+            if (catalogs != null) {
+                Map<String, Map<String, String>> updated = new HashMap<>(catalogs);
+                update.accept(updated);
+                cachedCatalogs = Collections.unmodifiableMap(updated);
+            }
+        }
+    }
+
+    private int upsert(Connection connection, String catalogName, String json) throws SQLException {
+        UpsertDialect dialect = upsertDialect;
+        if (dialect == null) {
+            dialect = UpsertDialect.of(connection.getMetaData().getDatabaseProductName());
+            upsertDialect = dialect;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (dialect != UpsertDialect.STANDARD) {
+            try (PreparedStatement statement = connection.prepareStatement(dialect.upsertSql(catalogTableName))) {
+                statement.setString(1, catalogName);
+                statement.setString(2, json);
+                statement.setTimestamp(3, now);
+                statement.setTimestamp(4, now);
+                return statement.executeUpdate();
             }
-            resultSet = null;
-            statement = null;
+        }
+        int updated = update(connection, catalogName, json, now);
+        if (updated > 0) {
+            return updated;
+        }
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                String.format(
+                    "insert into %s (catalog_name,configuration,create_time,update_time) values (?,?,?,?)",
+                    catalogTableName))) {
+            statement.setString(1, catalogName);
+            statement.setString(2, json);
+            statement.setTimestamp(3, now);
+            statement.setTimestamp(4, now);
+            return statement.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            // integrity constraint violation: inserted by someone else meanwhile
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                return update(connection, catalogName, json, now);
+            }
+            throw e;
+        }
+    }
+
+    private int update(Connection connection, String catalogName, String json, Timestamp now) throws SQLException {
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                String.format("update %s set configuration=?,update_time=? where catalog_name=?", catalogTableName))) {
+            statement.setString(1, json);
+            statement.setTimestamp(2, now);
+            statement.setString(3, catalogName);
+            return statement.executeUpdate();
+        }
+    }
+
+    /** Query the first column of the first row, null if there is none. */
+    private String query(String sql, String catalogName) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, catalogName);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the statements on a connection borrowed from the provider. The connection isn't validated
+     * upfront, if the statements fail on a broken connection they are retried once on a new one.
+     */
+    private <T> T execute(SqlFunction<T> function) throws SQLException {
+        if (jdbcConnectionProvider instanceof PooledJdbcConnectionProvider) {
+            return doExecute(function);
+        }
+        // the single connection of the provider is shared with the other stores of the provider
+        synchronized (jdbcConnectionProvider) {
+            return doExecute(function);
+        }
+    }
+
+    private <T> T doExecute(SqlFunction<T> function) throws SQLException {
+        try {
+            Connection connection = jdbcConnectionProvider.borrowConnection();
+            try {
+                return function.apply(connection);
+            } catch (SQLException e) {
+                if (jdbcConnectionProvider.isConnectionValid()) {
+                    throw e;
+                }
+                LOG.warn("Jdbc connection of the catalog store is broken, reconnect: {}", e.getMessage());
+            } finally {
+                jdbcConnectionProvider.releaseConnection(connection);
+            }
+            Connection reconnected = jdbcConnectionProvider.reestablishConnection();
+            try {
+                return function.apply(reconnected);
+            } finally {
+                jdbcConnectionProvider.releaseConnection(reconnected);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private enum UpsertDialect {
+
+        MYSQL(
+            "insert into %s (catalog_name,configuration,create_time,update_time) values (?,?,?,?) "
+                + "on duplicate key update configuration=values(configuration),update_time=values(update_time)"),
+
+        POSTGRESQL(
+            "insert into %s (catalog_name,configuration,create_time,update_time) values (?,?,?,?) "
+                + "on conflict (catalog_name) do update "
+                + "set configuration=excluded.configuration,update_time=excluded.update_time"),
+
+        /** update, then insert if there was nothing to update */
+        STANDARD(null);
+
+        private final String upsertSql;
+
+        UpsertDialect(String upsertSql) {
+            this.upsertSql = upsertSql;
+        }
+
+        private String upsertSql(String tableName) {
+            return String.format(upsertSql, tableName);
+        }
+
+        private static UpsertDialect of(String databaseProductName) {
+            String product = databaseProductName == null ? "" : databaseProductName.toLowerCase(Locale.ROOT);
+            if (product.contains("mysql") || product.contains("mariadb")) {
+                return MYSQL;
+            }
+            if (product.contains("postgresql")) {
+                return POSTGRESQL;
+            }
+            return STANDARD;
         }
     }
 }
@@ -19,7 +19,7 @@ package org.apache.streampark.catalog;
 
 import org.apache.streampark.catalog.connections.JdbcConnectionOptions;
 import org.apache.streampark.catalog.connections.JdbcConnectionProvider;
-import org.apache.streampark.catalog.connections.SimpleJdbcConnectionProvider;
+import org.apache.streampark.catalog.connections.PooledJdbcConnectionProvider;
 
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ReadableConfig;
@@ -27,11 +27,14 @@ import org.apache.flink.table.catalog.CatalogStore;
 import org.apache.flink.table.factories.CatalogStoreFactory;
 import org.apache.flink.table.factories.FactoryUtil;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 import static org.apache.flink.table.factories.FactoryUtil.createCatalogStoreFactoryHelper;
+import static org.apache.streampark.catalog.JdbcCatalogStoreFactoryOptions.CACHE_TTL;
+import static org.apache.streampark.catalog.JdbcCatalogStoreFactoryOptions.CONNECTION_POOL_SIZE;
 import static org.apache.streampark.catalog.JdbcCatalogStoreFactoryOptions.DRIVER;
 import static org.apache.streampark.catalog.JdbcCatalogStoreFactoryOptions.IDENTIFIER;
 import static org.apache.streampark.catalog.JdbcCatalogStoreFactoryOptions.MAX_RETRY_TIMEOUT;
@@ -45,10 +48,11 @@ public class JdbcCatalogStoreFactory implements CatalogStoreFactory {
 
     private JdbcConnectionProvider jdbcConnectionProvider;
     private transient String catalogTableName;
+    private transient Duration cacheTtl;
 
     @Override
     public CatalogStore createCatalogStore() {
-        return new JdbcCatalogStore(jdbcConnectionProvider, this.catalogTableName);
+        return new JdbcCatalogStore(jdbcConnectionProvider, this.catalogTableName, this.cacheTtl);
     }
 
     @Override
@@ -68,7 +72,9 @@ public class JdbcCatalogStoreFactory implements CatalogStoreFactory {
                 .build();
 
         this.catalogTableName = options.get(TABLE_NAME);
-        this.jdbcConnectionProvider = new SimpleJdbcConnectionProvider(jdbcConnectionOptions);
+        this.cacheTtl = options.get(CACHE_TTL);
+        this.jdbcConnectionProvider =
+            new PooledJdbcConnectionProvider(jdbcConnectionOptions, options.get(CONNECTION_POOL_SIZE));
     }
 
     @Override
@@ -96,6 +102,8 @@ public class JdbcCatalogStoreFactory implements CatalogStoreFactory {
     public Set<ConfigOption<?>> optionalOptions() {
         Set<ConfigOption<?>> options = new HashSet<>();
         options.add(MAX_RETRY_TIMEOUT);
+        options.add(CACHE_TTL);
+        options.add(CONNECTION_POOL_SIZE);
         return Collections.unmodifiableSet(options);
     }
 }
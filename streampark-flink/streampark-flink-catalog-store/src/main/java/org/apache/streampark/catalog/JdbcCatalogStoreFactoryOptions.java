@@ -20,6 +20,8 @@ package org.apache.streampark.catalog;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 
+import java.time.Duration;
+
 /**
  *  Catalog Store Options for Jdbc.
  */
@@ -66,6 +68,20 @@ public class JdbcCatalogStoreFactoryOptions {
             .withDescription(
                 "Maximum timeout between retries. The timeout should be in second granularity and shouldn't be smaller than 1 second.");
 
+    public static final ConfigOption<Duration> CACHE_TTL =
+        ConfigOptions.key("cache-ttl")
+            .durationType()
+            .defaultValue(Duration.ofSeconds(10))
+            .withDescription(
+                "How long the stored catalogs are cached in memory before they are loaded again, the changes made by other processes are visible after this delay. 0 disables the cache.");
+
+    public static final ConfigOption<Integer> CONNECTION_POOL_SIZE =
+        ConfigOptions.key("connection-pool-size")
+            .intType()
+            .defaultValue(4)
+            .withDescription(
+                "Maximum number of connections of the pool, which is shared by the catalog stores of the same url and user in the JVM.");
+
     private JdbcCatalogStoreFactoryOptions() {
     }
 }
@@ -79,6 +79,29 @@ public interface JdbcConnectionProvider extends Serializable, AutoCloseable {
      */
     Connection reestablishConnection() throws SQLException, ClassNotFoundException;
 
+    /**
+     * Get a connection for one unit of work, it must be given back with {@link
+     * #releaseConnection(Connection)}. By default it's the existing connection, which is established
+     * if there is none.
+     *
+     * @return connection to run the statements on
+     * @throws SQLException sql exception
+     * @throws ClassNotFoundException driver class not found
+     */
+    default Connection borrowConnection() throws SQLException, ClassNotFoundException {
+        Connection connection = getConnection();
+        return connection != null ? connection : getOrEstablishConnection();
+    }
+
+    /**
+     * Give back a connection got from {@link #borrowConnection()}. By default the connection is kept
+     * open for the next unit of work.
+     *
+     * @param connection borrowed connection
+     */
+    default void releaseConnection(Connection connection) {
+    }
+
     default void close() throws Exception {
         closeConnection();
     }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.catalog.connections;
+
+import org.apache.streampark.common.util.HikariConnectionPools;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.util.Preconditions;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * JDBC connection provider backed by a pool of {@link HikariConnectionPools}, shared by the
+ * providers of the same url and user in the JVM.
+ *
+ * <p>The provider joins the pool on its first connection and leaves it on {@link
+ * #closeConnection()}. The connections got from {@link #borrowConnection()} and {@link
+ * #getOrEstablishConnection()} belong to the caller and are returned to the pool when closed.
+ */
+@ThreadSafe
+@PublicEvolving
+public class PooledJdbcConnectionProvider implements JdbcConnectionProvider {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledJdbcConnectionProvider.class);
+
+    private static final long serialVersionUID = 1L;
+
+    private final JdbcConnectionOptions jdbcOptions;
+
+    private final int maximumPoolSize;
+
+    private transient HikariConnectionPools.Pool pool;
+
+    public PooledJdbcConnectionProvider(JdbcConnectionOptions jdbcOptions, int maximumPoolSize) {
+        Preconditions.checkArgument(maximumPoolSize > 0, "Maximum pool size should be positive");
+        this.jdbcOptions = jdbcOptions;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /** A pool has no single existing connection, use {@link #borrowConnection()}. */
+    @Nullable
+    @Override
+    public Connection getConnection() {
+        return null;
+    }
+
+    @Nonnull
+    @Override
+    public Properties getProperties() {
+        return jdbcOptions.getProperties();
+    }
+
+    /** The connections are validated by the pool when they are borrowed. */
+    @Override
+    public synchronized boolean isConnectionValid() {
+        return pool != null && !pool.isClosed();
+    }
+
+    @Override
+    public Connection getOrEstablishConnection() throws SQLException {
+        return borrowConnection();
+    }
+
+    @Override
+    public Connection borrowConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    @Override
+    public void releaseConnection(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.warn("JDBC connection release failed.", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void closeConnection() {
+        if (pool != null) {
+            HikariConnectionPools.metrics(pool.getKey())
+                .ifPresent(metrics -> LOG.info("Release jdbc connection pool, {}", metrics));
+            if (HikariConnectionPools.release(pool.getKey())) {
+                LOG.info("Close jdbc connection pool of {}, no more users.", pool.getKey());
+            }
+            pool = null;
+        }
+    }
+
+    @Override
+    public Connection reestablishConnection() throws SQLException {
+        return borrowConnection();
+    }
+
+    private synchronized HikariConnectionPools.Pool getPool() {
+        if (pool == null) {
+            String key = jdbcOptions.getUsername().orElse("") + "@" + jdbcOptions.getDbURL();
+            pool = HikariConnectionPools.retain(key, () -> {
+                LOG.info("Create jdbc connection pool of {}.", key);
+                return hikariConfig();
+            });
+        }
+        return pool;
+    }
+
+    private HikariConfig hikariConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcOptions.getDbURL());
+        if (jdbcOptions.getDriverName() != null) {
+            config.setDriverClassName(jdbcOptions.getDriverName());
+        }
+        jdbcOptions.getUsername().ifPresent(config::setUsername);
+        jdbcOptions.getPassword().ifPresent(config::setPassword);
+        Properties properties = jdbcOptions.getProperties();
+        properties.stringPropertyNames().stream()
+            .filter(name -> !JdbcConnectionOptions.USER_KEY.equals(name))
+            .filter(name -> !JdbcConnectionOptions.PASSWORD_KEY.equals(name))
+            .forEach(name -> config.addDataSourceProperty(name, properties.getProperty(name)));
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(1);
+        config.setPoolName("streampark-catalog-store");
+        return config;
+    }
+}
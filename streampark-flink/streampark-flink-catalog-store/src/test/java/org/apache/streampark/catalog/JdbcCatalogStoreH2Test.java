@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.catalog;
+
+import org.apache.streampark.catalog.connections.JdbcConnectionOptions;
+import org.apache.streampark.catalog.connections.PooledJdbcConnectionProvider;
+import org.apache.streampark.catalog.connections.SimpleJdbcConnectionProvider;
+import org.apache.streampark.common.util.HikariConnectionPools;
+
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.table.catalog.CatalogDescriptor;
+import org.apache.flink.table.catalog.CommonCatalogOptions;
+import org.apache.flink.table.catalog.GenericInMemoryCatalogFactoryOptions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests of {@link JdbcCatalogStore} against an embedded H2 database in MySQL mode. */
+public class JdbcCatalogStoreH2Test {
+
+    private static final String URL = "jdbc:h2:mem:catalog_store;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String TABLE = "t_h2_catalog";
+
+    private final List<JdbcCatalogStore> stores = new ArrayList<>();
+
+    @org.junit.Before
+    public void createTable() throws SQLException {
+        try (
+            Connection connection = DriverManager.getConnection(URL, "sa", "");
+            Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + TABLE);
+            statement.execute("create table " + TABLE + " ("
+                + "`id` bigint NOT NULL AUTO_INCREMENT,"
+                + "`catalog_name` varchar(255) NOT NULL,"
+                + "`configuration` text,"
+                + "`create_time` datetime DEFAULT NULL,"
+                + "`update_time` datetime DEFAULT NULL,"
+                + "PRIMARY KEY (`id`),"
+                + "UNIQUE INDEX `uniq_h2_catalog_name` (`catalog_name`))");
+        }
+    }
+
+    @org.junit.After
+    public void closeStores() {
+        stores.forEach(JdbcCatalogStore::close);
+        stores.clear();
+    }
+
+    @org.junit.Test
+    public void testStoreAndGet() {
+        JdbcCatalogStore catalogStore = openCatalogStore(Duration.ofHours(1));
+
+        assertThat(catalogStore.getCatalog("c1").isPresent()).isFalse();
+        catalogStore.storeCatalog("c1", catalog("db1"));
+        catalogStore.storeCatalog("c2", catalog("db2"));
+
+        assertThat(catalogStore.listCatalogs()).containsExactlyInAnyOrder("c1", "c2");
+        assertThat(catalogStore.contains("c1")).isTrue();
+        assertThat(defaultDatabase(catalogStore, "c2")).isEqualTo("db2");
+
+        catalogStore.removeCatalog("c1", false);
+        assertThat(catalogStore.contains("c1")).isFalse();
+        assertThat(catalogStore.listCatalogs()).containsExactlyInAnyOrder("c2");
+    }
+
+    @org.junit.Test
+    public void testStoreExistingCatalogUpserts() throws SQLException {
+        JdbcCatalogStore catalogStore = openCatalogStore(Duration.ZERO);
+
+        catalogStore.storeCatalog("c1", catalog("db1"));
+        catalogStore.storeCatalog("c1", catalog("db2"));
+
+        assertThat(defaultDatabase(catalogStore, "c1")).isEqualTo("db2");
+        assertThat(countRows()).isEqualTo(1);
+    }
+
+    @org.junit.Test
+    public void testCachedCatalogsExpire() throws InterruptedException {
+        JdbcCatalogStore cached = openCatalogStore(Duration.ofMillis(500));
+        JdbcCatalogStore uncached = openCatalogStore(Duration.ZERO);
+
+        assertThat(cached.listCatalogs()).isEmpty();
+        uncached.storeCatalog("c1", catalog("db1"));
+
+        // changes of other stores are only visible once the cache expired
+        assertThat(uncached.contains("c1")).isTrue();
+        assertThat(cached.contains("c1")).isFalse();
+        Thread.sleep(600);
+        assertThat(cached.contains("c1")).isTrue();
+
+        uncached.removeCatalog("c1", false);
+        assertThat(cached.contains("c1")).isTrue();
+        cached.invalidateCache();
+        assertThat(cached.contains("c1")).isFalse();
+    }
+
+    @org.junit.Test
+    public void testConcurrentAccess() throws Exception {
+        JdbcCatalogStore catalogStore = openCatalogStore(Duration.ofMillis(10));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String name = "c" + i;
+                futures.add(executor.submit(() -> {
+                    catalogStore.storeCatalog(name, catalog(name));
+                    assertThat(catalogStore.contains(name)).isTrue();
+                    assertThat(catalogStore.listCatalogs()).contains(name);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(catalogStore.listCatalogs().size()).isEqualTo(64);
+        assertThat(defaultDatabase(catalogStore, "c42")).isEqualTo("c42");
+    }
+
+    @org.junit.Test
+    public void testConcurrentUpsertsOfOneCatalog() throws Exception {
+        JdbcCatalogStore catalogStore = openCatalogStore(
+            new JdbcCatalogStore(new PooledJdbcConnectionProvider(connectionOptions(), 4), TABLE, Duration.ZERO));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String database = "db" + i;
+                futures.add(executor.submit(() -> catalogStore.storeCatalog("c1", catalog(database))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(countRows()).isEqualTo(1);
+        assertThat(defaultDatabase(catalogStore, "c1")).startsWith("db");
+    }
+
+    @org.junit.Test
+    public void testPooledStoresShareOnePool() {
+        JdbcCatalogStore first = openPooledCatalogStore();
+        JdbcCatalogStore second = openPooledCatalogStore();
+
+        first.storeCatalog("c1", catalog("db1"));
+        assertThat(second.contains("c1")).isTrue();
+        assertThat(HikariConnectionPools.metrics()).hasSize(1);
+        assertThat(HikariConnectionPools.metrics().get(0).getReferences()).isEqualTo(2);
+        assertThat(HikariConnectionPools.metrics().get(0).getActive()).isZero();
+
+        first.close();
+        assertThat(HikariConnectionPools.metrics()).hasSize(1);
+        second.close();
+        assertThat(HikariConnectionPools.metrics()).isEmpty();
+    }
+
+    private JdbcCatalogStore openCatalogStore(Duration cacheTtl) {
+        return openCatalogStore(new JdbcCatalogStore(new SimpleJdbcConnectionProvider(connectionOptions()), TABLE, cacheTtl));
+    }
+
+    private JdbcCatalogStore openPooledCatalogStore() {
+        return openCatalogStore(
+            new JdbcCatalogStore(new PooledJdbcConnectionProvider(connectionOptions(), 2), TABLE, Duration.ZERO));
+    }
+
+    private JdbcCatalogStore openCatalogStore(JdbcCatalogStore catalogStore) {
+        catalogStore.open();
+        stores.add(catalogStore);
+        return catalogStore;
+    }
+
+    private static JdbcConnectionOptions connectionOptions() {
+        return new JdbcConnectionOptions.JdbcConnectionOptionsBuilder()
+            .withUrl(URL)
+            .withDriverName("org.h2.Driver")
+            .withUsername("sa")
+            .withPassword("")
+            .build();
+    }
+
+    private static CatalogDescriptor catalog(String defaultDatabase) {
+        Configuration conf = new Configuration();
+        conf.set(CommonCatalogOptions.CATALOG_TYPE, "dummy");
+        conf.set(GenericInMemoryCatalogFactoryOptions.DEFAULT_DATABASE, defaultDatabase);
+        return CatalogDescriptor.of("dummy", conf);
+    }
+
+    private static String defaultDatabase(JdbcCatalogStore catalogStore, String catalogName) {
+        return catalogStore.getCatalog(catalogName)
+            .map(descriptor -> descriptor.getConfiguration().get(GenericInMemoryCatalogFactoryOptions.DEFAULT_DATABASE))
+            .orElse(null);
+    }
+
+    private static int countRows() throws SQLException {
+        try (
+            Connection connection = DriverManager.getConnection(URL, "sa", "");
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select count(*) from " + TABLE)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
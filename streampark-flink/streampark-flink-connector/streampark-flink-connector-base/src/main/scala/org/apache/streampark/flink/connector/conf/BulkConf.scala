@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.conf
+
+import java.util.Properties
+
+/**
+ * Bulk settings of a sink, read from the properties under the prefix of the sink, e.g.
+ * `es.sink.bulk.flush.max.actions`.
+ *
+ *   - a bulk is flushed once it has `bulk.flush.max.actions` requests or `bulk.flush.max.size.mb`
+ *     MB, every `bulk.flush.interval.ms` if set, and on every checkpoint.
+ *   - a bulk that failed as a whole is retried `bulk.flush.backoff.retries` times, the delay
+ *     between them starts from `bulk.flush.backoff.delay` ms.
+ *   - the items rejected by the server are added again to the next bulk, up to
+ *     `bulk.rejected.retries` times, negative for no limit.
+ */
+case class BulkConf(prefixStr: String, parameters: Properties) {
+
+  @transient private val option: BulkConfigOption = BulkConfigOption(prefixStr, parameters)
+
+  val maxActions: Int = option.maxActions.get()
+  val maxSizeMb: Int = option.maxSizeMb.get()
+  val flushInterval: Long = option.flushInterval.get()
+  val backoffEnable: Boolean = option.backoffEnable.get()
+  val backoffType: String = option.backoffType.get().toUpperCase
+  val backoffRetries: Int = option.backoffRetries.get()
+  val backoffDelay: Long = option.backoffDelay.get()
+  val rejectedRetries: Int = option.rejectedRetries.get()
+
+  /** @return the settings with the keys of the flink elasticsearch sinks */
+  def toUserConfig: java.util.Map[String, String] = {
+    val config = new java.util.HashMap[String, String]()
+    config.put("bulk.flush.max.actions", maxActions.toString)
+    config.put("bulk.flush.max.size.mb", maxSizeMb.toString)
+    if (flushInterval > 0) {
+      config.put("bulk.flush.interval.ms", flushInterval.toString)
+    }
+    config.put("bulk.flush.backoff.enable", backoffEnable.toString)
+    config.put("bulk.flush.backoff.type", backoffType)
+    config.put("bulk.flush.backoff.retries", backoffRetries.toString)
+    config.put("bulk.flush.backoff.delay", backoffDelay.toString)
+    config
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.streampark.flink.connector.conf
+
+import org.apache.streampark.common.conf.ConfigOption
+
+import java.util.Properties
+
+object BulkConfigOption {
+  def apply(prefixStr: String, properties: Properties = new Properties): BulkConfigOption =
+    new BulkConfigOption(prefixStr, properties)
+}
+
+/** Options of the sinks writing bulk requests, the keys are the ones of the flink elasticsearch sinks. */
+class BulkConfigOption(prefixStr: String, properties: Properties) {
+
+  implicit val (prefix, prop) = (prefixStr, properties)
+
+  val maxActions: ConfigOption[Int] = ConfigOption(
+    key = "bulk.flush.max.actions",
+    required = false,
+    defaultValue = 1000,
+    classType = classOf[Int])
+
+  val maxSizeMb: ConfigOption[Int] = ConfigOption(
+    key = "bulk.flush.max.size.mb",
+    required = false,
+    defaultValue = 5,
+    classType = classOf[Int])
+
+  val flushInterval: ConfigOption[Long] = ConfigOption(
+    key = "bulk.flush.interval.ms",
+    required = false,
+    defaultValue = -1L,
+    classType = classOf[Long])
+
+  val backoffEnable: ConfigOption[Boolean] = ConfigOption(
+    key = "bulk.flush.backoff.enable",
+    required = false,
+    defaultValue = true,
+    classType = classOf[Boolean])
+
+  val backoffType: ConfigOption[String] = ConfigOption(
+    key = "bulk.flush.backoff.type",
+    required = false,
+    defaultValue = "EXPONENTIAL",
+    classType = classOf[String])
+
+  val backoffRetries: ConfigOption[Int] = ConfigOption(
+    key = "bulk.flush.backoff.retries",
+    required = false,
+    defaultValue = 3,
+    classType = classOf[Int])
+
+  val backoffDelay: ConfigOption[Long] = ConfigOption(
+    key = "bulk.flush.backoff.delay",
+    required = false,
+    defaultValue = 100L,
+    classType = classOf[Long])
+
+  val rejectedRetries: ConfigOption[Int] = ConfigOption(
+    key = "bulk.rejected.retries",
+    required = false,
+    defaultValue = 3,
+    classType = classOf[Int])
+
+}
@@ -39,6 +39,8 @@ class FailoverWriter(failoverStorage: FailoverStorageType, properties: Propertie
 
   private var kafkaProducer: KafkaProducer[String, String] = _
 
+  private var retainedPool = false
+
   def write(request: SinkRequest): Unit = {
     this.synchronized {
       val table = request.table.split("\\.").last
@@ -101,14 +103,19 @@ class FailoverWriter(failoverStorage: FailoverStorageType, properties: Propertie
               if (!Lock.initialized) {
                 Lock.initialized = true
                 properties.put(KEY_ALIAS, s"failover-$table")
+                JdbcConnectionPools.retain(properties)
+                retainedPool = true
                 val mysqlConnect = JdbcUtils.getConnection(properties)
                 val mysqlTable =
                   mysqlConnect.getMetaData.getTables(null, null, table, Array("TABLE", "VIEW"))
                 if (!mysqlTable.next()) {
+                  // closes the connection
                   JdbcUtils.execute(
                     mysqlConnect,
                     s"create table $table (`values` text, `timestamp` bigint)")
                   logWarn(s"Failover storageType:MySQL,table: $table is not exist,auto created...")
+                } else {
+                  JdbcUtils.close(mysqlTable, mysqlConnect)
                 }
               }
             } catch {
@@ -142,6 +149,10 @@ class FailoverWriter(failoverStorage: FailoverStorageType, properties: Propertie
 
   override def close(): Unit = {
     if (kafkaProducer != null) kafkaProducer.close()
+    if (retainedPool) {
+      retainedPool = false
+      JdbcConnectionPools.release(properties)
+    }
   }
 
 }
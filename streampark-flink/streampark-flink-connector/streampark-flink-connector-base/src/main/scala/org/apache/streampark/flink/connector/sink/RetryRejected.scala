@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.sink
+
+import org.apache.streampark.common.util.Logger
+
+import java.util
+
+/**
+ * Retry the bulk items rejected by the server because its write queue is full, i.e. answered with
+ * 429, the other failures fail the sink. Only the rejected items are added again, to the next bulk,
+ * the items of the bulk that succeeded are not written twice.
+ *
+ * This is the logic of the failure handlers of the elasticsearch sinks, each client version only
+ * tells how it reports a rejection.
+ *
+ * @param maxRetries
+ *   retries of a rejected item, negative for no limit
+ * @param rejected
+ *   whether an exception of the cause chain of a failure is a rejection
+ * @tparam R
+ *   type of the bulk items
+ */
+class RetryRejected[R <: AnyRef](maxRetries: Int, rejected: Throwable => Boolean)
+  extends Serializable
+  with Logger {
+
+  /** retries of the rejected items, an item is forgotten once it's written */
+  @transient private[this] lazy val retries = new util.WeakHashMap[R, Integer]()
+
+  /**
+   * Hand the item to `retry` if it was rejected and can be retried again.
+   *
+   * @throws Throwable
+   *   the failure, if it's not a rejection or the item was retried `maxRetries` times already
+   */
+  def onFailure(item: R, failure: Throwable, restStatusCode: Int)(retry: R => Unit): Unit = {
+    if (!isRejected(failure, restStatusCode)) {
+      throw failure
+    }
+    val retried = retries.synchronized {
+      val n = Option(retries.get(item)).map(_.intValue()).getOrElse(0)
+      retries.put(item, n + 1)
+      n
+    }
+    if (maxRetries >= 0 && retried >= maxRetries) {
+      logError(s"bulk item was rejected $retried times, give up: $item")
+      throw failure
+    }
+    retry(item)
+  }
+
+  private[this] def isRejected(failure: Throwable, restStatusCode: Int): Boolean = {
+    restStatusCode == RetryRejected.TOO_MANY_REQUESTS || Iterator
+      .iterate(failure)(_.getCause)
+      .takeWhile(_ != null)
+      .take(10)
+      .exists(rejected)
+  }
+}
+
+object RetryRejected {
+
+  val TOO_MANY_REQUESTS = 429
+
+}
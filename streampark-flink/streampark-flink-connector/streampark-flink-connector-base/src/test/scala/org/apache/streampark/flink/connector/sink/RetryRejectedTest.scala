@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.sink
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import scala.collection.mutable
+
+class RetryRejectedTest {
+
+  private class RejectedException extends RuntimeException("queue is full")
+
+  private val rejected: Throwable => Boolean = _.isInstanceOf[RejectedException]
+
+  @Test
+  def retryRejectedItemsThenGiveUp(): Unit = {
+    val handler = new RetryRejected[String](2, rejected)
+    val indexer = mutable.Buffer[String]()
+    val failure = new RejectedException
+
+    handler.onFailure("a", failure, -1)(indexer += _)
+    handler.onFailure("b", failure, -1)(indexer += _)
+    handler.onFailure("a", failure, -1)(indexer += _)
+    Assertions.assertEquals(List("a", "b", "a"), indexer.toList)
+
+    // the third rejection of the same item fails the sink
+    val thrown = Assertions.assertThrows(classOf[RejectedException], () => handler.onFailure("a", failure, -1)(indexer += _))
+    Assertions.assertSame(failure, thrown)
+    Assertions.assertEquals(List("a", "b", "a"), indexer.toList)
+
+    // the retries are counted per item
+    handler.onFailure("b", failure, -1)(indexer += _)
+    Assertions.assertEquals(List("a", "b", "a", "b"), indexer.toList)
+  }
+
+  @Test
+  def retryWithoutLimit(): Unit = {
+    val handler = new RetryRejected[String](-1, rejected)
+    val indexer = mutable.Buffer[String]()
+    (1 to 100).foreach(_ => handler.onFailure("a", new RejectedException, -1)(indexer += _))
+    Assertions.assertEquals(100, indexer.size)
+  }
+
+  @Test
+  def failOnOtherFailures(): Unit = {
+    val handler = new RetryRejected[String](3, rejected)
+    val indexer = mutable.Buffer[String]()
+    val failure = new IllegalStateException("mapping error")
+
+    val thrown = Assertions.assertThrows(classOf[IllegalStateException], () => handler.onFailure("a", failure, 400)(indexer += _))
+    Assertions.assertSame(failure, thrown)
+    Assertions.assertTrue(indexer.isEmpty)
+  }
+
+  @Test
+  def detectRejections(): Unit = {
+    val handler = new RetryRejected[String](3, rejected)
+    val indexer = mutable.Buffer[String]()
+
+    // by the status code of the item
+    handler.onFailure("status", new IllegalStateException("rejected"), RetryRejected.TOO_MANY_REQUESTS)(indexer += _)
+    // by a cause of the failure
+    handler.onFailure("cause", new RuntimeException("bulk failed", new RejectedException), -1)(indexer += _)
+    Assertions.assertEquals(List("status", "cause"), indexer.toList)
+  }
+
+}
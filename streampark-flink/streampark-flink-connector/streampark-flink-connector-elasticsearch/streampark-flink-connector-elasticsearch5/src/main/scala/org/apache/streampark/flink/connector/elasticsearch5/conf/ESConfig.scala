@@ -17,6 +17,8 @@
 
 package org.apache.streampark.flink.connector.elasticsearch5.conf
 
+import org.apache.streampark.flink.connector.conf.BulkConf
+
 import java.net.InetSocketAddress
 import java.util.Properties
 
@@ -26,6 +28,8 @@ class ESConfig(parameters: Properties) extends Serializable {
 
   val disableFlushOnCheckpoint: Boolean = sinkOption.disableFlushOnCheckpoint.get()
 
+  val bulk: BulkConf = BulkConf(ESSinkConfigOption.ES_SINK_PREFIX, parameters)
+
   val host: List[InetSocketAddress] = sinkOption.host.get().toList
 
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.elasticsearch5.internal
+
+import org.apache.streampark.flink.connector.sink.RetryRejected
+
+import org.apache.flink.streaming.connectors.elasticsearch.{ActionRequestFailureHandler, RequestIndexer}
+import org.elasticsearch.ElasticsearchException
+import org.elasticsearch.action.ActionRequest
+import org.elasticsearch.action.delete.DeleteRequest
+import org.elasticsearch.action.index.IndexRequest
+import org.elasticsearch.action.update.UpdateRequest
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException
+import org.elasticsearch.rest.RestStatus
+
+/**
+ * Retry the bulk items rejected by elasticsearch because its write queue is full, the other
+ * failures fail the sink, see [[RetryRejected]].
+ *
+ * @param maxRetries
+ *   retries of a rejected item, negative for no limit
+ */
+class RetryRejectedFailureHandler(maxRetries: Int) extends ActionRequestFailureHandler {
+
+  private[this] val retryRejected =
+    new RetryRejected[ActionRequest](maxRetries, RetryRejectedFailureHandler.isRejected)
+
+  override def onFailure(
+      action: ActionRequest,
+      failure: Throwable,
+      restStatusCode: Int,
+      indexer: RequestIndexer): Unit = {
+    retryRejected.onFailure(action, failure, restStatusCode) {
+      case indexRequest: IndexRequest => indexer.add(indexRequest)
+      case deleteRequest: DeleteRequest => indexer.add(deleteRequest)
+      case updateRequest: UpdateRequest => indexer.add(updateRequest)
+      case other => indexer.add(other)
+    }
+  }
+}
+
+object RetryRejectedFailureHandler {
+
+  /** the rejections reported by the elasticsearch 5 client */
+  def isRejected(failure: Throwable): Boolean = failure match {
+    case _: EsRejectedExecutionException => true
+    case e: ElasticsearchException => e.status() == RestStatus.TOO_MANY_REQUESTS
+    case _ => false
+  }
+
+}
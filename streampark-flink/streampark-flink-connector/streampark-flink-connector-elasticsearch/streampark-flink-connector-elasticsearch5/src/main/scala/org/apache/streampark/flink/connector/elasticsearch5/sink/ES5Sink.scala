@@ -19,7 +19,7 @@ package org.apache.streampark.flink.connector.elasticsearch5.sink
 
 import org.apache.streampark.common.util.{Logger, Utils}
 import org.apache.streampark.flink.connector.elasticsearch5.conf.ESConfig
-import org.apache.streampark.flink.connector.elasticsearch5.internal.ESSinkFunction
+import org.apache.streampark.flink.connector.elasticsearch5.internal.{ESSinkFunction, RetryRejectedFailureHandler}
 import org.apache.streampark.flink.connector.function.TransformFunction
 import org.apache.streampark.flink.connector.sink.Sink
 import org.apache.streampark.flink.core.scala.StreamingContext
@@ -27,7 +27,6 @@ import org.apache.streampark.flink.core.scala.StreamingContext
 import org.apache.flink.streaming.api.datastream.{DataStream => JavaDataStream, DataStreamSink}
 import org.apache.flink.streaming.api.scala.DataStream
 import org.apache.flink.streaming.connectors.elasticsearch.ActionRequestFailureHandler
-import org.apache.flink.streaming.connectors.elasticsearch.util.RetryRejectedExecutionFailureHandler
 import org.apache.flink.streaming.connectors.elasticsearch5.ElasticsearchSink
 import org.elasticsearch.action.ActionRequest
 
@@ -79,7 +78,11 @@ class ES5Sink(
     require(stream != null, () => sinkNullHintMsg)
     require(f != null, () => functionNullHintMsg)
     val esSink: ElasticsearchSink[T] =
-      new ElasticsearchSink(userConfig, config.host, new ESSinkFunction(f), failureHandler)
+      new ElasticsearchSink(
+        bulkConfig(userConfig),
+        config.host,
+        new ESSinkFunction(f),
+        failureHandler)
     if (config.disableFlushOnCheckpoint) {
       esSink.disableFlushOnCheckpoint()
     }
@@ -95,7 +98,11 @@ class ES5Sink(
     require(stream != null, () => sinkNullHintMsg)
     require(f != null, () => functionNullHintMsg)
     val esSink: ElasticsearchSink[T] =
-      new ElasticsearchSink(userConfig, config.host, new ESSinkFunction(f), failureHandler)
+      new ElasticsearchSink(
+        bulkConfig(userConfig),
+        config.host,
+        new ESSinkFunction(f),
+        failureHandler)
     if (config.disableFlushOnCheckpoint) {
       esSink.disableFlushOnCheckpoint()
     }
@@ -103,6 +110,15 @@ class ES5Sink(
     afterSink(sink, parallelism, name, uid)
   }
 
+  /** the bulk settings of the properties, overridden by the ones of the user config */
+  private def bulkConfig(userConfig: JavaMap[String, String]): JavaMap[String, String] = {
+    val bulkConfig = config.bulk.toUserConfig
+    if (userConfig != null) {
+      bulkConfig.putAll(userConfig)
+    }
+    bulkConfig
+  }
+
   /**
    * @param stream
    * @param suffix
@@ -115,7 +131,8 @@ class ES5Sink(
   def sink[T](
       userConfig: JavaMap[String, String],
       stream: DataStream[T],
-      failureHandler: ActionRequestFailureHandler = new RetryRejectedExecutionFailureHandler)(
+      failureHandler: ActionRequestFailureHandler =
+        new RetryRejectedFailureHandler(config.bulk.rejectedRetries))(
       implicit f: T => ActionRequest): DataStreamSink[T] = {
     process(userConfig, stream, failureHandler, f)
   }
@@ -132,6 +149,6 @@ class ES5Sink(
       userConfig: JavaMap[String, String],
       stream: JavaDataStream[T],
       f: TransformFunction[T, ActionRequest]): DataStreamSink[T] = {
-    process(userConfig, stream, new RetryRejectedExecutionFailureHandler, f)
+    process(userConfig, stream, new RetryRejectedFailureHandler(config.bulk.rejectedRetries), f)
   }
 }
@@ -17,6 +17,8 @@
 
 package org.apache.streampark.flink.connector.elasticsearch6.conf
 
+import org.apache.streampark.flink.connector.conf.BulkConf
+
 import org.apache.http.HttpHost
 
 import java.util.Properties
@@ -27,6 +29,8 @@ class ES6Config(parameters: Properties) extends Serializable {
 
   val disableFlushOnCheckpoint: Boolean = sinkOption.disableFlushOnCheckpoint.get()
 
+  val bulk: BulkConf = BulkConf(ESSinkConfigOption.ES_SINK_PREFIX, parameters)
+
   val host: List[HttpHost] = sinkOption.host.get().toList
 
   val userName: String = sinkOption.userName.get()
@@ -17,11 +17,10 @@
 
 package org.apache.streampark.flink.connector.elasticsearch7.sink
 
-import org.apache.streampark.common.conf.ConfigConst._
-import org.apache.streampark.common.util.{ConfigUtils, Logger, Utils}
+import org.apache.streampark.common.util.{Logger, Utils}
 import org.apache.streampark.flink.connector.elasticsearch7.bean.RestClientFactoryImpl
 import org.apache.streampark.flink.connector.elasticsearch7.conf.ES7Config
-import org.apache.streampark.flink.connector.elasticsearch7.internal.ESSinkFunction
+import org.apache.streampark.flink.connector.elasticsearch7.internal.{ESSinkFunction, RetryRejectedFailureHandler}
 import org.apache.streampark.flink.connector.function.TransformFunction
 import org.apache.streampark.flink.connector.sink.Sink
 import org.apache.streampark.flink.core.scala.StreamingContext
@@ -29,10 +28,8 @@ import org.apache.streampark.flink.core.scala.StreamingContext
 import org.apache.flink.streaming.api.datastream.{DataStream => JavaDataStream, DataStreamSink}
 import org.apache.flink.streaming.api.scala.DataStream
 import org.apache.flink.streaming.connectors.elasticsearch.ActionRequestFailureHandler
-import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkBase.{CONFIG_KEY_BULK_FLUSH_BACKOFF_DELAY, CONFIG_KEY_BULK_FLUSH_BACKOFF_ENABLE, CONFIG_KEY_BULK_FLUSH_BACKOFF_RETRIES, CONFIG_KEY_BULK_FLUSH_BACKOFF_TYPE, CONFIG_KEY_BULK_FLUSH_INTERVAL_MS, CONFIG_KEY_BULK_FLUSH_MAX_ACTIONS, CONFIG_KEY_BULK_FLUSH_MAX_SIZE_MB, FlushBackoffType}
-import org.apache.flink.streaming.connectors.elasticsearch.util.RetryRejectedExecutionFailureHandler
+import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkBase.FlushBackoffType
 import org.apache.flink.streaming.connectors.elasticsearch7.{ElasticsearchSink, RestClientFactory}
-import org.apache.http.HttpHost
 import org.elasticsearch.action.ActionRequest
 
 import java.util.Properties
@@ -118,36 +115,25 @@ class ES7Sink(
         sinkBuilder.setRestClientFactory(new RestClientFactoryImpl(config))
     }
 
-    def doConfig(param: (String, String)): Unit = param match {
-      // parameter of sink.es.bulk.flush.max.actions
-      case (CONFIG_KEY_BULK_FLUSH_MAX_ACTIONS, v) => sinkBuilder.setBulkFlushMaxActions(v.toInt)
-      // parameter of sink.es.bulk.flush.max.size.mb
-      case (CONFIG_KEY_BULK_FLUSH_MAX_SIZE_MB, v) => sinkBuilder.setBulkFlushMaxSizeMb(v.toInt)
-      // parameter of sink.es.bulk.flush.interval.ms
-      case (CONFIG_KEY_BULK_FLUSH_INTERVAL_MS, v) => sinkBuilder.setBulkFlushInterval(v.toInt)
-      // parameter of sink.es.bulk.flush.backoff.enable
-      case (CONFIG_KEY_BULK_FLUSH_BACKOFF_ENABLE, v) => sinkBuilder.setBulkFlushBackoff(v.toBoolean)
-      // parameter of sink.es.bulk.flush.backoff.type value of [ CONSTANT or EXPONENTIAL ]
-      case (CONFIG_KEY_BULK_FLUSH_BACKOFF_TYPE, v) =>
-        sinkBuilder.setBulkFlushBackoffType(FlushBackoffType.valueOf(v))
-      // parameter of sink.es.bulk.flush.backoff.retries
-      case (CONFIG_KEY_BULK_FLUSH_BACKOFF_RETRIES, v) =>
-        sinkBuilder.setBulkFlushBackoffRetries(v.toInt)
-      // parameter of sink.es.bulk.flush.backoff.delay
-      case (CONFIG_KEY_BULK_FLUSH_BACKOFF_DELAY, v) =>
-        sinkBuilder.setBulkFlushBackoffDelay(v.toLong)
-      // other...
-      case _ =>
+    // bulk settings, from the same keys as the flink sink
+    val bulk = config.bulk
+    sinkBuilder.setBulkFlushMaxActions(bulk.maxActions)
+    sinkBuilder.setBulkFlushMaxSizeMb(bulk.maxSizeMb)
+    if (bulk.flushInterval > 0) {
+      sinkBuilder.setBulkFlushInterval(bulk.flushInterval)
     }
-    // set value from properties
-    config.sinkOption.getInternalConfig().foreach(doConfig)
+    sinkBuilder.setBulkFlushBackoff(bulk.backoffEnable)
+    sinkBuilder.setBulkFlushBackoffType(FlushBackoffType.valueOf(bulk.backoffType))
+    sinkBuilder.setBulkFlushBackoffRetries(bulk.backoffRetries)
+    sinkBuilder.setBulkFlushBackoffDelay(bulk.backoffDelay)
     sinkBuilder.build()
   }
 
   def sink[T](
       stream: DataStream[T],
       restClientFactory: Option[RestClientFactory] = None,
-      failureHandler: ActionRequestFailureHandler = new RetryRejectedExecutionFailureHandler)(
+      failureHandler: ActionRequestFailureHandler =
+        new RetryRejectedFailureHandler(config.bulk.rejectedRetries))(
       implicit f: T => ActionRequest): DataStreamSink[T] = {
     process(stream, restClientFactory, failureHandler, f)
   }
@@ -164,12 +150,12 @@ class ES7Sink(
       stream: JavaDataStream[T],
       restClientFactory: RestClientFactory,
       f: TransformFunction[T, ActionRequest]): DataStreamSink[T] = {
-    process(stream, Some(restClientFactory), new RetryRejectedExecutionFailureHandler, f)
+    process(stream, Some(restClientFactory), new RetryRejectedFailureHandler(config.bulk.rejectedRetries), f)
   }
 
   def sink[T](
       stream: JavaDataStream[T],
       f: TransformFunction[T, ActionRequest]): DataStreamSink[T] = {
-    process(stream, None, new RetryRejectedExecutionFailureHandler, f)
+    process(stream, None, new RetryRejectedFailureHandler(config.bulk.rejectedRetries), f)
   }
 }
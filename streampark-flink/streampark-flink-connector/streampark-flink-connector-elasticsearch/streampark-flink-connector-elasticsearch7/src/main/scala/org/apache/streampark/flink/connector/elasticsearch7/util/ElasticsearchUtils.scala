@@ -21,20 +21,28 @@ import org.elasticsearch.action.index.IndexRequest
 import org.elasticsearch.common.bytes.BytesArray
 import org.elasticsearch.common.xcontent.XContentType
 
+import java.lang.reflect.Field
+
 object ElasticsearchUtils {
 
+  // the fields are looked up once, not for every request
+  private[this] lazy val sourceField: Field = accessibleField("source")
+
+  private[this] lazy val contentTypeField: Field = accessibleField("contentType")
+
+  private[this] def accessibleField(name: String): Field = {
+    val field = classOf[IndexRequest].getDeclaredField(name)
+    field.setAccessible(true)
+    field
+  }
+
   def indexRequest(index: String, id: String, source: String)(implicit
       xContentType: XContentType = XContentType.JSON): IndexRequest = {
     require(source != null, "IndexRequest error:source can not be null...")
     require(xContentType != null, "IndexRequest error:xContentType can not be null...")
     val indexReq = new IndexRequest(index).id(id)
-    val mapping = List("source" -> new BytesArray(source), "contentType" -> xContentType)
-    mapping.foreach {
-      x =>
-        val field = indexReq.getClass.getDeclaredField(x._1)
-        field.setAccessible(true)
-        field.set(indexReq, x._2)
-    }
+    sourceField.set(indexReq, new BytesArray(source))
+    contentTypeField.set(indexReq, xContentType)
     indexReq
   }
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.elasticsearch7.internal
+
+import org.apache.flink.streaming.connectors.elasticsearch.RequestIndexer
+import org.elasticsearch.ElasticsearchStatusException
+import org.elasticsearch.action.ActionRequest
+import org.elasticsearch.action.delete.DeleteRequest
+import org.elasticsearch.action.index.IndexRequest
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException
+import org.elasticsearch.rest.RestStatus
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.lang.reflect.{InvocationHandler, Method, Proxy}
+
+import scala.collection.mutable
+
+class RetryRejectedFailureHandlerTest {
+
+  @Test
+  def retryTheRejectedItems(): Unit = {
+    val handler = new RetryRejectedFailureHandler(3)
+    val indexer = new CollectingRequestIndexer
+    val index = new IndexRequest("test")
+    val delete = new DeleteRequest("test", "1")
+
+    // as reported by the rest client, or by the bulk response of the item
+    handler.onFailure(index, new ElasticsearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS), -1, indexer.indexer)
+    handler.onFailure(delete, new RuntimeException(new EsRejectedExecutionException("queue is full")), -1, indexer.indexer)
+    handler.onFailure(index, new RuntimeException("rejected"), RestStatus.TOO_MANY_REQUESTS.getStatus, indexer.indexer)
+    Assertions.assertEquals(List(index, delete, index), indexer.requests.toList)
+  }
+
+  @Test
+  def giveUpAfterTheMaxRetries(): Unit = {
+    val handler = new RetryRejectedFailureHandler(2)
+    val indexer = new CollectingRequestIndexer
+    val index = new IndexRequest("test")
+    val failure = new EsRejectedExecutionException("queue is full")
+
+    handler.onFailure(index, failure, -1, indexer.indexer)
+    handler.onFailure(index, failure, -1, indexer.indexer)
+    Assertions.assertThrows(classOf[EsRejectedExecutionException], () => handler.onFailure(index, failure, -1, indexer.indexer))
+    Assertions.assertEquals(2, indexer.requests.size)
+  }
+
+  @Test
+  def failOnOtherErrors(): Unit = {
+    val handler = new RetryRejectedFailureHandler(3)
+    val indexer = new CollectingRequestIndexer
+    val failure = new ElasticsearchStatusException("mapping error", RestStatus.BAD_REQUEST)
+
+    Assertions.assertThrows(
+      classOf[ElasticsearchStatusException],
+      () => handler.onFailure(new IndexRequest("test"), failure, RestStatus.BAD_REQUEST.getStatus, indexer.indexer))
+    Assertions.assertTrue(indexer.requests.isEmpty)
+  }
+
+}
+
+/** a RequestIndexer collecting the requests added, its varargs overloads can't be implemented in scala */
+class CollectingRequestIndexer {
+
+  val requests: mutable.Buffer[ActionRequest] = mutable.Buffer()
+
+  val indexer: RequestIndexer = Proxy
+    .newProxyInstance(
+      getClass.getClassLoader,
+      Array[Class[_]](classOf[RequestIndexer]),
+      new InvocationHandler {
+        override def invoke(proxy: AnyRef, method: Method, args: Array[AnyRef]): AnyRef = {
+          if (method.getName == "add") {
+            requests.synchronized(requests ++= args(0).asInstanceOf[Array[ActionRequest]])
+          }
+          null
+        }
+      }
+    )
+    .asInstanceOf[RequestIndexer]
+
+}
@@ -17,28 +17,63 @@
 
 package org.apache.streampark.flink.connector.influx.function
 
-import org.apache.streampark.common.conf.ConfigKeys.{KEY_JDBC_PASSWORD, KEY_JDBC_URL, KEY_JDBC_USER}
+import org.apache.streampark.common.conf.ConfigKeys._
 import org.apache.streampark.common.enums.ApiType
-import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.flink.connector.influx.bean.InfluxEntity
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.metrics.{Counter, Gauge, Histogram}
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction
 import org.apache.flink.streaming.api.functions.sink.SinkFunction.Context
 import org.influxdb.{InfluxDB, InfluxDBFactory}
+import org.influxdb.InfluxDB.ConsistencyLevel
 import org.influxdb.dto.Point
 
+import java.util
 import java.util.Properties
-import java.util.concurrent.TimeUnit
+import java.util.concurrent.{Executors, ScheduledExecutorService, ThreadLocalRandom, TimeUnit}
 
 import org.apache.streampark.common.util.Implicits._;
 
+/**
+ * Write the points to influxdb in batches of line protocol. A batch is written once it has
+ * `batch.actions` points, every `batch.flush.interval` ms plus a random jitter of up to
+ * `batch.flush.jitter` ms, and on every checkpoint, so the points received before a checkpoint are
+ * written when it completes.
+ */
 class InfluxFunction[T](config: Properties)(implicit endpoint: InfluxEntity[T])
   extends RichSinkFunction[T]
+  with CheckpointedFunction
   with Logger {
 
   var influxDB: InfluxDB = _
 
+  private[this] val batchActions: Int =
+    config.getOrElse(KEY_INFLUX_BATCH_ACTIONS, DEFAULT_INFLUX_BATCH_ACTIONS.toString).toInt
+
+  private[this] val flushInterval: Long =
+    config.getOrElse(KEY_INFLUX_FLUSH_INTERVAL, DEFAULT_INFLUX_FLUSH_INTERVAL.toString).toLong
+
+  private[this] val flushJitter: Long =
+    config.getOrElse(KEY_INFLUX_FLUSH_JITTER, DEFAULT_INFLUX_FLUSH_JITTER.toString).toLong
+
+  require(batchActions > 0, s"[StreamPark] influx $KEY_INFLUX_BATCH_ACTIONS must be positive")
+
+  /** line protocol of the points not written yet, also the lock of the writes */
+  @transient private[this] var buffer: util.List[String] = _
+
+  @transient private[this] var scheduler: ScheduledExecutorService = _
+
+  @transient @volatile private[this] var flushException: Exception = _
+
+  @transient private[this] var writtenPoints: Counter = _
+
+  @transient private[this] var writeLatency: Histogram = _
+
   override def open(parameters: Configuration): Unit = {
     super.open(parameters)
     val url = config.getOrElse(KEY_JDBC_URL, null)
@@ -49,10 +84,49 @@ class InfluxFunction[T](config: Properties)(implicit endpoint: InfluxEntity[T])
       case (null, _, u) => InfluxDBFactory.connect(u)
       case _ => InfluxDBFactory.connect(url, username, password)
     }
-    influxDB.enableBatch(2000, 100, TimeUnit.MILLISECONDS)
+    buffer = new util.ArrayList[String](batchActions)
+
+    val metricGroup = getRuntimeContext.getMetricGroup
+    metricGroup.gauge[Integer, Gauge[Integer]](
+      "pendingPoints",
+      new Gauge[Integer] {
+        override def getValue: Integer = buffer.synchronized(buffer.size())
+      })
+    writtenPoints = metricGroup.counter("writtenPoints")
+    writeLatency =
+      metricGroup.histogram("writeLatencyMs", new DescriptiveStatisticsHistogram(1000))
+
+    if (flushInterval > 0) {
+      scheduler =
+        Executors.newSingleThreadScheduledExecutor(ThreadUtils.threadFactory("streampark-influx-flush"))
+      scheduleFlush()
+    }
+  }
+
+  private[this] def scheduleFlush(): Unit = {
+    val jitter = if (flushJitter > 0) ThreadLocalRandom.current().nextLong(flushJitter + 1) else 0L
+    scheduler.schedule(
+      new Runnable {
+        override def run(): Unit = {
+          try {
+            flush()
+          } catch {
+            case e: Exception =>
+              logError("influxdb scheduled flush failed", e)
+              flushException = e
+          }
+          if (flushException == null && !scheduler.isShutdown) {
+            scheduleFlush()
+          }
+        }
+      },
+      flushInterval + jitter,
+      TimeUnit.MILLISECONDS
+    )
   }
 
   override def invoke(value: T, context: Context): Unit = {
+    checkFlushException()
     val tag: JavaMap[String, String] = endpoint.apiType match {
       case ApiType.java => endpoint.javaTagFun.transform(value)
       case ApiType.scala => endpoint.scalaTagFun(value)
@@ -67,12 +141,58 @@ class InfluxFunction[T](config: Properties)(implicit endpoint: InfluxEntity[T])
       .tag(tag)
       .fields(fields)
       .build()
-    influxDB.write(endpoint.database, endpoint.retentionPolicy, point)
+    val pending = buffer.synchronized {
+      buffer.add(point.lineProtocol(TimeUnit.MILLISECONDS))
+      buffer.size()
+    }
+    if (pending >= batchActions) {
+      flush()
+    }
+  }
+
+  /** Write the pending points in one request, they are kept to be written again if it fails. */
+  private[this] def flush(): Unit = buffer.synchronized {
+    if (!buffer.isEmpty) {
+      val start = System.currentTimeMillis()
+      influxDB.write(
+        endpoint.database,
+        endpoint.retentionPolicy,
+        ConsistencyLevel.ONE,
+        TimeUnit.MILLISECONDS,
+        buffer)
+      writeLatency.update(System.currentTimeMillis() - start)
+      writtenPoints.inc(buffer.size())
+      buffer.clear()
+    }
+  }
+
+  private[this] def checkFlushException(): Unit = {
+    if (flushException != null) {
+      throw new RuntimeException("[StreamPark] influxdb flush failed.", flushException)
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    checkFlushException()
+    flush()
   }
 
-  override def close(): Unit = if (influxDB != null) {
-    influxDB.flush()
-    influxDB.close()
+  // the points are written on every checkpoint, there's nothing to restore
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
+  override def close(): Unit = {
+    if (scheduler != null) {
+      scheduler.shutdownNow()
+    }
+    if (influxDB != null) {
+      try {
+        if (flushException == null) {
+          flush()
+        }
+      } finally {
+        influxDB.close()
+      }
+    }
   }
 
 }
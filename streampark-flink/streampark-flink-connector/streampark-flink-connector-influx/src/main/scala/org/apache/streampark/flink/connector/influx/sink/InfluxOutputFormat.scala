@@ -37,7 +37,11 @@ class InfluxOutputFormat[T: TypeInformation](implicit prop: Properties, endpoint
 
   override def configure(configuration: Configuration): Unit = this.configuration = configuration
 
-  override def open(taskNumber: Int, numTasks: Int): Unit = sinkFunction.open(this.configuration)
+  override def open(taskNumber: Int, numTasks: Int): Unit = {
+    // the function registers its metrics in the context of the output format
+    sinkFunction.setRuntimeContext(getRuntimeContext)
+    sinkFunction.open(this.configuration)
+  }
 
   override def writeRecord(record: T): Unit = sinkFunction.invoke(record, null)
 
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.influx.function
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.flink.connector.influx.bean.InfluxEntity
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.apache.flink.api.common.functions.RuntimeContext
+import org.apache.flink.configuration.Configuration
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup
+import org.junit.jupiter.api.{AfterEach, Assertions, BeforeEach, Test}
+
+import java.lang.reflect.{InvocationHandler, Method, Proxy}
+import java.net.InetSocketAddress
+import java.util.Properties
+import java.util.concurrent.CopyOnWriteArrayList
+
+import scala.io.Source
+
+class InfluxFunctionTest {
+
+  private val tagFun: String => Map[String, String] = host => Map("host" -> host)
+
+  private val fieldFun: String => Map[String, Object] = _ => Map("value" -> Double.box(1.0))
+
+  /** a point of the `cpu` measurement per record, tagged with the record as host */
+  private implicit val entity: InfluxEntity[String] =
+    new InfluxEntity[String]("test", "cpu", "autogen", tagFun, fieldFun)
+
+  private var server: HttpServer = _
+
+  /** the lines of the /write requests received, one entry per request */
+  private val writes = new CopyOnWriteArrayList[List[String]]()
+
+  @volatile private var failWrites = false
+
+  @BeforeEach
+  def startServer(): Unit = {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+    server.createContext(
+      "/",
+      (exchange: HttpExchange) => {
+        val body = Source.fromInputStream(exchange.getRequestBody, "UTF-8").mkString
+        val status = exchange.getRequestURI.getPath match {
+          case "/write" if failWrites => 500
+          case "/write" =>
+            writes.add(body.split("\n").filter(_.nonEmpty).toList)
+            204
+          case _ => 204
+        }
+        exchange.sendResponseHeaders(status, -1)
+        exchange.close()
+      }
+    )
+    server.start()
+  }
+
+  @AfterEach
+  def stopServer(): Unit = server.stop(0)
+
+  @Test
+  def testWriteOnceTheBatchIsFull(): Unit = {
+    val function = open(batchActions = 3, flushInterval = 0)
+    try {
+      function.invoke("a", null)
+      function.invoke("b", null)
+      Assertions.assertTrue(writes.isEmpty)
+      function.invoke("c", null)
+      Assertions.assertEquals(1, writes.size)
+      Assertions.assertEquals(List("a", "b", "c"), hosts(writes.get(0)))
+    } finally {
+      function.close()
+    }
+  }
+
+  @Test
+  def testWriteOnTheInterval(): Unit = {
+    val function = open(batchActions = 100, flushInterval = 50)
+    try {
+      function.invoke("a", null)
+      function.invoke("b", null)
+      val deadline = System.currentTimeMillis() + 5000
+      while (writes.isEmpty && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10)
+      }
+      Assertions.assertEquals(List("a", "b"), hosts(writes.get(0)))
+    } finally {
+      function.close()
+    }
+  }
+
+  @Test
+  def testWriteOnCheckpoints(): Unit = {
+    val function = open(batchActions = 100, flushInterval = 0)
+    try {
+      function.invoke("a", null)
+      function.invoke("b", null)
+      Assertions.assertTrue(writes.isEmpty)
+      function.snapshotState(null)
+      Assertions.assertEquals(1, writes.size)
+      Assertions.assertEquals(List("a", "b"), hosts(writes.get(0)))
+      // nothing left to write
+      function.snapshotState(null)
+      Assertions.assertEquals(1, writes.size)
+    } finally {
+      function.close()
+    }
+  }
+
+  @Test
+  def testKeepThePointsOfAFailedWrite(): Unit = {
+    val function = open(batchActions = 100, flushInterval = 0)
+    try {
+      function.invoke("a", null)
+      failWrites = true
+      Assertions.assertThrows(classOf[Exception], () => function.snapshotState(null))
+      Assertions.assertTrue(writes.isEmpty)
+
+      failWrites = false
+      function.invoke("b", null)
+      function.snapshotState(null)
+      Assertions.assertEquals(List("a", "b"), hosts(writes.get(0)))
+    } finally {
+      function.close()
+    }
+  }
+
+  private def open(batchActions: Int, flushInterval: Long): InfluxFunction[String] = {
+    val config = new Properties()
+    config.put(KEY_JDBC_URL, s"http://localhost:${server.getAddress.getPort}")
+    config.put(KEY_INFLUX_BATCH_ACTIONS, batchActions.toString)
+    config.put(KEY_INFLUX_FLUSH_INTERVAL, flushInterval.toString)
+    val function = new InfluxFunction[String](config)
+    function.setRuntimeContext(runtimeContext)
+    function.open(new Configuration())
+    function
+  }
+
+  /** the host tag of the points of a request */
+  private def hosts(lines: List[String]): List[String] =
+    lines.map(line => line.split(",|\\s")(1).stripPrefix("host="))
+
+  /** a runtime context which only provides the metric group */
+  private def runtimeContext: RuntimeContext = {
+    val metricGroup = UnregisteredMetricsGroup.createOperatorMetricGroup()
+    Proxy
+      .newProxyInstance(
+        getClass.getClassLoader,
+        Array[Class[_]](classOf[RuntimeContext]),
+        new InvocationHandler {
+          override def invoke(proxy: AnyRef, method: Method, args: Array[AnyRef]): AnyRef =
+            if (method.getName == "getMetricGroup") metricGroup else null
+        }
+      )
+      .asInstanceOf[RuntimeContext]
+  }
+
+}
@@ -19,13 +19,14 @@ package org.apache.streampark.flink.connector.jdbc.internal
 
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
-import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.common.util.{JdbcConnectionPools, JdbcUtils, Logger}
 import org.apache.streampark.flink.connector.function.TransformFunction
 import org.apache.streampark.flink.connector.jdbc.bean.Transaction
 
 import org.apache.flink.api.common.ExecutionConfig
 import org.apache.flink.api.common.typeutils.base.VoidSerializer
 import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer
+import org.apache.flink.configuration.Configuration
 import org.apache.flink.streaming.api.functions.sink.{SinkFunction, TwoPhaseCommitSinkFunction}
 
 import java.sql.{Connection, SQLException, Statement}
@@ -51,6 +52,8 @@ class Jdbc2PCSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   private var scalaToSQLFn: T => String = _
   private var javaToSQLFunc: TransformFunction[T, String] = _
 
+  @transient private[this] var retained = false
+
   def this(jdbc: Properties, toSQLFn: T => String) {
     this(ApiType.scala, jdbc)
     this.scalaToSQLFn = toSQLFn
@@ -64,6 +67,24 @@ class Jdbc2PCSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
 
   override def initializeUserContext(): Optional[Void] = super.initializeUserContext()
 
+  override def open(parameters: Configuration): Unit = {
+    super.open(parameters)
+    val poolKey = JdbcConnectionPools.retain(jdbc)
+    retained = true
+    JdbcPoolGauges.register(getRuntimeContext.getMetricGroup, poolKey)
+  }
+
+  override def close(): Unit = {
+    try {
+      super.close()
+    } finally {
+      if (retained) {
+        retained = false
+        JdbcConnectionPools.release(jdbc)
+      }
+    }
+  }
+
   override def beginTransaction(): Transaction = {
     logInfo("Jdbc2PCSink beginTransaction.")
     Transaction()
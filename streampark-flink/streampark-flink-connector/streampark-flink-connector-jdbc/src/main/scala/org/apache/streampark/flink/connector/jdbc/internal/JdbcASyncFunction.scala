@@ -17,7 +17,7 @@
 
 package org.apache.streampark.flink.connector.jdbc.internal
 
-import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.common.util.{JdbcConnectionPools, JdbcUtils, Logger}
 
 import org.apache.flink.api.common.typeinfo.TypeInformation
 import org.apache.flink.configuration.Configuration
@@ -46,16 +46,25 @@ class JdbcASyncFunction[T: TypeInformation, R: TypeInformation](
 
   @transient private[this] var executorService: ExecutorService = _
 
+  @transient private[this] var retained = false
+
   override def open(parameters: Configuration): Unit = {
     super.open(parameters)
     executorService = Executors.newFixedThreadPool(capacity)
+    val poolKey = JdbcConnectionPools.retain(jdbc)
+    retained = true
+    JdbcPoolGauges.register(getRuntimeContext.getMetricGroup, poolKey)
   }
 
   override def close(): Unit = {
     super.close()
-    if (!executorService.isShutdown) {
+    if (executorService != null && !executorService.isShutdown) {
       executorService.shutdown()
     }
+    if (retained) {
+      retained = false
+      JdbcConnectionPools.release(jdbc)
+    }
   }
 
   @throws[Exception]
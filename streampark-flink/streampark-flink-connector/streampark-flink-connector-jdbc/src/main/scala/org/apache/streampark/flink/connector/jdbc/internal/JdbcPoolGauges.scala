@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.util.HikariConnectionPools.PoolMetrics
+import org.apache.streampark.common.util.JdbcConnectionPools
+import org.apache.streampark.common.util.JdbcConnectionPools.PoolKey
+
+import org.apache.flink.metrics.{Gauge, MetricGroup}
+
+/** Reports the shared connection pool of a jdbc function in the `jdbcPool` group of its metrics. */
+private[internal] object JdbcPoolGauges {
+
+  def register(metricGroup: MetricGroup, key: PoolKey): Unit = {
+    val group = metricGroup.addGroup("jdbcPool")
+    gauge[Integer](group, "active", key, m => m.getActive)
+    gauge[Integer](group, "idle", key, m => m.getIdle)
+    gauge[Integer](group, "total", key, m => m.getTotal)
+    gauge[Integer](group, "waiting", key, m => m.getWaiting)
+    gauge[Integer](group, "references", key, m => m.getReferences)
+    gauge[java.lang.Double](group, "avgWaitMs", key, m => m.getAvgWaitMillis)
+    gauge[java.lang.Double](group, "maxWaitMs", key, m => m.getMaxWaitMillis)
+  }
+
+  /** the value is null once the pool has been closed */
+  private[this] def gauge[T](
+      group: MetricGroup,
+      name: String,
+      key: PoolKey,
+      value: PoolMetrics => T): Unit = {
+    group.gauge[T, Gauge[T]](
+      name,
+      new Gauge[T] {
+        override def getValue: T = JdbcConnectionPools.metrics(key).map(value).getOrElse(null.asInstanceOf[T])
+      })
+  }
+
+}
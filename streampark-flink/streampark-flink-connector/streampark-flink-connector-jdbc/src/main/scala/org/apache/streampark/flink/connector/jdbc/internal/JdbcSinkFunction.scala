@@ -20,7 +20,7 @@ package org.apache.streampark.flink.connector.jdbc.internal
 import org.apache.streampark.common.conf.ConfigKeys.{DEFAULT_JDBC_INSERT_BATCH, KEY_JDBC_INSERT_BATCH}
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
-import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.common.util.{JdbcConnectionPools, JdbcUtils, Logger}
 import org.apache.streampark.flink.connector.function.TransformFunction
 
 import org.apache.flink.configuration.Configuration
@@ -39,6 +39,7 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   private var javaToSQLFunc: TransformFunction[T, String] = _
   private val offset: AtomicLong = new AtomicLong(0L)
   private var timestamp: Long = 0L
+  @transient private[this] var retained = false
 
   private val batchSize = jdbc.remove(KEY_JDBC_INSERT_BATCH) match {
     case null => DEFAULT_JDBC_INSERT_BATCH
@@ -60,6 +61,9 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   override def open(parameters: Configuration): Unit = {
     require(jdbc != null, "[StreamPark] JdbcSink jdbc can not be null")
     logInfo("JdbcSink Open....")
+    val poolKey = JdbcConnectionPools.retain(jdbc)
+    retained = true
+    JdbcPoolGauges.register(getRuntimeContext.getMetricGroup, poolKey)
     connection = JdbcUtils.getConnection(jdbc)
     connection.setAutoCommit(false)
     if (batchSize > 1) {
@@ -103,8 +107,15 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   }
 
   override def close(): Unit = {
-    execBatch()
-    JdbcUtils.close(statement, connection)
+    try {
+      execBatch()
+    } finally {
+      JdbcUtils.close(statement, connection)
+      if (retained) {
+        retained = false
+        JdbcConnectionPools.release(jdbc)
+      }
+    }
   }
 
   private[this] def execBatch(): Unit = {
@@ -19,12 +19,13 @@ package org.apache.streampark.flink.connector.jdbc.internal
 
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
-import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.common.util.{JdbcConnectionPools, JdbcUtils, Logger}
 import org.apache.streampark.flink.connector.function.{RunningFunction, SQLQueryFunction, SQLResultFunction}
 import org.apache.streampark.flink.util.FlinkUtils
 
 import org.apache.flink.api.common.state.ListState
 import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.configuration.Configuration
 import org.apache.flink.runtime.state.{CheckpointListener, FunctionInitializationContext, FunctionSnapshotContext}
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.source.RichSourceFunction
@@ -53,6 +54,7 @@ class JdbcSourceFunction[R: TypeInformation](apiType: ApiType = ApiType.scala, j
   @transient private var state: ListState[R] = _
   private val OFFSETS_STATE_NAME: String = "jdbc-source-query-states"
   private[this] var last: R = _
+  @transient private[this] var retained = false
 
   // for Scala
   def this(
@@ -85,6 +87,21 @@ class JdbcSourceFunction[R: TypeInformation](apiType: ApiType = ApiType.scala, j
         }
   }
 
+  override def open(parameters: Configuration): Unit = {
+    super.open(parameters)
+    val poolKey = JdbcConnectionPools.retain(jdbc)
+    retained = true
+    JdbcPoolGauges.register(getRuntimeContext.getMetricGroup, poolKey)
+  }
+
+  override def close(): Unit = {
+    super.close()
+    if (retained) {
+      retained = false
+      JdbcConnectionPools.release(jdbc)
+    }
+  }
+
   @throws[Exception]
   override def run(ctx: SourceContext[R]): Unit = {
     while (this.running) {
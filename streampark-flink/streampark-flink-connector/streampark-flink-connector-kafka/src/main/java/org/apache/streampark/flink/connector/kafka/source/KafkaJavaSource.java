@@ -77,6 +77,14 @@ public class KafkaJavaSource<T> {
   }
 
   public DataStreamSource<KafkaRecord<T>> getDataStream() {
+    if (KafkaSource.useNewSource(this.context, this.property, this.alias)) {
+      org.apache.flink.connector.kafka.source.KafkaSource<KafkaRecord<T>> source =
+          KafkaSource.getKafkaSource(
+              this.context, this.property, this.topics, this.alias, this.deserializer, null);
+      WatermarkStrategy<KafkaRecord<T>> watermarks =
+          this.strategy == null ? WatermarkStrategy.noWatermarks() : this.strategy;
+      return context.getJavaEnv().fromSource(source, watermarks, "KafkaSource");
+    }
     FlinkKafkaConsumer<KafkaRecord<T>> consumer =
         KafkaSource.getSource(
             this.context,
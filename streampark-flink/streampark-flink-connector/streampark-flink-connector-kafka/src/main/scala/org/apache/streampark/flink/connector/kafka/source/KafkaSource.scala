@@ -25,10 +25,15 @@ import org.apache.streampark.flink.core.scala.StreamingContext
 import org.apache.flink.api.common.eventtime.WatermarkStrategy
 import org.apache.flink.api.common.typeinfo.{BasicTypeInfo, TypeInformation}
 import org.apache.flink.api.java.typeutils.TypeExtractor.getForClass
+import org.apache.flink.connector.kafka.source.{KafkaSource => FlinkKafkaSource}
+import org.apache.flink.connector.kafka.source.enumerator.initializer.OffsetsInitializer
+import org.apache.flink.connector.kafka.source.reader.deserializer.KafkaRecordDeserializationSchema
+import org.apache.flink.runtime.util.EnvironmentInformation
 import org.apache.flink.streaming.api.scala._
-import org.apache.flink.streaming.connectors.kafka.{FlinkKafkaConsumer, KafkaDeserializationSchema}
+import org.apache.flink.streaming.connectors.kafka.{FlinkKafkaConsumer, FlinkKafkaConsumerBase, KafkaDeserializationSchema}
 import org.apache.flink.streaming.connectors.kafka.internals.KafkaTopicPartition
-import org.apache.kafka.clients.consumer.{ConsumerConfig, ConsumerRecord}
+import org.apache.kafka.clients.consumer.{ConsumerConfig, ConsumerRecord, OffsetResetStrategy}
+import org.apache.kafka.common.TopicPartition
 
 import java.io
 import java.util.Properties
@@ -40,9 +45,33 @@ import scala.util.{Failure, Success, Try}
 
 object KafkaSource {
 
+  private[this] val SOURCE_NAME = "KafkaSource"
+
+  /** the FLIP-27 source can be used since flink 1.14, where it's no longer experimental */
+  private[this] lazy val newSourceSupported: Boolean =
+    Try(EnvironmentInformation.getVersion).toOption
+      .flatMap(v => "^(\\d+)\\.(\\d+)".r.findFirstMatchIn(v))
+      .forall(m => m.group(1).toInt > 1 || m.group(2).toInt >= 14)
+
   def apply(@(transient @param) property: Properties = new Properties())(implicit
       ctx: StreamingContext): KafkaSource = new KafkaSource(ctx, property)
 
+  /**
+   * The FLIP-27 source is opt-in with `new-source=true`: it keeps its offsets in a state of its own,
+   * a savepoint taken with the [[FlinkKafkaConsumer]] doesn't restore them. To switch a running job,
+   * take a savepoint, which commits the offsets of the group, and restart it from the savepoint with
+   * `new-source=true` and `--allowNonRestoredState`, the new source then resumes from the committed
+   * offsets of the group.
+   *
+   * @return
+   *   true to build a FLIP-27 [[FlinkKafkaSource]], false to build the legacy [[FlinkKafkaConsumer]]
+   */
+  def useNewSource(ctx: StreamingContext, property: Properties, alias: String): Boolean = {
+    val prop = ConfigUtils.getConf(ctx.parameter.toMap, KAFKA_SOURCE_PREFIX + alias)
+    Utils.copyProperties(property, prop)
+    newSourceSupported && prop.getOrElse(KEY_KAFKA_NEW_SOURCE, "false").toBoolean
+  }
+
   def getSource[T: TypeInformation](
       ctx: StreamingContext,
       property: Properties = new Properties(),
@@ -51,18 +80,14 @@ object KafkaSource {
       deserializer: KafkaDeserializationSchema[T],
       strategy: WatermarkStrategy[KafkaRecord[T]]): FlinkKafkaConsumer[KafkaRecord[T]] = {
 
-    val prop = ConfigUtils.getConf(ctx.parameter.toMap, KAFKA_SOURCE_PREFIX + alias)
-    Utils.copyProperties(property, prop)
-    require(
-      prop != null && prop.nonEmpty && prop.exists(
-        x => x._1 == KEY_KAFKA_TOPIC || x._1 == KEY_KAFKA_PATTERN))
+    val prop = getProperties(ctx, property, alias)
+    prop.remove(KEY_KAFKA_NEW_SOURCE)
 
     // start.form parameter...
-    val timestamp = Try(Some(prop(s"$KEY_KAFKA_START_FROM.$KEY_KAFKA_START_FROM_TIMESTAMP").toLong))
-      .getOrElse(None)
+    val timestamp = getStartTimestamp(prop)
     val startFrom = StartFrom.startForm(prop)
     require(
-      !(timestamp.nonEmpty && startFrom != null),
+      !(timestamp.nonEmpty && startFrom.nonEmpty),
       s"[StreamPark] start.form timestamp and offset cannot be defined at the same time")
 
     // topic parameter
@@ -76,37 +101,16 @@ object KafkaSource {
         throw new IllegalArgumentException(
           "[StreamPark] topic and regex cannot be defined at the same time")
       case (Some(top), _) =>
-        val topics = top.split(",|\\s+")
-        val topicList = topic match {
-          case null => topics.toList
-          case x: String => List(x)
-          case x: Array[String] => x.toList
-          case x: List[String] => x
-          case _ =>
-            throw new IllegalArgumentException(
-              "[StreamPark] topic type must be String(one topic) or List[String](more topic)")
-        }
-        new FlinkKafkaConsumer(topicList, kfkDeserializer, prop)
+        new FlinkKafkaConsumer(getTopics(top, topic), kfkDeserializer, prop)
       case (_, Some(reg)) =>
-        val pattern: Pattern = topic match {
-          case null => reg.r.pattern
-          case x: String => x.r.pattern
-          case _ =>
-            throw new IllegalArgumentException(
-              "[StreamPark] subscriptionPattern type must be String(regex)")
-        }
-        val kfkDeserializer = new KafkaDeserializer[T](deserializer)
-        new FlinkKafkaConsumer(pattern, kfkDeserializer, prop)
+        new FlinkKafkaConsumer(getPattern(reg, topic), kfkDeserializer, prop)
       case _ => null
     }
 
-    val autoCommit = prop.getOrElse(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true").toBoolean
-    (ctx.getCheckpointConfig.isCheckpointingEnabled, autoCommit) match {
-      case (true, _) => consumer.setCommitOffsetsOnCheckpoints(true)
-      case (_, false) =>
-        throw new IllegalArgumentException(
-          "[StreamPark] error:flink checkpoint was disable,and kafka autoCommit was false.you can enable checkpoint or enable kafka autoCommit...")
-      case _ =>
+    if (ctx.getCheckpointConfig.isCheckpointingEnabled) {
+      consumer.setCommitOffsetsOnCheckpoints(true)
+    } else {
+      checkAutoCommit(prop)
     }
 
     if (strategy != null) {
@@ -116,43 +120,15 @@ object KafkaSource {
       assignerWithPeriodicWatermarks.invoke(consumer, strategy)
     }
 
-    (timestamp, startFrom) match {
+    timestamp match {
       // Globally set Timestamp, effective for all topics.
-      case (Some(t), _) => consumer.setStartFromTimestamp(t)
+      case Some(t) => consumer.setStartFromTimestamp(t)
       // Specify the offset for each topic and partition
       case _ =>
-        val startFroms = (topicOpt, regexOpt) match {
-          case (Some(top), _) =>
-            topic match {
-              case null => startFrom.toList
-              case x: String => startFrom.filter(_.topic == x).toList
-              case x: Array[_] =>
-                val topics = if (topic == null) top.split(",|\\s+").toList else x.toList
-                startFrom.filter(s => topics.contains(s.topic)).toList
-              case x: List[_] =>
-                val topics = if (topic == null) top.split(",|\\s+").toList else x
-                startFrom.filter(s => topics.contains(s.topic)).toList
-              case _ => List.empty[StartFrom]
-            }
-          case (_, Some(reg)) =>
-            topic match {
-              case null => startFrom.filter(s => reg.r.findFirstIn(s.topic).nonEmpty).toList
-              case x: String => startFrom.filter(s => x.r.findFirstIn(s.topic).nonEmpty).toList
-              case _ => List.empty[StartFrom]
-            }
-          case _ => null
-        }
-
-        // startOffsets...
         val startOffsets = new java.util.HashMap[KafkaTopicPartition, java.lang.Long]()
-        startFroms
-          .filter(x => x != null && x.partitionOffset != null)
-          .foreach(
-            start => {
-              start.partitionOffset.foreach(
-                x => startOffsets.put(new KafkaTopicPartition(start.topic, x._1), x._2))
-            })
-
+        getStartOffsets(startFrom, topicOpt, regexOpt, topic).foreach {
+          case ((t, partition), offset) => startOffsets.put(new KafkaTopicPartition(t, partition), offset)
+        }
         if (startOffsets.nonEmpty) {
           consumer.setStartFromSpecificOffsets(startOffsets)
         }
@@ -160,6 +136,160 @@ object KafkaSource {
     consumer
   }
 
+  /**
+   * Build a FLIP-27 kafka source from the same properties as [[getSource]]. The readers generate
+   * the watermarks per partition, with the strategy passed to fromSource, and the partitions
+   * without data can be marked idle by it.
+   *
+   * The offsets are committed on checkpoints, the partitions without a start offset start from the
+   * committed offset of the group, or from auto.offset.reset if there's none. See [[useNewSource]]
+   * to switch a job of the legacy consumer to it.
+   */
+  def getKafkaSource[T: TypeInformation](
+      ctx: StreamingContext,
+      property: Properties = new Properties(),
+      topic: io.Serializable,
+      alias: String,
+      deserializer: KafkaDeserializationSchema[T]): FlinkKafkaSource[KafkaRecord[T]] = {
+
+    val prop = getProperties(ctx, property, alias)
+    prop.remove(KEY_KAFKA_NEW_SOURCE)
+
+    val timestamp = getStartTimestamp(prop)
+    val startFrom = StartFrom.startForm(prop)
+    require(
+      !(timestamp.nonEmpty && startFrom.nonEmpty),
+      s"[StreamPark] start.form timestamp and offset cannot be defined at the same time")
+
+    val topicOpt = Try(Some(prop.remove(KEY_KAFKA_TOPIC).toString)).getOrElse(None)
+    val regexOpt = Try(Some(prop.remove(KEY_KAFKA_PATTERN).toString)).getOrElse(None)
+
+    if (!ctx.getCheckpointConfig.isCheckpointingEnabled) {
+      checkAutoCommit(prop)
+      // the kafka default, the source would turn it off
+      prop.putIfAbsent(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true")
+    }
+    // the partition discovery of the legacy consumer
+    Option(prop.remove(FlinkKafkaConsumerBase.KEY_PARTITION_DISCOVERY_INTERVAL_MILLIS))
+      .foreach(x => prop.putIfAbsent("partition.discovery.interval.ms", x))
+
+    val builder = FlinkKafkaSource
+      .builder[KafkaRecord[T]]()
+      .setProperties(prop)
+      .setDeserializer(KafkaRecordDeserializationSchema.of(new KafkaDeserializer[T](deserializer)))
+
+    (topicOpt, regexOpt) match {
+      case (Some(_), Some(_)) =>
+        throw new IllegalArgumentException(
+          "[StreamPark] topic and regex cannot be defined at the same time")
+      case (Some(top), _) => builder.setTopics(getTopics(top, topic))
+      case (_, Some(reg)) => builder.setTopicPattern(getPattern(reg, topic))
+      case _ =>
+        throw new IllegalArgumentException("[StreamPark] topic or pattern must be defined")
+    }
+
+    val resetStrategy = Try(
+      OffsetResetStrategy.valueOf(
+        prop.getOrElse(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest").toUpperCase))
+      .getOrElse(OffsetResetStrategy.LATEST)
+    val startOffsets = new java.util.HashMap[TopicPartition, java.lang.Long]()
+    getStartOffsets(startFrom, topicOpt, regexOpt, topic).foreach {
+      case ((t, partition), offset) => startOffsets.put(new TopicPartition(t, partition), offset)
+    }
+    val offsets = timestamp match {
+      case Some(t) => OffsetsInitializer.timestamp(t)
+      case _ if startOffsets.nonEmpty => OffsetsInitializer.offsets(startOffsets, resetStrategy)
+      case _ => OffsetsInitializer.committedOffsets(resetStrategy)
+    }
+    builder.setStartingOffsets(offsets).build()
+  }
+
+  /** Add the kafka source to the job, the FLIP-27 one if it's enabled, see [[useNewSource]]. */
+  def addSource[T: TypeInformation](
+      ctx: StreamingContext,
+      property: Properties,
+      topic: io.Serializable,
+      alias: String,
+      deserializer: KafkaDeserializationSchema[T],
+      strategy: WatermarkStrategy[KafkaRecord[T]]): DataStream[KafkaRecord[T]] = {
+    if (useNewSource(ctx, property, alias)) {
+      val source = getKafkaSource[T](ctx, property, topic, alias, deserializer)
+      val watermarks = if (strategy == null) WatermarkStrategy.noWatermarks[KafkaRecord[T]]() else strategy
+      ctx.fromSource(source, watermarks, SOURCE_NAME)(getForClass(classOf[KafkaRecord[T]]))
+    } else {
+      ctx.addSource(getSource[T](ctx, property, topic, alias, deserializer, strategy))(
+        getForClass(classOf[KafkaRecord[T]]))
+    }
+  }
+
+  private[this] def getProperties(ctx: StreamingContext, property: Properties, alias: String): Properties = {
+    val prop = ConfigUtils.getConf(ctx.parameter.toMap, KAFKA_SOURCE_PREFIX + alias)
+    Utils.copyProperties(property, prop)
+    require(
+      prop != null && prop.nonEmpty && prop.exists(
+        x => x._1 == KEY_KAFKA_TOPIC || x._1 == KEY_KAFKA_PATTERN))
+    prop
+  }
+
+  private[this] def getStartTimestamp(prop: Properties): Option[Long] =
+    Try(Some(prop(s"$KEY_KAFKA_START_FROM.$KEY_KAFKA_START_FROM_TIMESTAMP").toLong))
+      .getOrElse(None)
+
+  private[this] def checkAutoCommit(prop: Properties): Unit = {
+    val autoCommit = prop.getOrElse(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true").toBoolean
+    if (!autoCommit) {
+      throw new IllegalArgumentException(
+        "[StreamPark] error:flink checkpoint was disable,and kafka autoCommit was false.you can enable checkpoint or enable kafka autoCommit...")
+    }
+  }
+
+  private[this] def getTopics(top: String, topic: io.Serializable): List[String] = topic match {
+    case null => top.split(",|\\s+").toList
+    case x: String => List(x)
+    case x: Array[String] => x.toList
+    case x: List[String] => x
+    case _ =>
+      throw new IllegalArgumentException(
+        "[StreamPark] topic type must be String(one topic) or List[String](more topic)")
+  }
+
+  private[this] def getPattern(reg: String, topic: io.Serializable): Pattern = topic match {
+    case null => reg.r.pattern
+    case x: String => x.r.pattern
+    case _ =>
+      throw new IllegalArgumentException(
+        "[StreamPark] subscriptionPattern type must be String(regex)")
+  }
+
+  /** @return (topic, partition) -> start offset, of the subscribed topics */
+  private[this] def getStartOffsets(
+      startFrom: Array[StartFrom],
+      topicOpt: Option[String],
+      regexOpt: Option[String],
+      topic: io.Serializable): Map[(String, Int), Long] = {
+    val startFroms = (topicOpt, regexOpt) match {
+      case (Some(top), _) =>
+        topic match {
+          case null => startFrom.toList
+          case x: String => startFrom.filter(_.topic == x).toList
+          case x: Array[_] => startFrom.filter(s => x.contains(s.topic)).toList
+          case x: List[_] => startFrom.filter(s => x.contains(s.topic)).toList
+          case _ => List.empty[StartFrom]
+        }
+      case (_, Some(reg)) =>
+        topic match {
+          case null => startFrom.filter(s => reg.r.findFirstIn(s.topic).nonEmpty).toList
+          case x: String => startFrom.filter(s => x.r.findFirstIn(s.topic).nonEmpty).toList
+          case _ => List.empty[StartFrom]
+        }
+      case _ => List.empty[StartFrom]
+    }
+    startFroms
+      .filter(x => x != null && x.partitionOffset != null)
+      .flatMap(start => start.partitionOffset.map(x => (start.topic, x._1) -> x._2))
+      .toMap
+  }
+
 }
 
 class KafkaSource(
@@ -197,9 +327,7 @@ class KafkaSource(
         new KafkaStringDeserializationSchema().asInstanceOf[KafkaDeserializationSchema[T]],
       strategy: WatermarkStrategy[KafkaRecord[T]] = null): DataStream[KafkaRecord[T]] = {
 
-    val consumer =
-      KafkaSource.getSource[T](this.ctx, property, topic, alias, deserializer, strategy)
-    ctx.addSource(consumer)
+    KafkaSource.addSource[T](this.ctx, property, topic, alias, deserializer, strategy)
   }
 
 }
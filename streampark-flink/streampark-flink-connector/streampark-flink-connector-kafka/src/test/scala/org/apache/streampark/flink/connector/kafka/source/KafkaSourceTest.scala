@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.kafka.source
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.flink.core.scala.StreamingContext
+
+import org.apache.flink.api.common.typeinfo.{BasicTypeInfo, TypeInformation}
+import org.apache.flink.api.java.utils.ParameterTool
+import org.apache.flink.streaming.api.scala.StreamExecutionEnvironment
+import org.apache.flink.streaming.connectors.kafka.FlinkKafkaConsumer
+import org.apache.kafka.clients.consumer.{ConsumerConfig, KafkaConsumer, OffsetAndMetadata}
+import org.apache.kafka.clients.producer.{KafkaProducer, ProducerConfig, ProducerRecord}
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.serialization.{StringDeserializer, StringSerializer}
+import org.junit.jupiter.api.{AfterAll, Assertions, Assumptions, BeforeAll, Test, TestInstance}
+import org.testcontainers.DockerClientFactory
+import org.testcontainers.containers.KafkaContainer
+import org.testcontainers.utility.DockerImageName
+
+import java.util.Properties
+
+import org.apache.streampark.common.util.Implicits._
+
+/**
+ * The legacy consumer and the FLIP-27 source built from the same properties must read the same
+ * records, in particular when a job starts again from the offsets committed by the other source.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class KafkaSourceTest {
+
+  private implicit val typeInfo: TypeInformation[String] = BasicTypeInfo.STRING_TYPE_INFO
+
+  /** the broker of the tests reading kafka, null without docker */
+  private var kafka: KafkaContainer = _
+
+  @BeforeAll
+  def startKafka(): Unit = {
+    if (DockerClientFactory.instance().isDockerAvailable) {
+      kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"))
+      kafka.start()
+    }
+  }
+
+  @AfterAll
+  def stopKafka(): Unit = {
+    if (kafka != null) {
+      kafka.stop()
+    }
+  }
+
+  @Test
+  def testLegacyConsumerByDefault(): Unit = {
+    val ctx = context(Map(s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_TOPIC" -> "test"))
+    Assertions.assertFalse(KafkaSource.useNewSource(ctx, new Properties(), ""))
+
+    val property = new Properties()
+    property.put(KEY_KAFKA_NEW_SOURCE, "true")
+    Assertions.assertTrue(KafkaSource.useNewSource(ctx, property, ""))
+  }
+
+  @Test
+  def testNewSourceKeyIsNotPassedToTheConsumer(): Unit = {
+    val ctx = context(
+      Map(
+        s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_TOPIC" -> "test",
+        s"$KAFKA_SOURCE_PREFIX${ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG}" -> "localhost:9092",
+        s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_NEW_SOURCE" -> "false"
+      ))
+    val consumer =
+      KafkaSource.getSource[String](ctx, new Properties(), null, "", new KafkaStringDeserializationSchema, null)
+    val field = classOf[FlinkKafkaConsumer[_]].getDeclaredField("properties")
+    field.setAccessible(true)
+    val properties = field.get(consumer).asInstanceOf[Properties]
+    Assertions.assertFalse(properties.containsKey(KEY_KAFKA_NEW_SOURCE))
+    Assertions.assertEquals("localhost:9092", properties.getProperty(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG))
+  }
+
+  @Test
+  def testBothSourcesResumeFromTheCommittedOffsets(): Unit = {
+    val topic = "committed"
+    produce(topic, 10)
+    // as committed by the checkpoints, or the savepoint, of a job of the other source
+    commit(topic, "legacy-group", 4)
+    commit(topic, "new-group", 4)
+
+    val expected = (4 until 10).map(_.toString).toList
+    Assertions.assertEquals(expected, read(topic, "legacy-group", newSource = false, expected.size))
+    Assertions.assertEquals(expected, read(topic, "new-group", newSource = true, expected.size))
+  }
+
+  @Test
+  def testBothSourcesStartFromTheGivenOffsets(): Unit = {
+    val topic = "start-from"
+    produce(topic, 10)
+    val startFrom = Map(
+      s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_START_FROM.$KEY_KAFKA_START_FROM_OFFSET.$KEY_KAFKA_TOPIC" -> topic,
+      s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_START_FROM.$KEY_KAFKA_START_FROM_OFFSET.$topic" -> "0:7")
+    // the given offsets win over the committed ones
+    commit(topic, "legacy-group", 2)
+    commit(topic, "new-group", 2)
+
+    val expected = List("7", "8", "9")
+    Assertions.assertEquals(expected, read(topic, "legacy-group", newSource = false, expected.size, startFrom))
+    Assertions.assertEquals(expected, read(topic, "new-group", newSource = true, expected.size, startFrom))
+  }
+
+  @Test
+  def testBothSourcesFallBackToTheResetStrategy(): Unit = {
+    val topic = "reset"
+    produce(topic, 5)
+
+    val expected = (0 until 5).map(_.toString).toList
+    Assertions.assertEquals(expected, read(topic, "legacy-group", newSource = false, expected.size))
+    Assertions.assertEquals(expected, read(topic, "new-group", newSource = true, expected.size))
+  }
+
+  private def read(
+      topic: String,
+      group: String,
+      newSource: Boolean,
+      count: Int,
+      extra: Map[String, String] = Map.empty): List[String] = {
+    val ctx = context(
+      Map(
+        s"$KAFKA_SOURCE_PREFIX${ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG}" -> kafka.getBootstrapServers,
+        s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_TOPIC" -> topic,
+        s"$KAFKA_SOURCE_PREFIX${ConsumerConfig.GROUP_ID_CONFIG}" -> group,
+        s"$KAFKA_SOURCE_PREFIX${ConsumerConfig.AUTO_OFFSET_RESET_CONFIG}" -> "earliest",
+        s"$KAFKA_SOURCE_PREFIX$KEY_KAFKA_NEW_SOURCE" -> newSource.toString
+      ) ++ extra)
+    new KafkaSource(ctx)
+      .getDataStream[String]()
+      .map(_.value)
+      .executeAndCollect(count)
+  }
+
+  private def context(parameters: Map[String, String]): StreamingContext = {
+    val env = StreamExecutionEnvironment.getExecutionEnvironment
+    env.setParallelism(1)
+    new StreamingContext(ParameterTool.fromMap(parameters.asJava), env)
+  }
+
+  /** produce the values 0 until count into the single partition of the topic */
+  private def produce(topic: String, count: Int): Unit = {
+    Assumptions.assumeTrue(kafka != null, "docker is not available")
+    val prop = new Properties()
+    prop.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers)
+    prop.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, classOf[StringSerializer].getName)
+    prop.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, classOf[StringSerializer].getName)
+    val producer = new KafkaProducer[String, String](prop)
+    try {
+      (0 until count).foreach(i => producer.send(new ProducerRecord[String, String](topic, 0, null, i.toString)))
+      producer.flush()
+    } finally {
+      producer.close()
+    }
+  }
+
+  private def commit(topic: String, group: String, offset: Long): Unit = {
+    val prop = new Properties()
+    prop.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers)
+    prop.put(ConsumerConfig.GROUP_ID_CONFIG, group)
+    prop.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, classOf[StringDeserializer].getName)
+    prop.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, classOf[StringDeserializer].getName)
+    val consumer = new KafkaConsumer[String, String](prop)
+    try {
+      val partition = new TopicPartition(topic, 0)
+      consumer.assign(List(partition).asJava)
+      consumer.commitSync(Map(partition -> new OffsetAndMetadata(offset)).asJava)
+    } finally {
+      consumer.close()
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ package org.apache.streampark.flink.connector.mongo.source;
 
 import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.RunningFunction;
+import org.apache.streampark.flink.connector.mongo.function.MongoChangeFunction;
 import org.apache.streampark.flink.connector.mongo.function.MongoQueryFunction;
 import org.apache.streampark.flink.connector.mongo.function.MongoResultFunction;
 import org.apache.streampark.flink.connector.mongo.internal.MongoSourceFunction;
@@ -26,6 +27,9 @@ import org.apache.streampark.flink.core.scala.StreamingContext;
 
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 
+import org.bson.conversions.Bson;
+
+import java.util.List;
 import java.util.Properties;
 
 public class MongoJavaSource<T> {
@@ -51,4 +55,24 @@ public class MongoJavaSource<T> {
             collectionName, property, queryFunction, resultFunction, runningFunc, null);
     return context.getJavaEnv().addSource(sourceFunction);
   }
+
+  /**
+   * Tail the change stream of the collection, needs a replica set or a sharded cluster.
+   *
+   * @param pipeline aggregation pipeline of the change stream, nullable
+   * @param changeFunction converts a change, returns null to skip it
+   */
+  public DataStreamSource<T> getChangeStream(
+      String collectionName,
+      List<? extends Bson> pipeline,
+      MongoChangeFunction<T> changeFunction,
+      RunningFunction runningFunc) {
+
+    Utils.requireNotNull(collectionName, "'collectionName' must not be null");
+    Utils.requireNotNull(changeFunction, "'changeFunction' must not be null");
+    MongoSourceFunction<T> sourceFunction =
+        new MongoSourceFunction<>(
+            collectionName, property, pipeline, changeFunction, runningFunc, null);
+    return context.getJavaEnv().addSource(sourceFunction);
+  }
 }
@@ -21,26 +21,39 @@ import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
 import org.apache.streampark.common.util.{Logger, MongoConfig}
 import org.apache.streampark.flink.connector.function.RunningFunction
-import org.apache.streampark.flink.connector.mongo.function.{MongoQueryFunction, MongoResultFunction}
+import org.apache.streampark.flink.connector.mongo.function.{MongoChangeFunction, MongoQueryFunction, MongoResultFunction}
 import org.apache.streampark.flink.util.FlinkUtils
 
-import com.mongodb.MongoClient
-import com.mongodb.client.{FindIterable, MongoCollection, MongoCursor}
+import com.mongodb.{MongoClient, MongoClientSettings}
+import com.mongodb.client.{FindIterable, MongoChangeStreamCursor, MongoCollection, MongoCursor}
+import com.mongodb.client.model.changestream.{ChangeStreamDocument, FullDocument}
 import org.apache.flink.api.common.state.ListState
-import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.api.common.typeinfo.{BasicTypeInfo, TypeInformation}
 import org.apache.flink.configuration.Configuration
 import org.apache.flink.runtime.state.{CheckpointListener, FunctionInitializationContext, FunctionSnapshotContext}
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.source.RichSourceFunction
 import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
-import org.bson.Document
+import org.bson.{BsonDocument, Document}
+import org.bson.conversions.Bson
 
 import java.lang
 import java.util.Properties
+import java.util.concurrent.TimeUnit
 
 import org.apache.streampark.common.util.Implicits._
 import scala.util.{Success, Try}
 
+/**
+ * Mongo source, in one of two modes:
+ *   - query polling: runs the query of the user from the last record emitted, the polling backs off
+ *     exponentially while the query returns nothing.
+ *   - change stream: tails the change stream of the collection, the resume token of the last change
+ *     emitted is kept in the state. Change streams need a replica set or a sharded cluster.
+ *
+ * In both modes the Mongo requests run outside the checkpoint lock, only the emission of the
+ * records and the update of the position take it.
+ */
 class MongoSourceFunction[R: TypeInformation](
     apiType: ApiType,
     prop: Properties = new Properties(),
@@ -67,6 +80,24 @@ class MongoSourceFunction[R: TypeInformation](
   private val OFFSETS_STATE_NAME: String = "mongo-source-query-states"
   private[this] var last: R = _
 
+  // change stream mode
+  private[this] var changeStream = false
+  // the stages built with the driver helpers are not serializable, so keep them as json
+  private[this] var pipeline: Array[String] = _
+  private[this] var scalaChangeFunc: ChangeStreamDocument[Document] => Option[R] = _
+  private[this] var javaChangeFunc: MongoChangeFunction[R] = _
+
+  @transient private var resumeTokenState: ListState[String] = _
+  private val RESUME_TOKEN_STATE_NAME: String = "mongo-source-resume-tokens"
+  @transient private[this] var resumeToken: BsonDocument = _
+  @transient private[this] var changeCursor: MongoChangeStreamCursor[ChangeStreamDocument[Document]] = _
+
+  private[this] lazy val minBackoff: Long =
+    Option(MongoConfig.getProperty(prop, MongoConfig.poll_min_backoff)).map(_.toLong).getOrElse(10L)
+
+  private[this] lazy val maxBackoff: Long =
+    Option(MongoConfig.getProperty(prop, MongoConfig.poll_max_backoff)).map(_.toLong).getOrElse(5000L)
+
   // for Scala
   def this(
       collectionName: String,
@@ -100,6 +131,41 @@ class MongoSourceFunction[R: TypeInformation](
         }
   }
 
+  // for Scala, change stream mode
+  def this(
+      collectionName: String,
+      prop: Properties,
+      pipeline: java.util.List[_ <: Bson],
+      scalaChangeFunc: ChangeStreamDocument[Document] => Option[R],
+      runningFunc: Unit => Boolean) = {
+
+    this(ApiType.scala, prop, collectionName)
+    this.changeStream = true
+    this.pipeline = MongoSourceFunction.toJson(pipeline)
+    this.scalaChangeFunc = scalaChangeFunc
+    this.scalaRunningFunc = if (runningFunc == null) _ => true else runningFunc
+  }
+
+  // for JAVA, change stream mode
+  def this(
+      collectionName: String,
+      prop: Properties,
+      pipeline: java.util.List[_ <: Bson],
+      changeFunc: MongoChangeFunction[R],
+      runningFunc: RunningFunction) {
+
+    this(ApiType.java, prop, collectionName)
+    this.changeStream = true
+    this.pipeline = MongoSourceFunction.toJson(pipeline)
+    this.javaChangeFunc = changeFunc
+    this.javaRunningFunc =
+      if (runningFunc != null) runningFunc
+      else
+        new RunningFunction {
+          override def running(): lang.Boolean = true
+        }
+  }
+
   override def cancel(): Unit = this.running = false
 
   override def open(parameters: Configuration): Unit = {
@@ -111,42 +177,110 @@ class MongoSourceFunction[R: TypeInformation](
 
   @throws[Exception]
   override def run(ctx: SourceContext[R]): Unit = {
+    if (changeStream) {
+      tailChanges(ctx)
+    } else {
+      pollQuery(ctx)
+    }
+  }
+
+  private[this] def isRunning: Boolean = apiType match {
+    case ApiType.scala => scalaRunningFunc()
+    case ApiType.java => javaRunningFunc.running()
+  }
+
+  private[this] def pollQuery(ctx: SourceContext[R]): Unit = {
+    var backoff = minBackoff
     while (this.running) {
-      apiType match {
-        case ApiType.scala =>
-          if (scalaRunningFunc()) {
-            ctx.getCheckpointLock.synchronized {
-              val find = scalaQueryFunc(last, mongoCollection)
-              if (find != null) {
-                scalaResultFunc(find.iterator).foreach(
-                  x => {
-                    last = x
-                    ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                  })
-              }
-            }
-          }
-        case ApiType.java =>
-          if (javaRunningFunc.running()) {
-            ctx.getCheckpointLock.synchronized {
-              val find = javaQueryFunc.query(last, mongoCollection)
-              if (find != null) {
-                javaResultFunc
-                  .result(find.iterator)
-                  .foreach(
-                    x => {
-                      last = x
-                      ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                    })
-              }
-            }
+      // only this thread moves the last record, so the query can run outside the checkpoint lock
+      val records = if (isRunning) query() else Nil
+      if (records.isEmpty) {
+        pause(backoff)
+        backoff = math.min(backoff * 2, maxBackoff)
+      } else {
+        backoff = minBackoff
+        ctx.getCheckpointLock.synchronized {
+          records.foreach(
+            x => {
+              last = x
+              ctx.collectWithTimestamp(last, System.currentTimeMillis())
+            })
+        }
+      }
+    }
+  }
+
+  private[this] def query(): List[R] = {
+    val find = apiType match {
+      case ApiType.scala => scalaQueryFunc(last, mongoCollection)
+      case ApiType.java => javaQueryFunc.query(last, mongoCollection)
+    }
+    if (find == null) Nil
+    else {
+      find.iterator.autoClose(
+        cursor =>
+          apiType match {
+            case ApiType.scala => scalaResultFunc(cursor)
+            case ApiType.java => Option(javaResultFunc.result(cursor)).map(_.toList).getOrElse(Nil)
+          })
+    }
+  }
+
+  private[this] def tailChanges(ctx: SourceContext[R]): Unit = {
+    val maxAwaitTime =
+      Option(MongoConfig.getProperty(prop, MongoConfig.change_stream_max_await_time))
+        .map(_.toLong)
+        .getOrElse(1000L)
+    var changes =
+      if (pipeline == null) mongoCollection.watch()
+      else mongoCollection.watch(pipeline.map(BsonDocument.parse).toSeq.asJava)
+    changes = changes.maxAwaitTime(maxAwaitTime, TimeUnit.MILLISECONDS)
+    val fullDocument = MongoConfig.getProperty(prop, MongoConfig.change_stream_full_document)
+    if (fullDocument != null) {
+      changes = changes.fullDocument(FullDocument.fromString(fullDocument))
+    }
+    if (resumeToken != null) {
+      logInfo(s"MongoSource resume the change stream of $collection after ${resumeToken.toJson}")
+      changes = changes.resumeAfter(resumeToken)
+    }
+    changeCursor = changes.cursor()
+
+    var backoff = minBackoff
+    while (this.running) {
+      if (isRunning) {
+        backoff = minBackoff
+        // waits for maxAwaitTime at most, outside the checkpoint lock
+        val change = changeCursor.tryNext()
+        val record = if (change == null) None else convert(change)
+        // the post batch resume token keeps the position moving while nothing matches the pipeline
+        val token = if (change == null) changeCursor.getResumeToken else change.getResumeToken
+        ctx.getCheckpointLock.synchronized {
+          record.foreach(x => ctx.collectWithTimestamp(x, System.currentTimeMillis()))
+          if (token != null) {
+            resumeToken = token
           }
+        }
+      } else {
+        pause(backoff)
+        backoff = math.min(backoff * 2, maxBackoff)
       }
     }
   }
 
+  private[internal] def pause(millis: Long): Unit = Thread.sleep(millis)
+
+  private[this] def convert(change: ChangeStreamDocument[Document]): Option[R] = apiType match {
+    case ApiType.scala => scalaChangeFunc(change)
+    case ApiType.java => Option(javaChangeFunc.change(change))
+  }
+
   override def close(): Unit = {
-    client.close()
+    if (changeCursor != null) {
+      Try(changeCursor.close())
+    }
+    if (client != null) {
+      client.close()
+    }
   }
 
   override def snapshotState(context: FunctionSnapshotContext): Unit = {
@@ -155,6 +289,10 @@ class MongoSourceFunction[R: TypeInformation](
       if (last != null) {
         state.add(last)
       }
+      resumeTokenState.clear()
+      if (resumeToken != null) {
+        resumeTokenState.add(resumeToken.toJson)
+      }
     } else {
       logError("MongoSource snapshotState called on closed source")
     }
@@ -168,6 +306,12 @@ class MongoSourceFunction[R: TypeInformation](
       case Success(q) => last = q
       case _ =>
     }
+    resumeTokenState = FlinkUtils.getUnionListState[String](context, RESUME_TOKEN_STATE_NAME)(
+      BasicTypeInfo.STRING_TYPE_INFO)
+    Try(resumeTokenState.get.head) match {
+      case Success(token) => resumeToken = BsonDocument.parse(token)
+      case _ =>
+    }
   }
 
   override def notifyCheckpointComplete(checkpointId: Long): Unit = {
@@ -175,3 +319,16 @@ class MongoSourceFunction[R: TypeInformation](
   }
 
 }
+
+object MongoSourceFunction {
+
+  private def toJson(pipeline: java.util.List[_ <: Bson]): Array[String] = {
+    if (pipeline == null) null
+    else {
+      pipeline
+        .map(_.toBsonDocument(classOf[BsonDocument], MongoClientSettings.getDefaultCodecRegistry).toJson)
+        .toArray
+    }
+  }
+
+}
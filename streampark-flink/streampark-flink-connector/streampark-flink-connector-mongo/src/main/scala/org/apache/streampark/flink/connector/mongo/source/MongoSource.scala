@@ -22,9 +22,11 @@ import org.apache.streampark.flink.connector.mongo.internal.MongoSourceFunction
 import org.apache.streampark.flink.core.scala.StreamingContext
 
 import com.mongodb.client.{FindIterable, MongoCollection, MongoCursor}
+import com.mongodb.client.model.changestream.ChangeStreamDocument
 import org.apache.flink.api.common.typeinfo.TypeInformation
 import org.apache.flink.streaming.api.scala.DataStream
 import org.bson.Document
+import org.bson.conversions.Bson
 
 import java.util.Properties
 
@@ -52,4 +54,23 @@ class MongoSource(
     ctx.addSource(mongoFun)
   }
 
+  /**
+   * Tail the change stream of the collection, needs a replica set or a sharded cluster.
+   *
+   * @param changeFun
+   *   converts a change, None to skip it
+   * @param pipeline
+   *   aggregation pipeline of the change stream, e.g. to filter the operation types
+   */
+  def getChangeStream[R: TypeInformation](
+      collection: String,
+      changeFun: ChangeStreamDocument[Document] => Option[R],
+      pipeline: java.util.List[_ <: Bson] = null,
+      running: Unit => Boolean = null)(implicit prop: Properties = new Properties()): DataStream[R] = {
+
+    Utils.copyProperties(property, prop)
+    val mongoFun = new MongoSourceFunction[R](collection, prop, pipeline, changeFun, running)
+    ctx.addSource(mongoFun)
+  }
+
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.mongo.internal
+
+import com.mongodb.{MongoClient, MongoClientURI}
+import com.mongodb.client.{FindIterable, MongoCollection, MongoCursor}
+import com.mongodb.client.model.{Aggregates, Filters}
+import com.mongodb.client.model.changestream.ChangeStreamDocument
+import org.apache.flink.api.common.typeinfo.{BasicTypeInfo, TypeInformation}
+import org.apache.flink.configuration.Configuration
+import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
+import org.apache.flink.streaming.api.watermark.Watermark
+import org.apache.flink.util.InstantiationUtil
+import org.bson.Document
+import org.bson.conversions.Bson
+import org.junit.jupiter.api.{Assertions, Assumptions, Test}
+import org.testcontainers.DockerClientFactory
+import org.testcontainers.containers.MongoDBContainer
+import org.testcontainers.utility.DockerImageName
+
+import java.lang.reflect.{InvocationHandler, Method, Proxy}
+import java.util.Properties
+import java.util.concurrent.CopyOnWriteArrayList
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable
+
+class MongoSourceFunctionTest {
+
+  private implicit val typeInfo: TypeInformation[String] = BasicTypeInfo.STRING_TYPE_INFO
+
+  @Test
+  def testPollingBacksOffWhileNothingFound(): Unit = {
+    val results = mutable.Queue(Nil, Nil, Nil, List("a", "b"), Nil, Nil)
+    val lasts = new CopyOnWriteArrayList[String]()
+    val queryFunc: (String, MongoCollection[Document]) => FindIterable[Document] = (last, _) => {
+      lasts.add(last)
+      emptyFind
+    }
+    val resultFunc: MongoCursor[Document] => List[String] =
+      _ => if (results.isEmpty) Nil else results.dequeue()
+    val running: Unit => Boolean = null
+
+    val prop = new Properties()
+    prop.put("mongodb.poll.min-backoff", "10")
+    prop.put("mongodb.poll.max-backoff", "30")
+    val pauses = mutable.ArrayBuffer[Long]()
+    val function = new MongoSourceFunction[String]("test", prop, queryFunc, resultFunc, running) {
+      override private[internal] def pause(millis: Long): Unit = {
+        pauses += millis
+        if (pauses.size == 5) cancel()
+      }
+    }
+    val ctx = new CollectingSourceContext[String]
+    function.run(ctx)
+
+    // doubled up to the max backoff, and reset once the query found records
+    Assertions.assertEquals(List(10L, 20L, 30L, 10L, 20L), pauses.toList)
+    Assertions.assertEquals(List("a", "b"), ctx.records.toList)
+    // the query goes on from the last record emitted
+    Assertions.assertEquals(List(null, null, null, null, "b", "b"), lasts.toList)
+  }
+
+  @Test
+  def testChangeStreamPipelineIsSerializable(): Unit = {
+    val copy = InstantiationUtil.clone(changeStreamFunction(new Properties()))
+    Assertions.assertNotNull(copy)
+  }
+
+  @Test
+  def testTailChangesOfReplicaSet(): Unit = {
+    Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable, "docker is not available")
+    // a single node replica set
+    val mongo = new MongoDBContainer(DockerImageName.parse("mongo:4.4"))
+    mongo.start()
+    val client = new MongoClient(new MongoClientURI(mongo.getReplicaSetUrl("test")))
+    try {
+      val prop = new Properties()
+      prop.put("mongodb.client-uri", mongo.getReplicaSetUrl("test"))
+      prop.put("mongodb.database", "test")
+      prop.put("mongodb.change-stream.max-await-time", "100")
+      // as shipped to the task managers
+      val function = InstantiationUtil.clone(changeStreamFunction(prop))
+      function.open(new Configuration())
+      val ctx = new CollectingSourceContext[String]
+      val thread = new Thread(() => function.run(ctx))
+      thread.start()
+
+      val events = client.getDatabase("test").getCollection("events")
+      // the change stream starts asynchronously, the changes before it are not seen
+      var warmups = 0
+      while (ctx.records.isEmpty) {
+        Assertions.assertTrue(warmups < 100, "the change stream didn't start")
+        events.insertOne(new Document("name", s"warmup-$warmups"))
+        warmups += 1
+        Thread.sleep(100)
+      }
+      val seen = ctx.records.size
+      events.insertOne(new Document("name", "a"))
+      events.updateOne(Filters.eq("name", "a"), new Document("$set", new Document("name", "c")))
+      events.insertOne(new Document("name", "b"))
+      val deadline = System.currentTimeMillis + 10000
+      while (!ctx.records.contains("insert:b")) {
+        Assertions.assertTrue(System.currentTimeMillis < deadline, "the changes were not received")
+        Thread.sleep(10)
+      }
+      function.cancel()
+      thread.join(5000)
+      function.close()
+
+      // the update is filtered out by the pipeline
+      Assertions.assertEquals(
+        List("insert:a", "insert:b"),
+        ctx.records.drop(seen).filterNot(_.startsWith("insert:warmup")).toList)
+    } finally {
+      client.close()
+      mongo.stop()
+    }
+  }
+
+  private def changeStreamFunction(prop: Properties): MongoSourceFunction[String] = {
+    val pipeline: java.util.List[Bson] = List(Aggregates.`match`(Filters.in("operationType", "insert"))).asJava
+    val changeFunc: ChangeStreamDocument[Document] => Option[String] =
+      change => Some(s"${change.getOperationType.getValue}:${change.getFullDocument.getString("name")}")
+    val running: Unit => Boolean = null
+    new MongoSourceFunction[String]("events", prop, pipeline, changeFunc, running)
+  }
+
+  /** a query without any record, the results are given by the result function */
+  private def emptyFind: FindIterable[Document] = {
+    val cursor = proxy[MongoCursor[Document]](classOf[MongoCursor[_]], (_, _, _) => null)
+    proxy[FindIterable[Document]](
+      classOf[FindIterable[_]],
+      (_, method, _) => if (method.getName == "iterator") cursor else null)
+  }
+
+  private def proxy[T](clazz: Class[_], handler: (AnyRef, Method, Array[AnyRef]) => AnyRef): T = {
+    Proxy
+      .newProxyInstance(
+        getClass.getClassLoader,
+        Array[Class[_]](clazz),
+        new InvocationHandler {
+          override def invoke(proxy: AnyRef, method: Method, args: Array[AnyRef]): AnyRef =
+            handler(proxy, method, args)
+        })
+      .asInstanceOf[T]
+  }
+
+}
+
+class CollectingSourceContext[T] extends SourceContext[T] {
+
+  val records = new CopyOnWriteArrayList[T]()
+
+  private val lock = new Object
+
+  override def collect(element: T): Unit = records.add(element)
+
+  override def collectWithTimestamp(element: T, timestamp: Long): Unit = records.add(element)
+
+  override def emitWatermark(mark: Watermark): Unit = {}
+
+  override def markAsTemporarilyIdle(): Unit = {}
+
+  override def getCheckpointLock: AnyRef = lock
+
+  override def close(): Unit = {}
+}
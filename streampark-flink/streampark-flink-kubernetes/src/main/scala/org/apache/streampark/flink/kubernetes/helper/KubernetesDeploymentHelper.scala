@@ -17,21 +17,37 @@
 
 package org.apache.streampark.flink.kubernetes.helper
 
-import org.apache.streampark.common.util.{Logger, SystemPropertyUtils}
+import org.apache.streampark.common.util.{LogFileIndex, Logger, SystemPropertyUtils, Utils}
 import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine, RemovalCause, Scheduler}
 import com.google.common.base.Charsets
 import com.google.common.io.Files
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.Pod
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.dsl.LogWatch
 
-import java.io.File
+import java.io.{File, OutputStream, RandomAccessFile}
+import java.util.concurrent.TimeUnit
 
 import scala.util.{Success, Try}
 
 object KubernetesDeploymentHelper extends Logger {
 
+  private[this] val LOG_FIRST_BYTES_TIMEOUT_MS = 2000L
+
+  /** jobId -> log stream of its deployment */
+  private[this] lazy val deploymentLogStreams: Cache[String, DeploymentLogStream] =
+    Caffeine.newBuilder
+      .expireAfterAccess(5, TimeUnit.MINUTES)
+      .expireAfterWrite(30, TimeUnit.MINUTES)
+      .scheduler(Scheduler.systemScheduler())
+      .removalListener[String, DeploymentLogStream](
+        (_: String, stream: DeploymentLogStream, _: RemovalCause) =>
+          if (stream != null) stream.close())
+      .build()
+
   private[this] def getPods(nameSpace: String, deploymentName: String): List[Pod] = {
     KubernetesRetriever
       .newK8sClient()
@@ -103,19 +119,31 @@ object KubernetesDeploymentHelper extends Logger {
     }
   }
 
+  /**
+   * Follow the log of the deployment into a local file and return the path of it. The log is
+   * streamed once per job and appended to the file incrementally, the stream is closed after it
+   * has not been read for a while, or expired. A new stream resumes the file where it stopped.
+   */
   def watchDeploymentLog(nameSpace: String, jobName: String, jobId: String): String = {
-    KubernetesRetriever
-      .newK8sClient()
-      .autoClose(client => {
-        val path = KubernetesDeploymentHelper.getJobLog(jobId)
-        val file = new File(path)
-        val log = client.apps.deployments
-          .inNamespace(nameSpace)
-          .withName(jobName)
-          .getLog
-        Files.asCharSink(file, Charsets.UTF_8).write(log)
-        path
+    val path = KubernetesDeploymentHelper.getJobLog(jobId)
+    var created: DeploymentLogStream = null
+    val stream = deploymentLogStreams.get(
+      jobId,
+      _ => {
+        created = DeploymentLogStream(nameSpace, jobName, path)
+        created
       })
+    if (stream eq created) {
+      stream.awaitFirstBytes(LOG_FIRST_BYTES_TIMEOUT_MS)
+    }
+    path
+  }
+
+  /** Stop following the deployment log of the job, called once the job is cancelled or removed. */
+  def stopWatchDeploymentLog(jobId: String): Unit = {
+    if (jobId != null) {
+      deploymentLogStreams.invalidate(jobId)
+    }
   }
 
   def watchPodTerminatedLog(nameSpace: String, jobName: String, jobId: String): String = {
@@ -148,3 +176,97 @@ object KubernetesDeploymentHelper extends Logger {
   }
 
 }
+
+/**
+ * Streams the log of a deployment into a local file. The log is streamed from its beginning, the
+ * part already in the file is kept, see [[ResumingFileOutputStream]].
+ */
+private[kubernetes] class DeploymentLogStream(nameSpace: String, jobName: String, path: String)
+  extends AutoCloseable
+  with Logger {
+
+  private[this] val client = KubernetesRetriever.newK8sClient()
+
+  private[this] val output = new ResumingFileOutputStream(path)
+
+  private[this] val logWatch: LogWatch =
+    Try {
+      client.apps.deployments
+        .inNamespace(nameSpace)
+        .withName(jobName)
+        .watchLog(output)
+    }.recover {
+      case e =>
+        Utils.close(output, client)
+        throw e
+    }.get
+
+  def awaitFirstBytes(timeoutMs: Long): Unit = {
+    val deadline = System.currentTimeMillis + timeoutMs
+    val file = new File(path)
+    while (file.length() == 0 && System.currentTimeMillis < deadline) {
+      Thread.sleep(50)
+    }
+  }
+
+  override def close(): Unit = {
+    logDebug(s"Stop following the log of deployment $nameSpace/$jobName.")
+    Utils.close(logWatch, output, client)
+  }
+
+}
+
+private[kubernetes] object DeploymentLogStream {
+  def apply(nameSpace: String, jobName: String, path: String): DeploymentLogStream =
+    new DeploymentLogStream(nameSpace, jobName, path)
+}
+
+/**
+ * Writes a log that is streamed again from its beginning into the file of the previous stream of
+ * it. The bytes already in the file are compared instead of written, the file is only appended
+ * past them, so that its line index stays valid. If the log differs from the file, e.g. the pod
+ * was restarted, the file is truncated where they differ.
+ */
+private[kubernetes] class ResumingFileOutputStream(path: String) extends OutputStream {
+
+  private[this] val file = new RandomAccessFile(path, "rw")
+
+  /** length of the previous content, which is compared with the log */
+  private[this] var resumeOffset = file.length()
+
+  private[this] var position = 0L
+
+  private[this] val buffer = new Array[Byte](8192)
+
+  override def write(b: Int): Unit = write(Array(b.toByte), 0, 1)
+
+  override def write(b: Array[Byte], off: Int, len: Int): Unit = {
+    var offset = off
+    var remaining = len
+    while (remaining > 0 && position < resumeOffset) {
+      val size = Math.min(remaining.toLong, Math.min(buffer.length.toLong, resumeOffset - position)).toInt
+      file.seek(position)
+      file.readFully(buffer, 0, size)
+      var same = 0
+      while (same < size && buffer(same) == b(offset + same)) {
+        same += 1
+      }
+      position += same
+      offset += same
+      remaining -= same
+      if (same < size) {
+        // not the log of the previous stream anymore, the rest of the file is replaced
+        file.setLength(position)
+        resumeOffset = position
+        LogFileIndex.invalidate(path)
+      }
+    }
+    if (remaining > 0) {
+      file.seek(position)
+      file.write(b, offset, remaining)
+      position += remaining
+    }
+  }
+
+  override def close(): Unit = file.close()
+}
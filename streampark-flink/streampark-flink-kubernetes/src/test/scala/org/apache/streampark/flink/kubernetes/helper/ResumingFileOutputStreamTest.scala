@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes.helper
+
+import org.apache.streampark.common.util.LogFileIndex
+
+import org.junit.jupiter.api.{AfterEach, Test}
+import org.junit.jupiter.api.Assertions.{assertEquals, assertSame}
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+
+class ResumingFileOutputStreamTest {
+
+  private val path: Path = Files.createTempFile("deployment", ".log")
+
+  @AfterEach
+  def after(): Unit = {
+    LogFileIndex.invalidate(path.toString)
+    Files.deleteIfExists(path)
+  }
+
+  @Test
+  def testNewLogIsWritten(): Unit = {
+    stream("line 1\n", "line 2\n")
+    assertEquals("line 1\nline 2\n", content())
+  }
+
+  @Test
+  def testLogIsResumedWhereTheFileStopped(): Unit = {
+    write("line 1\nline 2\n")
+    val indexed = LogFileIndex.of(path.toString)
+
+    // the log is streamed again from its beginning, in other chunks than the first time
+    stream("line", " 1\nli", "ne 2\nline 3\n", "line 4\n")
+    assertEquals("line 1\nline 2\nline 3\nline 4\n", content())
+    // the file was only appended, its index is still the same
+    assertSame(indexed, LogFileIndex.of(path.toString))
+    assertEquals("line 3\r\nline 4", LogFileIndex.of(path.toString).readLines(2, 2))
+  }
+
+  @Test
+  def testDifferentLogReplacesTheFile(): Unit = {
+    write("line 1\nline 2\nline 3\n")
+    LogFileIndex.of(path.toString)
+
+    stream("line 1\nrestarted\n")
+    assertEquals("line 1\nrestarted\n", content())
+    assertEquals("line 1\r\nrestarted", LogFileIndex.of(path.toString).readLines(0, 10))
+  }
+
+  private def stream(chunks: String*): Unit = {
+    val output = new ResumingFileOutputStream(path.toString)
+    try chunks.foreach(chunk => output.write(chunk.getBytes(StandardCharsets.UTF_8)))
+    finally output.close()
+  }
+
+  private def write(content: String): Unit =
+    Files.write(path, content.getBytes(StandardCharsets.UTF_8))
+
+  private def content(): String =
+    new String(Files.readAllBytes(path), StandardCharsets.UTF_8)
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.docker
+
+import org.apache.streampark.common.constants.Constants
+import org.apache.streampark.common.fs.LfsOperator
+import org.apache.streampark.common.util.FileUtils
+
+import org.apache.commons.codec.digest.DigestUtils
+
+import javax.annotation.Nullable
+
+import java.io.File
+import java.nio.file.Paths
+
+/**
+ * Layered flink docker image template.
+ *
+ * The image is built as: base image -> one layer per third-party dependency jar -> hadoop/hive conf
+ * -> job main jar. Every dependency jar is copied into a build context directory named after its
+ * content digest with a fixed modification time, and the layers are ordered by digest, so that
+ * images of different jobs sharing the same dependencies hit the same docker build cache and the
+ * registry only receives the layers that actually changed.
+ *
+ * @param workspacePath
+ *   Path of dockerfile workspace, it should be a directory.
+ * @param flinkBaseImage
+ *   Flink base docker image name, see https://hub.docker.com/_/flink.
+ * @param flinkMainJarPath
+ *   Path of flink job main jar which would copy to $FLINK_HOME/usrlib/
+ * @param flinkExtraLibPaths
+ *   Path of additional flink lib path which would copy to $FLINK_HOME/lib/
+ * @param userDependencyPaths
+ *   Path of job dependency jars which would copy to $FLINK_HOME/usrlib/
+ * @param hadoopConfDirPath
+ *   Path of hadoop conf directory.
+ * @param hiveConfDirPath
+ *   Path of hive conf directory.
+ */
+case class FlinkLayeredDockerfileTemplate(
+    workspacePath: String,
+    flinkBaseImage: String,
+    flinkMainJarPath: String,
+    flinkExtraLibPaths: Set[String],
+    userDependencyPaths: Set[String],
+    @Nullable hadoopConfDirPath: String = null,
+    @Nullable hiveConfDirPath: String = null)
+  extends FlinkDockerfileTemplateTrait {
+
+  import FlinkLayeredDockerfileTemplate._
+
+  val hadoopConfDir: String = relativize(hadoopConfDirPath)
+
+  val hiveConfDir: String = relativize(hiveConfDirPath)
+
+  /** dependency layers of $FLINK_HOME/lib, ordered by digest */
+  lazy val libLayers: Seq[DependencyLayer] = prepareLayers(flinkExtraLibPaths, "lib")
+
+  /** dependency layers of $FLINK_HOME/usrlib, ordered by digest */
+  lazy val usrlibLayers: Seq[DependencyLayer] =
+    prepareLayers(userDependencyPaths, "usrlib", MAX_DEPENDENCY_LAYERS - libLayers.size)
+
+  /** offer content of DockerFile */
+  override def offerDockerfileContent: String = {
+    val dockerfile = new StringBuilder
+    dockerfile.append(s"""FROM $flinkBaseImage
+                         |RUN mkdir -p $FLINK_HOME/usrlib
+                         |""".stripMargin)
+    libLayers.foreach(l => dockerfile.append(s"COPY ${l.contextDir}/ $FLINK_HOME/lib/\n"))
+    usrlibLayers.foreach(l => dockerfile.append(s"COPY ${l.contextDir}/ $FLINK_HOME/usrlib/\n"))
+    if (hadoopConfDir.nonEmpty) {
+      dockerfile.append(s"""COPY $hadoopConfDir /opt/hadoop-conf
+                           |ENV HADOOP_CONF_DIR /opt/hadoop-conf
+                           |""".stripMargin)
+    }
+    if (hiveConfDir.nonEmpty) {
+      dockerfile.append(s"""COPY $hiveConfDir /opt/hive-conf
+                           |ENV HIVE_CONF_DIR /opt/hive-conf
+                           |""".stripMargin)
+    }
+    dockerfile.append(s"COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName\n")
+    dockerfile.toString()
+  }
+
+  private[this] def relativize(@Nullable path: String): String = {
+    Option(path).filter(_.nonEmpty) match {
+      case Some(p) => workspace.relativize(Paths.get(p).toAbsolutePath).toString
+      case None => ""
+    }
+  }
+
+  /**
+   * Copy the jars into `workspace/layers/<digest>/` with a fixed modification time. Each jar gets
+   * its own layer, the jars beyond `maxLayers` are merged into the last one.
+   */
+  private[this] def prepareLayers(
+      paths: Set[String],
+      target: String,
+      maxLayers: Int = MAX_DEPENDENCY_LAYERS): Seq[DependencyLayer] = {
+    val jars = listJars(paths)
+      .map(jar => FileUtils.sha256Hex(jar) -> jar)
+      .sortBy(_._1)
+    if (jars.isEmpty) {
+      return Seq.empty
+    }
+    val limit = Math.max(maxLayers, 1)
+    val groups =
+      if (jars.size <= limit) jars.map(Seq(_))
+      else jars.take(limit - 1).map(Seq(_)) :+ jars.drop(limit - 1)
+    groups.map(
+      group => {
+        val digest =
+          if (group.size == 1) group.head._1
+          else DigestUtils.sha256Hex(group.map(_._1).mkString(","))
+        val contextDir = s"$LAYERS_DIR/$target-${digest.take(DIGEST_PREFIX_LENGTH)}"
+        val layerDir = new File(workspace.toFile, contextDir)
+        LfsOperator.mkCleanDirs(layerDir.getAbsolutePath)
+        group.foreach {
+          case (_, jar) =>
+            val output = new File(layerDir, jar.getName)
+            LfsOperator.copy(jar.getAbsolutePath, output.getAbsolutePath)
+            output.setLastModified(FIXED_MODIFIED_TIME)
+        }
+        layerDir.setLastModified(FIXED_MODIFIED_TIME)
+        DependencyLayer(digest, contextDir, group.map(_._2.getName))
+      })
+  }
+
+  private[this] def listJars(paths: Set[String]): Seq[File] = {
+    paths.toSeq
+      .map(new File(_))
+      .filter(_.exists())
+      .flatMap {
+        case f if f.isDirectory =>
+          f.listFiles.filter(e => e.isFile && e.getName.endsWith(Constants.JAR_SUFFIX)).toSeq
+        case f if f.getName.endsWith(Constants.JAR_SUFFIX) => Seq(f)
+        case _ => Seq.empty
+      }
+      .distinct
+  }
+
+}
+
+object FlinkLayeredDockerfileTemplate {
+
+  /** docker limits an image to 127 layers, keep enough room for base image layers. */
+  val MAX_DEPENDENCY_LAYERS = 64
+
+  /** 1980-01-01T00:00:00Z, the same timestamp as used by reproducible jar builds. */
+  val FIXED_MODIFIED_TIME = 315532800000L
+
+  private val LAYERS_DIR = "layers"
+
+  private val DIGEST_PREFIX_LENGTH = 16
+
+  /** Use relevant system variables as the value of hadoopConfDirPath, hiveConfDirPath. */
+  def fromSystemHadoopConf(
+      workspacePath: String,
+      flinkBaseImage: String,
+      flinkMainJarPath: String,
+      flinkExtraLibPaths: Set[String],
+      userDependencyPaths: Set[String]): FlinkLayeredDockerfileTemplate = {
+    val template = FlinkHadoopDockerfileTemplate.fromSystemHadoopConf(
+      workspacePath,
+      flinkBaseImage,
+      flinkMainJarPath,
+      flinkExtraLibPaths)
+    FlinkLayeredDockerfileTemplate(
+      workspacePath,
+      flinkBaseImage,
+      flinkMainJarPath,
+      flinkExtraLibPaths,
+      userDependencyPaths,
+      template.hadoopConfDirPath,
+      template.hiveConfDirPath)
+  }
+
+}
+
+/**
+ * @param digest
+ *   content digest of the jars in this layer
+ * @param contextDir
+ *   directory of the layer relative to the docker build context
+ * @param jars
+ *   names of the jars in this layer
+ */
+case class DependencyLayer(digest: String, contextDir: String, jars: Seq[String])
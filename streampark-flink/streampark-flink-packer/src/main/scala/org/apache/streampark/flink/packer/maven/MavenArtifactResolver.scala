@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.maven
+
+import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.Implicits._
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils
+import org.eclipse.aether.{DefaultRepositoryCache, RepositoryCache, RepositorySystem, RepositorySystemSession, SyncContext}
+import org.eclipse.aether.artifact.{Artifact => AetherArtifact, DefaultArtifact}
+import org.eclipse.aether.collection.CollectRequest
+import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory
+import org.eclipse.aether.graph.{Dependency, Exclusion}
+import org.eclipse.aether.impl.SyncContextFactory
+import org.eclipse.aether.metadata.Metadata
+import org.eclipse.aether.repository.{LocalRepository, RemoteRepository}
+import org.eclipse.aether.resolution.DependencyRequest
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory
+import org.eclipse.aether.spi.connector.transport.TransporterFactory
+import org.eclipse.aether.transport.file.FileTransporterFactory
+import org.eclipse.aether.transport.http.HttpTransporterFactory
+import org.eclipse.aether.util.artifact.JavaScopes
+import org.eclipse.aether.util.filter.DependencyFilterUtils
+
+import java.io.File
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import java.util.concurrent.locks.ReentrantLock
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Long-lived maven artifact resolver.
+ *
+ * A single RepositorySystem is built once and shared by every resolve request, the artifact
+ * descriptors read while collecting the dependency graph are kept in a RepositoryCache shared
+ * across sessions, and the resolved jar files are cached by (artifacts, remote repositories,
+ * excludes). The artifacts of one request are downloaded concurrently by the basic connector, at
+ * most `resolveThreads` at a time.
+ *
+ * A graph with a SNAPSHOT is never cached: it's resolved by every request with a cache of its own
+ * session, so the snapshots are updated as the update policy of the remote repositories tells.
+ *
+ * Concurrent requests against the same local repository are serialized per GAV directory through
+ * [[LocalRepositorySyncContextFactory]], so that parallel builds never write the same artifact at
+ * the same time.
+ *
+ * @param localRepoPath
+ *   maven local repository dir
+ * @param resolveThreads
+ *   max number of concurrent downloads per request
+ * @param cacheTtlSec
+ *   ttl of the resolved result cache
+ */
+class MavenArtifactResolver(localRepoPath: String, resolveThreads: Int, cacheTtlSec: Long)
+  extends Logger {
+
+  private[this] lazy val repoSystem: RepositorySystem = {
+    val locator = MavenRepositorySystemUtils.newServiceLocator
+    locator.addService(
+      classOf[RepositoryConnectorFactory],
+      classOf[BasicRepositoryConnectorFactory])
+    locator.addService(classOf[TransporterFactory], classOf[FileTransporterFactory])
+    locator.addService(classOf[TransporterFactory], classOf[HttpTransporterFactory])
+    locator.setService(classOf[SyncContextFactory], classOf[LocalRepositorySyncContextFactory])
+    locator.getService(classOf[RepositorySystem])
+  }
+
+  private[this] lazy val localRepo = new LocalRepository(localRepoPath)
+
+  /** artifact descriptors and resolved versions, shared by the sessions of the release graphs */
+  @volatile private[this] var repositoryCache = new DefaultRepositoryCache
+
+  /** resolved jar files, key: sorted coordinates + remote repositories + excludes */
+  private[this] val resolvedCache: Cache[String, JavaList[File]] = Caffeine
+    .newBuilder()
+    .expireAfterWrite(cacheTtlSec, TimeUnit.SECONDS)
+    .maximumSize(1000)
+    .build()
+
+  /** keys of the graphs with a transitive SNAPSHOT, resolved without the shared caches */
+  private[this] val snapshotGraphs: Cache[String, java.lang.Boolean] = Caffeine
+    .newBuilder()
+    .expireAfterWrite(cacheTtlSec, TimeUnit.SECONDS)
+    .maximumSize(1000)
+    .build()
+
+  /**
+   * Resolve the full compile-scope dependency graph of the given artifacts.
+   *
+   * @param artifacts
+   *   root artifacts
+   * @param remoteRepos
+   *   remote repositories used to resolve the artifacts
+   * @param excludes
+   *   artifacts excluded from the graph together with their subtree, "*" is allowed as artifactId
+   * @return
+   *   jar files of the root artifacts and all their transitive dependencies
+   */
+  @throws[Exception]
+  def resolve(
+      artifacts: Set[Artifact],
+      remoteRepos: List[RemoteRepository],
+      excludes: List[Artifact]): JavaList[File] = {
+    if (artifacts.isEmpty) {
+      return List.empty[File]
+    }
+    val key = cacheKey(artifacts, remoteRepos, excludes)
+    val snapshotRoot = artifacts.exists(_.version.endsWith(MavenArtifactResolver.SNAPSHOT))
+    if (snapshotRoot || snapshotGraphs.getIfPresent(key) != null) {
+      // the snapshot metadata is only kept by the session of this request
+      return doResolve(artifacts, remoteRepos, excludes, new DefaultRepositoryCache)._1
+    }
+    val cached = resolvedCache.getIfPresent(key)
+    if (cached != null) {
+      if (cached.forall(_.exists)) {
+        logInfo(s"hit resolved dependencies cache: ${artifacts.mkString(",")}")
+        return cached
+      }
+      // the local repository has been cleaned up, resolve again
+      resolvedCache.invalidate(key)
+    }
+    // the same graph requested by concurrent builds is only resolved once
+    var snapshotFiles: JavaList[File] = null
+    val files = resolvedCache.get(
+      key,
+      _ => {
+        val (resolved, hasSnapshot) = doResolve(artifacts, remoteRepos, excludes, repositoryCache)
+        if (hasSnapshot) {
+          // a release depending on a SNAPSHOT, not cached, and its snapshot metadata is dropped
+          snapshotGraphs.put(key, java.lang.Boolean.TRUE)
+          repositoryCache = new DefaultRepositoryCache
+          snapshotFiles = resolved
+          null
+        } else resolved
+      }
+    )
+    if (files != null) files else snapshotFiles
+  }
+
+  /** drop all cached descriptors and resolved results */
+  def invalidateAll(): Unit = {
+    resolvedCache.invalidateAll()
+    snapshotGraphs.invalidateAll()
+    repositoryCache = new DefaultRepositoryCache
+  }
+
+  /** @return the resolved jar files, and whether the graph has a SNAPSHOT */
+  private[this] def doResolve(
+      artifacts: Set[Artifact],
+      remoteRepos: List[RemoteRepository],
+      excludes: List[Artifact],
+      cache: RepositoryCache): (JavaList[File], Boolean) = {
+    val session = newSession(cache)
+    val exclusions = excludes.map(e => new Exclusion(e.groupId, e.artifactId, "*", "*"))
+    val collectRequest = new CollectRequest()
+    collectRequest.setRepositories(remoteRepos)
+    artifacts.foreach(
+      e => {
+        val artifact =
+          new DefaultArtifact(e.groupId, e.artifactId, e.classifier, "jar", e.version)
+        collectRequest.addDependency(
+          new Dependency(artifact, JavaScopes.COMPILE, false, exclusions))
+      })
+    logInfo(s"start resolving dependencies: ${artifacts.mkString(",")}")
+    val dependencyRequest =
+      new DependencyRequest(collectRequest, DependencyFilterUtils.classpathFilter(JavaScopes.COMPILE))
+    val resolved = repoSystem
+      .resolveDependencies(session, dependencyRequest)
+      .getArtifactResults
+      .map(_.getArtifact)
+      .toList
+    val files: JavaList[File] = resolved.map(_.getFile)
+    logInfo(s"resolved dependencies: ${files.map(_.getName).mkString(",")}")
+    (files, resolved.exists(_.isSnapshot))
+  }
+
+  private[this] def newSession(cache: RepositoryCache): RepositorySystemSession = {
+    val session = MavenRepositorySystemUtils.newSession
+    session.setLocalRepositoryManager(repoSystem.newLocalRepositoryManager(session, localRepo))
+    session.setCache(cache)
+    session.setConfigProperty(
+      MavenArtifactResolver.CONNECTOR_THREADS_KEY,
+      Integer.valueOf(resolveThreads))
+    session
+  }
+
+  private[this] def cacheKey(
+      artifacts: Set[Artifact],
+      remoteRepos: List[RemoteRepository],
+      excludes: List[Artifact]) = {
+    val coords = artifacts
+      .map(a => s"${a.groupId}:${a.artifactId}:${a.version}:${Option(a.classifier).getOrElse("")}")
+      .toList
+      .sorted
+    val repos = remoteRepos.map(r => s"${r.getId}@${r.getUrl}").sorted
+    val exclusions = excludes.map(e => s"${e.groupId}:${e.artifactId}").distinct.sorted
+    s"${coords.mkString(",")}|${repos.mkString(",")}|${exclusions.mkString(",")}"
+  }
+
+}
+
+object MavenArtifactResolver {
+
+  /** the max number of threads used by the basic connector to download artifacts */
+  private val CONNECTOR_THREADS_KEY = "aether.connector.basic.threads"
+
+  private val SNAPSHOT = "-SNAPSHOT"
+
+}
+
+/**
+ * SyncContextFactory which serializes the access of concurrent sessions to the same GAV directory
+ * of a local repository inside the JVM. The default factory of aether is a no-op.
+ */
+class LocalRepositorySyncContextFactory extends SyncContextFactory {
+
+  override def newInstance(session: RepositorySystemSession, shared: Boolean): SyncContext =
+    new LocalRepositorySyncContext(session.getLocalRepository.getBasedir.getAbsolutePath)
+
+}
+
+private[maven] object LocalRepositorySyncContextFactory {
+
+  private val locks = new ConcurrentHashMap[String, ReentrantLock]()
+
+  def lockOf(key: String): ReentrantLock =
+    locks.computeIfAbsent(key, _ => new ReentrantLock())
+
+}
+
+private[maven] class LocalRepositorySyncContext(baseDir: String) extends SyncContext {
+
+  private[this] val acquired = ArrayBuffer[ReentrantLock]()
+
+  override def acquire(
+      artifacts: JavaCollection[_ <: AetherArtifact],
+      metadatas: JavaCollection[_ <: Metadata]): Unit = {
+    val artifactKeys = Option(artifacts)
+      .map(_.map(a => s"$baseDir:${a.getGroupId}:${a.getArtifactId}:${a.getBaseVersion}").toList)
+      .getOrElse(List.empty)
+    val metadataKeys = Option(metadatas)
+      .map(_.map(m => s"$baseDir:${m.getGroupId}:${m.getArtifactId}:${m.getVersion}").toList)
+      .getOrElse(List.empty)
+    // always lock in the same order to avoid deadlock between sessions.
+    (artifactKeys ++ metadataKeys).distinct.sorted.foreach(
+      key => {
+        val lock = LocalRepositorySyncContextFactory.lockOf(key)
+        lock.lock()
+        acquired += lock
+      })
+  }
+
+  override def close(): Unit = {
+    acquired.reverse.foreach(_.unlock())
+    acquired.clear()
+  }
+
+}
@@ -18,7 +18,7 @@
 package org.apache.streampark.flink.packer.maven
 
 import org.apache.streampark.common.conf.{InternalConfigHolder, Workspace}
-import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_REMOTE_URL}
+import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_REMOTE_URL, MAVEN_RESOLVE_CACHE_TTL_SEC, MAVEN_RESOLVE_THREADS}
 import org.apache.streampark.common.constants.Constants
 import org.apache.streampark.common.util.{AssertUtils, Logger, Utils}
 import org.apache.streampark.common.util.Implicits._
@@ -27,18 +27,9 @@ import com.google.common.collect.Lists
 import org.apache.maven.plugins.shade.{DefaultShader, ShadeRequest}
 import org.apache.maven.plugins.shade.filter.Filter
 import org.apache.maven.plugins.shade.resource.{ManifestResourceTransformer, ResourceTransformer, ServicesResourceTransformer}
-import org.apache.maven.repository.internal.MavenRepositorySystemUtils
 import org.codehaus.plexus.logging.{Logger => PlexusLog}
 import org.codehaus.plexus.logging.console.ConsoleLogger
-import org.eclipse.aether.{RepositorySystem, RepositorySystemSession}
-import org.eclipse.aether.artifact.DefaultArtifact
-import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory
-import org.eclipse.aether.repository.{LocalRepository, RemoteRepository}
-import org.eclipse.aether.resolution.{ArtifactDescriptorRequest, ArtifactRequest}
-import org.eclipse.aether.spi.connector.RepositoryConnectorFactory
-import org.eclipse.aether.spi.connector.transport.TransporterFactory
-import org.eclipse.aether.transport.file.FileTransporterFactory
-import org.eclipse.aether.transport.http.HttpTransporterFactory
+import org.eclipse.aether.repository.RemoteRepository
 import org.eclipse.aether.util.repository.AuthenticationBuilder
 
 import javax.annotation.{Nonnull, Nullable}
@@ -54,6 +45,12 @@ object MavenTool extends Logger {
   private[this] lazy val plexusLog =
     new ConsoleLogger(PlexusLog.LEVEL_INFO, "streampark-maven")
 
+  /** the shared resolver on the maven local repository of workspace */
+  private[this] lazy val resolver = new MavenArtifactResolver(
+    Workspace.MAVEN_LOCAL_PATH,
+    InternalConfigHolder.get[Int](MAVEN_RESOLVE_THREADS),
+    InternalConfigHolder.get[Long](MAVEN_RESOLVE_CACHE_TTL_SEC))
+
   private[this] val excludeArtifact = List(
     Artifact.of("org.apache.flink:force-shading:*"),
     Artifact.of("com.google.code.findbugs:jsr305:*"),
@@ -173,7 +170,8 @@ object MavenTool extends Logger {
 
   /**
    * Resolve the collectoin of artifacts, Artifacts will be download to ConfigConst.MAVEN_LOCAL_DIR
-   * if necessary. notes: Only compile scope dependencies will be resolved.
+   * if necessary. notes: Only compile scope dependencies will be resolved, the whole transitive
+   * graph is resolved and the result is cached, see [[MavenArtifactResolver]].
    *
    * @param mavenArtifacts
    *   collection of maven artifacts
@@ -184,68 +182,8 @@ object MavenTool extends Logger {
   def resolveArtifacts(mavenArtifacts: JavaSet[Artifact]): JavaList[File] = {
     if (mavenArtifacts == null) List.empty[File]
     else {
-      val (repoSystem, session) = getMavenEndpoint()
-      val artifacts = mavenArtifacts.map(e => {
-        val artifact =
-          new DefaultArtifact(e.groupId, e.artifactId, e.classifier, "jar", e.version)
-        artifact.getProperties
-        artifact
-      })
-      logInfo(s"start resolving dependencies: ${artifacts.mkString}")
-
-      val remoteRepos = getRemoteRepos()
-      // read relevant artifact descriptor info
-      // plz don't simplify the following lambda syntax to maintain the readability of the code.
-      val resolvedArtifacts = artifacts
-        .map(artifact => new ArtifactDescriptorRequest(artifact, remoteRepos, null))
-        .map(artDescReq => repoSystem.readArtifactDescriptor(session, artDescReq))
-        .flatMap(_.getDependencies)
-        .filter(_.getScope == "compile")
-        .filter(x => !excludeArtifact.exists(_.eq(x.getArtifact)))
-        .map(_.getArtifact)
-
-      val mergedArtifacts = artifacts ++ resolvedArtifacts
-      logInfo(s"resolved dependencies: ${mergedArtifacts.mkString}")
-
-      // download artifacts
-      val artReqs =
-        mergedArtifacts.map(artifact => new ArtifactRequest(artifact, remoteRepos, null))
-      repoSystem
-        .resolveArtifacts(session, artReqs)
-        .map(_.getArtifact.getFile)
-        .toList
-    }
-  }
-
-  /** create composite maven endpoint */
-  private[this] def getMavenEndpoint(): (RepositorySystem, RepositorySystemSession) = {
-
-    /** create maven repository endpoint */
-
-    lazy val locator = MavenRepositorySystemUtils.newServiceLocator
-
-    /** default maven local repository */
-    lazy val localRepo = new LocalRepository(Workspace.MAVEN_LOCAL_PATH)
-
-    def newRepoSystem(): RepositorySystem = {
-      locator.addService(
-        classOf[RepositoryConnectorFactory],
-        classOf[BasicRepositoryConnectorFactory])
-      locator.addService(classOf[TransporterFactory], classOf[FileTransporterFactory])
-      locator.addService(classOf[TransporterFactory], classOf[HttpTransporterFactory])
-      locator.getService(classOf[RepositorySystem])
+      resolver.resolve(mavenArtifacts.toSet, getRemoteRepos(), excludeArtifact)
     }
-
-    /** create maven repository session endpoint */
-    def newSession(system: RepositorySystem): RepositorySystemSession = {
-      val session = MavenRepositorySystemUtils.newSession
-      session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo))
-      session
-    }
-
-    val repoSystem = newRepoSystem()
-    val session = newSession(repoSystem)
-    (repoSystem, session)
   }
 
   private[this] class ShadeFilter extends Filter {
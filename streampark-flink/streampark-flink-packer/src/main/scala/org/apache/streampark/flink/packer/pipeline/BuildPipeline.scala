@@ -21,10 +21,11 @@ import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline.executor
 
-import java.util.concurrent.{Callable, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
+import java.util.concurrent.{Callable, ConcurrentHashMap, Future => JavaFuture, FutureTask, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 
 import scala.collection.mutable
-import scala.concurrent.{ExecutionContext, ExecutionContextExecutorService}
+import scala.concurrent.{Await, ExecutionContext, ExecutionContextExecutorService, Future, Promise}
+import scala.concurrent.duration.Duration
 import scala.util.{Failure, Success, Try}
 
 /** Behavior that BuildPipeline subclasses must inherit to implement. */
@@ -93,57 +94,178 @@ trait BuildPipeline extends BuildPipelineProcess with BuildPipelineExpose with L
     this
   }
 
+  /** guards the step states, so that steps running concurrently report their progress in order */
+  private[this] val stepLock = new Object
+
+  /** the asynchronous steps submitted to the step executor and not finished yet */
+  private[this] val inflightSteps = new ConcurrentHashMap[Int, JavaFuture[_]]()
+
+  /** set once a step failed, the steps not started yet are skipped from then on */
+  @volatile private[this] var aborted: Boolean = false
+
+  /** set once the pipeline finished, the late step states are no longer reported */
+  private[this] var finished: Boolean = false
+
   protected def execStep[R](seq: Int)(process: => R): Option[R] = {
+    val startTime = System.currentTimeMillis
     Try {
-      curStep = seq
-      stepsStatus(seq) = PipelineStepStatusEnum.running -> System.currentTimeMillis
+      changeStepState(seq, PipelineStepStatusEnum.running)
       logInfo(s"Building pipeline step[$seq/$allSteps] running => ${pipeType.getSteps.get(seq)}")
-      watcher.onStepStateChange(snapshot)
       process
     } match {
       case Success(result) =>
-        stepsStatus(seq) = PipelineStepStatusEnum.success -> System.currentTimeMillis
+        PipelineStepMetrics.record(pipeType, seq, System.currentTimeMillis - startTime, true)
         logInfo(s"Building pipeline step[$seq/$allSteps] success")
-        watcher.onStepStateChange(snapshot)
+        changeStepState(seq, PipelineStepStatusEnum.success)
         Some(result)
       case Failure(cause) =>
-        stepsStatus(seq) = PipelineStepStatusEnum.failure -> System.currentTimeMillis
-        pipeStatus = PipelineStatusEnum.failure
-        error = PipeError.of(cause.getMessage, cause)
+        PipelineStepMetrics.record(pipeType, seq, System.currentTimeMillis - startTime, false)
         logInfo(s"Building pipeline step[$seq/$allSteps] failure => ${pipeType.getSteps
             .get(seq)}")
-        watcher.onStepStateChange(snapshot)
+        changeStepState(seq, PipelineStepStatusEnum.failure, cause)
+        // the pipeline fails anyway, don't keep the other steps running
+        inflightSteps.remove(seq)
+        abortSteps()
         None
     }
   }
 
   protected def skipStep(step: Int): Unit = {
-    curStep = step
-    stepsStatus(step) = PipelineStepStatusEnum.skipped -> System.currentTimeMillis
     logInfo(s"Building pipeline step[$step/$allSteps] skipped => ${pipeType.getSteps.get(step)}")
-    watcher.onStepStateChange(snapshot)
+    changeStepState(step, PipelineStepStatusEnum.skipped)
   }
 
+  /**
+   * Execute the step on the step executor once all the steps it depends on have succeeded. When
+   * any of them failed or has been skipped with no result, this step is skipped. Once any step
+   * failed, the running steps are cancelled and the steps not started yet are skipped.
+   *
+   * @param seq
+   *   seq of the step
+   * @param dependsOn
+   *   steps that must be finished before this step
+   * @return
+   *   handle of the step, use [[PipeStep.get]] to wait for the result.
+   */
+  protected def asyncStep[R](seq: Int, dependsOn: PipeStep[_]*)(process: => R): PipeStep[R] =
+    asyncStepOrSkip[R](seq, dependsOn: _*)(None)(process)
+
+  /**
+   * The same as [[asyncStep]], but the step is skipped with the given result when `skipped` is
+   * defined, `skipped` is evaluated after all the dependencies have succeeded.
+   */
+  protected def asyncStepOrSkip[R](seq: Int, dependsOn: PipeStep[_]*)(skipped: => Option[R])(
+      process: => R): PipeStep[R] = {
+    implicit val ec: ExecutionContext = BuildPipeline.stepExecutor
+    val promise = Promise[Option[R]]()
+    Future.sequence(dependsOn.map(_.future)).onComplete {
+      case Success(results) if !aborted && results.forall(_.isDefined) =>
+        val task = new FutureTask[Option[R]](new Callable[Option[R]] {
+          override def call(): Option[R] = Try(skipped) match {
+            case Success(Some(result)) =>
+              skipStep(seq)
+              Some(result)
+            case Success(None) => execStep(seq)(process)
+            case Failure(cause) => execStep(seq)(throw cause)
+          }
+        }) {
+          // also called when the step is cancelled, whether it has started or not
+          override def done(): Unit = {
+            inflightSteps.remove(seq)
+            promise.complete(Try(get()).recover { case _ => None })
+          }
+        }
+        inflightSteps.put(seq, task)
+        if (aborted) {
+          task.cancel(true)
+        } else {
+          BuildPipeline.stepExecPool.execute(task)
+        }
+      case _ =>
+        skipStep(seq)
+        promise.success(None)
+    }
+    new PipeStep[R](seq, promise.future, () => getError.exception)
+  }
+
+  /** A step which has been skipped with the given result. */
+  protected def skippedStep[R](seq: Int, result: R): PipeStep[R] = {
+    skipStep(seq)
+    new PipeStep[R](seq, Future.successful(Some(result)), () => getError.exception)
+  }
+
+  private[this] def changeStepState(
+      seq: Int,
+      state: PipelineStepStatusEnum,
+      cause: Throwable = null): Unit = stepLock.synchronized {
+    // the cancelled steps may still report their states after the pipeline finished
+    if (!finished) {
+      if (state != PipelineStepStatusEnum.waiting) {
+        curStep = Math.max(curStep, seq)
+      }
+      stepsStatus(seq) = state -> System.currentTimeMillis
+      if (cause != null) {
+        pipeStatus = PipelineStatusEnum.failure
+        // keep the first error when steps are running concurrently
+        if (error.isEmpty) {
+          error = PipeError.of(cause.getMessage, cause)
+        }
+      }
+      watcher.onStepStateChange(snapshot)
+    }
+  }
+
+  /** Cancel the running steps, the steps depending on them are skipped. */
+  private[this] def abortSteps(): Unit = {
+    aborted = true
+    inflightSteps.values.foreach(_.cancel(true))
+  }
+
+  /**
+   * Settle the final state of the pipeline, no step state is reported after that. On failure, the
+   * steps not started yet are marked as skipped and the cancelled ones as failed.
+   */
+  private[this] def finish(status: PipelineStatusEnum, cause: Throwable = null): Unit =
+    stepLock.synchronized {
+      pipeStatus = status
+      if (cause != null) {
+        error = PipeError.of(cause.getMessage, cause)
+        val now = System.currentTimeMillis
+        stepsStatus.toList.foreach {
+          case (seq, (PipelineStepStatusEnum.waiting, _)) =>
+            stepsStatus(seq) = PipelineStepStatusEnum.skipped -> now
+          case (seq, (PipelineStepStatusEnum.running, _)) =>
+            stepsStatus(seq) = PipelineStepStatusEnum.failure -> now
+          case _ =>
+        }
+      }
+      finished = true
+    }
+
   /** Launch the building pipeline. */
   override def launch(): BuildResult = {
     pipeStatus = PipelineStatusEnum.running
+    var process: JavaFuture[BuildResult] = null
     Try {
       watcher.onStart(snapshot)
       logInfo(s"Building pipeline is launching, params=${offerBuildParam.toString}")
-      executor
-        .submit(new Callable[BuildResult] {
-          override def call(): BuildResult = buildProcess()
-        })
-        .get(20, TimeUnit.MINUTES)
+      process = executor.submit(new Callable[BuildResult] {
+        override def call(): BuildResult = buildProcess()
+      })
+      process.get(20, TimeUnit.MINUTES)
     } match {
       case Success(result) =>
-        pipeStatus = PipelineStatusEnum.success
+        finish(PipelineStatusEnum.success)
         logInfo(s"Building pipeline has finished successfully.")
         watcher.onFinish(snapshot, result)
         result
       case Failure(cause) =>
-        pipeStatus = PipelineStatusEnum.failure
-        error = PipeError.of(cause.getMessage, cause)
+        // e.g. timed out, stop the build process and the steps still running
+        if (process != null) {
+          process.cancel(true)
+        }
+        abortSteps()
+        finish(PipelineStatusEnum.failure, cause)
         // log and print error trace stack
         logError(s"Building pipeline has failed.", cause)
         val result = ErrorResult()
@@ -157,7 +279,7 @@ trait BuildPipeline extends BuildPipelineProcess with BuildPipelineExpose with L
   override def getError: PipeError = error.copy()
 
   override def getStepsStatus: Map[Int, (PipelineStepStatusEnum, Long)] =
-    stepsStatus.toMap
+    stepLock.synchronized(stepsStatus.toMap)
 
   override def getCurStep: Int = curStep
 
@@ -199,4 +321,36 @@ object BuildPipeline {
   implicit val executor: ExecutionContextExecutorService =
     ExecutionContext.fromExecutorService(execPool)
 
+  /** bounded executor for the steps of all pipelines that can run concurrently */
+  val stepExecPool = new ThreadPoolExecutor(
+    Runtime.getRuntime.availableProcessors * 2,
+    Runtime.getRuntime.availableProcessors * 2,
+    60L,
+    TimeUnit.SECONDS,
+    new LinkedBlockingQueue[Runnable](2048),
+    ThreadUtils.threadFactory("streampark-pipeline-step-executor"),
+    new ThreadPoolExecutor.CallerRunsPolicy)
+
+  val stepExecutor: ExecutionContextExecutorService =
+    ExecutionContext.fromExecutorService(stepExecPool)
+
+}
+
+/**
+ * Handle of a building step executed asynchronously, see [[BuildPipeline.asyncStep]].
+ *
+ * @param seq
+ *   seq of the step
+ * @param future
+ *   result of the step, None when the step or one of its dependencies failed
+ */
+class PipeStep[R] private[pipeline] (
+    val seq: Int,
+    private[pipeline] val future: Future[Option[R]],
+    error: () => Throwable) {
+
+  /** wait for the step to finish, throw the pipeline error if it failed. */
+  @throws[Throwable]
+  def get: R = Await.result(future, Duration.Inf).getOrElse(throw error())
+
 }
@@ -49,15 +49,18 @@ sealed trait FlinkBuildParam extends BuildParam {
 
   def customFlinkUserJar: String
 
-  lazy val providedLibs: DependencyInfo = {
-    val providedLibs =
+  /** jar libs of the job itself, without the third-party dependencies */
+  lazy val jobLibs: Set[String] = {
+    val jobLibs =
       ArrayBuffer(localWorkspace.APP_JARS, customFlinkUserJar)
     if (flinkJobType == FlinkJobType.FLINK_SQL) {
-      providedLibs += s"${localWorkspace.APP_SHIMS}/flink-${flinkVersion.majorVersion}"
+      jobLibs += s"${localWorkspace.APP_SHIMS}/flink-${flinkVersion.majorVersion}"
     }
-    dependencyInfo.merge(providedLibs.toSet)
+    jobLibs.toSet
   }
 
+  lazy val providedLibs: DependencyInfo = dependencyInfo.merge(jobLibs)
+
   def getShadedJarPath(rootWorkspace: String): String = {
     val safeAppName: String = appName.replaceAll("\\s+", "_")
     s"$rootWorkspace/streampark-flinkjob_$safeAppName.jar"
@@ -100,7 +103,8 @@ case class FlinkK8sApplicationBuildRequest(
     flinkPodTemplate: FlinkK8sPodTemplates,
     integrateWithHadoop: Boolean = false,
     dockerConfig: DockerConf,
-    ingressTemplate: String)
+    ingressTemplate: String,
+    layeredImage: Boolean = false)
   extends FlinkK8sBuildParam
 
 case class FlinkRemotePerJobBuildRequest(
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer.pipeline
+
+import org.apache.streampark.common.util.Implicits._
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray, LongAdder}
+
+import scala.beans.BeanProperty
+
+/** Elapsed time histograms of building steps, grouped by pipeline type and step seq. */
+object PipelineStepMetrics {
+
+  /** upper bounds of histogram buckets in milliseconds, the last bucket is unbounded. */
+  val BUCKET_BOUNDS_MS: Array[Long] =
+    Array(100L, 500L, 1000L, 5000L, 10000L, 30000L, 60000L, 120000L, 300000L, 600000L)
+
+  private[this] val histograms =
+    new ConcurrentHashMap[(PipelineTypeEnum, Int), StepTimingHistogram]()
+
+  def record(pipeType: PipelineTypeEnum, step: Int, elapsedMs: Long, success: Boolean): Unit = {
+    histograms
+      .computeIfAbsent(pipeType -> step, _ => new StepTimingHistogram)
+      .record(elapsedMs, success)
+  }
+
+  /** snapshot of the step histograms of the pipeline type, step seq -> histogram */
+  def snapshot(pipeType: PipelineTypeEnum): Map[Int, StepTimingSnapshot] = {
+    histograms
+      .filter(_._1._1 == pipeType)
+      .map { case ((_, step), histogram) => step -> histogram.snapshot }
+      .toMap
+  }
+
+  /** snapshot of all the step histograms, pipeline type -> step seq -> histogram */
+  def snapshotAsJava: JavaMap[PipelineTypeEnum, JavaMap[Integer, StepTimingSnapshot]] = {
+    histograms
+      .keySet()
+      .map(_._1)
+      .toSet[PipelineTypeEnum]
+      .map(
+        pipeType =>
+          pipeType -> snapshot(pipeType)
+            .map { case (step, s) => Integer.valueOf(step) -> s }
+            .asJava)
+      .toMap
+      .asJava
+  }
+
+  def reset(): Unit = histograms.clear()
+
+}
+
+/** Thread-safe histogram of the elapsed time of a building step. */
+class StepTimingHistogram {
+
+  import PipelineStepMetrics.BUCKET_BOUNDS_MS
+
+  private[this] val buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1)
+  private[this] val failures = new LongAdder
+  private[this] val sumMs = new LongAdder
+  private[this] val maxMs = new AtomicLong
+
+  def record(elapsedMs: Long, success: Boolean): Unit = {
+    val index = BUCKET_BOUNDS_MS.indexWhere(elapsedMs <= _) match {
+      case -1 => BUCKET_BOUNDS_MS.length
+      case i => i
+    }
+    buckets.incrementAndGet(index)
+    sumMs.add(elapsedMs)
+    maxMs.accumulateAndGet(elapsedMs, (a, b) => Math.max(a, b))
+    if (!success) failures.increment()
+  }
+
+  def snapshot: StepTimingSnapshot = {
+    val counts = (0 until buckets.length()).map(buckets.get)
+    val bucketCounts = new JavaLinkedMap[String, java.lang.Long]()
+    counts.zipWithIndex.foreach {
+      case (count, i) =>
+        val bound =
+          if (i < BUCKET_BOUNDS_MS.length) s"le_${BUCKET_BOUNDS_MS(i)}ms" else "le_inf"
+        bucketCounts.put(bound, count)
+    }
+    StepTimingSnapshot(counts.sum, failures.sum(), sumMs.sum(), maxMs.get(), bucketCounts)
+  }
+
+}
+
+/**
+ * @param count
+ *   number of executions
+ * @param failures
+ *   number of failed executions
+ * @param sumMs
+ *   total elapsed time
+ * @param maxMs
+ *   max elapsed time
+ * @param buckets
+ *   bucket upper bound -> number of executions in the bucket
+ */
+case class StepTimingSnapshot(
+    @BeanProperty count: Long,
+    @BeanProperty failures: Long,
+    @BeanProperty sumMs: Long,
+    @BeanProperty maxMs: Long,
+    @BeanProperty buckets: JavaMap[String, java.lang.Long]) {
+
+  def getMeanMs: Long = if (count == 0) 0 else sumMs / count
+
+}
@@ -19,6 +19,7 @@ package org.apache.streampark.flink.packer.pipeline.impl
 
 import org.apache.streampark.common.fs.LfsOperator
 import org.apache.streampark.common.util.ThreadUtils
+import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.flink.kubernetes.PodTemplateTool
 import org.apache.streampark.flink.kubernetes.ingress.IngressController
 import org.apache.streampark.flink.packer.docker._
@@ -27,6 +28,7 @@ import org.apache.streampark.flink.packer.pipeline._
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline.executor
 
 import com.github.dockerjava.api.command.PushImageCmd
+import com.github.dockerjava.api.exception.NotFoundException
 import com.github.dockerjava.core.command.{HackBuildImageCmd, HackPullImageCmd, HackPushImageCmd}
 import com.google.common.collect.Sets
 import org.apache.commons.lang3.StringUtils
@@ -35,6 +37,7 @@ import java.io.File
 import java.util.concurrent.{LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 
 import scala.concurrent.{ExecutionContext, Future}
+import scala.util.{Failure, Success, Try}
 
 /** Building pipeline for flink kubernetes-native application mode */
 class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
@@ -73,70 +76,111 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
         buildWorkspace
       }.getOrElse(throw getError.exception)
 
+    val dockerConf = request.dockerConfig
+    val baseImageTag = request.flinkBaseImage.trim
+    val pushImageTag = {
+      if (request.k8sNamespace.isEmpty || request.clusterId.isEmpty) {
+        throw new IllegalArgumentException("k8sNamespace or clusterId cannot be empty")
+      }
+      val expectedImageTag =
+        s"streampark-flinkjob-${request.k8sNamespace}-${request.clusterId}"
+      compileTag(expectedImageTag, dockerConf.registerAddress, dockerConf.imageNamespace)
+    }
+
+    // The following steps are executed as a DAG:
+    //   2(pod template) ---------------------------------------+
+    //   3(shaded jar) -> 4(dockerfile) -+                      |
+    //   5(pull base image) -------------+-> 6(build) -> 7(push)+-> response
+    //   8(ingress) --------------------------------------------+
+
     // Step-2: export k8s pod template files
-    val podTemplatePaths = request.flinkPodTemplate match {
+    val podTemplateStep = request.flinkPodTemplate match {
       case podTemplate if podTemplate.isEmpty =>
-        skipStep(2)
-        Map[String, String]()
+        skippedStep(2, Map[String, String]())
       case podTemplate =>
-        execStep(2) {
+        asyncStep(2) {
           val podTemplateFiles =
             PodTemplateTool
               .preparePodTemplateFiles(buildWorkspace, podTemplate)
               .tmplFiles
           logInfo(s"Export flink podTemplates: ${podTemplateFiles.values.mkString(",")}")
           podTemplateFiles
-        }.getOrElse(throw getError.exception)
+        }
     }
 
     // Step-3: build shaded flink job jar and handle extra jars
     // the output shaded jar file name like: streampark-flinkjob_myjob-test.jar
-    val (shadedJar, extJarLibs) =
-      execStep(3) {
-        val shadedJarOutputPath = request.getShadedJarPath(buildWorkspace)
-        val shadedJar =
-          MavenTool.buildFatJar(request.mainClass, request.providedLibs, shadedJarOutputPath)
-        logInfo(s"Output shaded flink job jar: ${shadedJar.getAbsolutePath}")
-        shadedJar -> request.dependencyInfo.extJarLibs
-      }.getOrElse(throw getError.exception)
+    // in layered mode, the maven dependencies are not shaded into the job jar but put into
+    // their own image layers.
+    val shadedJarStep = asyncStep(3) {
+      val shadedJarOutputPath = request.getShadedJarPath(buildWorkspace)
+      val (shadedJar, userDependencies) = if (request.layeredImage) {
+        val jar = MavenTool.buildFatJar(request.mainClass, request.jobLibs, shadedJarOutputPath)
+        val dependencies = MavenTool
+          .resolveArtifacts(request.dependencyInfo.mavenArts)
+          .map(_.getAbsolutePath)
+          .toSet
+        jar -> dependencies
+      } else {
+        MavenTool.buildFatJar(
+          request.mainClass,
+          request.providedLibs,
+          shadedJarOutputPath) -> Set.empty[String]
+      }
+      logInfo(s"Output shaded flink job jar: ${shadedJar.getAbsolutePath}")
+      (shadedJar, request.dependencyInfo.extJarLibs, userDependencies)
+    }
 
     // Step-4: generate and Export flink image dockerfiles
-    val (dockerfile, dockerFileTemplate) =
-      execStep(4) {
-        val dockerFileTemplate = {
+    val dockerfileStep = asyncStep(4, shadedJarStep) {
+      val (shadedJar, extJarLibs, userDependencies) = shadedJarStep.get
+      val dockerFileTemplate = {
+        if (request.layeredImage) {
           if (request.integrateWithHadoop) {
-            FlinkHadoopDockerfileTemplate.fromSystemHadoopConf(
+            FlinkLayeredDockerfileTemplate.fromSystemHadoopConf(
               buildWorkspace,
               request.flinkBaseImage,
               shadedJar.getAbsolutePath,
-              extJarLibs)
+              extJarLibs,
+              userDependencies)
           } else {
-            FlinkDockerfileTemplate(
+            FlinkLayeredDockerfileTemplate(
               buildWorkspace,
               request.flinkBaseImage,
               shadedJar.getAbsolutePath,
-              extJarLibs)
+              extJarLibs,
+              userDependencies)
           }
+        } else if (request.integrateWithHadoop) {
+          FlinkHadoopDockerfileTemplate.fromSystemHadoopConf(
+            buildWorkspace,
+            request.flinkBaseImage,
+            shadedJar.getAbsolutePath,
+            extJarLibs)
+        } else {
+          FlinkDockerfileTemplate(
+            buildWorkspace,
+            request.flinkBaseImage,
+            shadedJar.getAbsolutePath,
+            extJarLibs)
         }
-        val dockerFile = dockerFileTemplate.writeDockerfile
-        logInfo(
-          s"Output flink dockerfile: ${dockerFile.getAbsolutePath}, content: \n${dockerFileTemplate.offerDockerfileContent}")
-        dockerFile -> dockerFileTemplate
-      }.getOrElse(throw getError.exception)
-
-    val dockerConf = request.dockerConfig
-    val baseImageTag = request.flinkBaseImage.trim
-    val pushImageTag = {
-      if (request.k8sNamespace.isEmpty || request.clusterId.isEmpty) {
-        throw new IllegalArgumentException("k8sNamespace or clusterId cannot be empty")
       }
-      val expectedImageTag =
-        s"streampark-flinkjob-${request.k8sNamespace}-${request.clusterId}"
-      compileTag(expectedImageTag, dockerConf.registerAddress, dockerConf.imageNamespace)
+      val dockerFile = dockerFileTemplate.writeDockerfile
+      logInfo(
+        s"Output flink dockerfile: ${dockerFile.getAbsolutePath}, content: \n${dockerFileTemplate.offerDockerfileContent}")
+      dockerFile -> dockerFileTemplate
     }
 
     // Step-5: pull flink base image
-    execStep(5) {
+    // in layered mode, a pinned base image which already exists locally is not pulled again.
+    val pullStep = asyncStepOrSkip(5) {
+      val skipPull = request.layeredImage && isPinnedImage(baseImageTag) &&
+        Try(imageExists(baseImageTag)).getOrElse(false)
+      if (skipPull) {
+        logInfo(s"Docker image already exists locally, skip pulling, imageTag=$baseImageTag")
+        Some(())
+      } else None
+    } {
       usingDockerClient {
         dockerClient =>
           val pullImageCmd = {
@@ -163,10 +207,14 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
           pullCmdCallback.awaitCompletion
           logInfo(s"Already pulled docker image from remote register, imageTag=$baseImageTag")
       }(err => throw new Exception(s"Pull docker image failed, imageTag=$baseImageTag", err))
-    }.getOrElse(throw getError.exception)
+    }
 
     // Step-6: build flink image
-    execStep(6) {
+    // the image which is the same as the one pushed last time would not be pushed again.
+    val imageBuildStep = asyncStep(6, dockerfileStep, pullStep) {
+      val (dockerfile, _) = dockerfileStep.get
+      val previousImageId =
+        if (request.layeredImage) inspectImage(pushImageTag).map(_._1) else None
       usingDockerClient {
         dockerClient =>
           val buildImageCmd = dockerClient
@@ -186,10 +234,22 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
           val imageId = buildCmdCallback.awaitImageId
           logInfo(s"Built docker image, imageId=$imageId, imageTag=$pushImageTag")
       }(err => throw new Exception(s"Build docker image failed. tag=$pushImageTag", err))
-    }.getOrElse(throw getError.exception)
+      previousImageId.exists(
+        prevId =>
+          inspectImage(pushImageTag).exists {
+            case (imageId, repoDigests) =>
+              imageId == prevId && repoDigests.exists(_.startsWith(s"$pushImageTag@"))
+          })
+    }
 
     // Step-7: push flink image
-    execStep(7) {
+    val pushStep = asyncStepOrSkip(7, imageBuildStep) {
+      if (imageBuildStep.get) {
+        logInfo(
+          s"Docker image is unchanged and already in registry, skip pushing, imageTag=$pushImageTag")
+        Some(())
+      } else None
+    } {
       usingDockerClient {
         dockerClient =>
           val pushCmd: PushImageCmd = dockerClient
@@ -206,27 +266,53 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
           pushCmdCallback.awaitCompletion
           logInfo(s"Already pushed docker image, imageTag=$pushImageTag")
       }(err => throw new Exception(s"Push docker image failed. tag=$pushImageTag", err))
-    }.getOrElse(throw getError.exception)
+    }
 
     // Step-8:  init build workspace of ingress
-    val ingressOutputPath = request.ingressTemplate match {
+    val ingressStep = request.ingressTemplate match {
       case ingress if StringUtils.isBlank(ingress) =>
-        skipStep(8)
-        ""
+        skippedStep(8, "")
       case _ =>
-        execStep(8) {
+        asyncStep(8) {
           val ingressOutputPath =
             IngressController.prepareIngressTemplateFiles(buildWorkspace, request.ingressTemplate)
           logInfo(s"Export flink ingress: $ingressOutputPath")
           ingressOutputPath
-        }.getOrElse(throw getError.exception)
+        }
     }
 
+    val podTemplatePaths = podTemplateStep.get
+    pushStep.get
+    ingressStep.get
+
     DockerImageBuildResponse(
       buildWorkspace,
       pushImageTag,
       podTemplatePaths,
-      dockerFileTemplate.innerMainJarPath)
+      dockerfileStep.get._2.innerMainJarPath)
+  }
+
+  /** whether the image tag refers to a fixed image: a digest or an explicit non-latest tag. */
+  private[this] def isPinnedImage(imageTag: String): Boolean = {
+    imageTag.contains("@sha256:") || {
+      val name = imageTag.substring(imageTag.lastIndexOf('/') + 1)
+      name.contains(":") && !name.endsWith(":latest")
+    }
+  }
+
+  private[this] def imageExists(imageTag: String): Boolean = inspectImage(imageTag).isDefined
+
+  /** inspect the local docker image, return the image id and the registry digests of it. */
+  private[this] def inspectImage(imageTag: String): Option[(String, Seq[String])] = {
+    usingDockerClient {
+      dockerClient =>
+        Try(dockerClient.inspectImageCmd(imageTag).exec()) match {
+          case Success(image) =>
+            Some(image.getId -> Option(image.getRepoDigests).map(_.toSeq).getOrElse(Seq.empty))
+          case Failure(_: NotFoundException) => None
+          case Failure(e) => throw e
+        }
+    }(err => throw new Exception(s"Inspect docker image failed, imageTag=$imageTag", err))
   }
 
   /** compile image tag with namespace and remote address. */
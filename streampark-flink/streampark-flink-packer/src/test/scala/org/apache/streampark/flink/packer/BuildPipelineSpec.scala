@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.flink.packer.maven.DependencyInfo
+import org.apache.streampark.flink.packer.pipeline._
+
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.mutable.ArrayBuffer
+
+class BuildPipelineSpec extends AnyWordSpec with Matchers {
+
+  /**
+   * 1 -> (2, 3) -> 4, 5 is independent, 6 depends on 4 and 5, 7 and 8 are skipped. Steps 2, 3 and
+   * 5 sleep `sleepMs` each.
+   */
+  class DagPipeline(sleepMs: Long, failStep: Int = -1) extends BuildPipeline {
+
+    val startTimes = new ConcurrentHashMap[Int, Long]()
+    val endTimes = new ConcurrentHashMap[Int, Long]()
+
+    override def pipeType: PipelineTypeEnum = PipelineTypeEnum.FLINK_NATIVE_K8S_APPLICATION
+
+    override protected def offerBuildParam: BuildParam =
+      FlinkRemotePerJobBuildRequest(
+        "dag-pipeline",
+        null,
+        null,
+        null,
+        skipBuild = false,
+        null,
+        null,
+        null,
+        DependencyInfo.empty)
+
+    private def work[R](seq: Int, result: R): R = {
+      startTimes.put(seq, System.currentTimeMillis)
+      if (seq == failStep) throw new IllegalStateException(s"step $seq failed")
+      Thread.sleep(sleepMs)
+      endTimes.put(seq, System.currentTimeMillis)
+      result
+    }
+
+    override protected def buildProcess(): SimpleBuildResponse = {
+      execStep(1)(()).getOrElse(throw getError.exception)
+      val s2 = asyncStep(2)(work(2, 2))
+      val s3 = asyncStep(3)(work(3, 3))
+      val s4 = asyncStep(4, s2, s3) {
+        startTimes.put(4, System.currentTimeMillis)
+        s2.get + s3.get
+      }
+      val s5 = asyncStep(5)(work(5, 5))
+      val s6 = asyncStep(6, s4, s5)(s4.get + s5.get)
+      val s7 = asyncStepOrSkip(7, s6)(Some(0))(throw new IllegalStateException("not skipped"))
+      val s8 = skippedStep(8, 0)
+      SimpleBuildResponse(s"${s6.get + s7.get + s8.get}")
+    }
+  }
+
+  "BuildPipeline" when {
+    "steps are declared with dependencies" should {
+      "run independent steps concurrently" in {
+        val pipeline = new DagPipeline(500)
+        val start = System.currentTimeMillis
+        val result = pipeline.launch()
+        val elapsed = System.currentTimeMillis - start
+
+        result.pass mustBe true
+        result.asInstanceOf[SimpleBuildResponse].workspacePath mustBe "10"
+        // 2, 3 and 5 run at the same time
+        elapsed must be < 1200L
+        pipeline.startTimes.get(4) must be >= pipeline.endTimes.get(2)
+        pipeline.startTimes.get(4) must be >= pipeline.endTimes.get(3)
+      }
+
+      "report every step to the watcher" in {
+        val snapshots = ArrayBuffer[PipelineSnapshot]()
+        val pipeline = new DagPipeline(50)
+        pipeline.registerWatcher(new SilentPipeWatcher {
+          override def onStepStateChange(snapshot: PipelineSnapshot): Unit =
+            snapshots.synchronized(snapshots += snapshot)
+        })
+        pipeline.launch()
+
+        pipeline.getPipeStatus mustBe PipelineStatusEnum.success
+        pipeline.getStepsStatus.filter(_._1 <= 6).values.map(_._1).toSet mustBe
+          Set(PipelineStepStatusEnum.success)
+        pipeline.getStepsStatus(7)._1 mustBe PipelineStepStatusEnum.skipped
+        pipeline.getStepsStatus(8)._1 mustBe PipelineStepStatusEnum.skipped
+        // running and finished state of steps 1-6, skipped state of steps 7-8
+        snapshots.size mustBe 14
+        snapshots.map(_.curStep) mustBe snapshots.map(_.curStep).sorted
+      }
+
+      "skip the dependent steps when a step failed" in {
+        val pipeline = new DagPipeline(50, failStep = 3)
+        val result = pipeline.launch()
+
+        result.pass mustBe false
+        pipeline.getPipeStatus mustBe PipelineStatusEnum.failure
+        pipeline.getError.summary mustBe "step 3 failed"
+        pipeline.getStepsStatus(3)._1 mustBe PipelineStepStatusEnum.failure
+        pipeline.getStepsStatus(4)._1 mustBe PipelineStepStatusEnum.skipped
+        pipeline.getStepsStatus(6)._1 mustBe PipelineStepStatusEnum.skipped
+        pipeline.getStepsStatus(7)._1 mustBe PipelineStepStatusEnum.skipped
+      }
+
+      "cancel the running steps when a step failed" in {
+        val events = ArrayBuffer[String]()
+        val pipeline = new DagPipeline(5000, failStep = 3)
+        pipeline.registerWatcher(new SilentPipeWatcher {
+          override def onStepStateChange(snapshot: PipelineSnapshot): Unit =
+            events.synchronized(events += "step")
+
+          override def onFinish(snapshot: PipelineSnapshot, result: BuildResult): Unit =
+            events.synchronized(events += "finish")
+        })
+        val start = System.currentTimeMillis
+        pipeline.launch()
+
+        // steps 2 and 5 are interrupted rather than sleeping 5s
+        System.currentTimeMillis - start must be < 3000L
+        pipeline.endTimes.containsKey(2) mustBe false
+        pipeline.endTimes.containsKey(5) mustBe false
+        pipeline.getError.summary mustBe "step 3 failed"
+        pipeline.getStepsStatus.values.map(_._1).toSet must not contain PipelineStepStatusEnum.running
+        pipeline.getStepsStatus.values.map(_._1).toSet must not contain PipelineStepStatusEnum.waiting
+        // the cancelled steps report nothing after the pipeline finished
+        Thread.sleep(200)
+        events.synchronized(events.last) mustBe "finish"
+      }
+
+      "record the elapsed time of steps" in {
+        PipelineStepMetrics.reset()
+        new DagPipeline(50).launch()
+        val metrics = PipelineStepMetrics.snapshot(PipelineTypeEnum.FLINK_NATIVE_K8S_APPLICATION)
+        metrics.keySet mustBe Set(1, 2, 3, 4, 5, 6)
+        metrics(2).count mustBe 1
+        metrics(2).maxMs must be >= 50L
+      }
+    }
+  }
+
+}
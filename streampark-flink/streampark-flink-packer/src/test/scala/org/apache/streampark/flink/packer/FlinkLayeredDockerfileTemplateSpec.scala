@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.flink.packer.docker.FlinkLayeredDockerfileTemplate
+
+import org.apache.commons.io.FileUtils
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.{File, FileOutputStream}
+import java.nio.charset.StandardCharsets
+import java.util.jar.{JarEntry, JarOutputStream}
+
+class FlinkLayeredDockerfileTemplateSpec
+  extends AnyWordSpec
+  with BeforeAndAfterAll
+  with Matchers {
+
+  val outputDir = new File("FlinkLayeredDockerfileTemplateSpec-output/")
+  val jarDir = new File(outputDir, "jars")
+
+  override protected def beforeAll(): Unit = {
+    FileUtils.deleteDirectory(outputDir)
+    FileUtils.forceMkdir(jarDir)
+    Seq("job", "connector-a", "connector-b", "ext-lib").foreach(jar)
+  }
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(outputDir)
+  }
+
+  private def jar(name: String): File = {
+    val file = new File(jarDir, s"$name.jar")
+    val out = new JarOutputStream(new FileOutputStream(file))
+    out.putNextEntry(new JarEntry(s"$name.txt"))
+    out.write(name.getBytes(StandardCharsets.UTF_8))
+    out.closeEntry()
+    out.close()
+    file
+  }
+
+  private def jarPath(name: String): String = new File(jarDir, s"$name.jar").getAbsolutePath
+
+  private def template(workspace: String, userDependencies: Set[String]) =
+    FlinkLayeredDockerfileTemplate(
+      new File(outputDir, workspace).getAbsolutePath,
+      "flink:1.18.1-scala_2.12",
+      jarPath("job"),
+      Set(jarPath("ext-lib")),
+      userDependencies)
+
+  "FlinkLayeredDockerfileTemplate" when {
+    "create dockerfile" should {
+      "order layers as base, dependencies, job jar" in {
+        val t = template("app-1", Set(jarPath("connector-a"), jarPath("connector-b")))
+        val lines = t.offerDockerfileContent.split("\n").toSeq
+        lines.head mustBe "FROM flink:1.18.1-scala_2.12"
+        lines.last mustBe "COPY job.jar $FLINK_HOME/usrlib/job.jar"
+        t.libLayers.size mustBe 1
+        t.usrlibLayers.size mustBe 2
+        t.usrlibLayers.map(_.digest) mustBe t.usrlibLayers.map(_.digest).sorted
+        val copies = lines.filter(_.startsWith("COPY layers/"))
+        copies mustBe
+          t.libLayers.map(l => s"COPY ${l.contextDir}/ $$FLINK_HOME/lib/") ++
+          t.usrlibLayers.map(l => s"COPY ${l.contextDir}/ $$FLINK_HOME/usrlib/")
+      }
+
+      "prepare reproducible dependency layers" in {
+        val t = template("app-2", Set(jarPath("connector-a")))
+        t.offerDockerfileContent
+        val layer = t.usrlibLayers.head
+        val copied = new File(t.workspace.toFile, s"${layer.contextDir}/connector-a.jar")
+        copied.exists() mustBe true
+        copied.lastModified() mustBe FlinkLayeredDockerfileTemplate.FIXED_MODIFIED_TIME
+      }
+
+      "share dependency layers across jobs" in {
+        val t1 = template("app-3", Set(jarPath("connector-a"), jarPath("connector-b")))
+        val t2 = template("app-4", Set(jarPath("connector-b")))
+        t1.usrlibLayers.map(_.contextDir) must contain(t2.usrlibLayers.head.contextDir)
+        t1.libLayers mustBe t2.libLayers
+      }
+
+      "merge the dependencies beyond the layer limit" in {
+        val deps = (1 to FlinkLayeredDockerfileTemplate.MAX_DEPENDENCY_LAYERS + 5)
+          .map(i => jar(s"dep-$i").getAbsolutePath)
+          .toSet
+        val t = template("app-5", deps)
+        t.libLayers.size + t.usrlibLayers.size mustBe
+          FlinkLayeredDockerfileTemplate.MAX_DEPENDENCY_LAYERS
+        t.usrlibLayers.map(_.jars.size).sum mustBe deps.size
+      }
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.packer.maven.{Artifact, MavenArtifactResolver}
+
+import org.apache.commons.io.FileUtils
+import org.eclipse.aether.repository.RemoteRepository
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+
+class MavenArtifactResolverSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val outputDir = "MavenArtifactResolverSpec-output/"
+  val remoteDir = new File(outputDir, "remote")
+  val localDir = new File(outputDir, "local")
+
+  lazy val remoteRepos = List(
+    new RemoteRepository.Builder("file-repo", "default", remoteDir.toURI.toString).build())
+
+  override protected def beforeAll(): Unit = {
+    FileUtils.deleteDirectory(new File(outputDir))
+    FileUtils.forceMkdir(remoteDir)
+    // app -> lib-a -> lib-b, app -> lib-c(test), lib-a -> excluded
+    deploy("app", Seq(("lib-a", "compile"), ("lib-c", "test")))
+    deploy("lib-a", Seq(("lib-b", "compile"), ("excluded", "compile")))
+    deploy("lib-b", Seq.empty)
+    deploy("lib-c", Seq.empty)
+    deploy("excluded", Seq.empty)
+    // snap-app -> snap(SNAPSHOT) -> lib-b
+    deploy("snap", Seq(("lib-b", "compile")), "1.0-SNAPSHOT")
+    deploy("snap-app", Seq(("snap:1.0-SNAPSHOT", "compile")))
+  }
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(new File(outputDir))
+  }
+
+  /** @param deps (artifactId[:version], scope), version 1.0 by default */
+  private def deploy(artifactId: String, deps: Seq[(String, String)], version: String = "1.0"): Unit = {
+    val dir = new File(remoteDir, s"org/example/$artifactId/$version")
+    FileUtils.forceMkdir(dir)
+    val depsXml = deps
+      .map {
+        case (dep, scope) =>
+          val (a, v) = dep.split(":") match {
+            case Array(name, ver) => (name, ver)
+            case _ => (dep, "1.0")
+          }
+          s"<dependency><groupId>org.example</groupId><artifactId>$a</artifactId>" +
+            s"<version>$v</version><scope>$scope</scope></dependency>"
+      }
+      .mkString
+    val pom =
+      s"""<project><modelVersion>4.0.0</modelVersion>
+         |<groupId>org.example</groupId><artifactId>$artifactId</artifactId><version>$version</version>
+         |<dependencies>$depsXml</dependencies></project>""".stripMargin
+    FileUtils.writeStringToFile(
+      new File(dir, s"$artifactId-$version.pom"),
+      pom,
+      StandardCharsets.UTF_8)
+    FileUtils.writeStringToFile(
+      new File(dir, s"$artifactId-$version.jar"),
+      artifactId,
+      StandardCharsets.UTF_8)
+  }
+
+  private def names(files: JavaList[File]): Set[String] = files.map(_.getName).toSet
+
+  "MavenArtifactResolver" when {
+    "resolve artifacts" should {
+      val resolver = new MavenArtifactResolver(localDir.getAbsolutePath, 4, 60)
+      val excludes = List(Artifact.of("org.example:excluded:*"))
+
+      "resolve the whole compile graph" in {
+        val files =
+          resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, excludes)
+        names(files) mustBe Set("app-1.0.jar", "lib-a-1.0.jar", "lib-b-1.0.jar")
+        files.forall(_.exists) mustBe true
+      }
+
+      "serve the same request from cache" in {
+        val first =
+          resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, excludes)
+        val second =
+          resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, excludes)
+        (first eq second) mustBe true
+      }
+
+      "key the cache by the excludes" in {
+        resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, excludes)
+        val files = resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, List.empty)
+        names(files) mustBe Set("app-1.0.jar", "lib-a-1.0.jar", "lib-b-1.0.jar", "excluded-1.0.jar")
+      }
+
+      "never cache a graph with a SNAPSHOT" in {
+        val roots = Set(Artifact.of("org.example:snap:1.0-SNAPSHOT"))
+        val first = resolver.resolve(roots, remoteRepos, excludes)
+        val second = resolver.resolve(roots, remoteRepos, excludes)
+        names(first) mustBe Set("snap-1.0-SNAPSHOT.jar", "lib-b-1.0.jar")
+        (first eq second) mustBe false
+
+        // a release depending on a SNAPSHOT
+        val app = Set(Artifact.of("org.example:snap-app:1.0"))
+        val third = resolver.resolve(app, remoteRepos, excludes)
+        val fourth = resolver.resolve(app, remoteRepos, excludes)
+        names(third) mustBe Set("snap-app-1.0.jar", "snap-1.0-SNAPSHOT.jar", "lib-b-1.0.jar")
+        names(fourth) mustBe names(third)
+        (third eq fourth) mustBe false
+      }
+
+      "resolve again after the local repository is cleaned up" in {
+        FileUtils.deleteDirectory(localDir)
+        val files =
+          resolver.resolve(Set(Artifact.of("org.example:app:1.0")), remoteRepos, excludes)
+        files.forall(_.exists) mustBe true
+      }
+
+      "run concurrent builds on a shared local repository" in {
+        val concurrentLocal = new File(outputDir, "concurrent-local")
+        val executor = Executors.newFixedThreadPool(8)
+        try {
+          val futures = (1 to 16).map(
+            i => {
+              // each build has its own resolver, so nothing is shared but the local repository
+              val r = new MavenArtifactResolver(concurrentLocal.getAbsolutePath, 2, 60)
+              val roots =
+                if (i % 2 == 0) Set(Artifact.of("org.example:app:1.0"))
+                else Set(Artifact.of("org.example:lib-a:1.0"), Artifact.of("org.example:lib-c:1.0"))
+              executor.submit(new Callable[JavaList[File]] {
+                override def call(): JavaList[File] = r.resolve(roots, remoteRepos, excludes)
+              })
+            })
+          futures.foreach(
+            f => {
+              val files = f.get(60, TimeUnit.SECONDS)
+              files.forall(_.exists) mustBe true
+              files.forall(_.length() > 0) mustBe true
+            })
+        } finally {
+          executor.shutdownNow()
+        }
+      }
+    }
+  }
+
+}
@@ -21,8 +21,7 @@ import org.apache.streampark.common.util.HBaseClient
 import org.apache.streampark.common.util.Implicits._
 
 import org.apache.hadoop.hbase._
-import org.apache.hadoop.hbase.client.{Delete, Put, Scan, Table}
-import org.apache.hadoop.hbase.filter._
+import org.apache.hadoop.hbase.client.{Delete, Put, Result, Scan, Table}
 import org.apache.hadoop.hbase.util.Bytes
 import org.apache.kafka.common.TopicPartition
 import org.apache.spark.SparkConf
@@ -31,15 +30,20 @@ import java.util
 
 import scala.collection.mutable
 
+/**
+ * HBase Offset Manager
+ *
+ * The offsets of a topic are stored in one row, the row key is `groupId#topic`, the qualifiers are
+ * the partitions and the values are the offsets. The rows `groupId#topic#partition` written by the
+ * former versions (one row per partition with `topic`, `partition` and `offset` columns) are still
+ * read, the offsets in the topic row take precedence over them.
+ */
 private[kafka] class HBaseOffset(val sparkConf: SparkConf) extends Offset {
 
   private lazy val tableName = storeParams("hbase.table")
   private lazy val familyName =
     storeParams.getOrElse("hbase.table.family", "tpo")
   private lazy val familyNameBytes = Bytes.toBytes(familyName)
-  private lazy val topicBytes = Bytes.toBytes("topic")
-  private lazy val partitionBytes = Bytes.toBytes("partition")
-  private lazy val offsetBytes = Bytes.toBytes("offset")
 
   @transient
   private lazy val table: Table = {
@@ -64,37 +68,25 @@ private[kafka] class HBaseOffset(val sparkConf: SparkConf) extends Offset {
     val earliestOffsets = getEarliestOffsets(topics.toSeq)
 
     topics.foreach(topic => {
-      val filter = new PrefixFilter(key(groupId, topic).getBytes)
-      val scan = new Scan().setFilter(filter)
-      val result = table.getScanner(scan)
-      result.foreach(r => {
-        var topic = ""
-        var partition = 0
-        var offset = 0L
-        while (r.advance()) {
-          val cell = r.current()
-          Bytes.toString(CellUtil.cloneQualifier(cell)) match {
-            case "topic" =>
-              topic = Bytes.toString(CellUtil.cloneValue(cell))
-            case "partition" =>
-              partition = Bytes.toInt(CellUtil.cloneValue(cell))
-            case "offset" =>
-              offset = Bytes.toLong(CellUtil.cloneValue(cell))
-            case _ =>
+      val topicKey = key(groupId, topic)
+      val scanner = table.getScanner(new Scan().setRowPrefixFilter(Bytes.toBytes(topicKey)))
+      val offsets =
+        try HBaseOffset.readOffsets(topicKey, scanner.iterator().asScala.toList)
+        finally scanner.close()
+
+      offsets.foreach {
+        case (partition, offset) =>
+          // if offset invalid, please use earliest offset to instead of
+          val topicPartition = new TopicPartition(topic, partition)
+          val finalOffset = earliestOffsets.get(topicPartition) match {
+            case Some(left) if left > offset =>
+              logWarn(
+                s"storeType:HBase,consumer group:$groupId,topic:${topicPartition.topic},partition:${topicPartition.partition} offsets was timeOut,updated: $left")
+              left
+            case _ => offset
           }
-        }
-        // if offset invalid, please use earliest offset to instead of
-        val topicPartition = new TopicPartition(topic, partition)
-        val finalOffset = earliestOffsets.get(topicPartition) match {
-          case Some(left) if left > offset =>
-            logWarn(
-              s"storeType:HBase,consumer group:$groupId,topic:${topicPartition.topic},partition:${topicPartition.partition} offsets was timeOut,updated: $left")
-            left
-          case _ => offset
-        }
-        storedOffsetMap += topicPartition -> finalOffset
-      })
-      result.close()
+          storedOffsetMap += topicPartition -> finalOffset
+      }
     })
 
     val offsetMaps = reset.toLowerCase() match {
@@ -108,21 +100,24 @@ private[kafka] class HBaseOffset(val sparkConf: SparkConf) extends Offset {
   }
 
   /**
-   * update offset
+   * update offset, the offsets of a topic are written with one multi-column put.
    *
    * @param groupId
    * @param offsetInfos
    */
   override def update(groupId: String, offsetInfos: Map[TopicPartition, Long]): Unit = {
-    val puts = offsetInfos.map {
-      case (tp, offset) =>
-        val put: Put =
-          new Put(Bytes.toBytes(s"${key(groupId, tp.topic)}#${tp.partition}"))
-        put.addColumn(familyNameBytes, topicBytes, Bytes.toBytes(tp.topic))
-        put.addColumn(familyNameBytes, partitionBytes, Bytes.toBytes(tp.partition))
-        put.addColumn(familyNameBytes, offsetBytes, Bytes.toBytes(offset))
-        put
-    }.toList
+    val puts = offsetInfos
+      .groupBy(_._1.topic)
+      .map {
+        case (topic, partitionOffsets) =>
+          val put = new Put(Bytes.toBytes(key(groupId, topic)))
+          partitionOffsets.foreach {
+            case (tp, offset) =>
+              put.addColumn(familyNameBytes, Bytes.toBytes(tp.partition.toString), Bytes.toBytes(offset))
+          }
+          put
+      }
+      .toList
     table.put(puts)
     logInfo(s"storeType:HBase,updateOffsets [ $groupId,${offsetInfos.mkString(",")} ]")
   }
@@ -134,30 +129,65 @@ private[kafka] class HBaseOffset(val sparkConf: SparkConf) extends Offset {
    * @param topics
    */
   override def delete(groupId: String, topics: Set[String]): Unit = {
-
-    val filterList = new FilterList(FilterList.Operator.MUST_PASS_ONE)
-
+    val deletes = new util.ArrayList[Delete]()
     topics.foreach(topic => {
-      val filter = new RowFilter(
-        CompareFilter.CompareOp.EQUAL,
-        new BinaryPrefixComparator(Bytes.toBytes(s"${key(groupId, topic)}#")))
-      filterList.addFilter(filter)
+      val topicKey = key(groupId, topic)
+      val rs = table.getScanner(new Scan().setRowPrefixFilter(Bytes.toBytes(topicKey)))
+      rs.foreach(r => {
+        val row = Bytes.toString(r.getRow)
+        if (row == topicKey || row.startsWith(s"$topicKey#")) {
+          deletes.add(new Delete(r.getRow))
+        }
+      })
+      rs.close()
     })
-
-    val scan = new Scan()
-    scan.setFilter(filterList)
-
-    val rs = table.getScanner(scan)
-    val iter = rs.iterator()
-
-    val deletes = new util.ArrayList[Delete]()
-    while (iter.hasNext) {
-      val r = iter.next()
-      deletes.add(new Delete(Bytes.toBytes(new String(r.getRow))))
-    }
-    rs.close()
     table.delete(deletes)
     logInfo(
       s"storeType:HBase,deleteOffsets [ $groupId,${topics.mkString(",")} ] ${deletes.mkString(" ")}")
   }
 }
+
+private[offset] object HBaseOffset {
+
+  /**
+   * Read the offsets of a topic from the rows scanned with its key as prefix.
+   *
+   * @param topicKey
+   *   `groupId#topic`
+   * @param rows
+   *   the topic row and the legacy partition rows, the rows of the topics sharing the prefix are
+   *   skipped
+   * @return
+   *   partition -> offset, the offsets of the topic row take precedence over the legacy rows
+   */
+  def readOffsets(topicKey: String, rows: Seq[Result]): Map[Int, Long] = {
+    val legacyOffsets = new mutable.HashMap[Int, Long]()
+    val offsets = new mutable.HashMap[Int, Long]()
+    rows.foreach(r => {
+      Bytes.toString(r.getRow) match {
+        case `topicKey` =>
+          r.rawCells()
+            .foreach(
+              cell =>
+                offsets += Bytes.toString(CellUtil.cloneQualifier(cell)).toInt ->
+                  Bytes.toLong(CellUtil.cloneValue(cell)))
+        case row if row.startsWith(s"$topicKey#") =>
+          var partition = 0
+          var offset = 0L
+          r.rawCells()
+            .foreach(
+              cell =>
+                Bytes.toString(CellUtil.cloneQualifier(cell)) match {
+                  case "partition" =>
+                    partition = Bytes.toInt(CellUtil.cloneValue(cell))
+                  case "offset" =>
+                    offset = Bytes.toLong(CellUtil.cloneValue(cell))
+                  case _ =>
+                })
+          legacyOffsets += partition -> offset
+        case _ =>
+      }
+    })
+    (legacyOffsets ++ offsets).toMap
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.streampark.spark.connector.kafka.offset
 import org.apache.kafka.common.TopicPartition
 import org.apache.spark.SparkConf
 import scalikejdbc.{ConnectionPool, DB, _}
+import scalikejdbc.metadata.Table
 
 /**
  * MySQL Offset Manager
@@ -42,6 +43,19 @@ private[kafka] class MySQLOffset(val sparkConf: SparkConf) extends Offset {
   private lazy val table = storeParams("mysql.table")
   private lazy val user = storeParams("mysql.user")
   private lazy val password = storeParams("mysql.password")
+  private lazy val batchSize = storeParams.getOrElse("mysql.batch.size", "500").toInt
+
+  /** widen the `offset` column of the tables created by the former versions, which was int(10). */
+  private def migrate(t: Table): Unit = {
+    t.columns.find(_.name.equalsIgnoreCase("offset")) match {
+      case Some(c) if c.typeCode != java.sql.Types.BIGINT =>
+        logWarn(s"storeType:MySQL,table: $table column offset is ${c.typeName},migrate to bigint...")
+        DB.autoCommit {
+          implicit session => SQL(s"alter table $table modify `offset` bigint").execute.apply()
+        }
+      case _ =>
+    }
+  }
 
   /**
    * get stored offset
@@ -63,7 +77,7 @@ private[kafka] class MySQLOffset(val sparkConf: SparkConf) extends Offset {
                  |`topic` varchar(255),
                  |`groupId` varchar(255),
                  |`partition` varchar(255),
-                 |`offset` int(10),
+                 |`offset` bigint,
                  |UNIQUE INDEX `INX`(`topic`, `groupId`,`partition`)
                  |)
           """.stripMargin
@@ -71,18 +85,15 @@ private[kafka] class MySQLOffset(val sparkConf: SparkConf) extends Offset {
         }
         logWarn(s"storeType:MySQL,table: $table is not exist,auto created...")
         Map.empty[TopicPartition, Long]
-      case Some(_) =>
+      case Some(t) =>
+        migrate(t)
         DB.readOnly {
           implicit session =>
-            val where = topics.size match {
-              case 1 => s""" `topic` = "${topics.head}"  """
-              case _ =>
-                s""" `topic` in (${topics.mkString("\"", "\",\"", "\"")}) """
-            }
+            val topicParams = topics.toSeq
             val sql =
-              s"select `topic`,`partition`,`offset` from $table where `groupId`=? and $where"
+              s"select `topic`,`partition`,`offset` from $table where `groupId`=? and `topic` in (${topicParams.map(_ => "?").mkString(",")})"
             SQL(sql)
-              .bind(groupId)
+              .bind(groupId +: topicParams: _*)
               .map {
                 result =>
                   new TopicPartition(result.string(1), result.int(2)) -> result
@@ -96,26 +107,28 @@ private[kafka] class MySQLOffset(val sparkConf: SparkConf) extends Offset {
   }
 
   /**
-   * update offset
+   * update offset, the offsets are written with multi-row upserts of at most `mysql.batch.size`
+   * rows.
    *
    * @param groupId
    * @param offsetInfos
    */
   override def update(groupId: String, offsetInfos: Map[TopicPartition, Long]): Unit = {
-    DB.localTx {
-      implicit session =>
-        offsetInfos.foreach {
-          case (tp, offset) =>
-            val sql =
-              s"insert into $table(`topic`,`groupId`,`partition`,`offset`) values(?,?,?,?) on duplicate key update `offset`= values(`offset`) "
-            val updated = SQL(sql)
-              .bind(tp.topic(), groupId, tp.partition(), offset)
-              .update()
-            if (updated == 0) {
-              throw new Exception(s"Commit kafka topic :${tp.topic()} failed!")
-            }
-            logInfo(s"storeType:MySQL,updateOffsets [ $groupId,${offsetInfos.mkString(",")} ]")
-        }
+    if (offsetInfos.nonEmpty) {
+      DB.localTx {
+        implicit session =>
+          offsetInfos.toSeq.grouped(batchSize).foreach {
+            batch =>
+              val values = Seq.fill(batch.size)("(?,?,?,?)").mkString(",")
+              val sql =
+                s"insert into $table(`topic`,`groupId`,`partition`,`offset`) values $values on duplicate key update `offset`= values(`offset`) "
+              val params = batch.flatMap {
+                case (tp, offset) => Seq(tp.topic(), groupId, tp.partition(), offset)
+              }
+              SQL(sql).bind(params: _*).update().apply()
+          }
+      }
+      logInfo(s"storeType:MySQL,updateOffsets [ $groupId,${offsetInfos.mkString(",")} ]")
     }
   }
 
@@ -129,8 +142,8 @@ private[kafka] class MySQLOffset(val sparkConf: SparkConf) extends Offset {
     DB.autoCommit {
       implicit session =>
         topics.foreach(topic => {
-          val sql = "delete from $table where topic=? and groupId=?"
-          SQL(sql).bind(topic, groupId).update()
+          val sql = s"delete from $table where `topic`=? and `groupId`=?"
+          SQL(sql).bind(topic, groupId).update().apply()
         })
     }
     logInfo(s"storeType:MySQL,deleteOffsets [ $groupId,${topics.mkString(",")} ]")
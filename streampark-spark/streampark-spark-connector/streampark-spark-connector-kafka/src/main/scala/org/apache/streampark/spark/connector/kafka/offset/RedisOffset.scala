@@ -43,23 +43,28 @@ private[kafka] class RedisOffset(val sparkConf: SparkConf) extends Offset {
 
   override def get(groupId: String, topics: Set[String]): Map[TopicPartition, Long] = {
     val earliestOffsets = getEarliestOffsets(topics.toSeq)
-    val offsetMap = RedisUtils.doRedis {
+    val storedOffsets = RedisUtils.doRedis {
       redis =>
-        topics.flatMap(topic => {
-          redis.hgetAll(key(groupId, topic)).map {
-            case (partition, offset) =>
-              // if offset invalid, please use earliest offset to instead of
-              val tp = new TopicPartition(topic, partition.toInt)
-              val finalOffset = earliestOffsets.get(tp) match {
-                case Some(left) if left > offset.toLong =>
-                  logWarn(
-                    s"storeType:Redis,consumer group:$groupId,topic:${tp.topic},partition:${tp.partition} offsets Outdated,updated:$left")
-                  left
-                case _ => offset.toLong
-              }
-              tp -> finalOffset
-          }
-        })
+        val pipeline = redis.pipelined()
+        val responses = topics.map(topic => topic -> pipeline.hgetAll(key(groupId, topic)))
+        pipeline.sync()
+        responses.map { case (topic, response) => topic -> response.get() }
+    }
+    val offsetMap = storedOffsets.flatMap {
+      case (topic, stored) =>
+        stored.map {
+          case (partition, offset) =>
+            // if offset invalid, please use earliest offset to instead of
+            val tp = new TopicPartition(topic, partition.toInt)
+            val finalOffset = earliestOffsets.get(tp) match {
+              case Some(left) if left > offset.toLong =>
+                logWarn(
+                  s"storeType:Redis,consumer group:$groupId,topic:${tp.topic},partition:${tp.partition} offsets Outdated,updated:$left")
+                left
+              case _ => offset.toLong
+            }
+            tp -> finalOffset
+        }
     }
 
     val offsetMaps = reset.toLowerCase() match {
@@ -73,9 +78,18 @@ private[kafka] class RedisOffset(val sparkConf: SparkConf) extends Offset {
   override def update(groupId: String, offsets: Map[TopicPartition, Long]): Unit = {
     RedisUtils.doRedis {
       redis =>
-        offsets.foreach {
-          case (tp, offset) =>
-            redis.hset(key(groupId, tp.topic), tp.partition().toString, offset.toString)
+        // one HMSET per topic, all sent in a single round trip
+        val pipeline = redis.pipelined()
+        offsets.groupBy(_._1.topic).foreach {
+          case (topic, partitionOffsets) =>
+            val hash = partitionOffsets.map {
+              case (tp, offset) => tp.partition().toString -> offset.toString
+            }
+            pipeline.hmset(key(groupId, topic), hash.asJava)
+        }
+        pipeline.syncAndReturnAll().foreach {
+          case e: Exception => throw e
+          case _ =>
         }
     }
     logInfo(s"storeType:Redis,updateOffsets [ $groupId,${offsets.mkString(",")} ]")
@@ -90,7 +90,9 @@ class KafkaSource[K: ClassTag, V: ClassTag](
 
   /**
    * Update offset Note that: Must be placed at the end of all logical code, it ensures that the
-   * offset is updated only after the action is executed successfully.
+   * offset is updated only after the action is executed successfully. With the `transactional`
+   * writer mode of `writeToKafka` and the `kafka` offset store, the offsets are already committed
+   * within the transactions of the partitions, committing them again is harmless.
    */
   def updateOffset(time: Time): Unit = {
     val milliseconds = time.milliseconds
@@ -17,7 +17,7 @@
 
 package org.apache.streampark.spark.connector.kafka.writer
 
-import org.apache.kafka.clients.producer.{KafkaProducer, ProducerRecord}
+import org.apache.kafka.clients.producer.ProducerRecord
 
 import java.util.Properties
 
@@ -40,7 +40,6 @@ class IterKafkaWriter[T: ClassTag](@(transient @param) msg: Iterator[T]) extends
   override def writeToKafka[K, V](
       producerConfig: Properties,
       serializerFunc: (T) => ProducerRecord[K, V]): Unit = {
-    val producer: KafkaProducer[K, V] = KafkaWriter.getProducer(producerConfig)
-    msg.map(serializerFunc).foreach(producer.send)
+    KafkaWriter.write(producerConfig, msg.map(serializerFunc))
   }
 }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.spark.connector.kafka.writer
+
+import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.Implicits._
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.clients.producer.{Callback, Producer, ProducerRecord, RecordMetadata}
+import org.apache.kafka.common.TopicPartition
+
+import java.nio.ByteBuffer
+import java.util.concurrent.atomic.{AtomicLong, AtomicReference}
+
+/**
+ * Writes the records of one partition with a (shared) producer, used by the `reliable` and
+ * `transactional` writer modes. Unlike a plain `producer.send`:
+ *
+ *   - the producer is flushed when the partition ends, so the task only succeeds once every record
+ *     has been acknowledged.
+ *   - the first error of the asynchronous sends fails the task.
+ *   - the bytes sent but not yet acknowledged by this partition can be bounded, the size of a record
+ *     is estimated from its `Array[Byte]`, `ByteBuffer` or `String` key and value.
+ *   - in `transactional` mode the partition is written within one kafka transaction, which is
+ *     aborted if the partition fails. The offsets consumed by the partition, if given, are
+ *     committed within the transaction.
+ */
+private[kafka] class KafkaPartitionWriter[K, V](
+    producer: Producer[K, V],
+    partition: Int,
+    transactional: Boolean,
+    maxInFlightBytes: Long)
+  extends Logger {
+
+  private[this] val error = new AtomicReference[Exception]()
+
+  private[this] val inFlightLock = new Object
+
+  private[this] var inFlightBytes = 0L
+
+  private[this] var records = 0L
+
+  private[this] val ackedRecords = new AtomicLong()
+
+  private[this] val ackedBytes = new AtomicLong()
+
+  /**
+   * @param offsets
+   *   consumer group -> offsets to commit within the transaction
+   */
+  def write(
+      iterator: Iterator[ProducerRecord[K, V]],
+      offsets: Option[(String, Map[TopicPartition, OffsetAndMetadata])] = None): KafkaWriteMetrics = {
+    val start = System.currentTimeMillis()
+    if (transactional) {
+      producer.beginTransaction()
+    }
+    try {
+      iterator.foreach(send)
+      producer.flush()
+      checkError()
+      if (transactional) {
+        offsets.foreach {
+          case (groupId, groupOffsets) => producer.sendOffsetsToTransaction(groupOffsets.asJava, groupId)
+        }
+        producer.commitTransaction()
+      }
+    } catch {
+      case e: Throwable =>
+        if (transactional) {
+          // fails if the producer is fenced or in a fatal state, the caller drops it then.
+          try producer.abortTransaction()
+          catch {
+            case abortError: Throwable => e.addSuppressed(abortError)
+          }
+        }
+        throw e
+    }
+    val metrics =
+      KafkaWriteMetrics(partition, ackedRecords.get, ackedBytes.get, System.currentTimeMillis() - start)
+    logInfo(s"KafkaWriter: $metrics")
+    metrics
+  }
+
+  private[this] def send(record: ProducerRecord[K, V]): Unit = {
+    checkError()
+    val size = if (maxInFlightBytes > 0) sizeOf(record.key()) + sizeOf(record.value()) else 0L
+    acquire(size)
+    try {
+      producer.send(
+        record,
+        new Callback {
+          override def onCompletion(metadata: RecordMetadata, exception: Exception): Unit = {
+            if (exception != null) {
+              error.compareAndSet(null, exception)
+            } else {
+              ackedRecords.incrementAndGet()
+              ackedBytes.addAndGet(
+                Math.max(metadata.serializedKeySize(), 0) + Math.max(metadata.serializedValueSize(), 0))
+            }
+            release(size)
+          }
+        })
+    } catch {
+      case e: Throwable =>
+        release(size)
+        throw e
+    }
+    records += 1
+  }
+
+  private[this] def checkError(): Unit = {
+    val e = error.get()
+    if (e != null) {
+      throw new IllegalStateException(
+        s"KafkaWriter: failed to send record of partition $partition, $records records sent",
+        e)
+    }
+  }
+
+  /** block until the record fits in the in-flight bytes, a single oversized record is let through. */
+  private[this] def acquire(size: Long): Unit = {
+    if (size > 0) {
+      inFlightLock.synchronized {
+        while (inFlightBytes > 0 && inFlightBytes + size > maxInFlightBytes && error.get() == null) {
+          inFlightLock.wait(100)
+        }
+        inFlightBytes += size
+      }
+    }
+  }
+
+  private[this] def release(size: Long): Unit = {
+    if (size > 0) {
+      inFlightLock.synchronized {
+        inFlightBytes -= size
+        inFlightLock.notifyAll()
+      }
+    }
+  }
+
+  private[this] def sizeOf(value: Any): Long = value match {
+    case bytes: Array[Byte] => bytes.length
+    case buffer: ByteBuffer => buffer.remaining()
+    case string: String => string.length
+    case _ => 0L
+  }
+
+}
+
+/** Throughput of the records written by one partition. */
+case class KafkaWriteMetrics(partition: Int, records: Long, bytes: Long, elapsedMs: Long) {
+
+  def recordsPerSecond: Double = if (elapsedMs == 0) records else records * 1000.0 / elapsedMs
+
+  def bytesPerSecond: Double = if (elapsedMs == 0) bytes else bytes * 1000.0 / elapsedMs
+
+  override def toString: String =
+    f"partition $partition wrote $records records ($bytes bytes) in $elapsedMs ms, $recordsPerSecond%.1f records/s, $bytesPerSecond%.1f bytes/s"
+}
@@ -17,15 +17,24 @@
 
 package org.apache.streampark.spark.connector.kafka.writer
 
-import org.apache.kafka.clients.producer.{KafkaProducer, ProducerRecord}
+import org.apache.streampark.common.util.Logger
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.clients.producer.{KafkaProducer, Producer, ProducerConfig, ProducerRecord}
+import org.apache.kafka.common.TopicPartition
+import org.apache.spark.{OneToOneDependency, SparkContext, TaskContext}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.streaming.dstream.DStream
+import org.apache.spark.streaming.kafka010.{HasOffsetRanges, OffsetRange}
+import org.apache.spark.util.LongAccumulator
 
-import java.util.Properties
+import java.time.Duration
+import java.util.{Properties, WeakHashMap}
 
 import scala.collection.mutable
 import scala.language.implicitConversions
 import scala.reflect.ClassTag
+import scala.util.Try
 
 /**
  * Import this object in this form:
@@ -37,22 +46,139 @@ import scala.reflect.ClassTag
  * {{{
  *   dstream.writeToKafka(producerConfig, f)
  * }}}
+ *
+ * How the records are written is chosen by the `writer.mode` of the producer config:
+ *   - `async` (default): records are sent without waiting for their acknowledgement.
+ *   - `reliable`: the producer is flushed at the end of each partition and a failed send fails the
+ *     task, see [[KafkaPartitionWriter]]. `writer.max.in.flight.bytes` bounds the bytes a partition
+ *     may have sent but not yet acknowledged.
+ *   - `transactional`: as `reliable`, and each partition is written in one kafka transaction with
+ *     the transactional id `<transactional.id>-<partition>`, so the records of a failed or retried
+ *     task are never visible to `read_committed` consumers. When the records come from a kafka
+ *     direct stream without a shuffle, the offsets consumed by each partition are committed within
+ *     its transaction for the consumer group `writer.group.id` (by default the group of the kafka
+ *     source), so the output and the offsets are committed atomically. The offsets must then be
+ *     read back from kafka, i.e. `spark.source.kafka.offset.store.type=kafka`.
+ *
+ * The transactional producers are not shared: a task waits for the other task of its executor
+ * using the same transactional id, if any. Concurrent outputs should use distinct
+ * `transactional.id`s, otherwise their producers fence each other across the executors.
  */
-private[kafka] object KafkaWriter {
+private[kafka] object KafkaWriter extends Logger {
+
+  val WRITER_MODE = "writer.mode"
+
+  val WRITER_MAX_IN_FLIGHT_BYTES = "writer.max.in.flight.bytes"
+
+  val WRITER_GROUP_ID = "writer.group.id"
+
+  val MODE_ASYNC = "async"
+
+  val MODE_RELIABLE = "reliable"
+
+  val MODE_TRANSACTIONAL = "transactional"
+
+  private val WRITER_KEYS = Seq(WRITER_MODE, WRITER_MAX_IN_FLIGHT_BYTES, WRITER_GROUP_ID)
 
+  /** the non transactional producers, thread safe, so shared by the tasks of the executor */
   private val producers = new mutable.HashMap[Properties, Any]()
 
-  def getProducer[K, V](config: Properties): KafkaProducer[K, V] = {
+  private[writer] val transactionalProducers =
+    new TransactionalProducers(config => new KafkaProducer[Any, Any](config))
+
+  private val accumulators = new WeakHashMap[SparkContext, (LongAccumulator, LongAccumulator)]()
+
+  def getProducer[K, V](config: Properties): KafkaProducer[K, V] = producers.synchronized {
     producers
-      .getOrElse(
-        config, {
-          val producer = new KafkaProducer[K, V](config)
-          producers(config) = producer
-          producer
-        })
+      .getOrElseUpdate(config, new KafkaProducer[K, V](config))
       .asInstanceOf[KafkaProducer[K, V]]
   }
 
+  def writerMode(config: Properties): String = {
+    config.getProperty(WRITER_MODE, MODE_ASYNC).trim.toLowerCase match {
+      case mode @ (MODE_ASYNC | MODE_RELIABLE | MODE_TRANSACTIONAL) => mode
+      case mode =>
+        throw new IllegalArgumentException(
+          s"Unsupported $WRITER_MODE: $mode, must be one of $MODE_ASYNC, $MODE_RELIABLE, $MODE_TRANSACTIONAL")
+    }
+  }
+
+  /** the records and bytes written, registered once per spark context */
+  def accumulatorsOf(sc: SparkContext): (LongAccumulator, LongAccumulator) = accumulators.synchronized {
+    var pair = accumulators.get(sc)
+    if (pair == null) {
+      pair = sc.longAccumulator("kafka.writer.records") -> sc.longAccumulator("kafka.writer.bytes")
+      accumulators.put(sc, pair)
+    }
+    pair
+  }
+
+  /**
+   * The offset ranges of the kafka direct stream the rdd is mapped from, partition by partition.
+   * None if the rdd doesn't come from a kafka direct stream, or its partitions don't match the
+   * offset ranges anymore, e.g. after a shuffle.
+   */
+  def offsetRangesOf(rdd: RDD[_]): Option[Array[OffsetRange]] = rdd match {
+    case kafkaRDD: HasOffsetRanges => Some(kafkaRDD.offsetRanges)
+    case _ =>
+      rdd.dependencies match {
+        case Seq(dependency: OneToOneDependency[_]) => offsetRangesOf(dependency.rdd)
+        case _ => None
+      }
+  }
+
+  /**
+   * Write the records of the current partition according to the `writer.mode` of the config.
+   *
+   * @param offsetRanges
+   *   offset ranges of the records, partition by partition, committed within the transactions
+   * @return
+   *   the throughput of the partition, None in `async` mode
+   */
+  def write[K, V](
+      config: Properties,
+      records: Iterator[ProducerRecord[K, V]],
+      offsetRanges: Array[OffsetRange] = null): Option[KafkaWriteMetrics] = {
+    val producerConfig = new Properties()
+    producerConfig.putAll(config)
+    WRITER_KEYS.foreach(key => producerConfig.remove(key))
+    // only the transactional mode initializes the transactions
+    val transactionalId = Option(producerConfig.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG))
+      .map(_.toString.trim)
+      .filter(_.nonEmpty)
+    val partition = TaskContext.getPartitionId()
+    writerMode(config) match {
+      case MODE_ASYNC =>
+        val producer: KafkaProducer[K, V] = getProducer(producerConfig)
+        records.foreach(producer.send)
+        None
+      case MODE_RELIABLE =>
+        val producer: KafkaProducer[K, V] = getProducer(producerConfig)
+        Some(new KafkaPartitionWriter[K, V](producer, partition, false, maxInFlightBytes(config)).write(records))
+      case MODE_TRANSACTIONAL =>
+        require(
+          transactionalId.isDefined,
+          s"${ProducerConfig.TRANSACTIONAL_ID_CONFIG} must be set in $MODE_TRANSACTIONAL mode")
+        // one id per partition, a retried task fences the producer of the failed attempt
+        producerConfig.setProperty(ProducerConfig.TRANSACTIONAL_ID_CONFIG, s"${transactionalId.get}-$partition")
+        val groupId = config.getProperty(WRITER_GROUP_ID)
+        val offsets = Option(offsetRanges)
+          .filter(_ => groupId != null)
+          .map(_(partition))
+          .filter(range => range.untilOffset > range.fromOffset)
+          .map(range => Map(range.topicPartition() -> new OffsetAndMetadata(range.untilOffset)))
+          .getOrElse(Map.empty[TopicPartition, OffsetAndMetadata])
+        Some(transactionalProducers.withProducer[K, V, KafkaWriteMetrics](producerConfig) {
+          producer =>
+            new KafkaPartitionWriter[K, V](producer, partition, true, maxInFlightBytes(config))
+              .write(records, Some(groupId -> offsets).filter(_._2.nonEmpty))
+        })
+    }
+  }
+
+  private def maxInFlightBytes(config: Properties): Long =
+    config.getProperty(WRITER_MAX_IN_FLIGHT_BYTES, "0").trim.toLong
+
   /**
    * This implicit method allows the user to call dstream.writeToKafka(..)
    *
@@ -137,3 +263,51 @@ abstract class KafkaWriter[T: ClassTag]() extends Serializable {
       producerConfig: Properties,
       serializerFunc: T => ProducerRecord[K, V]): Unit
 }
+
+/**
+ * The transactional producers of an executor by transactional id. A producer is used by one task at
+ * a time, so that two transactions are never begun on it concurrently.
+ */
+private[writer] class TransactionalProducers(factory: Properties => Producer[_, _]) {
+
+  private[this] val idle = new mutable.HashMap[String, Producer[_, _]]()
+
+  private[this] val inUse = new mutable.HashSet[String]()
+
+  /**
+   * Run `f` with the producer of the transactional id of the config, initialized once. The
+   * producer is closed if `f` fails, since the state of its transaction is unknown then.
+   */
+  def withProducer[K, V, R](config: Properties)(f: Producer[K, V] => R): R = {
+    val transactionalId = config.getProperty(ProducerConfig.TRANSACTIONAL_ID_CONFIG)
+    val cached = synchronized {
+      while (inUse.contains(transactionalId)) {
+        wait()
+      }
+      inUse += transactionalId
+      idle.remove(transactionalId)
+    }
+    var producer: Producer[K, V] = cached.orNull.asInstanceOf[Producer[K, V]]
+    try {
+      if (producer == null) {
+        producer = factory(config).asInstanceOf[Producer[K, V]]
+        producer.initTransactions()
+      }
+      val result = f(producer)
+      synchronized(idle(transactionalId) = producer)
+      result
+    } catch {
+      case e: Throwable =>
+        if (producer != null) {
+          Try(producer.close(Duration.ZERO))
+        }
+        throw e
+    } finally {
+      synchronized {
+        inUse -= transactionalId
+        notifyAll()
+      }
+    }
+  }
+
+}
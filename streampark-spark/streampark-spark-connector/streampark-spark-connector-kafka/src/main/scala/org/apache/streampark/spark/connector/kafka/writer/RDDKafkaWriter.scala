@@ -17,8 +17,9 @@
 
 package org.apache.streampark.spark.connector.kafka.writer
 
-import org.apache.kafka.clients.producer.{KafkaProducer, ProducerRecord}
+import org.apache.kafka.clients.producer.ProducerRecord
 import org.apache.spark.rdd.RDD
+import org.apache.spark.streaming.kafka010.OffsetRange
 
 import java.util.Properties
 
@@ -40,10 +41,52 @@ class RDDKafkaWriter[T: ClassTag](@(transient @param) rdd: RDD[T]) extends Kafka
   override def writeToKafka[K, V](
       producerConfig: Properties,
       serializerFunc: (T) => ProducerRecord[K, V]): Unit = {
-    rdd.foreachPartition(events => {
-      val producer: KafkaProducer[K, V] =
-        KafkaWriter.getProducer(producerConfig)
-      events.map(serializerFunc).foreach(producer.send)
-    })
+    KafkaWriter.writerMode(producerConfig) match {
+      case KafkaWriter.MODE_ASYNC =>
+        rdd.foreachPartition(events => KafkaWriter.write(producerConfig, events.map(serializerFunc)))
+      case mode =>
+        val config = new Properties()
+        config.putAll(producerConfig)
+        val offsetRanges =
+          if (mode == KafkaWriter.MODE_TRANSACTIONAL) transactionOffsets(config) else None
+        // the throughput of each task is shown with the task metrics of the spark ui
+        val (records, bytes) = KafkaWriter.accumulatorsOf(rdd.sparkContext)
+        rdd.foreachPartition(
+          events =>
+            KafkaWriter
+              .write(config, events.map(serializerFunc), offsetRanges.orNull)
+              .foreach(
+                metrics => {
+                  records.add(metrics.records)
+                  bytes.add(metrics.bytes)
+                }))
+    }
+  }
+
+  /**
+   * The offset ranges of the kafka source to commit within the transactions, the consumer group is
+   * set to the config.
+   */
+  private[this] def transactionOffsets(config: Properties): Option[Array[OffsetRange]] = {
+    KafkaWriter.offsetRangesOf(rdd) match {
+      case None =>
+        KafkaWriter.logWarn(
+          "KafkaWriter: the records don't come straight from a kafka direct stream, " +
+            "the offsets are not committed within the transactions.")
+        None
+      case offsetRanges =>
+        val groupId = Option(config.getProperty(KafkaWriter.WRITER_GROUP_ID))
+          .orElse(rdd.sparkContext.getConf.getOption("spark.source.kafka.consume.group.id"))
+        groupId match {
+          case Some(id) =>
+            config.setProperty(KafkaWriter.WRITER_GROUP_ID, id)
+            offsetRanges
+          case None =>
+            KafkaWriter.logWarn(
+              s"KafkaWriter: no ${KafkaWriter.WRITER_GROUP_ID}, " +
+                "the offsets are not committed within the transactions.")
+            None
+        }
+    }
   }
 }
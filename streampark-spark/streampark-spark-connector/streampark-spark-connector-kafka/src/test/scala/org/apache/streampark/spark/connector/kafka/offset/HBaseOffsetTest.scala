@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.spark.connector.kafka.offset
+
+import org.apache.hadoop.hbase.{Cell, KeyValue}
+import org.apache.hadoop.hbase.client.Result
+import org.apache.hadoop.hbase.util.Bytes
+import org.junit.jupiter.api.{Assertions, Test}
+
+class HBaseOffsetTest {
+
+  private val family = Bytes.toBytes("tpo")
+
+  private val topicKey = "group#topic"
+
+  @Test
+  def testTopicRowIsRead(): Unit = {
+    val offsets = HBaseOffset.readOffsets(topicKey, Seq(topicRow(topicKey, 0 -> 10L, 1 -> 20L)))
+    Assertions.assertEquals(Map(0 -> 10L, 1 -> 20L), offsets)
+  }
+
+  @Test
+  def testLegacyRowsAreRead(): Unit = {
+    val offsets = HBaseOffset.readOffsets(
+      topicKey,
+      Seq(legacyRow(topicKey, 0, 10L), legacyRow(topicKey, 1, 5000000000L)))
+    Assertions.assertEquals(Map(0 -> 10L, 1 -> 5000000000L), offsets)
+  }
+
+  @Test
+  def testTopicRowTakesPrecedenceOverLegacyRows(): Unit = {
+    val offsets = HBaseOffset.readOffsets(
+      topicKey,
+      Seq(topicRow(topicKey, 0 -> 30L), legacyRow(topicKey, 0, 10L), legacyRow(topicKey, 1, 20L)))
+    // partition 1 wasn't committed since the upgrade, its legacy row is still read
+    Assertions.assertEquals(Map(0 -> 30L, 1 -> 20L), offsets)
+  }
+
+  @Test
+  def testRowsOfOtherTopicsWithTheSamePrefixAreSkipped(): Unit = {
+    // "group#topic10" is scanned with the "group#topic" prefix too
+    val offsets = HBaseOffset.readOffsets(
+      topicKey,
+      Seq(
+        topicRow(topicKey, 0 -> 10L),
+        topicRow(s"${topicKey}10", 0 -> 99L, 1 -> 99L),
+        legacyRow(s"${topicKey}10", 2, 99L)))
+    Assertions.assertEquals(Map(0 -> 10L), offsets)
+  }
+
+  private def topicRow(row: String, offsets: (Int, Long)*): Result =
+    result(row, offsets.map { case (partition, offset) => partition.toString -> Bytes.toBytes(offset) }: _*)
+
+  /** the row of a partition written by the former versions */
+  private def legacyRow(topicKey: String, partition: Int, offset: Long): Result = {
+    val topic = topicKey.substring(topicKey.indexOf('#') + 1)
+    result(
+      s"$topicKey#$partition",
+      "offset" -> Bytes.toBytes(offset),
+      "partition" -> Bytes.toBytes(partition),
+      "topic" -> Bytes.toBytes(topic))
+  }
+
+  private def result(row: String, columns: (String, Array[Byte])*): Result = {
+    val cells: Array[Cell] = columns.map {
+      case (qualifier, value) => new KeyValue(Bytes.toBytes(row), family, Bytes.toBytes(qualifier), value): Cell
+    }.toArray
+    Result.create(cells)
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.spark.connector.kafka.offset
+
+import org.apache.kafka.common.TopicPartition
+import org.apache.spark.SparkConf
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.sql.{DriverManager, Types}
+
+/** Tests of [[MySQLOffset]] against an embedded H2 database in MySQL mode. */
+class MySQLOffsetTest {
+
+  private val url = "jdbc:h2:mem:kafka_offset;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+
+  private val groupId = "group"
+
+  @Test
+  def testTableIsCreated(): Unit = {
+    val store = offsetStore("offset_created")
+    Assertions.assertEquals(Map.empty[TopicPartition, Long], store.get(groupId, Set("topic")))
+    Assertions.assertEquals(Types.BIGINT, offsetColumnType("offset_created"))
+  }
+
+  @Test
+  def testLegacyTableIsMigrated(): Unit = {
+    execute(
+      "create table offset_legacy (`topic` varchar(255), `groupId` varchar(255), `partition` varchar(255), " +
+        "`offset` int(10), UNIQUE INDEX `INX`(`topic`, `groupId`, `partition`))")
+    execute("insert into offset_legacy values ('topic', 'group', '0', 197)")
+    val store = offsetStore("offset_legacy")
+
+    Assertions.assertEquals(Map(new TopicPartition("topic", 0) -> 197L), store.get(groupId, Set("topic")))
+    Assertions.assertEquals(Types.BIGINT, offsetColumnType("offset_legacy"))
+
+    // offsets past the int range are stored once the column was migrated
+    store.update(groupId, Map(new TopicPartition("topic", 0) -> 5000000000L))
+    Assertions.assertEquals(Map(new TopicPartition("topic", 0) -> 5000000000L), store.get(groupId, Set("topic")))
+  }
+
+  @Test
+  def testOffsetsAreUpsertedInBatches(): Unit = {
+    val store = offsetStore("offset_batched", "mysql.batch.size" -> "2")
+    store.get(groupId, Set("a", "b"))
+
+    val offsets = (0 until 5).map(p => new TopicPartition("a", p) -> p.toLong).toMap +
+      (new TopicPartition("b", 0) -> 7L)
+    store.update(groupId, offsets)
+    Assertions.assertEquals(offsets, store.get(groupId, Set("a", "b")))
+
+    val updated = offsets.map { case (tp, offset) => tp -> (offset + 100) }
+    store.update(groupId, updated)
+    Assertions.assertEquals(updated, store.get(groupId, Set("a", "b")))
+    // the other groups and topics aren't read
+    Assertions.assertEquals(Map.empty[TopicPartition, Long], store.get("other", Set("a")))
+    Assertions.assertEquals(updated.filterKeys(_.topic == "b").toMap, store.get(groupId, Set("b")))
+  }
+
+  private def offsetStore(table: String, params: (String, String)*): MySQLOffset = {
+    val conf = new SparkConf(false)
+    (Seq(
+      "type" -> "mysql",
+      "mysql.jdbc.url" -> url,
+      "mysql.table" -> table,
+      "mysql.user" -> "sa",
+      "mysql.password" -> "") ++ params).foreach {
+      case (k, v) => conf.set(s"spark.source.kafka.offset.store.$k", v)
+    }
+    new MySQLOffset(conf)
+  }
+
+  private def execute(sql: String): Unit = {
+    val connection = DriverManager.getConnection(url, "sa", "")
+    try connection.createStatement().execute(sql)
+    finally connection.close()
+  }
+
+  private def offsetColumnType(table: String): Int = {
+    val connection = DriverManager.getConnection(url, "sa", "")
+    try {
+      val columns = connection.getMetaData.getColumns(null, null, table, "offset")
+      Assertions.assertTrue(columns.next())
+      columns.getInt("DATA_TYPE")
+    } finally connection.close()
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.spark.connector.kafka.writer
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.clients.producer.{Callback, MockProducer, ProducerConfig, ProducerRecord, RecordMetadata}
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.serialization.StringSerializer
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.util.{Collections, Properties}
+import java.util.concurrent.{CopyOnWriteArrayList, Future}
+import java.util.concurrent.atomic.AtomicInteger
+
+class KafkaWriterTest {
+
+  private val topicPartition = new TopicPartition("source", 0)
+
+  @Test
+  def testOffsetsAreCommittedWithinTransaction(): Unit = {
+    val producer = mockProducer(autoComplete = true)
+    producer.initTransactions()
+    val metrics = new KafkaPartitionWriter[String, String](producer, 0, true, 0)
+      .write(records("a", "b", "c"), Some("group" -> Map(topicPartition -> new OffsetAndMetadata(42))))
+
+    Assertions.assertEquals(3, metrics.records)
+    Assertions.assertTrue(producer.transactionCommitted())
+    Assertions.assertEquals(3, producer.history().size())
+    Assertions.assertEquals(
+      Collections.singletonList(
+        Collections.singletonMap("group", Collections.singletonMap(topicPartition, new OffsetAndMetadata(42)))),
+      producer.consumerGroupOffsetsHistory())
+  }
+
+  @Test
+  def testFailedSendAbortsTransaction(): Unit = {
+    val producer = new MockProducer[String, String](false, new StringSerializer, new StringSerializer) {
+      override def send(
+          record: ProducerRecord[String, String],
+          callback: Callback): Future[RecordMetadata] = {
+        val future = super.send(record, callback)
+        if (record.value() == "bad") errorNext(new RuntimeException("boom")) else completeNext()
+        future
+      }
+    }
+    producer.initTransactions()
+    val writer = new KafkaPartitionWriter[String, String](producer, 0, true, 0)
+
+    Assertions.assertThrows(
+      classOf[IllegalStateException],
+      () => writer.write(records("a", "bad", "c"), Some("group" -> Map(topicPartition -> new OffsetAndMetadata(42)))))
+    Assertions.assertTrue(producer.transactionAborted())
+    Assertions.assertFalse(producer.transactionCommitted())
+    Assertions.assertTrue(producer.history().isEmpty)
+    Assertions.assertTrue(producer.consumerGroupOffsetsHistory().isEmpty)
+  }
+
+  @Test
+  def testTransactionalProducerIsUsedByOneTaskAtATime(): Unit = {
+    val created = new CopyOnWriteArrayList[MockProducer[String, String]]()
+    val producers = new TransactionalProducers(
+      _ => {
+        val producer = mockProducer(autoComplete = true)
+        created.add(producer)
+        producer
+      })
+    val config = new Properties()
+    config.setProperty(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "output-0")
+
+    val active = new AtomicInteger()
+    val maxActive = new AtomicInteger()
+    val tasks = (1 to 4).map(
+      _ =>
+        new Thread(() => {
+          producers.withProducer[String, String, Unit](config) {
+            producer =>
+              maxActive.accumulateAndGet(active.incrementAndGet(), (a, b) => Math.max(a, b))
+              producer.beginTransaction()
+              Thread.sleep(50)
+              producer.commitTransaction()
+              active.decrementAndGet()
+          }
+        }))
+    tasks.foreach(_.start())
+    tasks.foreach(_.join())
+
+    Assertions.assertEquals(1, maxActive.get())
+    // initialized once, then reused
+    Assertions.assertEquals(1, created.size())
+
+    // a failed task closes the producer, the next one starts over with a new one
+    Assertions.assertThrows(
+      classOf[RuntimeException],
+      () => producers.withProducer[String, String, Unit](config)(_ => throw new RuntimeException("boom")))
+    Assertions.assertTrue(created.get(0).closed())
+    producers.withProducer[String, String, Unit](config)(_ => ())
+    Assertions.assertEquals(2, created.size())
+  }
+
+  @Test
+  def testAsyncModeDoesNotInitTransactions(): Unit = {
+    val config = new Properties()
+    config.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9")
+    config.setProperty(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, classOf[StringSerializer].getName)
+    config.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, classOf[StringSerializer].getName)
+    // initializing the transactions would block that long without a broker
+    config.setProperty(ProducerConfig.MAX_BLOCK_MS_CONFIG, "60000")
+    config.setProperty(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "output")
+    config.setProperty(KafkaWriter.WRITER_MODE, KafkaWriter.MODE_ASYNC)
+
+    val start = System.currentTimeMillis
+    Assertions.assertEquals(None, KafkaWriter.write[String, String](config, Iterator.empty))
+    Assertions.assertTrue(System.currentTimeMillis - start < 30000)
+  }
+
+  private def mockProducer(autoComplete: Boolean): MockProducer[String, String] =
+    new MockProducer[String, String](autoComplete, new StringSerializer, new StringSerializer)
+
+  private def records(values: String*): Iterator[ProducerRecord[String, String]] =
+    values.iterator.map(value => new ProducerRecord[String, String]("sink", value))
+
+}